@@ -35,12 +35,16 @@ import org.springframework.util.MimeType;
  * <p>Sub-classes must implement {@link #decodeDataBuffer} to provide a way to
  * transform a {@code DataBuffer} to the target data type. The default
  * {@link #decode} implementation transforms each individual data buffer while
- * {@link #decodeToMono} applies "reduce" and transforms the aggregated buffer.
+ * {@link #decodeToMono} applies "reduce" and transforms the aggregated buffer,
+ * which can be a composite if {@link #isCompositeInputSupported()}.
  *
  * <p>Sub-classes can override {@link #decode} in order to split the input stream
  * along different boundaries (e.g. on new line characters for {@code String})
  * or always reduce to a single data buffer (e.g. {@code Resource}).
  *
+ * <p>The number of bytes aggregated in memory is limited by
+ * {@link #setMaxInMemorySize maxInMemorySize}.
+ *
  * @author Rossen Stoyanchev
  * @since 5.0
  * @param <T> the element type
@@ -48,12 +52,39 @@ import org.springframework.util.MimeType;
 @SuppressWarnings("deprecation")
 public abstract class AbstractDataBufferDecoder<T> extends AbstractDecoder<T> {
 
+	private int maxInMemorySize = 256 * 1024;
+
 
 	protected AbstractDataBufferDecoder(MimeType... supportedMimeTypes) {
 		super(supportedMimeTypes);
 	}
 
 
+	/**
+	 * Configure a limit on the number of bytes that can be buffered whenever
+	 * the input stream needs to be aggregated. This can be a result of
+	 * decoding to a single {@code DataBuffer},
+	 * {@link java.nio.ByteBuffer ByteBuffer}, {@code byte[]},
+	 * {@link org.springframework.core.io.Resource Resource}, {@code String}, etc.
+	 * It can also occur when splitting the input stream, e.g. delimited text,
+	 * in which case the limit applies to data buffered between delimiters.
+	 * <p>By default this is set to 256K.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.2
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.2
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+
 	@Override
 	public Flux<T> decode(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
@@ -65,8 +96,24 @@ public abstract class AbstractDataBufferDecoder<T> extends AbstractDecoder<T> {
 	public Mono<T> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		return DataBufferUtils.join(input)
-				.map(buffer -> decodeDataBuffer(buffer, elementType, mimeType, hints));
+		Mono<DataBuffer> aggregated = (isCompositeInputSupported() ?
+				DataBufferUtils.compose(input, this.maxInMemorySize) :
+				DataBufferUtils.join(input, this.maxInMemorySize));
+		return aggregated.map(buffer -> decodeDataBuffer(buffer, elementType, mimeType, hints));
+	}
+
+	/**
+	 * Whether {@link #decodeToMono} may aggregate the input into a
+	 * {@link org.springframework.core.io.buffer.CompositeDataBuffer composite}
+	 * rather than join it into a single contiguous buffer. Sub-classes that
+	 * only read the aggregated content sequentially can return {@code true}
+	 * to avoid copying it.
+	 * <p>By default this returns {@code false}.
+	 * @since 5.2
+	 * @see DataBufferUtils#compose(Publisher, int)
+	 */
+	protected boolean isCompositeInputSupported() {
+		return false;
 	}
 
 	/**
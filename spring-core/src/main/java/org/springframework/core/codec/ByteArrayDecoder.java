@@ -44,6 +44,12 @@ public class ByteArrayDecoder extends AbstractDataBufferDecoder<byte[]> {
 		return (elementType.resolve() == byte[].class && super.canDecode(elementType, mimeType));
 	}
 
+	@Override
+	protected boolean isCompositeInputSupported() {
+		// The content is read into a new array anyway
+		return true;
+	}
+
 	@Override
 	public byte[] decode(DataBuffer dataBuffer, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
@@ -63,6 +63,11 @@ public class ResourceDecoder extends AbstractDataBufferDecoder<Resource> {
 		return Flux.from(decodeToMono(inputStream, elementType, mimeType, hints));
 	}
 
+	@Override
+	protected boolean isCompositeInputSupported() {
+		return true;
+	}
+
 	@Override
 	public Resource decode(DataBuffer dataBuffer, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
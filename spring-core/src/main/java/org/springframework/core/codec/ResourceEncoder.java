@@ -25,6 +25,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.MappedFileCache;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.MimeType;
@@ -46,6 +47,9 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 
 	private final int bufferSize;
 
+	@Nullable
+	private MappedFileCache mappedFileCache;
+
 
 	public ResourceEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -58,6 +62,27 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 	}
 
 
+	/**
+	 * Configure a cache of memory-mapped files to read file resources through,
+	 * instead of reading them into newly allocated buffers.
+	 * <p>By default this is not set.
+	 * @param mappedFileCache the cache to use
+	 * @since 5.2
+	 */
+	public void setMappedFileCache(@Nullable MappedFileCache mappedFileCache) {
+		this.mappedFileCache = mappedFileCache;
+	}
+
+	/**
+	 * Return the configured {@link #setMappedFileCache cache of memory-mapped files}.
+	 * @since 5.2
+	 */
+	@Nullable
+	public MappedFileCache getMappedFileCache() {
+		return this.mappedFileCache;
+	}
+
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		Class<?> clazz = elementType.toClass();
@@ -72,6 +97,9 @@ public class ResourceEncoder extends AbstractSingleValueEncoder<Resource> {
 			String logPrefix = Hints.getLogPrefix(hints);
 			logger.debug(logPrefix + "Writing [" + resource + "]");
 		}
+		if (this.mappedFileCache != null) {
+			return this.mappedFileCache.read(resource, 0, bufferFactory, this.bufferSize);
+		}
 		return DataBufferUtils.read(resource, bufferFactory, this.bufferSize);
 	}
 
@@ -31,6 +31,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.MappedFileCache;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -58,6 +59,9 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 
 	private final int bufferSize;
 
+	@Nullable
+	private MappedFileCache mappedFileCache;
+
 
 	public ResourceRegionEncoder() {
 		this(DEFAULT_BUFFER_SIZE);
@@ -69,6 +73,27 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 		this.bufferSize = bufferSize;
 	}
 
+
+	/**
+	 * Configure a cache of memory-mapped files to read file resources through,
+	 * instead of reading them into newly allocated buffers.
+	 * <p>By default this is not set.
+	 * @param mappedFileCache the cache to use
+	 * @since 5.2
+	 */
+	public void setMappedFileCache(@Nullable MappedFileCache mappedFileCache) {
+		this.mappedFileCache = mappedFileCache;
+	}
+
+	/**
+	 * Return the configured {@link #setMappedFileCache cache of memory-mapped files}.
+	 * @since 5.2
+	 */
+	@Nullable
+	public MappedFileCache getMappedFileCache() {
+		return this.mappedFileCache;
+	}
+
 	@Override
 	public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
 		return super.canEncode(elementType, mimeType)
@@ -129,7 +154,9 @@ public class ResourceRegionEncoder extends AbstractEncoder<ResourceRegion> {
 					"Writing region " + position + "-" + (position + count) + " of [" + resource + "]");
 		}
 
-		Flux<DataBuffer> in = DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize);
+		Flux<DataBuffer> in = (this.mappedFileCache != null ?
+				this.mappedFileCache.read(resource, position, bufferFactory, this.bufferSize) :
+				DataBufferUtils.read(resource, position, bufferFactory, this.bufferSize));
 		return DataBufferUtils.takeUntilByteCount(in, count);
 	}
 
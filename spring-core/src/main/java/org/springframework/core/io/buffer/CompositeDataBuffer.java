@@ -0,0 +1,575 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link DataBuffer} that exposes the readable bytes of a list of component
+ * buffers as one, without copying them. Read operations, including
+ * {@link #asInputStream()}, work across components; {@link #asByteBuffer()}
+ * only avoids a copy if the requested range lies within a single component.
+ * Constructed via {@link DefaultDataBufferFactory#compose(List)}, with Netty's
+ * {@code CompositeByteBuf} serving the same purpose in {@link NettyDataBufferFactory}.
+ *
+ * <p>Content written to the buffer is appended to a component allocated for
+ * that purpose. The component buffers are released when the composite is
+ * released, and a slice shares the reference count of the composite it was
+ * created from.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @see DataBufferFactory#compose(List)
+ */
+public class CompositeDataBuffer implements PooledDataBuffer {
+
+	private final DataBufferFactory dataBufferFactory;
+
+	private final List<DataBuffer> components;
+
+	private int[] offsets;
+
+	@Nullable
+	private final CompositeDataBuffer parent;
+
+	private final AtomicInteger refCount;
+
+	/** Last component, if allocated by this buffer for writing. */
+	@Nullable
+	private DataBuffer tail;
+
+	private int readPosition;
+
+	private int writePosition;
+
+
+	/**
+	 * Create a new {@code CompositeDataBuffer} for the given components.
+	 * @param dataBufferFactory the factory to allocate components for writing with
+	 * @param components the buffers whose readable bytes make up the content
+	 * of the composite
+	 */
+	public CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> components) {
+		this(dataBufferFactory, components, null);
+	}
+
+	private CompositeDataBuffer(DataBufferFactory dataBufferFactory, List<? extends DataBuffer> components,
+			@Nullable CompositeDataBuffer parent) {
+
+		Assert.notNull(dataBufferFactory, "DataBufferFactory must not be null");
+		Assert.notNull(components, "Components must not be null");
+		this.dataBufferFactory = dataBufferFactory;
+		this.components = new ArrayList<>(components);
+		this.parent = parent;
+		this.refCount = (parent != null ? parent.refCount : new AtomicInteger(1));
+		this.offsets = new int[this.components.size()];
+		updateOffsets();
+	}
+
+
+	/**
+	 * Return the number of component buffers.
+	 */
+	public int componentCount() {
+		return this.components.size();
+	}
+
+	@Override
+	public DataBufferFactory factory() {
+		return this.dataBufferFactory;
+	}
+
+	@Override
+	public int indexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		else if (fromIndex >= this.writePosition) {
+			return -1;
+		}
+		for (int i = componentIndex(fromIndex); i < this.components.size(); i++) {
+			DataBuffer component = this.components.get(i);
+			int start = component.readPosition();
+			int length = component.readableByteCount();
+			for (int j = Math.max(fromIndex - this.offsets[i], 0); j < length; j++) {
+				if (predicate.test(component.getByte(start + j))) {
+					return this.offsets[i] + j;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+		Assert.notNull(predicate, "IntPredicate must not be null");
+		int index = Math.min(fromIndex, this.writePosition - 1);
+		if (index < 0) {
+			return -1;
+		}
+		for (int i = componentIndex(index); i >= 0; i--) {
+			DataBuffer component = this.components.get(i);
+			int start = component.readPosition();
+			for (int j = Math.min(index - this.offsets[i], component.readableByteCount() - 1); j >= 0; j--) {
+				if (predicate.test(component.getByte(start + j))) {
+					return this.offsets[i] + j;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int readableByteCount() {
+		return this.writePosition - this.readPosition;
+	}
+
+	@Override
+	public int writableByteCount() {
+		return (this.tail != null ? this.tail.writableByteCount() : 0);
+	}
+
+	@Override
+	public int capacity() {
+		return this.writePosition + writableByteCount();
+	}
+
+	@Override
+	public CompositeDataBuffer capacity(int newCapacity) {
+		if (newCapacity <= 0) {
+			throw new IllegalArgumentException(String.format("'newCapacity' %d must be higher than 0", newCapacity));
+		}
+		if (newCapacity < this.writePosition) {
+			if (this.readPosition > newCapacity) {
+				this.readPosition = newCapacity;
+			}
+			truncate(newCapacity);
+		}
+		else if (newCapacity > capacity()) {
+			ensureCapacity(newCapacity - this.writePosition);
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer ensureCapacity(int length) {
+		if (length > writableByteCount()) {
+			if (this.parent != null) {
+				throw new UnsupportedOperationException(
+						"Changing the capacity of a sliced buffer is not supported");
+			}
+			if (this.tail != null) {
+				this.tail.ensureCapacity(length);
+			}
+			else {
+				DataBuffer tail = this.dataBufferFactory.allocateBuffer(
+						Math.max(length, DefaultDataBufferFactory.DEFAULT_INITIAL_CAPACITY));
+				this.components.add(tail);
+				this.offsets = Arrays.copyOf(this.offsets, this.components.size());
+				this.offsets[this.offsets.length - 1] = this.writePosition;
+				this.tail = tail;
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public int readPosition() {
+		return this.readPosition;
+	}
+
+	@Override
+	public CompositeDataBuffer readPosition(int readPosition) {
+		assertIndex(readPosition >= 0, "'readPosition' %d must be >= 0", readPosition);
+		assertIndex(readPosition <= this.writePosition, "'readPosition' %d must be <= %d",
+				readPosition, this.writePosition);
+		this.readPosition = readPosition;
+		return this;
+	}
+
+	@Override
+	public int writePosition() {
+		return this.writePosition;
+	}
+
+	@Override
+	public CompositeDataBuffer writePosition(int writePosition) {
+		assertIndex(writePosition >= this.readPosition, "'writePosition' %d must be >= %d",
+				writePosition, this.readPosition);
+		assertIndex(writePosition <= capacity(), "'writePosition' %d must be <= %d",
+				writePosition, capacity());
+		if (writePosition < this.writePosition) {
+			truncate(writePosition);
+		}
+		else if (writePosition > this.writePosition) {
+			Assert.state(this.tail != null, "No tail component");
+			this.tail.writePosition(this.tail.writePosition() + writePosition - this.writePosition);
+			this.writePosition = writePosition;
+		}
+		return this;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(index <= this.writePosition - 1, "index %d must be <= %d", index, this.writePosition - 1);
+		int i = componentIndex(index);
+		DataBuffer component = this.components.get(i);
+		return component.getByte(component.readPosition() + index - this.offsets[i]);
+	}
+
+	@Override
+	public byte read() {
+		assertIndex(this.readPosition <= this.writePosition - 1, "readPosition %d must be <= %d",
+				this.readPosition, this.writePosition - 1);
+		byte b = getByte(this.readPosition);
+		this.readPosition++;
+		return b;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination) {
+		Assert.notNull(destination, "Byte array must not be null");
+		read(destination, 0, destination.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer read(byte[] destination, int offset, int length) {
+		Assert.notNull(destination, "Byte array must not be null");
+		assertIndex(this.readPosition <= this.writePosition - length,
+				"readPosition %d and length %d should be smaller than writePosition %d",
+				this.readPosition, length, this.writePosition);
+
+		while (length > 0) {
+			int i = componentIndex(this.readPosition);
+			DataBuffer component = this.components.get(i);
+			int index = this.readPosition - this.offsets[i];
+			int count = Math.min(length, component.readableByteCount() - index);
+			component.asByteBuffer(component.readPosition() + index, count).get(destination, offset, count);
+			this.readPosition += count;
+			offset += count;
+			length -= count;
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte b) {
+		ensureCapacity(1).appendToTail(tail -> tail.write(b));
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source) {
+		Assert.notNull(source, "Byte array must not be null");
+		write(source, 0, source.length);
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(byte[] source, int offset, int length) {
+		Assert.notNull(source, "Byte array must not be null");
+		ensureCapacity(length).appendToTail(tail -> tail.write(source, offset, length));
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(DataBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			int capacity = Arrays.stream(buffers).mapToInt(DataBuffer::readableByteCount).sum();
+			ensureCapacity(capacity).appendToTail(tail -> tail.write(buffers));
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(ByteBuffer... buffers) {
+		if (!ObjectUtils.isEmpty(buffers)) {
+			int capacity = Arrays.stream(buffers).mapToInt(ByteBuffer::remaining).sum();
+			ensureCapacity(capacity).appendToTail(tail -> tail.write(buffers));
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer write(CharSequence charSequence, Charset charset) {
+		Assert.notNull(charSequence, "CharSequence must not be null");
+		Assert.notNull(charset, "Charset must not be null");
+		if (charSequence.length() != 0) {
+			ensureCapacity(1).appendToTail(tail -> tail.write(charSequence, charset));
+		}
+		return this;
+	}
+
+	@Override
+	public CompositeDataBuffer slice(int index, int length) {
+		checkIndex(index, length);
+		List<DataBuffer> slices = new ArrayList<>();
+		int i = (length > 0 ? componentIndex(index) : this.components.size());
+		while (length > 0) {
+			DataBuffer component = this.components.get(i);
+			int localIndex = index - this.offsets[i];
+			int count = Math.min(length, componentLength(i) - localIndex);
+			if (count > 0) {
+				slices.add(component.slice(component.readPosition() + localIndex, count));
+				index += count;
+				length -= count;
+			}
+			i++;
+		}
+		return new CompositeDataBuffer(this.dataBufferFactory, slices, (this.parent != null ? this.parent : this));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation copies the content into a new buffer, unless it
+	 * lies within a single component.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer() {
+		return asByteBuffer(this.readPosition, readableByteCount());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation copies the requested range into a new buffer,
+	 * unless it lies within a single component.
+	 */
+	@Override
+	public ByteBuffer asByteBuffer(int index, int length) {
+		checkIndex(index, length);
+		if (length == 0) {
+			return ByteBuffer.allocate(0);
+		}
+		int i = componentIndex(index);
+		int localIndex = index - this.offsets[i];
+		if (localIndex + length <= componentLength(i)) {
+			DataBuffer component = this.components.get(i);
+			return component.asByteBuffer(component.readPosition() + localIndex, length);
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		while (result.hasRemaining()) {
+			DataBuffer component = this.components.get(i);
+			int count = Math.min(result.remaining(), componentLength(i) - localIndex);
+			if (count > 0) {
+				result.put(component.asByteBuffer(component.readPosition() + localIndex, count));
+			}
+			localIndex = 0;
+			i++;
+		}
+		// Explicit cast for compatibility with covariant return type on JDK 9's ByteBuffer
+		((Buffer) result).flip();
+		return result;
+	}
+
+	@Override
+	public InputStream asInputStream() {
+		return new CompositeDataBufferInputStream(false);
+	}
+
+	@Override
+	public InputStream asInputStream(boolean releaseOnClose) {
+		return new CompositeDataBufferInputStream(releaseOnClose);
+	}
+
+	@Override
+	public OutputStream asOutputStream() {
+		return new CompositeDataBufferOutputStream();
+	}
+
+	@Override
+	public boolean isAllocated() {
+		return (this.refCount.get() > 0);
+	}
+
+	@Override
+	public PooledDataBuffer retain() {
+		if (this.refCount.getAndIncrement() <= 0) {
+			this.refCount.decrementAndGet();
+			throw new IllegalStateException("Buffer has already been released: " + this);
+		}
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		int count = this.refCount.decrementAndGet();
+		if (count < 0) {
+			this.refCount.incrementAndGet();
+			throw new IllegalStateException("Buffer has already been released: " + this);
+		}
+		if (count == 0) {
+			CompositeDataBuffer root = (this.parent != null ? this.parent : this);
+			root.components.forEach(DataBufferUtils::release);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompositeDataBuffer (r: %d, w: %d, c: %d, components: %d)",
+				this.readPosition, this.writePosition, capacity(), this.components.size());
+	}
+
+
+	/**
+	 * Return the index of the component that holds the given index of the
+	 * composite, where components that are empty are skipped.
+	 */
+	private int componentIndex(int index) {
+		int low = 0;
+		int high = this.offsets.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (this.offsets[mid] <= index) {
+				low = mid;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Return the length of the given component in the composite, including
+	 * the writable bytes of the tail component.
+	 */
+	private int componentLength(int i) {
+		DataBuffer component = this.components.get(i);
+		return (component == this.tail ? component.capacity() - component.readPosition() :
+				component.readableByteCount());
+	}
+
+	private void updateOffsets() {
+		int offset = 0;
+		for (int i = 0; i < this.offsets.length; i++) {
+			this.offsets[i] = offset;
+			offset += this.components.get(i).readableByteCount();
+		}
+		this.writePosition = offset;
+	}
+
+	private void appendToTail(Consumer<DataBuffer> write) {
+		Assert.state(this.tail != null, "No tail component");
+		int oldPosition = this.tail.writePosition();
+		write.accept(this.tail);
+		this.writePosition += this.tail.writePosition() - oldPosition;
+	}
+
+	/**
+	 * Discard the content from the given index onwards, by moving the write
+	 * position of the affected components back.
+	 */
+	private void truncate(int index) {
+		for (int i = this.components.size() - 1; i >= 0; i--) {
+			DataBuffer component = this.components.get(i);
+			int length = Math.max(index - this.offsets[i], 0);
+			if (length < component.readableByteCount()) {
+				component.writePosition(component.readPosition() + length);
+			}
+		}
+		updateOffsets();
+	}
+
+	private void checkIndex(int index, int length) {
+		assertIndex(index >= 0, "index %d must be >= 0", index);
+		assertIndex(length >= 0, "length %d must be >= 0", length);
+		assertIndex(index + length <= capacity(), "index %d and length %d must be <= %d",
+				index, length, capacity());
+	}
+
+	private void assertIndex(boolean expression, String format, Object... args) {
+		if (!expression) {
+			String message = String.format(format, args);
+			throw new IndexOutOfBoundsException(message);
+		}
+	}
+
+
+	private class CompositeDataBufferInputStream extends InputStream {
+
+		private final boolean releaseOnClose;
+
+		CompositeDataBufferInputStream(boolean releaseOnClose) {
+			this.releaseOnClose = releaseOnClose;
+		}
+
+		@Override
+		public int available() {
+			return readableByteCount();
+		}
+
+		@Override
+		public int read() {
+			return available() > 0 ? CompositeDataBuffer.this.read() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int off, int len) throws IOException {
+			int available = available();
+			if (available > 0) {
+				len = Math.min(len, available);
+				CompositeDataBuffer.this.read(bytes, off, len);
+				return len;
+			}
+			else {
+				return -1;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (this.releaseOnClose) {
+				DataBufferUtils.release(CompositeDataBuffer.this);
+			}
+		}
+	}
+
+
+	private class CompositeDataBufferOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			CompositeDataBuffer.this.write((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int off, int len) throws IOException {
+			CompositeDataBuffer.this.write(bytes, off, len);
+		}
+	}
+
+}
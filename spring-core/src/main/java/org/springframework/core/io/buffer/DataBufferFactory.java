@@ -75,4 +75,22 @@ public interface DataBufferFactory {
 	 */
 	DataBuffer join(List<? extends DataBuffer> dataBuffers);
 
+	/**
+	 * Return a {@code DataBuffer} that exposes the content of the {@code dataBuffers}
+	 * elements as one, preferably without copying it. Intended for content that is
+	 * only read sequentially, e.g. via {@link DataBuffer#read(byte[])} or
+	 * {@link DataBuffer#asInputStream()}, since operations that require contiguous
+	 * memory, such as {@link DataBuffer#asByteBuffer()}, may have to copy.
+	 * <p>Note that the given data buffers do <strong>not</strong> have to be released, as they are
+	 * released as part of the returned composite.
+	 * <p>The default implementation delegates to {@link #join(List)}.
+	 * @param dataBuffers the data buffers to be composed
+	 * @return a buffer that is composed from the {@code dataBuffers} argument
+	 * @since 5.2
+	 * @see CompositeDataBuffer
+	 */
+	default DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		return join(dataBuffers);
+	}
+
 }
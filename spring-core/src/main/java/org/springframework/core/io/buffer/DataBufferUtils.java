@@ -444,6 +444,21 @@ public abstract class DataBufferUtils {
 	 * @since 5.0.3
 	 */
 	public static Mono<DataBuffer> join(Publisher<DataBuffer> dataBuffers) {
+		return join(dataBuffers, -1);
+	}
+
+	/**
+	 * Variant of {@link #join(Publisher)} that behaves the same way up until
+	 * the specified max number of bytes to buffer. Once the limit is exceeded,
+	 * the buffers collected so far are released, and
+	 * {@link DataBufferLimitException} is raised.
+	 * @param dataBuffers the data buffers that are to be composed
+	 * @param maxByteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @return a buffer with the aggregated content, or an error signal with
+	 * {@link DataBufferLimitException} if {@code maxByteCount} is exceeded
+	 * @since 5.2
+	 */
+	public static Mono<DataBuffer> join(Publisher<DataBuffer> dataBuffers, int maxByteCount) {
 		Assert.notNull(dataBuffers, "'dataBuffers' must not be null");
 
 		if (dataBuffers instanceof Mono) {
@@ -451,12 +466,37 @@ public abstract class DataBufferUtils {
 		}
 
 		return Flux.from(dataBuffers)
-				.collectList()
+				.collect(() -> new LimitedDataBufferList(maxByteCount), LimitedDataBufferList::add)
 				.filter(list -> !list.isEmpty())
 				.map(list -> list.get(0).factory().join(list))
 				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
 	}
 
+	/**
+	 * Variant of {@link #join(Publisher, int)} that composes the data buffers
+	 * via {@link DataBufferFactory#compose(List)}, and so avoids copying them
+	 * into a single buffer where possible. Intended for content that is only
+	 * read sequentially, e.g. via {@link DataBuffer#asInputStream()}.
+	 * @param dataBuffers the data buffers that are to be composed
+	 * @param maxByteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @return a buffer with the aggregated content, or an error signal with
+	 * {@link DataBufferLimitException} if {@code maxByteCount} is exceeded
+	 * @since 5.2
+	 */
+	public static Mono<DataBuffer> compose(Publisher<DataBuffer> dataBuffers, int maxByteCount) {
+		Assert.notNull(dataBuffers, "'dataBuffers' must not be null");
+
+		if (dataBuffers instanceof Mono) {
+			return (Mono<DataBuffer>) dataBuffers;
+		}
+
+		return Flux.from(dataBuffers)
+				.collect(() -> new LimitedDataBufferList(maxByteCount), LimitedDataBufferList::add)
+				.filter(list -> !list.isEmpty())
+				.map(list -> list.get(0).factory().compose(list))
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
+
 	/**
 	 * Return a {@link Matcher} for the given delimiters. The matcher can be used to find the
 	 * delimiters in data buffers.
@@ -469,6 +509,23 @@ public abstract class DataBufferUtils {
 		return new KnuthMorrisPrattMatcher(delimiter);
 	}
 
+	/**
+	 * Return a {@link Matcher} for the given delimiters. The matcher finds the
+	 * first position at which any of the delimiters ends, in a single pass over
+	 * the data, and if more than one delimiter ends at that position, it picks
+	 * the longest one, exposed through {@link Matcher#delimiter()}.
+	 * <p>Note that this is not necessarily the delimiter that starts first:
+	 * for the delimiters {@code "abc"} and {@code "b"}, the data {@code "abc"}
+	 * matches {@code "b"}, since it ends before {@code "abc"} does.
+	 * @param delimiters the delimiters bytes to find
+	 * @return the matcher
+	 * @since 5.2
+	 */
+	public static Matcher matcher(byte[]... delimiters) {
+		Assert.isTrue(delimiters.length > 0, "Delimiters must not be empty");
+		return (delimiters.length == 1 ? matcher(delimiters[0]) : new CompositeMatcher(delimiters));
+	}
+
 	/**
 	 * Splits the given stream of data buffers around the given delimiter.
 	 * The returned flux contains data buffers that are terminated by the given delimiter,
@@ -568,7 +625,9 @@ public abstract class DataBufferUtils {
 		int match(DataBuffer dataBuffer);
 
 		/**
-		 * Return the delimiter used for this matcher.
+		 * Return the delimiter used for this matcher, or for a matcher with
+		 * more than one delimiter, the delimiter from the last match.
+		 * <p>The returned array is not copied, and must not be modified.
 		 * @return the delimiter
 		 */
 		byte[] delimiter();
@@ -855,27 +914,95 @@ public abstract class DataBufferUtils {
 
 		@Override
 		public int match(DataBuffer dataBuffer) {
+			byte[] delimiter = this.delimiter;
+			int matches = this.matches;
 			for (int i = dataBuffer.readPosition(); i < dataBuffer.writePosition(); i++) {
 				byte b = dataBuffer.getByte(i);
-
-				while (this.matches > 0 && b != this.delimiter[this.matches]) {
-					this.matches = this.table[this.matches - 1];
+				while (matches > 0 && b != delimiter[matches]) {
+					matches = this.table[matches - 1];
 				}
-
-				if (b == this.delimiter[this.matches]) {
-					this.matches++;
-					if (this.matches == this.delimiter.length) {
+				if (b == delimiter[matches]) {
+					matches++;
+					if (matches == delimiter.length) {
 						this.matches = 0;
 						return i;
 					}
 				}
 			}
+			this.matches = matches;
+			return -1;
+		}
+
+		@Override
+		public byte[] delimiter() {
+			return this.delimiter;
+		}
+	}
+
+
+	/**
+	 * Implementation of {@link Matcher} for more than one delimiter, advancing
+	 * the Knuth-Morris-Pratt state of each delimiter with every byte.
+	 */
+	private static class CompositeMatcher implements Matcher {
+
+		private final byte[][] delimiters;
+
+		private final int[][] tables;
+
+		private final int[] matches;
+
+		@Nullable
+		private byte[] lastMatch;
+
+
+		public CompositeMatcher(byte[][] delimiters) {
+			this.delimiters = new byte[delimiters.length][];
+			this.tables = new int[delimiters.length][];
+			this.matches = new int[delimiters.length];
+			for (int i = 0; i < delimiters.length; i++) {
+				Assert.isTrue(delimiters[i].length > 0, "Delimiter must not be empty");
+				this.delimiters[i] = Arrays.copyOf(delimiters[i], delimiters[i].length);
+				this.tables[i] = KnuthMorrisPrattMatcher.longestSuffixPrefixTable(delimiters[i]);
+			}
+		}
+
+		@Override
+		public int match(DataBuffer dataBuffer) {
+			for (int i = dataBuffer.readPosition(); i < dataBuffer.writePosition(); i++) {
+				byte b = dataBuffer.getByte(i);
+				byte[] longest = null;
+				for (int j = 0; j < this.delimiters.length; j++) {
+					byte[] delimiter = this.delimiters[j];
+					int matches = this.matches[j];
+					while (matches > 0 && b != delimiter[matches]) {
+						matches = this.tables[j][matches - 1];
+					}
+					if (b == delimiter[matches]) {
+						matches++;
+						if (matches == delimiter.length) {
+							if (longest == null || delimiter.length > longest.length) {
+								longest = delimiter;
+							}
+							matches = 0;
+						}
+					}
+					this.matches[j] = matches;
+				}
+				if (longest != null) {
+					// Partial matches of other delimiters overlap with the one found
+					Arrays.fill(this.matches, 0);
+					this.lastMatch = longest;
+					return i;
+				}
+			}
 			return -1;
 		}
 
 		@Override
 		public byte[] delimiter() {
-			return Arrays.copyOf(this.delimiter, this.delimiter.length);
+			Assert.state(this.lastMatch != null, "No delimiter matched yet");
+			return this.lastMatch;
 		}
 	}
 
@@ -115,6 +115,17 @@ public class DefaultDataBufferFactory implements DataBufferFactory {
 		return result;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation returns a {@link CompositeDataBuffer}, unless
+	 * only a single buffer is given.
+	 */
+	@Override
+	public DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		return (dataBuffers.size() == 1 ? dataBuffers.get(0) : new CompositeDataBuffer(this, dataBuffers));
+	}
+
 
 	@Override
 	public String toString() {
@@ -0,0 +1,563 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Decorator for a {@link DataBufferFactory} that keeps count of the buffers
+ * allocated through it that have not been released yet, and of the bytes
+ * they hold, and that records the allocation site of a sample of those
+ * buffers, so that leaks can be traced back to the code that caused them.
+ * The sampling interval can be chosen so as to make the overhead low enough
+ * for use in production.
+ *
+ * <p>Allocated buffers are wrapped in a {@link PooledDataBuffer} that is
+ * tracked until released, or until handed over to the underlying server or
+ * client library via {@link NettyDataBufferFactory#toByteBuf(DataBuffer)},
+ * which then becomes responsible for releasing the buffer. Buffers created
+ * via {@code wrap} hold memory that is managed elsewhere, and are not tracked.
+ *
+ * <p>A {@linkplain #createScope() scope} tracks the buffers allocated through
+ * it separately, in addition to counting them in the factory it was created
+ * from, e.g. for reporting the buffers that a single request has not released.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+public class LeakTrackingDataBufferFactory implements DataBufferFactory {
+
+	/**
+	 * The default sampling interval, recording the allocation site of one in
+	 * every 128 buffers on average.
+	 */
+	public static final int DEFAULT_SAMPLING_INTERVAL = 128;
+
+
+	private final DataBufferFactory delegate;
+
+	private final int samplingInterval;
+
+	@Nullable
+	private final LeakTrackingDataBufferFactory parent;
+
+	private final LongAdder liveBufferCount = new LongAdder();
+
+	private final LongAdder liveByteCount = new LongAdder();
+
+	private final Set<TrackedDataBuffer> sampledBuffers = ConcurrentHashMap.newKeySet();
+
+
+	/**
+	 * Create a new {@code LeakTrackingDataBufferFactory} with the
+	 * {@linkplain #DEFAULT_SAMPLING_INTERVAL default sampling interval}.
+	 * @param delegate the factory to allocate buffers with
+	 */
+	public LeakTrackingDataBufferFactory(DataBufferFactory delegate) {
+		this(delegate, DEFAULT_SAMPLING_INTERVAL);
+	}
+
+	/**
+	 * Create a new {@code LeakTrackingDataBufferFactory} with the given
+	 * sampling interval.
+	 * @param delegate the factory to allocate buffers with
+	 * @param samplingInterval record the allocation site of one in every
+	 * {@code samplingInterval} buffers on average, with {@code 1} recording
+	 * all allocation sites, and {@code 0} recording none, i.e. only counting
+	 */
+	public LeakTrackingDataBufferFactory(DataBufferFactory delegate, int samplingInterval) {
+		Assert.notNull(delegate, "DataBufferFactory must not be null");
+		Assert.isTrue(samplingInterval >= 0, "'samplingInterval' must be >= 0");
+		this.delegate = (delegate instanceof LeakTrackingDataBufferFactory ?
+				((LeakTrackingDataBufferFactory) delegate).getDelegate() : delegate);
+		this.samplingInterval = samplingInterval;
+		this.parent = null;
+	}
+
+	private LeakTrackingDataBufferFactory(LeakTrackingDataBufferFactory parent) {
+		this.delegate = parent.delegate;
+		this.samplingInterval = parent.samplingInterval;
+		this.parent = parent;
+	}
+
+
+	/**
+	 * Return the factory that buffers are allocated with.
+	 */
+	public DataBufferFactory getDelegate() {
+		return this.delegate;
+	}
+
+	/**
+	 * Return the configured sampling interval.
+	 */
+	public int getSamplingInterval() {
+		return this.samplingInterval;
+	}
+
+	/**
+	 * Return the number of buffers allocated through this factory that have
+	 * not been released yet.
+	 */
+	public long getLiveBufferCount() {
+		return this.liveBufferCount.sum();
+	}
+
+	/**
+	 * Return the number of bytes held by the buffers allocated through this
+	 * factory that have not been released yet, based on their capacity at
+	 * the time of allocation.
+	 */
+	public long getLiveByteCount() {
+		return this.liveByteCount.sum();
+	}
+
+	/**
+	 * Return the recorded allocation sites of the sampled buffers that have
+	 * not been released yet, as exceptions with a description of the buffer
+	 * as message, and the allocation site as stack trace.
+	 */
+	public List<Throwable> getUnreleasedAllocationSites() {
+		List<Throwable> result = new ArrayList<>(this.sampledBuffers.size());
+		for (TrackedDataBuffer buffer : this.sampledBuffers) {
+			Throwable allocationSite = buffer.allocationSite;
+			if (allocationSite != null) {
+				result.add(allocationSite);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Create a scope that tracks the buffers allocated through it separately,
+	 * while also counting them in this factory.
+	 * @return the factory to allocate the buffers of the scope with
+	 */
+	public LeakTrackingDataBufferFactory createScope() {
+		return new LeakTrackingDataBufferFactory(this);
+	}
+
+	/**
+	 * Move the given buffer into this factory, if it was allocated through the
+	 * factory this scope was created from, or one of its ancestors, e.g. for a
+	 * scope to track the buffers that a server allocated for a request body.
+	 * The buffer is counted in this scope from then on, and its allocation
+	 * site, if sampled, is the point of adoption.
+	 * <p>Slices, retained buffers, and buffers allocated through any other
+	 * factory are returned as is.
+	 * @param dataBuffer the buffer to adopt
+	 * @return the buffer to use instead of the given buffer
+	 */
+	public DataBuffer adopt(DataBuffer dataBuffer) {
+		if (dataBuffer instanceof TrackedDataBuffer) {
+			TrackedDataBuffer trackedBuffer = (TrackedDataBuffer) dataBuffer;
+			if (trackedBuffer.root == trackedBuffer && trackedBuffer.refCount.get() == 1 &&
+					isAncestor(trackedBuffer.factory) && trackedBuffer.stopTracking()) {
+				return track(trackedBuffer.delegate);
+			}
+		}
+		return dataBuffer;
+	}
+
+	private boolean isAncestor(LeakTrackingDataBufferFactory factory) {
+		for (LeakTrackingDataBufferFactory parent = this.parent; parent != null; parent = parent.parent) {
+			if (parent == factory) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	@Override
+	public DataBuffer allocateBuffer() {
+		return track(this.delegate.allocateBuffer());
+	}
+
+	@Override
+	public DataBuffer allocateBuffer(int initialCapacity) {
+		return track(this.delegate.allocateBuffer(initialCapacity));
+	}
+
+	@Override
+	public DataBuffer wrap(ByteBuffer byteBuffer) {
+		return this.delegate.wrap(byteBuffer);
+	}
+
+	@Override
+	public DataBuffer wrap(byte[] bytes) {
+		return this.delegate.wrap(bytes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation stops tracking the given buffers, since joining
+	 * passes them to the delegate factory, and tracks the result instead.
+	 */
+	@Override
+	public DataBuffer join(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		return (dataBuffers.size() == 1 ? dataBuffers.get(0) : track(this.delegate.join(unwrap(dataBuffers))));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>This implementation stops tracking the given buffers, since composing
+	 * passes them to the delegate factory, and tracks the result instead.
+	 */
+	@Override
+	public DataBuffer compose(List<? extends DataBuffer> dataBuffers) {
+		Assert.notEmpty(dataBuffers, "DataBuffer List must not be empty");
+		return (dataBuffers.size() == 1 ? dataBuffers.get(0) : track(this.delegate.compose(unwrap(dataBuffers))));
+	}
+
+	@Override
+	public String toString() {
+		return "LeakTrackingDataBufferFactory (" + this.delegate + ")";
+	}
+
+	private DataBuffer track(DataBuffer dataBuffer) {
+		boolean sampled = (this.samplingInterval == 1 || (this.samplingInterval > 1 &&
+				ThreadLocalRandom.current().nextInt(this.samplingInterval) == 0));
+		TrackedDataBuffer result = new TrackedDataBuffer(dataBuffer, this, sampled);
+		for (LeakTrackingDataBufferFactory factory = this; factory != null; factory = factory.parent) {
+			factory.liveBufferCount.increment();
+			factory.liveByteCount.add(result.trackedByteCount);
+			if (sampled) {
+				factory.sampledBuffers.add(result);
+			}
+		}
+		return result;
+	}
+
+	private void untrack(TrackedDataBuffer dataBuffer) {
+		for (LeakTrackingDataBufferFactory factory = this; factory != null; factory = factory.parent) {
+			factory.liveBufferCount.decrement();
+			factory.liveByteCount.add(-dataBuffer.trackedByteCount);
+			if (dataBuffer.allocationSite != null) {
+				factory.sampledBuffers.remove(dataBuffer);
+			}
+		}
+	}
+
+	private static List<DataBuffer> unwrap(List<? extends DataBuffer> dataBuffers) {
+		List<DataBuffer> result = new ArrayList<>(dataBuffers.size());
+		for (DataBuffer dataBuffer : dataBuffers) {
+			result.add(unwrap(dataBuffer));
+		}
+		return result;
+	}
+
+	/**
+	 * Return the buffer that the given buffer wraps, if it was allocated
+	 * through a {@code LeakTrackingDataBufferFactory}, and stop tracking it,
+	 * since the caller is taking over the responsibility for releasing it.
+	 * Returns the given buffer as is otherwise.
+	 */
+	static DataBuffer unwrap(DataBuffer dataBuffer) {
+		if (dataBuffer instanceof TrackedDataBuffer) {
+			TrackedDataBuffer trackedBuffer = (TrackedDataBuffer) dataBuffer;
+			trackedBuffer.root.stopTracking();
+			return trackedBuffer.delegate;
+		}
+		return dataBuffer;
+	}
+
+
+	/**
+	 * Records the allocation site of a sampled buffer.
+	 */
+	@SuppressWarnings("serial")
+	private static class AllocationSite extends Throwable {
+
+		AllocationSite(DataBuffer dataBuffer) {
+			super("Unreleased " + dataBuffer + " was allocated at:");
+		}
+	}
+
+
+	/**
+	 * {@link PooledDataBuffer} that delegates to an allocated buffer, and
+	 * stops tracking it once released. A slice shares the reference count
+	 * of the buffer it was created from.
+	 */
+	private static class TrackedDataBuffer implements PooledDataBuffer {
+
+		private final DataBuffer delegate;
+
+		private final LeakTrackingDataBufferFactory factory;
+
+		private final TrackedDataBuffer root;
+
+		private final int trackedByteCount;
+
+		@Nullable
+		private final Throwable allocationSite;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		private final AtomicBoolean tracked = new AtomicBoolean(true);
+
+		TrackedDataBuffer(DataBuffer delegate, LeakTrackingDataBufferFactory factory, boolean sampled) {
+			this.delegate = delegate;
+			this.factory = factory;
+			this.root = this;
+			this.trackedByteCount = delegate.capacity();
+			this.allocationSite = (sampled ? new AllocationSite(delegate) : null);
+		}
+
+		TrackedDataBuffer(DataBuffer delegate, TrackedDataBuffer root) {
+			this.delegate = delegate;
+			this.factory = root.factory;
+			this.root = root;
+			this.trackedByteCount = 0;
+			this.allocationSite = null;
+		}
+
+		boolean stopTracking() {
+			if (this.tracked.compareAndSet(true, false)) {
+				this.factory.untrack(this);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.root.refCount.get() > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			AtomicInteger refCount = this.root.refCount;
+			if (refCount.getAndIncrement() <= 0) {
+				refCount.decrementAndGet();
+				throw new IllegalStateException("Buffer has already been released: " + this);
+			}
+			DataBufferUtils.retain(this.root.delegate);
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			AtomicInteger refCount = this.root.refCount;
+			int count = refCount.decrementAndGet();
+			if (count < 0) {
+				refCount.incrementAndGet();
+				throw new IllegalStateException("Buffer has already been released: " + this);
+			}
+			if (count == 0) {
+				this.root.stopTracking();
+			}
+			return (DataBufferUtils.release(this.root.delegate) || count == 0);
+		}
+
+		@Override
+		public DataBufferFactory factory() {
+			return this.factory;
+		}
+
+		@Override
+		public int indexOf(IntPredicate predicate, int fromIndex) {
+			return this.delegate.indexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public int lastIndexOf(IntPredicate predicate, int fromIndex) {
+			return this.delegate.lastIndexOf(predicate, fromIndex);
+		}
+
+		@Override
+		public int readableByteCount() {
+			return this.delegate.readableByteCount();
+		}
+
+		@Override
+		public int writableByteCount() {
+			return this.delegate.writableByteCount();
+		}
+
+		@Override
+		public int capacity() {
+			return this.delegate.capacity();
+		}
+
+		@Override
+		public DataBuffer capacity(int capacity) {
+			this.delegate.capacity(capacity);
+			return this;
+		}
+
+		@Override
+		public DataBuffer ensureCapacity(int capacity) {
+			this.delegate.ensureCapacity(capacity);
+			return this;
+		}
+
+		@Override
+		public int readPosition() {
+			return this.delegate.readPosition();
+		}
+
+		@Override
+		public DataBuffer readPosition(int readPosition) {
+			this.delegate.readPosition(readPosition);
+			return this;
+		}
+
+		@Override
+		public int writePosition() {
+			return this.delegate.writePosition();
+		}
+
+		@Override
+		public DataBuffer writePosition(int writePosition) {
+			this.delegate.writePosition(writePosition);
+			return this;
+		}
+
+		@Override
+		public byte getByte(int index) {
+			return this.delegate.getByte(index);
+		}
+
+		@Override
+		public byte read() {
+			return this.delegate.read();
+		}
+
+		@Override
+		public DataBuffer read(byte[] destination) {
+			this.delegate.read(destination);
+			return this;
+		}
+
+		@Override
+		public DataBuffer read(byte[] destination, int offset, int length) {
+			this.delegate.read(destination, offset, length);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte b) {
+			this.delegate.write(b);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte[] source) {
+			this.delegate.write(source);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(byte[] source, int offset, int length) {
+			this.delegate.write(source, offset, length);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(DataBuffer... buffers) {
+			DataBuffer[] delegates = new DataBuffer[buffers.length];
+			for (int i = 0; i < buffers.length; i++) {
+				delegates[i] = (buffers[i] instanceof TrackedDataBuffer ?
+						((TrackedDataBuffer) buffers[i]).delegate : buffers[i]);
+			}
+			this.delegate.write(delegates);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(ByteBuffer... buffers) {
+			this.delegate.write(buffers);
+			return this;
+		}
+
+		@Override
+		public DataBuffer write(CharSequence charSequence, Charset charset) {
+			this.delegate.write(charSequence, charset);
+			return this;
+		}
+
+		@Override
+		public DataBuffer slice(int index, int length) {
+			return new TrackedDataBuffer(this.delegate.slice(index, length), this.root);
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer() {
+			return this.delegate.asByteBuffer();
+		}
+
+		@Override
+		public ByteBuffer asByteBuffer(int index, int length) {
+			return this.delegate.asByteBuffer(index, length);
+		}
+
+		@Override
+		public InputStream asInputStream() {
+			return this.delegate.asInputStream();
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			InputStream inputStream = this.delegate.asInputStream();
+			if (!releaseOnClose) {
+				return inputStream;
+			}
+			return new FilterInputStream(inputStream) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					}
+					finally {
+						release();
+					}
+				}
+			};
+		}
+
+		@Override
+		public OutputStream asOutputStream() {
+			return this.delegate.asOutputStream();
+		}
+
+		@Override
+		public String toString() {
+			return this.delegate.toString();
+		}
+	}
+
+}
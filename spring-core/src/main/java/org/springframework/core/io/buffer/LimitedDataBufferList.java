@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.core.io.buffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Custom {@link java.util.List} to collect data buffers with and enforce a
+ * limit on the total number of bytes buffered. For use with "collect" or
+ * other buffering operators in declarative APIs, e.g. {@link reactor.core.publisher.Flux}.
+ *
+ * <p>Adding elements increases the byte count and if the limit is exceeded,
+ * the buffers collected so far as well as the one being added are released,
+ * and {@link DataBufferLimitException} is raised.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+@SuppressWarnings("serial")
+public class LimitedDataBufferList extends ArrayList<DataBuffer> {
+
+	private final int maxByteCount;
+
+	private int byteCount;
+
+
+	/**
+	 * Create an instance with the given limit.
+	 * @param maxByteCount the maximum number of bytes to buffer, or -1 for
+	 * no limit
+	 */
+	public LimitedDataBufferList(int maxByteCount) {
+		this.maxByteCount = maxByteCount;
+	}
+
+
+	@Override
+	public boolean add(DataBuffer buffer) {
+		updateCount(Collections.singletonList(buffer));
+		return super.add(buffer);
+	}
+
+	@Override
+	public void add(int index, DataBuffer buffer) {
+		updateCount(Collections.singletonList(buffer));
+		super.add(index, buffer);
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends DataBuffer> collection) {
+		updateCount(collection);
+		return super.addAll(collection);
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends DataBuffer> collection) {
+		updateCount(collection);
+		return super.addAll(index, collection);
+	}
+
+	private void updateCount(Collection<? extends DataBuffer> buffers) {
+		for (DataBuffer buffer : buffers) {
+			this.byteCount += buffer.readableByteCount();
+		}
+		if (this.maxByteCount >= 0 && this.byteCount > this.maxByteCount) {
+			buffers.forEach(DataBufferUtils::release);
+			releaseAndClear();
+			throw new DataBufferLimitException("Exceeded limit on max bytes to buffer: " + this.maxByteCount);
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.byteCount = 0;
+		super.clear();
+	}
+
+	/**
+	 * Shortcut to {@link DataBufferUtils#release release} all data buffers and
+	 * then {@link #clear()}.
+	 */
+	public void releaseAndClear() {
+		forEach(DataBufferUtils::release);
+		clear();
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Reads file resources through a bounded cache of read-only memory mappings,
+ * emitting data buffers that wrap slices of the mapping, and so avoiding a
+ * copy of the file content for every read. Intended for large files that
+ * are read repeatedly and do not change, such as static resources.
+ *
+ * <p>A file is mapped in full on first read, as long as its size does not
+ * exceed the {@link #getMaxMappedBytes() limit} for the cache, and a change
+ * in the size or last-modified time of the file causes it to be mapped
+ * again. When the total size of the mappings exceeds the limit, the least
+ * recently used mappings are evicted. Resources that are not files, or that
+ * cannot be mapped, are read via {@link DataBufferUtils#read(Resource, long, DataBufferFactory, int)}.
+ *
+ * <p>Checking the file attributes and mapping the file are blocking operations,
+ * and are performed on the {@link #setBlockingOperationScheduler configured
+ * scheduler} when the returned {@code Flux} is subscribed to. Concurrent reads
+ * of a file that is not mapped yet wait for a single mapping to be created.
+ *
+ * <p><strong>Note:</strong> the JDK does not provide a way to unmap a file
+ * explicitly. An evicted mapping is released by the garbage collector, once
+ * the data buffers that were created from it are no longer referenced.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+public class MappedFileCache {
+
+	private final long maxMappedBytes;
+
+	private final Map<Path, Mapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Map<Path, CompletableFuture<Mapping>> pendingMappings = new HashMap<>();
+
+	private long mappedBytes;
+
+	private Scheduler blockingOperationScheduler = Schedulers.elastic();
+
+
+	/**
+	 * Create an instance with the given limit.
+	 * @param maxMappedBytes the maximum total size of the mapped files
+	 */
+	public MappedFileCache(long maxMappedBytes) {
+		Assert.isTrue(maxMappedBytes > 0, "'maxMappedBytes' must be > 0");
+		this.maxMappedBytes = maxMappedBytes;
+	}
+
+
+	/**
+	 * Return the configured maximum total size of the mapped files.
+	 */
+	public long getMaxMappedBytes() {
+		return this.maxMappedBytes;
+	}
+
+	/**
+	 * Configure the {@link Scheduler} to perform the blocking file operations on.
+	 * <p>By default this is {@link Schedulers#elastic()}.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "'blockingOperationScheduler' is required");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * Return the {@link #setBlockingOperationScheduler configured} scheduler.
+	 */
+	public Scheduler getBlockingOperationScheduler() {
+		return this.blockingOperationScheduler;
+	}
+
+	/**
+	 * Return the total size of the files currently mapped by the cache.
+	 */
+	public long getMappedBytes() {
+		synchronized (this.mappings) {
+			return this.mappedBytes;
+		}
+	}
+
+	/**
+	 * Read the given {@code Resource} into a {@code Flux} of {@code DataBuffer}s
+	 * starting at the given position, from a memory mapping of the file if the
+	 * resource is a file, or via {@link DataBufferUtils#read(Resource, long, DataBufferFactory, int)}
+	 * otherwise.
+	 * @param resource the resource to read from
+	 * @param position the position to start reading from
+	 * @param bufferFactory the factory to wrap the mapped content with
+	 * @param bufferSize the maximum size of the data buffers
+	 * @return a Flux of data buffers read from the given resource
+	 */
+	public Flux<DataBuffer> read(Resource resource, long position, DataBufferFactory bufferFactory, int bufferSize) {
+		Assert.notNull(resource, "'resource' must not be null");
+		Assert.notNull(bufferFactory, "'bufferFactory' must not be null");
+		Assert.isTrue(position >= 0, "'position' must be >= 0");
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be > 0");
+
+		return Mono.fromCallable(() -> Optional.ofNullable(getMapping(resource)))
+				.subscribeOn(this.blockingOperationScheduler)
+				.flatMapMany(mapping -> mapping.isPresent() ?
+						read(mapping.get(), position, bufferFactory, bufferSize) :
+						DataBufferUtils.read(resource, position, bufferFactory, bufferSize));
+	}
+
+	/**
+	 * Remove all mappings from the cache.
+	 */
+	public void clear() {
+		synchronized (this.mappings) {
+			this.mappings.clear();
+			this.mappedBytes = 0;
+		}
+	}
+
+	@Nullable
+	private ByteBuffer getMapping(Resource resource) {
+		try {
+			return (resource.isFile() ? getMapping(resource.getFile().toPath()) : null);
+		}
+		catch (IOException ex) {
+			// fallback to DataBufferUtils.read
+			return null;
+		}
+	}
+
+	@Nullable
+	private ByteBuffer getMapping(Path path) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		long size = attributes.size();
+		if (size == 0 || size > this.maxMappedBytes || size > Integer.MAX_VALUE) {
+			return null;
+		}
+		CompletableFuture<Mapping> pending;
+		synchronized (this.mappings) {
+			Mapping mapping = this.mappings.get(path);
+			if (mapping != null && mapping.matches(attributes)) {
+				return mapping.getBuffer();
+			}
+			pending = this.pendingMappings.get(path);
+			if (pending == null) {
+				this.pendingMappings.put(path, new CompletableFuture<>());
+			}
+		}
+		if (pending != null) {
+			return awaitMapping(pending);
+		}
+
+		Mapping mapping;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			mapping = new Mapping(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), attributes);
+		}
+		catch (IOException | RuntimeException ex) {
+			synchronized (this.mappings) {
+				pending = this.pendingMappings.remove(path);
+			}
+			pending.completeExceptionally(ex);
+			throw ex;
+		}
+		synchronized (this.mappings) {
+			pending = this.pendingMappings.remove(path);
+			Mapping previous = this.mappings.put(path, mapping);
+			if (previous != null) {
+				this.mappedBytes -= previous.getSize();
+			}
+			this.mappedBytes += size;
+			Iterator<Mapping> iterator = this.mappings.values().iterator();
+			while (this.mappedBytes > this.maxMappedBytes && iterator.hasNext()) {
+				Mapping eldest = iterator.next();
+				if (eldest != mapping) {
+					iterator.remove();
+					this.mappedBytes -= eldest.getSize();
+				}
+			}
+		}
+		pending.complete(mapping);
+		return mapping.getBuffer();
+	}
+
+	@Nullable
+	private static ByteBuffer awaitMapping(CompletableFuture<Mapping> pending) {
+		try {
+			return pending.get().getBuffer();
+		}
+		catch (ExecutionException ex) {
+			// fallback to DataBufferUtils.read
+			return null;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static Flux<DataBuffer> read(
+			ByteBuffer mapping, long position, DataBufferFactory bufferFactory, int bufferSize) {
+
+		int capacity = mapping.capacity();
+		if (position >= capacity) {
+			return Flux.empty();
+		}
+		return Flux.generate(() -> (int) position, (index, sink) -> {
+			int length = Math.min(bufferSize, capacity - index);
+			ByteBuffer slice = mapping.duplicate();
+			// Explicit cast for compatibility with covariant return type on JDK 9's ByteBuffer
+			((Buffer) slice).position(index).limit(index + length);
+			sink.next(bufferFactory.wrap(slice.slice()));
+			if (index + length == capacity) {
+				sink.complete();
+			}
+			return index + length;
+		});
+	}
+
+
+	private static class Mapping {
+
+		private final ByteBuffer buffer;
+
+		private final long size;
+
+		private final FileTime lastModified;
+
+		Mapping(ByteBuffer buffer, BasicFileAttributes attributes) {
+			this.buffer = buffer;
+			this.size = attributes.size();
+			this.lastModified = attributes.lastModifiedTime();
+		}
+
+		public ByteBuffer getBuffer() {
+			return this.buffer;
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+		public boolean matches(BasicFileAttributes attributes) {
+			return (this.size == attributes.size() && this.lastModified.equals(attributes.lastModifiedTime()));
+		}
+	}
+
+}
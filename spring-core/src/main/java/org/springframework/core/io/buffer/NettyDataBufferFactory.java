@@ -117,11 +117,16 @@ public class NettyDataBufferFactory implements DataBufferFactory {
 	 * Return the given Netty {@link DataBuffer} as a {@link ByteBuf}.
 	 * <p>Returns the {@linkplain NettyDataBuffer#getNativeBuffer() native buffer}
 	 * if {@code buffer} is a {@link NettyDataBuffer}; returns
-	 * {@link Unpooled#wrappedBuffer(ByteBuffer)} otherwise.
+	 * {@link Unpooled#wrappedBuffer(ByteBuffer)} otherwise. A buffer allocated
+	 * through a {@link LeakTrackingDataBufferFactory} is no longer tracked
+	 * once converted, since Netty is then responsible for releasing it.
 	 * @param buffer the {@code DataBuffer} to return a {@code ByteBuf} for
 	 * @return the netty {@code ByteBuf}
 	 */
 	public static ByteBuf toByteBuf(DataBuffer buffer) {
+		if (buffer.factory() instanceof LeakTrackingDataBufferFactory) {
+			buffer = LeakTrackingDataBufferFactory.unwrap(buffer);
+		}
 		if (buffer instanceof NettyDataBuffer) {
 			return ((NettyDataBuffer) buffer).getNativeBuffer();
 		}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link DefaultDataBufferFactory} that allocates reference
+ * counted {@link PooledDataBuffer}s, and returns their native byte buffers
+ * to a pool once released, for reuse by subsequent allocations. For use
+ * with servers other than Reactor Netty, which allocate buffers through
+ * {@link DefaultDataBufferFactory} by default, e.g. via
+ * {@code ServletHttpHandlerAdapter#setDataBufferFactory} or
+ * {@code UndertowHttpHandlerAdapter#setDataBufferFactory}.
+ *
+ * <p>The pool is organized in size classes, with capacities in powers of two
+ * from {@link #DEFAULT_INITIAL_CAPACITY} up to a configurable maximum, and a
+ * bound on the number of idle buffers per size class. An allocation is
+ * rounded up to the capacity of its size class, and allocations larger than
+ * the largest size class are not pooled.
+ *
+ * <p>As with Netty buffers, a slice shares the reference count of the buffer
+ * it was created from, and a buffer must not be used once released. A buffer
+ * that grows beyond its capacity switches to a new native buffer, and the old
+ * one is not returned to the pool, since slices may still refer to it.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+
+	/**
+	 * The default maximum capacity of pooled buffers.
+	 */
+	public static final int DEFAULT_MAX_POOLED_CAPACITY = 64 * 1024;
+
+	/**
+	 * The default maximum number of idle buffers per size class.
+	 */
+	public static final int DEFAULT_MAX_BUFFERS_PER_SIZE_CLASS = 256;
+
+	private static final int MIN_POOLED_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(DEFAULT_INITIAL_CAPACITY);
+
+
+	private final boolean preferDirect;
+
+	private final SizeClass[] sizeClasses;
+
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory} with default settings.
+	 */
+	public PooledDataBufferFactory() {
+		this(false);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be created.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 */
+	public PooledDataBufferFactory(boolean preferDirect) {
+		this(preferDirect, DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_BUFFERS_PER_SIZE_CLASS);
+	}
+
+	/**
+	 * Create a new {@code PooledDataBufferFactory}, indicating whether direct
+	 * buffers should be created, and how the pool is bounded.
+	 * @param preferDirect {@code true} if direct buffers are to be preferred;
+	 * {@code false} otherwise
+	 * @param maxPooledCapacity the capacity of the largest size class, which
+	 * must be a power of two of at least {@link #DEFAULT_INITIAL_CAPACITY}
+	 * @param maxBuffersPerSizeClass the maximum number of idle buffers to keep
+	 * per size class
+	 */
+	public PooledDataBufferFactory(boolean preferDirect, int maxPooledCapacity, int maxBuffersPerSizeClass) {
+		super(preferDirect);
+		Assert.isTrue(maxPooledCapacity >= DEFAULT_INITIAL_CAPACITY && Integer.bitCount(maxPooledCapacity) == 1,
+				"'maxPooledCapacity' must be a power of two of at least " + DEFAULT_INITIAL_CAPACITY);
+		Assert.isTrue(maxBuffersPerSizeClass > 0, "'maxBuffersPerSizeClass' must be larger than 0");
+		this.preferDirect = preferDirect;
+		int count = Integer.numberOfTrailingZeros(maxPooledCapacity) - MIN_POOLED_CAPACITY_SHIFT + 1;
+		this.sizeClasses = new SizeClass[count];
+		for (int i = 0; i < count; i++) {
+			this.sizeClasses[i] = new SizeClass(DEFAULT_INITIAL_CAPACITY << i, maxBuffersPerSizeClass);
+		}
+	}
+
+
+	@Override
+	public DefaultDataBuffer allocateBuffer(int initialCapacity) {
+		return new PooledDefaultDataBuffer(this, acquire(initialCapacity, this.preferDirect));
+	}
+
+	@Override
+	public String toString() {
+		return "PooledDataBufferFactory (preferDirect=" + this.preferDirect + ")";
+	}
+
+	/**
+	 * Obtain a native buffer of at least the given capacity, from the pool
+	 * if possible.
+	 */
+	ByteBuffer acquire(int capacity, boolean direct) {
+		SizeClass sizeClass = getSizeClass(capacity);
+		if (sizeClass == null || direct != this.preferDirect) {
+			return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+		}
+		ByteBuffer buffer = sizeClass.poll();
+		if (buffer != null) {
+			// Explicit cast for compatibility with covariant return type on JDK 9's ByteBuffer
+			((Buffer) buffer).clear();
+			return buffer;
+		}
+		return (direct ? ByteBuffer.allocateDirect(sizeClass.capacity) : ByteBuffer.allocate(sizeClass.capacity));
+	}
+
+	/**
+	 * Return the given native buffer to the pool, if it matches a size class.
+	 */
+	void release(ByteBuffer buffer) {
+		SizeClass sizeClass = getSizeClass(buffer.capacity());
+		if (sizeClass != null && sizeClass.capacity == buffer.capacity() && buffer.isDirect() == this.preferDirect) {
+			sizeClass.offer(buffer);
+		}
+	}
+
+	@Nullable
+	private SizeClass getSizeClass(int capacity) {
+		int normalized = Math.max(capacity, DEFAULT_INITIAL_CAPACITY) - 1;
+		int index = (32 - Integer.numberOfLeadingZeros(normalized)) - MIN_POOLED_CAPACITY_SHIFT;
+		return (index < this.sizeClasses.length ? this.sizeClasses[index] : null);
+	}
+
+	private static InputStream asInputStream(PooledDataBuffer dataBuffer, boolean releaseOnClose) {
+		InputStream inputStream = dataBuffer.asInputStream();
+		if (!releaseOnClose) {
+			return inputStream;
+		}
+		return new FilterInputStream(inputStream) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				}
+				finally {
+					dataBuffer.release();
+				}
+			}
+		};
+	}
+
+
+	/**
+	 * Idle buffers of one capacity.
+	 */
+	private static class SizeClass {
+
+		private final int capacity;
+
+		private final int maxBuffers;
+
+		private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger bufferCount = new AtomicInteger();
+
+		SizeClass(int capacity, int maxBuffers) {
+			this.capacity = capacity;
+			this.maxBuffers = maxBuffers;
+		}
+
+		@Nullable
+		public ByteBuffer poll() {
+			ByteBuffer buffer = this.buffers.poll();
+			if (buffer != null) {
+				this.bufferCount.decrementAndGet();
+			}
+			return buffer;
+		}
+
+		public void offer(ByteBuffer buffer) {
+			if (this.bufferCount.incrementAndGet() <= this.maxBuffers) {
+				this.buffers.offer(buffer);
+			}
+			else {
+				this.bufferCount.decrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * {@link DefaultDataBuffer} that returns its native buffer to the pool
+	 * when its reference count drops to 0.
+	 */
+	private static class PooledDefaultDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDataBufferFactory factory;
+
+		private final AtomicInteger refCount = new AtomicInteger(1);
+
+		PooledDefaultDataBuffer(PooledDataBufferFactory factory, ByteBuffer byteBuffer) {
+			super(factory, byteBuffer);
+			this.factory = factory;
+		}
+
+		@Override
+		ByteBuffer allocate(int capacity, boolean direct) {
+			return this.factory.acquire(capacity, direct);
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			ByteBuffer slice = super.slice(index, length).getNativeBuffer();
+			return new PooledSlicedDataBuffer(this, slice, length);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			return PooledDataBufferFactory.asInputStream(this, releaseOnClose);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return (this.refCount.get() > 0);
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			if (this.refCount.getAndIncrement() <= 0) {
+				this.refCount.decrementAndGet();
+				throw new IllegalStateException("Buffer has already been released: " + this);
+			}
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			int count = this.refCount.decrementAndGet();
+			if (count < 0) {
+				this.refCount.incrementAndGet();
+				throw new IllegalStateException("Buffer has already been released: " + this);
+			}
+			if (count == 0) {
+				this.factory.release(getNativeBuffer());
+				return true;
+			}
+			return false;
+		}
+	}
+
+
+	/**
+	 * Slice of a {@link PooledDefaultDataBuffer}, sharing its reference count.
+	 */
+	private static class PooledSlicedDataBuffer extends DefaultDataBuffer implements PooledDataBuffer {
+
+		private final PooledDefaultDataBuffer parent;
+
+		PooledSlicedDataBuffer(PooledDefaultDataBuffer parent, ByteBuffer byteBuffer, int length) {
+			super(parent.factory, byteBuffer);
+			this.parent = parent;
+			writePosition(length);
+		}
+
+		@Override
+		public DefaultDataBuffer capacity(int newCapacity) {
+			throw new UnsupportedOperationException("Changing the capacity of a sliced buffer is not supported");
+		}
+
+		@Override
+		public DefaultDataBuffer slice(int index, int length) {
+			ByteBuffer slice = super.slice(index, length).getNativeBuffer();
+			return new PooledSlicedDataBuffer(this.parent, slice, length);
+		}
+
+		@Override
+		public InputStream asInputStream(boolean releaseOnClose) {
+			return PooledDataBufferFactory.asInputStream(this, releaseOnClose);
+		}
+
+		@Override
+		public boolean isAllocated() {
+			return this.parent.isAllocated();
+		}
+
+		@Override
+		public PooledDataBuffer retain() {
+			this.parent.retain();
+			return this;
+		}
+
+		@Override
+		public boolean release() {
+			return this.parent.release();
+		}
+	}
+
+}
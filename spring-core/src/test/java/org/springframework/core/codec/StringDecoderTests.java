@@ -29,6 +29,7 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
 
@@ -155,6 +156,65 @@ public class StringDecoderTests extends AbstractDecoderTestCase<StringDecoder> {
 				.verify());
 	}
 
+	@Test
+	public void decodeDelimiterAcrossBuffers() {
+		this.decoder = StringDecoder.allMimeTypes(Arrays.asList("\r\n", "\n", "--"), true);
+
+		Flux<DataBuffer> input = Flux.just(
+				stringBuffer("abc\r"),
+				stringBuffer("\ndef-"),
+				stringBuffer("-ghi\r"),
+				stringBuffer("jkl\n"));
+
+		testDecode(input, String.class, step -> step
+				.expectNext("abc")
+				.expectNext("def")
+				.expectNext("ghi\rjkl")
+				.expectComplete()
+				.verify());
+	}
+
+	@Test
+	public void decodeOverlappingDelimiters() {
+		this.decoder = StringDecoder.allMimeTypes(Arrays.asList("abc", "b"), false);
+
+		Flux<DataBuffer> input = Flux.just(stringBuffer("xabcy"));
+
+		testDecode(input, String.class, step -> step
+				.expectNext("xab")
+				.expectNext("cy")
+				.expectComplete()
+				.verify());
+	}
+
+	@Test
+	public void decodeNewLineWithLimit() {
+		Flux<DataBuffer> input = Flux.just(
+				stringBuffer("abc\n"),
+				stringBuffer("defg\n"),
+				stringBuffer("hij"),
+				stringBuffer("klmno\n"));
+
+		this.decoder.setMaxInMemorySize(5);
+
+		testDecode(input, String.class, step -> step
+				.expectNext("abc", "defg")
+				.verifyError(DataBufferLimitException.class));
+	}
+
+	@Test
+	public void decodeToMonoWithLimit() {
+		Flux<DataBuffer> input = Flux.just(
+				stringBuffer("foo"),
+				stringBuffer("bar"),
+				stringBuffer("baz"));
+
+		this.decoder.setMaxInMemorySize(8);
+
+		testDecodeToMono(input, String.class, step -> step
+				.verifyError(DataBufferLimitException.class));
+	}
+
 	@Test
 	public void decodeEmptyFlux() {
 		Flux<DataBuffer> input = Flux.empty();
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CompositeDataBuffer}.
+ *
+ * @author Arjen Poutsma
+ */
+public class CompositeDataBufferTests {
+
+	private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+
+	@Test
+	public void compose() {
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		assertTrue(this.bufferFactory.compose(Arrays.asList(foo, bar)) instanceof CompositeDataBuffer);
+		assertEquals(foo, this.bufferFactory.compose(Arrays.asList(foo)));
+	}
+
+	@Test
+	public void read() {
+		CompositeDataBuffer buffer = composite("foo", "", "bar", "baz");
+		assertEquals(9, buffer.readableByteCount());
+		assertEquals(9, buffer.capacity());
+		assertEquals('b', buffer.getByte(3));
+		assertEquals('f', buffer.read());
+
+		byte[] bytes = new byte[5];
+		buffer.read(bytes);
+		assertEquals("oobar", new String(bytes, StandardCharsets.UTF_8));
+		assertEquals("baz", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void indexOf() {
+		CompositeDataBuffer buffer = composite("foo", "", "bar");
+		assertEquals(3, buffer.indexOf(b -> b == 'b', 0));
+		assertEquals(-1, buffer.indexOf(b -> b == 'f', 1));
+		assertEquals(2, buffer.lastIndexOf(b -> b == 'o', 5));
+		assertEquals(-1, buffer.lastIndexOf(b -> b == 'r', 4));
+	}
+
+	@Test
+	public void asByteBuffer() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		assertEquals("oba", asString(buffer.asByteBuffer(1, 3)));
+		assertEquals("ar", asString(buffer.asByteBuffer(4, 2)));
+		assertEquals("foobar", asString(buffer.asByteBuffer()));
+	}
+
+	@Test
+	public void asInputStream() throws Exception {
+		CompositeDataBuffer buffer = composite("foo", "bar", "baz");
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertEquals("foobarbaz", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+		}
+		assertFalse(buffer.isAllocated());
+	}
+
+	@Test
+	public void write() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		buffer.write("baz".getBytes(StandardCharsets.UTF_8));
+		buffer.write((byte) '!');
+		buffer.write("qux", StandardCharsets.UTF_8);
+
+		assertEquals(3, buffer.componentCount());
+		assertEquals("foobarbaz!qux", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void writePosition() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		buffer.writePosition(2);
+		assertEquals("fo", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+
+		buffer.readPosition(0);
+		buffer.write("x".getBytes(StandardCharsets.UTF_8));
+		assertEquals("fox", DataBufferTestUtils.dumpString(buffer, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void slice() {
+		CompositeDataBuffer buffer = composite("foo", "bar", "baz");
+		DataBuffer slice = buffer.retainedSlice(2, 5);
+		assertEquals("obarb", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+
+		assertFalse(buffer.release());
+		assertTrue(((PooledDataBuffer) slice).isAllocated());
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(buffer.isAllocated());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void writeToSlice() {
+		CompositeDataBuffer buffer = composite("foo", "bar");
+		buffer.slice(2, 2).write((byte) 'x');
+	}
+
+	@Test
+	public void releaseComponents() {
+		PooledDataBufferFactory pooledFactory = new PooledDataBufferFactory();
+		DataBuffer foo = pooledFactory.allocateBuffer(3).write("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer bar = pooledFactory.allocateBuffer(3).write("bar".getBytes(StandardCharsets.UTF_8));
+
+		DataBuffer buffer = pooledFactory.compose(Arrays.asList(foo, bar));
+		assertTrue(DataBufferUtils.release(buffer));
+		assertFalse(((PooledDataBuffer) foo).isAllocated());
+		assertFalse(((PooledDataBuffer) bar).isAllocated());
+	}
+
+
+	private CompositeDataBuffer composite(String... values) {
+		return new CompositeDataBuffer(this.bufferFactory,
+				Arrays.stream(values).map(this::stringBuffer).collect(Collectors.toList()));
+	}
+
+	private DataBuffer stringBuffer(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return this.bufferFactory.allocateBuffer(bytes.length).write(bytes);
+	}
+
+	private static String asString(ByteBuffer byteBuffer) {
+		byte[] bytes = new byte[byteBuffer.remaining()];
+		byteBuffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -48,6 +48,7 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.support.DataBufferTestUtils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -738,6 +739,36 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 				.verify();
 	}
 
+	@Test
+	public void joinWithLimit() {
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer baz = stringBuffer("baz");
+		Flux<DataBuffer> flux = Flux.just(foo, bar, baz);
+		Mono<DataBuffer> result = DataBufferUtils.join(flux, 8);
+
+		StepVerifier.create(result)
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	public void compose() {
+		DataBuffer foo = stringBuffer("foo");
+		DataBuffer bar = stringBuffer("bar");
+		DataBuffer baz = stringBuffer("baz");
+		Flux<DataBuffer> flux = Flux.just(foo, bar, baz);
+		Mono<DataBuffer> result = DataBufferUtils.compose(flux, -1);
+
+		StepVerifier.create(result)
+				.consumeNextWith(dataBuffer -> {
+					assertEquals("foobarbaz",
+							DataBufferTestUtils.dumpString(dataBuffer, StandardCharsets.UTF_8));
+					release(dataBuffer);
+				})
+				.verifyComplete();
+	}
+
 	@Test
 	public void joinCanceled() {
 		Flux<DataBuffer> source = Flux.concat(
@@ -786,6 +817,37 @@ public class DataBufferUtilsTests extends AbstractDataBufferAllocatingTestCase {
 		release(foo);
 	}
 
+	@Test
+	public void matcherWithMultipleDelimiters() {
+		DataBuffer foo = stringBuffer("foo\r");
+		DataBuffer bar = stringBuffer("\nbar\nbaz");
+
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(
+				"\r\n".getBytes(StandardCharsets.UTF_8), "\n".getBytes(StandardCharsets.UTF_8));
+		assertEquals(-1, matcher.match(foo));
+		assertEquals(0, matcher.match(bar));
+		assertArrayEquals("\r\n".getBytes(StandardCharsets.UTF_8), matcher.delimiter());
+		bar.readPosition(1);
+		assertEquals(4, matcher.match(bar));
+		assertArrayEquals("\n".getBytes(StandardCharsets.UTF_8), matcher.delimiter());
+		bar.readPosition(5);
+		assertEquals(-1, matcher.match(bar));
+
+		release(foo, bar);
+	}
+
+	@Test
+	public void matcherWithOverlappingDelimiters() {
+		DataBuffer foo = stringBuffer("abc");
+
+		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(
+				"abc".getBytes(StandardCharsets.UTF_8), "b".getBytes(StandardCharsets.UTF_8));
+		assertEquals(1, matcher.match(foo));
+		assertArrayEquals("b".getBytes(StandardCharsets.UTF_8), matcher.delimiter());
+
+		release(foo);
+	}
+
 	@Test
 	public void split() {
 		Mono<DataBuffer> source =
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LeakTrackingDataBufferFactory}.
+ *
+ * @author Arjen Poutsma
+ */
+public class LeakTrackingDataBufferFactoryTests {
+
+	private final LeakTrackingDataBufferFactory bufferFactory =
+			new LeakTrackingDataBufferFactory(new DefaultDataBufferFactory(), 1);
+
+
+	@Test
+	public void countLiveBuffers() {
+		DataBuffer foo = this.bufferFactory.allocateBuffer(10);
+		DataBuffer bar = this.bufferFactory.allocateBuffer(20);
+		assertEquals(2, this.bufferFactory.getLiveBufferCount());
+		assertEquals(30, this.bufferFactory.getLiveByteCount());
+		assertEquals(2, this.bufferFactory.getUnreleasedAllocationSites().size());
+
+		assertTrue(DataBufferUtils.release(foo));
+		assertEquals(1, this.bufferFactory.getLiveBufferCount());
+		assertEquals(20, this.bufferFactory.getLiveByteCount());
+
+		assertTrue(DataBufferUtils.release(bar));
+		assertEquals(0, this.bufferFactory.getLiveBufferCount());
+		assertEquals(0, this.bufferFactory.getLiveByteCount());
+		assertTrue(this.bufferFactory.getUnreleasedAllocationSites().isEmpty());
+	}
+
+	@Test
+	public void allocationSite() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		List<Throwable> allocationSites = this.bufferFactory.getUnreleasedAllocationSites();
+		assertEquals(1, allocationSites.size());
+		assertTrue(Arrays.stream(allocationSites.get(0).getStackTrace())
+				.anyMatch(element -> element.getMethodName().equals("allocationSite")));
+		DataBufferUtils.release(buffer);
+	}
+
+	@Test
+	public void noSampling() {
+		LeakTrackingDataBufferFactory bufferFactory =
+				new LeakTrackingDataBufferFactory(new DefaultDataBufferFactory(), 0);
+		DataBuffer buffer = bufferFactory.allocateBuffer(10);
+
+		assertEquals(1, bufferFactory.getLiveBufferCount());
+		assertTrue(bufferFactory.getUnreleasedAllocationSites().isEmpty());
+		DataBufferUtils.release(buffer);
+		assertEquals(0, bufferFactory.getLiveBufferCount());
+	}
+
+	@Test
+	public void retainAndSlice() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.retainedSlice(3, 3);
+
+		assertFalse(DataBufferUtils.release(buffer));
+		assertEquals(1, this.bufferFactory.getLiveBufferCount());
+		assertEquals("bar", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+		assertEquals(0, this.bufferFactory.getLiveBufferCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releaseTwice() {
+		PooledDataBuffer buffer = (PooledDataBuffer) this.bufferFactory.allocateBuffer(10);
+		buffer.release();
+		buffer.release();
+	}
+
+	@Test
+	public void scope() {
+		LeakTrackingDataBufferFactory scope = this.bufferFactory.createScope();
+		DataBuffer foo = this.bufferFactory.allocateBuffer(10);
+		DataBuffer bar = scope.allocateBuffer(20);
+
+		assertEquals(2, this.bufferFactory.getLiveBufferCount());
+		assertEquals(1, scope.getLiveBufferCount());
+		assertEquals(20, scope.getLiveByteCount());
+		assertEquals(1, scope.getUnreleasedAllocationSites().size());
+		assertEquals(scope, bar.factory());
+
+		DataBufferUtils.release(bar);
+		assertEquals(1, this.bufferFactory.getLiveBufferCount());
+		assertEquals(0, scope.getLiveBufferCount());
+		DataBufferUtils.release(foo);
+	}
+
+	@Test
+	public void adopt() {
+		LeakTrackingDataBufferFactory scope = this.bufferFactory.createScope();
+		DataBuffer foo = this.bufferFactory.allocateBuffer(10);
+		DataBuffer wrapped = this.bufferFactory.wrap(new byte[10]);
+
+		DataBuffer adopted = scope.adopt(foo);
+		assertEquals(scope, adopted.factory());
+		assertEquals(1, this.bufferFactory.getLiveBufferCount());
+		assertEquals(1, scope.getLiveBufferCount());
+		assertEquals(10, scope.getLiveByteCount());
+		assertSame(adopted, scope.adopt(adopted));
+		assertSame(wrapped, scope.adopt(wrapped));
+
+		DataBufferUtils.release(adopted);
+		assertEquals(0, this.bufferFactory.getLiveBufferCount());
+		assertEquals(0, scope.getLiveBufferCount());
+	}
+
+	@Test
+	public void join() {
+		DataBuffer foo = this.bufferFactory.allocateBuffer(3).write("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer bar = this.bufferFactory.allocateBuffer(3).write("bar".getBytes(StandardCharsets.UTF_8));
+
+		DataBuffer result = this.bufferFactory.join(Arrays.asList(foo, bar));
+		assertEquals(1, this.bufferFactory.getLiveBufferCount());
+		assertEquals("foobar", DataBufferTestUtils.dumpString(result, StandardCharsets.UTF_8));
+
+		DataBufferUtils.release(result);
+		assertEquals(0, this.bufferFactory.getLiveBufferCount());
+	}
+
+	@Test
+	public void toByteBufStopsTracking() {
+		LeakTrackingDataBufferFactory bufferFactory =
+				new LeakTrackingDataBufferFactory(new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT));
+		DataBuffer buffer = bufferFactory.allocateBuffer(10);
+		assertEquals(1, bufferFactory.getLiveBufferCount());
+
+		ByteBuf byteBuf = NettyDataBufferFactory.toByteBuf(buffer);
+		assertEquals(0, bufferFactory.getLiveBufferCount());
+		assertTrue(byteBuf.release());
+	}
+
+}
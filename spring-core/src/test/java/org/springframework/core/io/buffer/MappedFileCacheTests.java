@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link MappedFileCache}.
+ *
+ * @author Arjen Poutsma
+ */
+public class MappedFileCacheTests extends AbstractDataBufferAllocatingTestCase {
+
+	private final MappedFileCache cache = new MappedFileCache(20);
+
+	private Path tempFile;
+
+
+	@Before
+	public void setUp() throws IOException {
+		this.tempFile = Files.createTempFile("MappedFileCacheTests", null);
+		Files.write(this.tempFile, "foobarbazqux".getBytes(StandardCharsets.UTF_8));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		this.cache.clear();
+		Files.deleteIfExists(this.tempFile);
+	}
+
+
+	@Test
+	public void read() {
+		Flux<DataBuffer> flux = this.cache.read(new FileSystemResource(this.tempFile), 0, this.bufferFactory, 3);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("foo"))
+				.consumeNextWith(stringConsumer("bar"))
+				.consumeNextWith(stringConsumer("baz"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertEquals(12, this.cache.getMappedBytes());
+	}
+
+	@Test
+	public void readDeferredUntilSubscribed() {
+		Flux<DataBuffer> flux = this.cache.read(new FileSystemResource(this.tempFile), 0, this.bufferFactory, 20);
+		assertEquals(0, this.cache.getMappedBytes());
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("foobarbazqux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertEquals(12, this.cache.getMappedBytes());
+	}
+
+	@Test
+	public void readConcurrently() {
+		FileSystemResource resource = new FileSystemResource(this.tempFile);
+		Flux<DataBuffer> flux = Flux.merge(
+				this.cache.read(resource, 0, this.bufferFactory, 20),
+				this.cache.read(resource, 0, this.bufferFactory, 20));
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("foobarbazqux"))
+				.consumeNextWith(stringConsumer("foobarbazqux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+
+		assertEquals(12, this.cache.getMappedBytes());
+	}
+
+	@Test
+	public void readPosition() {
+		Flux<DataBuffer> flux = this.cache.read(new FileSystemResource(this.tempFile), 5, this.bufferFactory, 4);
+
+		StepVerifier.create(flux)
+				.consumeNextWith(stringConsumer("rbaz"))
+				.consumeNextWith(stringConsumer("qux"))
+				.expectComplete()
+				.verify(Duration.ofSeconds(3));
+	}
+
+	@Test
+	public void readModifiedFile() throws IOException {
+		FileSystemResource resource = new FileSystemResource(this.tempFile);
+		StepVerifier.create(this.cache.read(resource, 0, this.bufferFactory, 20))
+				.consumeNextWith(stringConsumer("foobarbazqux"))
+				.verifyComplete();
+
+		Files.write(this.tempFile, "foobar".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(this.tempFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+		StepVerifier.create(this.cache.read(resource, 0, this.bufferFactory, 20))
+				.consumeNextWith(stringConsumer("foobar"))
+				.verifyComplete();
+
+		assertEquals(6, this.cache.getMappedBytes());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws IOException {
+		Path otherFile = Files.createTempFile("MappedFileCacheTests", null);
+		try {
+			Files.write(otherFile, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+			StepVerifier.create(this.cache.read(new FileSystemResource(this.tempFile), 0, this.bufferFactory, 20))
+					.consumeNextWith(stringConsumer("foobarbazqux"))
+					.verifyComplete();
+			StepVerifier.create(this.cache.read(new FileSystemResource(otherFile), 0, this.bufferFactory, 20))
+					.consumeNextWith(stringConsumer("0123456789"))
+					.verifyComplete();
+
+			assertEquals(10, this.cache.getMappedBytes());
+		}
+		finally {
+			this.cache.clear();
+			Files.deleteIfExists(otherFile);
+		}
+	}
+
+	@Test
+	public void readNonFileResource() {
+		ByteArrayResource resource = new ByteArrayResource("foobar".getBytes(StandardCharsets.UTF_8));
+
+		StepVerifier.create(this.cache.read(resource, 0, this.bufferFactory, 3))
+				.consumeNextWith(stringConsumer("foo"))
+				.consumeNextWith(stringConsumer("bar"))
+				.verifyComplete();
+
+		assertEquals(0, this.cache.getMappedBytes());
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.io.buffer;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.springframework.core.io.buffer.support.DataBufferTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PooledDataBufferFactory}.
+ *
+ * @author Arjen Poutsma
+ */
+public class PooledDataBufferFactoryTests {
+
+	private final PooledDataBufferFactory bufferFactory = new PooledDataBufferFactory(false, 1024, 2);
+
+
+	@Test
+	public void allocateRoundsUpToSizeClass() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		assertEquals(256, buffer.capacity());
+		assertTrue(buffer instanceof PooledDataBuffer);
+		release(buffer);
+
+		buffer = this.bufferFactory.allocateBuffer(257);
+		assertEquals(512, buffer.capacity());
+		release(buffer);
+
+		buffer = this.bufferFactory.allocateBuffer(5000);
+		assertEquals(5000, buffer.capacity());
+		release(buffer);
+	}
+
+	@Test
+	public void releasedBufferIsReused() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(100);
+		byte[] array = buffer.asByteBuffer().array();
+		buffer.write("foo".getBytes(StandardCharsets.UTF_8));
+		assertTrue(DataBufferUtils.release(buffer));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+
+		DataBuffer other = this.bufferFactory.allocateBuffer(200);
+		assertSame(array, other.asByteBuffer().array());
+		assertEquals(0, other.readableByteCount());
+		assertEquals(256, other.writableByteCount());
+		release(other);
+
+		DataBuffer larger = this.bufferFactory.allocateBuffer(300);
+		assertNotSame(array, larger.asByteBuffer().array());
+		release(larger);
+	}
+
+	@Test
+	public void sliceSharesReferenceCount() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		buffer.write("foobar".getBytes(StandardCharsets.UTF_8));
+		DataBuffer slice = buffer.retainedSlice(3, 3);
+
+		assertFalse(DataBufferUtils.release(buffer));
+		assertTrue(((PooledDataBuffer) slice).isAllocated());
+		assertEquals("bar", DataBufferTestUtils.dumpString(slice, StandardCharsets.UTF_8));
+
+		assertTrue(DataBufferUtils.release(slice));
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releaseTwice() {
+		PooledDataBuffer buffer = (PooledDataBuffer) this.bufferFactory.allocateBuffer(10);
+		buffer.release();
+		buffer.release();
+	}
+
+	@Test
+	public void growBeyondCapacity() {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(10);
+		byte[] array = buffer.asByteBuffer().array();
+		buffer.write(new byte[300]);
+
+		assertTrue(buffer.capacity() >= 300);
+		assertEquals(300, buffer.readableByteCount());
+		assertTrue(DataBufferUtils.release(buffer));
+
+		// The original native buffer may still be in use by slices
+		DataBuffer other = this.bufferFactory.allocateBuffer(10);
+		assertNotSame(array, other.asByteBuffer().array());
+		release(other);
+	}
+
+	@Test
+	public void join() {
+		DataBuffer foo = this.bufferFactory.allocateBuffer(3).write("foo".getBytes(StandardCharsets.UTF_8));
+		DataBuffer bar = this.bufferFactory.wrap("bar".getBytes(StandardCharsets.UTF_8));
+
+		DataBuffer result = this.bufferFactory.join(Arrays.asList(foo, bar));
+		assertFalse(((PooledDataBuffer) foo).isAllocated());
+		assertEquals("foobar", DataBufferTestUtils.dumpString(result, StandardCharsets.UTF_8));
+		release(result);
+	}
+
+	@Test
+	public void inputStreamReleaseOnClose() throws Exception {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(3).write("foo".getBytes(StandardCharsets.UTF_8));
+		try (InputStream inputStream = buffer.asInputStream(true)) {
+			assertEquals('f', inputStream.read());
+		}
+		assertFalse(((PooledDataBuffer) buffer).isAllocated());
+	}
+
+
+	private static void release(DataBuffer buffer) {
+		assertTrue(DataBufferUtils.release(buffer));
+	}
+
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Compact {@link MultiValueMap} for HTTP headers, with case-insensitive
+ * header names and insertion order iteration.
+ *
+ * <p>Entries are kept in parallel arrays in insertion order, indexed by an
+ * open-addressing hash table. Header names are hashed and compared with ASCII
+ * case folding, without creating lower-case copies of the names, and common
+ * header names are replaced with shared constants. Each header keeps its values
+ * in an {@link ArrayList} sized for a single value.
+ *
+ * <p>This is used as a lighter alternative to the default map of
+ * {@link HttpHeaders#HttpHeaders()} for headers that are copied from an
+ * underlying server or client library, primarily for internal use within the
+ * framework. It is not thread-safe.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ * @see HttpHeaders#HttpHeaders(MultiValueMap)
+ */
+public final class CompactHeadersMap extends AbstractMap<String, List<String>>
+		implements MultiValueMap<String, String>, Serializable {
+
+	private static final long serialVersionUID = -2958214328187376418L;
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+	private static final String[] COMMON_HEADER_NAMES = {
+			HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_CHARSET, HttpHeaders.ACCEPT_ENCODING,
+			HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.ACCEPT_RANGES, HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS,
+			HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS,
+			HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+			HttpHeaders.ACCESS_CONTROL_MAX_AGE, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS,
+			HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.AGE, HttpHeaders.ALLOW,
+			HttpHeaders.AUTHORIZATION, HttpHeaders.CACHE_CONTROL, HttpHeaders.CONNECTION,
+			HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.CONTENT_LANGUAGE,
+			HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_LOCATION, HttpHeaders.CONTENT_RANGE,
+			HttpHeaders.CONTENT_TYPE, HttpHeaders.COOKIE, HttpHeaders.DATE, HttpHeaders.ETAG,
+			HttpHeaders.EXPECT, HttpHeaders.EXPIRES, HttpHeaders.FROM, HttpHeaders.HOST,
+			HttpHeaders.IF_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_NONE_MATCH,
+			HttpHeaders.IF_RANGE, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.LAST_MODIFIED,
+			HttpHeaders.LINK, HttpHeaders.LOCATION, HttpHeaders.MAX_FORWARDS, HttpHeaders.ORIGIN,
+			HttpHeaders.PRAGMA, HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION,
+			HttpHeaders.RANGE, HttpHeaders.REFERER, HttpHeaders.RETRY_AFTER, HttpHeaders.SERVER,
+			HttpHeaders.SET_COOKIE, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING,
+			HttpHeaders.UPGRADE, HttpHeaders.USER_AGENT, HttpHeaders.VARY, HttpHeaders.VIA,
+			HttpHeaders.WARNING, HttpHeaders.WWW_AUTHENTICATE, "Keep-Alive", "Forwarded",
+			"X-Forwarded-For", "X-Forwarded-Host", "X-Forwarded-Port", "X-Forwarded-Proto",
+			"X-Forwarded-Prefix", "X-Requested-With", "Sec-WebSocket-Key", "Sec-WebSocket-Version"};
+
+	/** Open-addressing table of canonical header names, indexed by case-insensitive hash. */
+	private static final String[] commonNameTable = new String[256];
+
+	/** Lower-case variants of the names in {@link #commonNameTable}, at the same index. */
+	private static final String[] commonLowerCaseNameTable = new String[256];
+
+	static {
+		int mask = commonNameTable.length - 1;
+		for (String name : COMMON_HEADER_NAMES) {
+			int i = hash(name) & mask;
+			while (commonNameTable[i] != null) {
+				i = (i + 1) & mask;
+			}
+			commonNameTable[i] = name;
+			commonLowerCaseNameTable[i] = name.toLowerCase(Locale.ENGLISH);
+		}
+	}
+
+
+	private String[] names;
+
+	private int[] hashes;
+
+	private Object[] values;
+
+	/** Number of used positions in the entry arrays, including removed entries. */
+	private int count;
+
+	private int size;
+
+	/** Hash table of entry positions plus one, with 0 marking an empty slot. */
+	private int[] table;
+
+
+	/**
+	 * Create a new, empty instance with a default initial capacity.
+	 */
+	public CompactHeadersMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a new, empty instance.
+	 * @param expectedSize the number of headers to reserve room for
+	 */
+	public CompactHeadersMap(int expectedSize) {
+		int capacity = Math.max(expectedSize, 2);
+		this.names = new String[capacity];
+		this.hashes = new int[capacity];
+		this.values = new Object[capacity];
+		this.table = new int[tableSizeFor(capacity)];
+	}
+
+
+	// Map implementation
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (this.size == 0);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof String && indexOf((String) key) != -1);
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (key instanceof String) {
+			int index = indexOf((String) key);
+			if (index != -1) {
+				return valuesAt(index);
+			}
+		}
+		return null;
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		int hash = hash(key);
+		int index = indexOf(key, hash);
+		if (index != -1) {
+			List<String> oldValue = valuesAt(index);
+			if (this.names[index].equals(key)) {
+				this.values[index] = value;
+				return oldValue;
+			}
+			// Same header with different casing: the last one wins, as with LinkedCaseInsensitiveMap
+			removeAt(index);
+			append(key, hash, value);
+			return oldValue;
+		}
+		append(key, hash, value);
+		return null;
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		if (key instanceof String) {
+			int index = indexOf((String) key);
+			if (index != -1) {
+				List<String> oldValue = valuesAt(index);
+				removeAt(index);
+				return oldValue;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.names, 0, this.count, null);
+		Arrays.fill(this.values, 0, this.count, null);
+		Arrays.fill(this.table, 0);
+		this.count = 0;
+		this.size = 0;
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		return new EntrySet();
+	}
+
+
+	// MultiValueMap implementation
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		List<String> values = get(key);
+		return (values != null && !values.isEmpty() ? values.get(0) : null);
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		int hash = hash(key);
+		int index = indexOf(key, hash);
+		if (index != -1) {
+			valuesAt(index).add(value);
+		}
+		else {
+			List<String> values = new ArrayList<>(1);
+			values.add(value);
+			append(key, hash, values);
+		}
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		int hash = hash(key);
+		int index = indexOf(key, hash);
+		if (index != -1) {
+			valuesAt(index).addAll(values);
+		}
+		else {
+			append(key, hash, new ArrayList<>(values));
+		}
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		for (Entry<String, List<String>> entry : values.entrySet()) {
+			addAll(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		List<String> values = new ArrayList<>(1);
+		values.add(value);
+		put(key, values);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		values.forEach(this::set);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		Map<String, String> singleValueMap = new LinkedHashMap<>(this.size);
+		for (int i = 0; i < this.count; i++) {
+			if (this.names[i] != null) {
+				List<String> values = valuesAt(i);
+				singleValueMap.put(this.names[i], (!values.isEmpty() ? values.get(0) : null));
+			}
+		}
+		return singleValueMap;
+	}
+
+
+	// Internal helpers
+
+	private int indexOf(String name) {
+		return indexOf(name, hash(name));
+	}
+
+	private int indexOf(String name, int hash) {
+		int mask = this.table.length - 1;
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			int slot = this.table[i];
+			if (slot == 0) {
+				return -1;
+			}
+			int index = slot - 1;
+			String candidate = this.names[index];
+			// Removed entries (null name) are left in the table, to keep probe sequences intact
+			if (candidate != null && this.hashes[index] == hash && candidate.equalsIgnoreCase(name)) {
+				return index;
+			}
+		}
+	}
+
+	private void append(String name, int hash, List<String> values) {
+		if (this.count == this.names.length) {
+			resize();
+		}
+		int index = this.count++;
+		this.names[index] = commonName(name, hash);
+		this.hashes[index] = hash;
+		this.values[index] = values;
+		this.size++;
+		insertIntoTable(index, hash);
+	}
+
+	private void insertIntoTable(int index, int hash) {
+		int mask = this.table.length - 1;
+		int i = hash & mask;
+		while (this.table[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		this.table[i] = index + 1;
+	}
+
+	private void removeAt(int index) {
+		this.names[index] = null;
+		this.values[index] = null;
+		this.size--;
+	}
+
+	/**
+	 * Make room for another entry, dropping removed entries and growing the
+	 * arrays if more than half of the entries are still in use.
+	 */
+	private void resize() {
+		int capacity = (this.size >= this.count / 2 ? this.names.length * 2 : this.names.length);
+		String[] oldNames = this.names;
+		int[] oldHashes = this.hashes;
+		Object[] oldValues = this.values;
+		int oldCount = this.count;
+		this.names = new String[capacity];
+		this.hashes = new int[capacity];
+		this.values = new Object[capacity];
+		this.table = new int[tableSizeFor(capacity)];
+		this.count = 0;
+		for (int i = 0; i < oldCount; i++) {
+			if (oldNames[i] != null) {
+				int index = this.count++;
+				this.names[index] = oldNames[i];
+				this.hashes[index] = oldHashes[i];
+				this.values[index] = oldValues[i];
+				insertIntoTable(index, oldHashes[i]);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<String> valuesAt(int index) {
+		return (List<String>) this.values[index];
+	}
+
+	/**
+	 * Return a table size that is a power of two and at least twice the given
+	 * capacity, so that every probe sequence ends at an empty slot.
+	 */
+	private static int tableSizeFor(int capacity) {
+		return Integer.highestOneBit(capacity - 1) << 2;
+	}
+
+	/**
+	 * Case-insensitive hash code, folding ASCII characters without a lookup,
+	 * consistent with {@link String#equalsIgnoreCase}.
+	 */
+	private static int hash(String name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c < 128) {
+				if (c >= 'A' && c <= 'Z') {
+					c += 32;
+				}
+			}
+			else {
+				c = Character.toLowerCase(Character.toUpperCase(c));
+			}
+			hash = 31 * hash + c;
+		}
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Return the shared constant for a common header name that is given in its
+	 * canonical or its lower-case form, or otherwise the given name as-is.
+	 */
+	private static String commonName(String name, int hash) {
+		int mask = commonNameTable.length - 1;
+		for (int i = hash & mask; commonNameTable[i] != null; i = (i + 1) & mask) {
+			String candidate = commonNameTable[i];
+			if (candidate.equals(name)) {
+				return candidate;
+			}
+			if (commonLowerCaseNameTable[i].equals(name)) {
+				return commonLowerCaseNameTable[i];
+			}
+		}
+		return name;
+	}
+
+
+	private class EntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Iterator<Entry<String, List<String>>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public void clear() {
+			CompactHeadersMap.this.clear();
+		}
+	}
+
+
+	private class EntryIterator implements Iterator<Entry<String, List<String>>> {
+
+		private int next = -1;
+
+		private int current = -1;
+
+		EntryIterator() {
+			advance();
+		}
+
+		private void advance() {
+			do {
+				this.next++;
+			}
+			while (this.next < count && names[this.next] == null);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (this.next < count);
+		}
+
+		@Override
+		public Entry<String, List<String>> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.current = this.next;
+			advance();
+			return new HeaderEntry(this.current);
+		}
+
+		@Override
+		public void remove() {
+			if (this.current == -1 || names[this.current] == null) {
+				throw new IllegalStateException();
+			}
+			removeAt(this.current);
+		}
+	}
+
+
+	private class HeaderEntry implements Entry<String, List<String>> {
+
+		private final int index;
+
+		private final String name;
+
+		HeaderEntry(int index) {
+			this.index = index;
+			this.name = names[index];
+		}
+
+		@Override
+		public String getKey() {
+			return this.name;
+		}
+
+		@Override
+		public List<String> getValue() {
+			return valuesAt(this.index);
+		}
+
+		@Override
+		public List<String> setValue(List<String> value) {
+			List<String> oldValue = valuesAt(this.index);
+			values[this.index] = value;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> otherEntry = (Entry<?, ?>) other;
+			return (this.name.equals(otherEntry.getKey()) && getValue().equals(otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.name.hashCode() ^ getValue().hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.name + "=" + getValue();
+		}
+	}
+
+}
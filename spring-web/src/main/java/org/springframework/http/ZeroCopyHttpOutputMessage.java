@@ -18,9 +18,17 @@ package org.springframework.http;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.List;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
 /**
  * Sub-interface of {@code ReactiveOutputMessage} that has support for "zero-copy"
  * file transfers.
@@ -55,4 +63,30 @@ public interface ZeroCopyHttpOutputMessage extends ReactiveHttpOutputMessage {
 	 */
 	Mono<Void> writeWith(Path file, long position, long count);
 
+	/**
+	 * Write the body as a sequence of data buffers and file regions, in the
+	 * given order, using zero-copy transfers for the file regions. This allows
+	 * file content to be interleaved with other content, as is the case for
+	 * "multipart/byteranges" responses.
+	 * <p>By default, file regions are read into data buffers and written
+	 * through {@link #writeWith(org.reactivestreams.Publisher)}.
+	 * @param parts the parts of the body, each either a {@link DataBuffer} or
+	 * a {@link ResourceRegion} of a {@link org.springframework.core.io.Resource#isFile() file}
+	 * resource
+	 * @return a publisher that indicates completion or error.
+	 * @since 5.2
+	 */
+	default Mono<Void> writeWith(List<?> parts) {
+		return writeWith(Flux.fromIterable(parts).concatMap(part -> {
+			if (part instanceof DataBuffer) {
+				return Flux.just((DataBuffer) part);
+			}
+			Assert.isInstanceOf(ResourceRegion.class, part);
+			ResourceRegion region = (ResourceRegion) part;
+			Flux<DataBuffer> in = DataBufferUtils.read(
+					region.getResource(), region.getPosition(), bufferFactory(), StreamUtils.BUFFER_SIZE);
+			return DataBufferUtils.takeUntilByteCount(in, region.getCount());
+		}));
+	}
+
 }
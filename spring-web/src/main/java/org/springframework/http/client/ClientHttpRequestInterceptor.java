@@ -64,4 +64,20 @@ public interface ClientHttpRequestInterceptor {
 	ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
 			throws IOException;
 
+	/**
+	 * Whether this interceptor needs to see the request body.
+	 * <p>If none of the interceptors in a chain require the body, a request
+	 * body written through {@link org.springframework.http.StreamingHttpOutputMessage}
+	 * is streamed to the underlying request instead of being buffered in
+	 * memory first. {@link #intercept} is then passed an empty body array,
+	 * and passing that same empty array on to the
+	 * {@link ClientHttpRequestExecution} writes the streamed body.
+	 * <p>The default implementation returns {@code true}. Interceptors that
+	 * only look at the URI and headers can return {@code false}.
+	 * @since 5.2
+	 */
+	default boolean requiresRequestBody() {
+		return true;
+	}
+
 }
@@ -25,6 +25,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.util.EntityUtils;
 
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StreamUtils;
@@ -66,7 +67,7 @@ final class HttpComponentsClientHttpResponse extends AbstractClientHttpResponse
 	@Override
 	public HttpHeaders getHeaders() {
 		if (this.headers == null) {
-			this.headers = new HttpHeaders();
+			this.headers = new HttpHeaders(new CompactHeadersMap());
 			for (Header header : this.httpResponse.getAllHeaders()) {
 				this.headers.add(header.getName(), header.getValue());
 			}
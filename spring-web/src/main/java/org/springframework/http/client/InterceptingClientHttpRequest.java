@@ -25,16 +25,23 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StreamUtils;
 
 /**
  * Wrapper for a {@link ClientHttpRequest} that has support for {@link ClientHttpRequestInterceptor ClientHttpRequest} that has support for {@link ClientHttpRequestInterceptors}.
  *
+ * <p>The request body is buffered so that interceptors can access it, unless
+ * it is written through {@link StreamingHttpOutputMessage#setBody} and none
+ * of the interceptors {@linkplain ClientHttpRequestInterceptor#requiresRequestBody()
+ * require the body}, in which case it is streamed to the underlying request.
+ *
  * @author Arjen Poutsma
  * @since 3.1
  */
-class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
+class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest
+		implements StreamingHttpOutputMessage {
 
 	private final ClientHttpRequestFactory requestFactory;
 
@@ -44,6 +51,9 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 
 	private URI uri;
 
+	@Nullable
+	private Body body;
+
 
 	protected InterceptingClientHttpRequest(ClientHttpRequestFactory requestFactory,
 			List<ClientHttpRequestInterceptor> interceptors, URI uri, HttpMethod method) {
@@ -70,19 +80,50 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 		return this.uri;
 	}
 
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		if (this.body != null) {
+			if (isStreaming()) {
+				InterceptingRequestExecution requestExecution = new InterceptingRequestExecution(this.body);
+				return requestExecution.execute(this, new byte[0]);
+			}
+			this.body.writeTo(getBody());
+		}
+		return super.executeInternal(headers);
+	}
+
 	@Override
 	protected final ClientHttpResponse executeInternal(HttpHeaders headers, byte[] bufferedOutput) throws IOException {
-		InterceptingRequestExecution requestExecution = new InterceptingRequestExecution();
+		InterceptingRequestExecution requestExecution = new InterceptingRequestExecution(null);
 		return requestExecution.execute(this, bufferedOutput);
 	}
 
+	private boolean isStreaming() {
+		for (ClientHttpRequestInterceptor interceptor : this.interceptors) {
+			if (interceptor.requiresRequestBody()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 
 	private class InterceptingRequestExecution implements ClientHttpRequestExecution {
 
 		private final Iterator<ClientHttpRequestInterceptor> iterator;
 
-		public InterceptingRequestExecution() {
+		@Nullable
+		private final Body streamingBody;
+
+		public InterceptingRequestExecution(@Nullable Body streamingBody) {
 			this.iterator = interceptors.iterator();
+			this.streamingBody = streamingBody;
 		}
 
 		@Override
@@ -105,6 +146,14 @@ class InterceptingClientHttpRequest extends AbstractBufferingClientHttpRequest {
 						StreamUtils.copy(body, delegate.getBody());
 					}
 				}
+				else if (this.streamingBody != null) {
+					if (delegate instanceof StreamingHttpOutputMessage) {
+						((StreamingHttpOutputMessage) delegate).setBody(this.streamingBody);
+					}
+					else {
+						this.streamingBody.writeTo(delegate.getBody());
+					}
+				}
 				return delegate.execute();
 			}
 		}
@@ -24,6 +24,7 @@ import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.FullHttpResponse;
 
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -73,7 +74,7 @@ class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
 	public HttpHeaders getHeaders() {
 		HttpHeaders headers = this.headers;
 		if (headers == null) {
-			headers = new HttpHeaders();
+			headers = new HttpHeaders(new CompactHeadersMap());
 			for (Map.Entry<String, String> entry : this.nettyResponse.headers()) {
 				headers.add(entry.getKey(), entry.getValue());
 			}
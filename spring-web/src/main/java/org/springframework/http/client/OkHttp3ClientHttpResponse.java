@@ -22,6 +22,7 @@ import java.io.InputStream;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
@@ -69,7 +70,7 @@ class OkHttp3ClientHttpResponse extends AbstractClientHttpResponse {
 	public HttpHeaders getHeaders() {
 		HttpHeaders headers = this.headers;
 		if (headers == null) {
-			headers = new HttpHeaders();
+			headers = new HttpHeaders(new CompactHeadersMap());
 			for (String headerName : this.response.headers().names()) {
 				for (String headerValue : this.response.headers(headerName)) {
 					headers.add(headerName, headerValue);
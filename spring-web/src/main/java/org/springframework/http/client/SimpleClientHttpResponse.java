@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StreamUtils;
@@ -64,7 +65,7 @@ final class SimpleClientHttpResponse extends AbstractClientHttpResponse {
 	@Override
 	public HttpHeaders getHeaders() {
 		if (this.headers == null) {
-			this.headers = new HttpHeaders();
+			this.headers = new HttpHeaders(new CompactHeadersMap());
 			// Header field 0 is the status line for most HttpURLConnections, but not on GAE
 			String name = this.connection.getHeaderFieldKey(0);
 			if (StringUtils.hasLength(name)) {
@@ -26,6 +26,7 @@ import reactor.netty.http.client.HttpClientResponse;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -81,7 +82,7 @@ class ReactorClientHttpResponse implements ClientHttpResponse {
 
 	@Override
 	public HttpHeaders getHeaders() {
-		HttpHeaders headers = new HttpHeaders();
+		HttpHeaders headers = new HttpHeaders(new CompactHeadersMap());
 		this.response.responseHeaders().entries().forEach(e -> headers.add(e.getKey(), e.getValue()));
 		return headers;
 	}
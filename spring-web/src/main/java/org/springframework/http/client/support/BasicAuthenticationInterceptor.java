@@ -84,4 +84,9 @@ public class BasicAuthenticationInterceptor implements ClientHttpRequestIntercep
 		return execution.execute(request, body);
 	}
 
+	@Override
+	public boolean requiresRequestBody() {
+		return false;
+	}
+
 }
@@ -67,4 +67,9 @@ public class BasicAuthorizationInterceptor implements ClientHttpRequestIntercept
 		return execution.execute(request, body);
 	}
 
+	@Override
+	public boolean requiresRequestBody() {
+		return false;
+	}
+
 }
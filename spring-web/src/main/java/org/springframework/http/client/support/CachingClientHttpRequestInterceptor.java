@@ -0,0 +1,327 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that answers {@code GET} requests from
+ * an {@link HttpResponseCache} where possible, revalidating stale entries
+ * with conditional requests, and that stores cacheable responses.
+ *
+ * <p>Concurrent cache misses for the same URI and credentials are collapsed:
+ * only one request is executed, while the others wait for its response and
+ * are answered from the cache, provided the response could be stored.
+ *
+ * <p>Responses that are stored are read into memory in full, up to the
+ * {@link HttpResponseCache#getMaxSize() maximum size} of the cache. Responses
+ * that declare a larger {@code Content-Length}, or turn out to be larger while
+ * reading, are not stored and are returned with their body streamed; all
+ * other responses are returned as they are.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @see HttpResponseCache
+ */
+public class CachingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final HttpResponseCache cache;
+
+	private final Map<String, CompletableFuture<HttpResponseCache.Entry>> inFlight = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new interceptor for the given cache.
+	 * @param cache the cache to use
+	 */
+	public CachingClientHttpRequestInterceptor(HttpResponseCache cache) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		this.cache = cache;
+	}
+
+
+	/**
+	 * Return the configured cache.
+	 */
+	public HttpResponseCache getCache() {
+		return this.cache;
+	}
+
+
+	@Override
+	public ClientHttpResponse intercept(
+			HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+
+		URI uri = request.getURI();
+		HttpHeaders headers = request.getHeaders();
+		if (!this.cache.isCacheable(request.getMethod(), headers)) {
+			ClientHttpResponse response = execution.execute(request, body);
+			if (this.cache.isInvalidating(request.getMethod(), response.getRawStatusCode())) {
+				this.cache.evict(uri);
+			}
+			return response;
+		}
+
+		HttpResponseCache.Entry entry = this.cache.get(uri, headers);
+		if (entry != null && this.cache.isFresh(entry, headers)) {
+			return new CachedClientHttpResponse(entry.getStatusCode(), entry.getHeaders(), entry.getBody());
+		}
+
+		String key = this.cache.getKey(uri, headers);
+		CompletableFuture<HttpResponseCache.Entry> flight = new CompletableFuture<>();
+		CompletableFuture<HttpResponseCache.Entry> existing = this.inFlight.putIfAbsent(key, flight);
+		if (existing != null) {
+			HttpResponseCache.Entry shared = await(existing);
+			if (shared != null && shared.matches(headers)) {
+				return new CachedClientHttpResponse(shared.getStatusCode(), shared.getHeaders(), shared.getBody());
+			}
+			return execution.execute(request, body);
+		}
+
+		HttpResponseCache.Entry stored = null;
+		try {
+			CachingResult result = fetch(request, body, execution, entry);
+			stored = result.entry;
+			return result.response;
+		}
+		finally {
+			this.inFlight.remove(key, flight);
+			flight.complete(stored);
+		}
+	}
+
+	private CachingResult fetch(HttpRequest request, byte[] body, ClientHttpRequestExecution execution,
+			@Nullable HttpResponseCache.Entry entry) throws IOException {
+
+		URI uri = request.getURI();
+		HttpHeaders requestHeaders = request.getHeaders();
+		HttpRequest requestToUse = request;
+		if (entry != null) {
+			HttpHeaders conditionalHeaders = new HttpHeaders();
+			conditionalHeaders.putAll(requestHeaders);
+			this.cache.addConditionalHeaders(entry, conditionalHeaders);
+			requestToUse = new HttpRequestWrapper(request) {
+				@Override
+				public HttpHeaders getHeaders() {
+					return conditionalHeaders;
+				}
+			};
+		}
+
+		long requestTime = this.cache.getClock().millis();
+		ClientHttpResponse response = execution.execute(requestToUse, body);
+		int statusCode = response.getRawStatusCode();
+
+		if (entry != null && statusCode == HttpStatus.NOT_MODIFIED.value()) {
+			HttpHeaders notModifiedHeaders = response.getHeaders();
+			response.close();
+			HttpResponseCache.Entry updated =
+					this.cache.revalidated(uri, requestHeaders, entry, notModifiedHeaders, requestTime);
+			return new CachingResult(updated, new CachedClientHttpResponse(
+					updated.getStatusCode(), updated.getHeaders(), updated.getBody()));
+		}
+
+		HttpHeaders responseHeaders = response.getHeaders();
+		if (!this.cache.isStorable(statusCode, responseHeaders) ||
+				responseHeaders.getContentLength() > this.cache.getMaxSize()) {
+			this.cache.evict(uri);
+			return new CachingResult(null, response);
+		}
+
+		int maxSize = (int) Math.min(this.cache.getMaxSize(), Integer.MAX_VALUE - 1);
+		byte[] bytes;
+		try {
+			bytes = readAtMost(response.getBody(), maxSize + 1);
+		}
+		catch (IOException | RuntimeException ex) {
+			response.close();
+			throw ex;
+		}
+		if (bytes.length > maxSize) {
+			this.cache.evict(uri);
+			return new CachingResult(null, new PartiallyReadClientHttpResponse(response, bytes));
+		}
+		response.close();
+		HttpResponseCache.Entry stored =
+				this.cache.put(uri, requestHeaders, statusCode, responseHeaders, bytes, requestTime);
+		return new CachingResult(stored, new CachedClientHttpResponse(statusCode, responseHeaders, bytes));
+	}
+
+	private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, StreamUtils.BUFFER_SIZE));
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+		int remaining = limit;
+		int bytesRead;
+		while (remaining > 0 && (bytesRead = in.read(buffer, 0, Math.min(buffer.length, remaining))) != -1) {
+			out.write(buffer, 0, bytesRead);
+			remaining -= bytesRead;
+		}
+		return out.toByteArray();
+	}
+
+	@Nullable
+	private static HttpResponseCache.Entry await(CompletableFuture<HttpResponseCache.Entry> flight)
+			throws IOException {
+
+		try {
+			return flight.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for concurrent request", ex);
+		}
+		catch (ExecutionException ex) {
+			return null;
+		}
+	}
+
+
+	private static class CachingResult {
+
+		@Nullable
+		final HttpResponseCache.Entry entry;
+
+		final ClientHttpResponse response;
+
+		CachingResult(@Nullable HttpResponseCache.Entry entry, ClientHttpResponse response) {
+			this.entry = entry;
+			this.response = response;
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a stored, or fully read, response.
+	 */
+	private static class CachedClientHttpResponse implements ClientHttpResponse {
+
+		private final int statusCode;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		CachedClientHttpResponse(int statusCode, HttpHeaders headers, byte[] body) {
+			this.statusCode = statusCode;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() {
+			return HttpStatus.valueOf(this.statusCode);
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return this.statusCode;
+		}
+
+		@Override
+		public String getStatusText() {
+			HttpStatus status = HttpStatus.resolve(this.statusCode);
+			return (status != null ? status.getReasonPhrase() : "");
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.body);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+
+	/**
+	 * {@link ClientHttpResponse} for a response that turned out to be too large
+	 * to store: replays the bytes read so far, followed by the rest of the body.
+	 */
+	private static class PartiallyReadClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse response;
+
+		private final byte[] bytesRead;
+
+		@Nullable
+		private InputStream body;
+
+		PartiallyReadClientHttpResponse(ClientHttpResponse response, byte[] bytesRead) {
+			this.response = response;
+			this.bytesRead = bytesRead;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return this.response.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return this.response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return this.response.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.response.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if (this.body == null) {
+				this.body = new SequenceInputStream(new ByteArrayInputStream(this.bytesRead), this.response.getBody());
+			}
+			return this.body;
+		}
+
+		@Override
+		public void close() {
+			this.response.close();
+		}
+	}
+
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Bounded, in-memory store for HTTP responses that implements the caching rules
+ * of <a href="https://tools.ietf.org/html/rfc7234">RFC 7234</a> for a private
+ * (i.e. client side) cache. Shared by {@link CachingClientHttpRequestInterceptor}
+ * and the {@code CachingExchangeFilterFunction} of Spring WebFlux.
+ *
+ * <p>Only responses to {@code GET} requests are stored, and only if they carry
+ * explicit freshness information ({@code Cache-Control: max-age} or
+ * {@code Expires}) or a validator ({@code ETag} or {@code Last-Modified}).
+ * No heuristic freshness is applied, so responses with only a validator are
+ * revalidated on every use. Entries are keyed by URI and by the credentials
+ * of the request, i.e. its {@code Authorization} and {@code Cookie} headers,
+ * so that a response is never served to a request made on behalf of another
+ * user. The request headers listed in the {@code Vary} response header are
+ * taken into account as well. Entries are evicted in least recently used order
+ * once the combined size of the stored bodies exceeds the configured maximum.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+public class HttpResponseCache {
+
+	/**
+	 * Status codes that are cacheable by default, as per RFC 7231 section 6.1.
+	 */
+	private static final Set<Integer> CACHEABLE_STATUS_CODES =
+			new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501));
+
+	private static final List<String> CREDENTIAL_HEADERS =
+			Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+
+	private static final Set<String> NOT_MODIFIED_EXCLUDED_HEADERS = new HashSet<>(Arrays.asList(
+			HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ENGLISH),
+			HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ENGLISH),
+			HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ENGLISH)));
+
+
+	private final long maxSize;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private Clock clock = Clock.system(ZoneId.of("GMT"));
+
+
+	/**
+	 * Create a new cache that holds response bodies up to the given combined size.
+	 * @param maxSize the maximum combined size of the stored bodies, in bytes
+	 */
+	public HttpResponseCache(long maxSize) {
+		Assert.isTrue(maxSize > 0, "'maxSize' must be positive");
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Return the configured maximum combined size of the stored bodies.
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Configure the {@link Clock} to use to determine the age of responses.
+	 * <p>By default this is {@code Clock.system(ZoneId.of("GMT"))}.
+	 * @param clock the clock to use
+	 */
+	public void setClock(Clock clock) {
+		Assert.notNull(clock, "Clock is required");
+		this.clock = clock;
+	}
+
+	/**
+	 * Return the configured clock for response age calculations.
+	 */
+	public Clock getClock() {
+		return this.clock;
+	}
+
+
+	/**
+	 * Whether a request with the given method and headers may be answered
+	 * from, and stored in, this cache. Requests with {@code Cache-Control: no-store},
+	 * conditional requests, and range requests are passed through as they are.
+	 */
+	public boolean isCacheable(@Nullable HttpMethod method, HttpHeaders requestHeaders) {
+		return (HttpMethod.GET == method &&
+				!parseCacheControl(requestHeaders).containsKey("no-store") &&
+				!requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH) &&
+				!requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE) &&
+				!requestHeaders.containsKey(HttpHeaders.RANGE));
+	}
+
+	/**
+	 * Whether a response with the given status and headers can be stored.
+	 */
+	public boolean isStorable(int statusCode, HttpHeaders responseHeaders) {
+		if (!CACHEABLE_STATUS_CODES.contains(statusCode)) {
+			return false;
+		}
+		Map<String, String> cacheControl = parseCacheControl(responseHeaders);
+		if (cacheControl.containsKey("no-store") || responseHeaders.getVary().contains("*")) {
+			return false;
+		}
+		return (cacheControl.containsKey("max-age") || responseHeaders.containsKey(HttpHeaders.EXPIRES) ||
+				responseHeaders.getETag() != null || responseHeaders.containsKey(HttpHeaders.LAST_MODIFIED));
+	}
+
+	/**
+	 * Whether a successful response to a request with the given method
+	 * invalidates stored responses for its URI, as per RFC 7234 section 4.4.
+	 */
+	public boolean isInvalidating(@Nullable HttpMethod method, int statusCode) {
+		return (method != null && method != HttpMethod.GET && method != HttpMethod.HEAD &&
+				method != HttpMethod.OPTIONS && method != HttpMethod.TRACE &&
+				statusCode >= 200 && statusCode < 400);
+	}
+
+	/**
+	 * Return the key under which a response to a request for the given URI,
+	 * with the given headers, is stored: the URI, along with the credentials
+	 * of the request, if any. Useful for collapsing concurrent requests that
+	 * may share a response.
+	 */
+	public String getKey(URI uri, HttpHeaders requestHeaders) {
+		String key = uri.toString();
+		for (String headerName : CREDENTIAL_HEADERS) {
+			List<String> values = requestHeaders.get(headerName);
+			if (values != null) {
+				key += "\n" + headerName + ":" + values;
+			}
+		}
+		return key;
+	}
+
+	/**
+	 * Return the entry stored for the given URI that matches the given request
+	 * headers, if any. The entry may be stale, see {@link #isFresh}.
+	 */
+	@Nullable
+	public synchronized Entry get(URI uri, HttpHeaders requestHeaders) {
+		Entry entry = this.entries.get(getKey(uri, requestHeaders));
+		return (entry != null && entry.matches(requestHeaders) ? entry : null);
+	}
+
+	/**
+	 * Whether the given entry can be used without revalidation for a request
+	 * with the given headers.
+	 */
+	public boolean isFresh(Entry entry, HttpHeaders requestHeaders) {
+		Map<String, String> cacheControl = parseCacheControl(requestHeaders);
+		String pragma = requestHeaders.getPragma();
+		if (cacheControl.containsKey("no-cache") || (pragma != null && pragma.contains("no-cache"))) {
+			return false;
+		}
+		long age = entry.getAge(this.clock.millis());
+		long maxAge = parseSeconds(cacheControl.get("max-age"));
+		if (maxAge != -1 && age > maxAge) {
+			return false;
+		}
+		return (age < entry.freshnessLifetime);
+	}
+
+	/**
+	 * Add the validators of the given entry to the given request headers,
+	 * turning the request into a conditional one for revalidation.
+	 */
+	public void addConditionalHeaders(Entry entry, HttpHeaders requestHeaders) {
+		String eTag = entry.getHeaders().getETag();
+		if (eTag != null) {
+			requestHeaders.setIfNoneMatch(eTag);
+		}
+		long lastModified = entry.getHeaders().getLastModified();
+		if (lastModified != -1) {
+			requestHeaders.setIfModifiedSince(lastModified);
+		}
+	}
+
+	/**
+	 * Store the given response, if {@link #isStorable storable} and not larger
+	 * than the maximum size, replacing any entry for the same URI and credentials.
+	 * @param uri the URI of the request
+	 * @param requestHeaders the headers of the request
+	 * @param statusCode the status code of the response
+	 * @param responseHeaders the headers of the response
+	 * @param body the body of the response
+	 * @param requestTime the time at which the request was sent, as per {@link #getClock()}
+	 * @return the stored entry, or {@code null} if the response was not stored
+	 */
+	@Nullable
+	public Entry put(URI uri, HttpHeaders requestHeaders, int statusCode, HttpHeaders responseHeaders,
+			byte[] body, long requestTime) {
+
+		String key = getKey(uri, requestHeaders);
+		if (!isStorable(statusCode, responseHeaders) || body.length > this.maxSize) {
+			remove(key);
+			return null;
+		}
+		Entry entry = new Entry(statusCode, responseHeaders, body, requestHeaders, requestTime, this.clock.millis());
+		synchronized (this) {
+			Entry previous = this.entries.put(key, entry);
+			if (previous != null) {
+				this.size -= previous.getBody().length;
+			}
+			this.size += body.length;
+			Iterator<Entry> iterator = this.entries.values().iterator();
+			while (this.size > this.maxSize && iterator.hasNext()) {
+				this.size -= iterator.next().getBody().length;
+				iterator.remove();
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Update the given entry after successful revalidation, i.e. after a
+	 * {@code 304 Not Modified} response, as per RFC 7234 section 4.3.4.
+	 * @param uri the URI of the request
+	 * @param requestHeaders the headers of the request
+	 * @param entry the revalidated entry
+	 * @param notModifiedHeaders the headers of the {@code 304} response
+	 * @param requestTime the time at which the request was sent, as per {@link #getClock()}
+	 * @return the updated entry
+	 */
+	public Entry revalidated(URI uri, HttpHeaders requestHeaders, Entry entry, HttpHeaders notModifiedHeaders,
+			long requestTime) {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(entry.getHeaders());
+		notModifiedHeaders.forEach((name, values) -> {
+			if (!NOT_MODIFIED_EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ENGLISH))) {
+				headers.put(name, values);
+			}
+		});
+		Entry updated = put(uri, requestHeaders, entry.getStatusCode(), headers, entry.getBody(), requestTime);
+		return (updated != null ? updated :
+				new Entry(entry.getStatusCode(), headers, entry.getBody(), requestHeaders, requestTime,
+						this.clock.millis()));
+	}
+
+	/**
+	 * Remove the entries for the given URI, whatever the credentials they were
+	 * stored for, if any.
+	 */
+	public synchronized void evict(URI uri) {
+		String key = uri.toString();
+		Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String, Entry> entry = iterator.next();
+			String entryKey = entry.getKey();
+			if (entryKey.startsWith(key) &&
+					(entryKey.length() == key.length() || entryKey.charAt(key.length()) == '\n')) {
+				this.size -= entry.getValue().getBody().length;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+		this.size = 0;
+	}
+
+	/**
+	 * Return the number of stored entries.
+	 */
+	public synchronized int getEntryCount() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Return the combined size of the stored bodies, in bytes.
+	 */
+	public synchronized long getSize() {
+		return this.size;
+	}
+
+	private synchronized void remove(String key) {
+		Entry entry = this.entries.remove(key);
+		if (entry != null) {
+			this.size -= entry.getBody().length;
+		}
+	}
+
+
+	private static Map<String, String> parseCacheControl(HttpHeaders headers) {
+		List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+		if (values == null) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> directives = new LinkedHashMap<>(4);
+		for (String value : values) {
+			for (String directive : StringUtils.tokenizeToStringArray(value, ",")) {
+				int index = directive.indexOf('=');
+				String name = (index != -1 ? directive.substring(0, index) : directive).trim();
+				String argument = (index != -1 ? StringUtils.trimTrailingCharacter(
+						StringUtils.trimLeadingCharacter(directive.substring(index + 1).trim(), '"'), '"') : "");
+				directives.putIfAbsent(name.toLowerCase(Locale.ENGLISH), argument);
+			}
+		}
+		return directives;
+	}
+
+	/**
+	 * Parse the given delta-seconds value into milliseconds, or -1 if invalid.
+	 */
+	private static long parseSeconds(@Nullable String value) {
+		if (!StringUtils.hasLength(value)) {
+			return -1;
+		}
+		try {
+			long seconds = Long.parseLong(value);
+			return (seconds >= 0 ? seconds * 1000 : -1);
+		}
+		catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	private static long getDate(HttpHeaders headers, String headerName) {
+		try {
+			return headers.getFirstDate(headerName);
+		}
+		catch (IllegalArgumentException ex) {
+			return -1;
+		}
+	}
+
+
+	/**
+	 * A stored response.
+	 */
+	public static final class Entry {
+
+		private final int statusCode;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		private final Map<String, List<String>> varyValues;
+
+		private final long initialAge;
+
+		private final long responseTime;
+
+		private final long freshnessLifetime;
+
+		Entry(int statusCode, HttpHeaders headers, byte[] body, HttpHeaders requestHeaders,
+				long requestTime, long responseTime) {
+
+			this.statusCode = statusCode;
+			HttpHeaders headersToUse = new HttpHeaders();
+			headersToUse.putAll(headers);
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headersToUse);
+			this.body = body;
+			this.varyValues = new LinkedHashMap<>(4);
+			for (String name : headers.getVary()) {
+				List<String> values = requestHeaders.get(name);
+				this.varyValues.put(name, (values != null ? values : Collections.emptyList()));
+			}
+			// RFC 7234 section 4.2.3
+			long date = getDate(headers, HttpHeaders.DATE);
+			long apparentAge = (date != -1 ? Math.max(0, responseTime - date) : 0);
+			long ageValue = Math.max(0, parseSeconds(headers.getFirst(HttpHeaders.AGE)));
+			this.initialAge = Math.max(apparentAge, ageValue + (responseTime - requestTime));
+			this.responseTime = responseTime;
+			this.freshnessLifetime = freshnessLifetime(headers, (date != -1 ? date : responseTime));
+		}
+
+		// RFC 7234 section 4.2.1, without heuristic freshness
+		private static long freshnessLifetime(HttpHeaders headers, long date) {
+			Map<String, String> cacheControl = parseCacheControl(headers);
+			if (cacheControl.containsKey("no-cache")) {
+				return 0;
+			}
+			long maxAge = parseSeconds(cacheControl.get("max-age"));
+			if (maxAge != -1) {
+				return maxAge;
+			}
+			long expires = headers.getExpires();
+			return (expires != -1 ? Math.max(0, expires - date) : 0);
+		}
+
+		/**
+		 * Return the status code of the stored response.
+		 */
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		/**
+		 * Return the (read-only) headers of the stored response.
+		 */
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * Return the body of the stored response. Callers must not modify the array.
+		 */
+		public byte[] getBody() {
+			return this.body;
+		}
+
+		/**
+		 * Return the age of the stored response at the given time, in milliseconds.
+		 */
+		public long getAge(long now) {
+			return this.initialAge + Math.max(0, now - this.responseTime);
+		}
+
+		/**
+		 * Whether this entry applies to a request with the given headers,
+		 * as per the {@code Vary} header of the stored response.
+		 */
+		public boolean matches(HttpHeaders requestHeaders) {
+			for (Map.Entry<String, List<String>> entry : this.varyValues.entrySet()) {
+				List<String> values = requestHeaders.get(entry.getKey());
+				if (!entry.getValue().equals(values != null ? values : Collections.emptyList())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -143,6 +143,25 @@ public interface CodecConfigurer {
 		 */
 		void jaxb2Encoder(Encoder<?> encoder);
 
+		/**
+		 * Configure a limit on the number of bytes that can be buffered whenever
+		 * the input stream needs to be aggregated. This can be a result of
+		 * decoding to a single {@code DataBuffer},
+		 * {@link java.nio.ByteBuffer ByteBuffer}, {@code byte[]},
+		 * {@link org.springframework.core.io.Resource Resource}, {@code String}, etc.
+		 * It can also occur when splitting the input stream, e.g. delimited text,
+		 * in which case the limit applies to data buffered between delimiters.
+		 * <p>The limit is enforced while buffers are aggregated, and once it is
+		 * exceeded, the buffers received so far are released and
+		 * {@link org.springframework.core.io.buffer.DataBufferLimitException}
+		 * is raised.
+		 * <p>By default this is not set, in which case individual codec defaults
+		 * apply. In 5.2 all codecs are limited to 256K by default.
+		 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+		 * @since 5.2
+		 */
+		void maxInMemorySize(int byteCount);
+
 		/**
 		 * Whether to log form data at DEBUG level, and headers at TRACE level.
 		 * Both may contain sensitive information.
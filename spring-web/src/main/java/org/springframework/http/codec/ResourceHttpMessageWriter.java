@@ -18,6 +18,8 @@ package org.springframework.http.codec;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,6 +38,7 @@ import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.MappedFileCache;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpLogging;
@@ -92,6 +95,29 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 	}
 
 
+	/**
+	 * Configure a cache of memory-mapped files to read file resources and
+	 * regions through, when they cannot be transferred with zero-copy.
+	 * <p>By default this is not set.
+	 * @param mappedFileCache the cache to use
+	 * @since 5.2
+	 * @see ResourceEncoder#setMappedFileCache
+	 * @see ResourceRegionEncoder#setMappedFileCache
+	 */
+	public void setMappedFileCache(@Nullable MappedFileCache mappedFileCache) {
+		this.encoder.setMappedFileCache(mappedFileCache);
+		this.regionEncoder.setMappedFileCache(mappedFileCache);
+	}
+
+	/**
+	 * Return the configured {@link #setMappedFileCache cache of memory-mapped files}.
+	 * @since 5.2
+	 */
+	@Nullable
+	public MappedFileCache getMappedFileCache() {
+		return this.encoder.getMappedFileCache();
+	}
+
 	@Override
 	public boolean canWrite(ResolvableType elementType, @Nullable MediaType mediaType) {
 		return this.encoder.canEncode(elementType, mediaType);
@@ -226,12 +252,48 @@ public class ResourceHttpMessageWriter implements HttpMessageWriter<Resource> {
 				String boundary = MimeTypeUtils.generateMultipartBoundaryString();
 				MediaType multipartType = MediaType.parseMediaType("multipart/byteranges;boundary=" + boundary);
 				headers.setContentType(multipartType);
-				Map<String, Object> allHints = Hints.merge(hints, ResourceRegionEncoder.BOUNDARY_STRING_HINT, boundary);
-				return encodeAndWriteRegions(Flux.fromIterable(regions), resourceMediaType, response, allHints);
+				return zeroCopy(regions, boundary, resourceMediaType, response, hints)
+						.orElseGet(() -> {
+							Map<String, Object> allHints =
+									Hints.merge(hints, ResourceRegionEncoder.BOUNDARY_STRING_HINT, boundary);
+							return encodeAndWriteRegions(Flux.fromIterable(regions), resourceMediaType, response, allHints);
+						});
 			}
 		});
 	}
 
+	/**
+	 * Zero-copy for "multipart/byteranges": the boundaries and part headers,
+	 * as the {@link ResourceRegionEncoder} would write them, interleaved with
+	 * the file regions to transfer.
+	 */
+	private static Optional<Mono<Void>> zeroCopy(List<ResourceRegion> regions, String boundary,
+			MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+
+		if (!(message instanceof ZeroCopyHttpOutputMessage) ||
+				!regions.stream().allMatch(region -> region.getResource().isFile())) {
+			return Optional.empty();
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(Hints.getLogPrefix(hints) + "Zero-copy " + regions.size() + " regions of [" +
+					regions.get(0).getResource() + "]");
+		}
+		DataBufferFactory factory = message.bufferFactory();
+		List<Object> parts = new ArrayList<>(regions.size() * 2 + 1);
+		for (ResourceRegion region : regions) {
+			long start = region.getPosition();
+			long end = start + region.getCount() - 1;
+			long length = lengthOf(region.getResource());
+			String partHeaders = "\r\n--" + boundary + "\r\n" +
+					"Content-Type: " + mediaType + "\r\n" +
+					"Content-Range: bytes " + start + '-' + end + (length != -1 ? "/" + length : "") + "\r\n\r\n";
+			parts.add(factory.wrap(partHeaders.getBytes(StandardCharsets.US_ASCII)));
+			parts.add(region);
+		}
+		parts.add(factory.wrap(("\r\n--" + boundary + "--").getBytes(StandardCharsets.US_ASCII)));
+		return Optional.of(((ZeroCopyHttpOutputMessage) message).writeWith(parts));
+	}
+
 	private Mono<Void> writeSingleRegion(ResourceRegion region, ReactiveHttpOutputMessage message,
 			Map<String, Object> hints) {
 
@@ -48,14 +48,14 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 	private static final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
 
-	private static final StringDecoder stringDecoder = StringDecoder.textPlainOnly();
-
 	private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
 
 
 	@Nullable
 	private final Decoder<?> decoder;
 
+	private final StringDecoder lineDecoder = StringDecoder.textPlainOnly();
+
 
 	/**
 	 * Constructor without a {@code Decoder}. In this mode only {@code String}
@@ -82,6 +82,25 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		return this.decoder;
 	}
 
+	/**
+	 * Configure a limit on the maximum number of bytes per SSE line, which
+	 * is buffered until the end of the line is found.
+	 * <p>By default this is set to 256K.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 * @since 5.2
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.lineDecoder.setMaxInMemorySize(byteCount);
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 * @since 5.2
+	 */
+	public int getMaxInMemorySize() {
+		return this.lineDecoder.getMaxInMemorySize();
+	}
+
 	@Override
 	public List<MediaType> getReadableMediaTypes() {
 		return Collections.singletonList(MediaType.TEXT_EVENT_STREAM);
@@ -104,7 +123,7 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 		boolean shouldWrap = isServerSentEvent(elementType);
 		ResolvableType valueType = (shouldWrap ? elementType.getGeneric() : elementType);
 
-		return stringDecoder.decode(message.getBody(), STRING_TYPE, null, hints)
+		return this.lineDecoder.decode(message.getBody(), STRING_TYPE, null, hints)
 				.bufferUntil(line -> line.equals(""))
 				.concatMap(lines -> Mono.justOrEmpty(buildEvent(lines, valueType, shouldWrap, hints)));
 	}
@@ -176,7 +195,7 @@ public class ServerSentEventHttpMessageReader implements HttpMessageReader<Objec
 
 		if (elementType.resolve() == String.class) {
 			Flux<DataBuffer> body = message.getBody();
-			return stringDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
+			return this.lineDecoder.decodeToMono(body, elementType, null, null).cast(Object.class);
 		}
 
 		return Mono.error(new UnsupportedOperationException(
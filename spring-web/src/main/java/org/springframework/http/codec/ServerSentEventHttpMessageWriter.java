@@ -16,9 +16,9 @@
 
 package org.springframework.http.codec;
 
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -41,11 +41,19 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 
 /**
  * {@code HttpMessageWriter} for {@code "text/event-stream"} responses.
  *
+ * <p>Each event is encoded into a single buffer allocated from the
+ * {@linkplain ReactiveHttpOutputMessage#bufferFactory() buffer factory} of
+ * the response, and by default flushed on its own. For streams with a high
+ * event rate, events can be {@linkplain #setMaxEventsPerFlush batched} into
+ * fewer flushes, and for events broadcast to many connections, the encoded
+ * bytes can be {@linkplain #setShareEncodedEvents shared}.
+ *
  * @author Sebastien Deleuze
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
@@ -61,6 +69,13 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 	@Nullable
 	private final Encoder<?> encoder;
 
+	private int maxEventsPerFlush = 1;
+
+	private Duration maxFlushDelay = Duration.ofMillis(10);
+
+	@Nullable
+	private Map<ServerSentEvent<?>, EncodedEvent> encodedEvents;
+
 
 	/**
 	 * Constructor without an {@code Encoder}. In this mode only {@code String}
@@ -88,6 +103,74 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 		return this.encoder;
 	}
 
+	/**
+	 * Set the maximum number of events to write with a single flush. Events
+	 * are flushed once this number is reached, or once the
+	 * {@link #setMaxFlushDelay max flush delay} has passed since the first
+	 * event of the batch, whichever comes first.
+	 * <p>By default this is set to 1, i.e. each event is flushed on its own.
+	 * @param maxEventsPerFlush the maximum number of events per flush
+	 * @since 5.2
+	 */
+	public void setMaxEventsPerFlush(int maxEventsPerFlush) {
+		Assert.isTrue(maxEventsPerFlush > 0, "'maxEventsPerFlush' must be > 0");
+		this.maxEventsPerFlush = maxEventsPerFlush;
+	}
+
+	/**
+	 * Return the configured maximum number of events per flush.
+	 * @since 5.2
+	 */
+	public int getMaxEventsPerFlush() {
+		return this.maxEventsPerFlush;
+	}
+
+	/**
+	 * Set the maximum time that an event is held back to be flushed together
+	 * with subsequent events, if {@link #setMaxEventsPerFlush batching} is enabled.
+	 * <p>By default this is set to 10 milliseconds.
+	 * @param maxFlushDelay the maximum delay of a flush
+	 * @since 5.2
+	 */
+	public void setMaxFlushDelay(Duration maxFlushDelay) {
+		Assert.notNull(maxFlushDelay, "'maxFlushDelay' must not be null");
+		Assert.isTrue(!maxFlushDelay.isNegative() && !maxFlushDelay.isZero(), "'maxFlushDelay' must be positive");
+		this.maxFlushDelay = maxFlushDelay;
+	}
+
+	/**
+	 * Return the configured maximum flush delay.
+	 * @since 5.2
+	 */
+	public Duration getMaxFlushDelay() {
+		return this.maxFlushDelay;
+	}
+
+	/**
+	 * Whether to keep the encoded bytes of written {@link ServerSentEvent}
+	 * instances in a cache with weak references, and to write them again,
+	 * without encoding, when the same instance is written to other connections,
+	 * as is the case when an event stream is broadcast.
+	 * <p>Events are matched by identity, and the encoded bytes are reused
+	 * regardless of the hints of the other connections, so this assumes that
+	 * broadcast events are immutable, and encoded the same for all connections.
+	 * <p>By default this is set to {@code false}.
+	 * @param shareEncodedEvents whether to share the encoded bytes of events
+	 * @since 5.2
+	 */
+	public void setShareEncodedEvents(boolean shareEncodedEvents) {
+		this.encodedEvents = (shareEncodedEvents ?
+				new ConcurrentReferenceHashMap<>(16, ConcurrentReferenceHashMap.ReferenceType.WEAK) : null);
+	}
+
+	/**
+	 * Whether the encoded bytes of events are shared.
+	 * @since 5.2
+	 */
+	public boolean isShareEncodedEvents() {
+		return (this.encodedEvents != null);
+	}
+
 	@Override
 	public List<MediaType> getWritableMediaTypes() {
 		return WRITABLE_MEDIA_TYPES;
@@ -117,74 +200,108 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 		ResolvableType dataType = (ServerSentEvent.class.isAssignableFrom(elementType.toClass()) ?
 				elementType.getGeneric() : elementType);
 
-		return Flux.from(input).map(element -> {
-
-			ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
-					(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
+		if (this.maxEventsPerFlush == 1) {
+			return Flux.from(input).map(element -> {
+				Mono<DataBuffer> bufferMono = Mono.fromCallable(() ->
+						encodeElement(element, dataType, mediaType, bufferFactory, hints));
+				return bufferMono.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+			});
+		}
 
-			StringBuilder sb = new StringBuilder();
-			String id = sse.id();
-			String event = sse.event();
-			Duration retry = sse.retry();
-			String comment = sse.comment();
-			Object data = sse.data();
-			if (id != null) {
-				writeField("id", id, sb);
-			}
-			if (event != null) {
-				writeField("event", event, sb);
-			}
-			if (retry != null) {
-				writeField("retry", retry.toMillis(), sb);
-			}
-			if (comment != null) {
-				sb.append(':').append(StringUtils.replace(comment, "\n", "\n:")).append("\n");
-			}
-			if (data != null) {
-				sb.append("data:");
-			}
+		return Flux.from(input)
+				.map(element -> encodeElement(element, dataType, mediaType, bufferFactory, hints))
+				.bufferTimeout(this.maxEventsPerFlush, this.maxFlushDelay)
+				.<Publisher<DataBuffer>>map(Flux::fromIterable)
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
+	}
 
-			Mono<DataBuffer> bufferMono = Mono.fromCallable(() ->
-					bufferFactory.join(encodeEvent(sb, data, dataType, mediaType, bufferFactory, hints)));
+	private DataBuffer encodeElement(Object element, ResolvableType dataType, MediaType mediaType,
+			DataBufferFactory bufferFactory, Map<String, Object> hints) {
 
-			return bufferMono.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release);
-		});
-	}
+		ServerSentEvent<?> sse = (element instanceof ServerSentEvent ?
+				(ServerSentEvent<?>) element : ServerSentEvent.builder().data(element).build());
 
-	private void writeField(String fieldName, Object fieldValue, StringBuilder sb) {
-		sb.append(fieldName);
-		sb.append(':');
-		sb.append(fieldValue.toString());
-		sb.append("\n");
+		Map<ServerSentEvent<?>, EncodedEvent> encodedEvents = this.encodedEvents;
+		if (encodedEvents == null || sse != element) {
+			return encodeEvent(sse, dataType, mediaType, bufferFactory, hints);
+		}
+		EncodedEvent encodedEvent = encodedEvents.get(sse);
+		if (encodedEvent == null || !encodedEvent.getMediaType().equals(mediaType)) {
+			DataBuffer buffer = encodeEvent(sse, dataType, mediaType, bufferFactory, hints);
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			DataBufferUtils.release(buffer);
+			encodedEvent = new EncodedEvent(mediaType, bytes);
+			encodedEvents.put(sse, encodedEvent);
+		}
+		return bufferFactory.wrap(encodedEvent.getBytes()); // wrapping, not allocating
 	}
 
 	@SuppressWarnings("unchecked")
-	private <T> List<DataBuffer> encodeEvent(CharSequence markup, @Nullable T data, ResolvableType dataType,
-			MediaType mediaType, DataBufferFactory factory, Map<String, Object> hints) {
+	private <T> DataBuffer encodeEvent(ServerSentEvent<T> sse, ResolvableType dataType, MediaType mediaType,
+			DataBufferFactory bufferFactory, Map<String, Object> hints) {
+
+		Charset charset = mediaType.getCharset();
+		Assert.notNull(charset, "Expected MediaType with charset");
+
+		StringBuilder sb = new StringBuilder();
+		String id = sse.id();
+		String event = sse.event();
+		Duration retry = sse.retry();
+		String comment = sse.comment();
+		T data = sse.data();
+		if (id != null) {
+			writeField("id", id, sb);
+		}
+		if (event != null) {
+			writeField("event", event, sb);
+		}
+		if (retry != null) {
+			writeField("retry", retry.toMillis(), sb);
+		}
+		if (comment != null) {
+			sb.append(':').append(StringUtils.replace(comment, "\n", "\n:")).append("\n");
+		}
 
-		List<DataBuffer> result = new ArrayList<>(4);
-		result.add(encodeText(markup, mediaType, factory));
+		DataBuffer encodedData = null;
 		if (data != null) {
+			sb.append("data:");
 			if (data instanceof String) {
-				String dataLine = StringUtils.replace((String) data, "\n", "\ndata:") + "\n";
-				result.add(encodeText(dataLine, mediaType, factory));
+				sb.append(StringUtils.replace((String) data, "\n", "\ndata:")).append("\n");
 			}
 			else if (this.encoder == null) {
 				throw new CodecException("No SSE encoder configured and the data is not String.");
 			}
 			else {
-				result.add(((Encoder<T>) this.encoder).encodeValue(data, factory, dataType, mediaType, hints));
-				result.add(encodeText("\n", mediaType, factory));
+				encodedData = ((Encoder<T>) this.encoder).encodeValue(data, bufferFactory, dataType, mediaType, hints);
 			}
 		}
-		result.add(encodeText("\n", mediaType, factory));
-		return result;
+
+		int dataLength = (encodedData != null ? encodedData.readableByteCount() + 1 : 0);
+		DataBuffer buffer = bufferFactory.allocateBuffer(sb.length() + dataLength + 1);
+		try {
+			buffer.write(sb, charset);
+			if (encodedData != null) {
+				buffer.write(encodedData);
+				buffer.write("\n", charset);
+			}
+			buffer.write("\n", charset);
+			return buffer;
+		}
+		catch (Throwable ex) {
+			DataBufferUtils.release(buffer);
+			throw ex;
+		}
+		finally {
+			DataBufferUtils.release(encodedData);
+		}
 	}
 
-	private DataBuffer encodeText(CharSequence text, MediaType mediaType, DataBufferFactory bufferFactory) {
-		Assert.notNull(mediaType.getCharset(), "Expected MediaType with charset");
-		byte[] bytes = text.toString().getBytes(mediaType.getCharset());
-		return bufferFactory.wrap(bytes); // wrapping, not allocating
+	private void writeField(String fieldName, Object fieldValue, StringBuilder sb) {
+		sb.append(fieldName);
+		sb.append(':');
+		sb.append(fieldValue.toString());
+		sb.append("\n");
 	}
 
 	@Override
@@ -208,4 +325,28 @@ public class ServerSentEventHttpMessageWriter implements HttpMessageWriter<Objec
 		return Hints.none();
 	}
 
+
+	/**
+	 * The encoded bytes of an event, for a given media type.
+	 */
+	private static class EncodedEvent {
+
+		private final MediaType mediaType;
+
+		private final byte[] bytes;
+
+		EncodedEvent(MediaType mediaType, byte[] bytes) {
+			this.mediaType = mediaType;
+			this.bytes = bytes;
+		}
+
+		MediaType getMediaType() {
+			return this.mediaType;
+		}
+
+		byte[] getBytes() {
+			return this.bytes;
+		}
+	}
+
 }
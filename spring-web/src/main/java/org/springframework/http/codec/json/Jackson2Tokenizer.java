@@ -17,6 +17,7 @@
 package org.springframework.http.codec.json;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -35,6 +36,7 @@ import reactor.core.publisher.Flux;
 
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 
 /**
@@ -61,30 +63,37 @@ final class Jackson2Tokenizer {
 
 	private int arrayDepth;
 
+	private final int maxInMemorySize;
+
+	private long inputByteCount;
+
+	private long tokenBufferStartOffset;
+
+	private long byteOffsetCorrection;
+
 	// TODO: change to ByteBufferFeeder when supported by Jackson
 	// See https://github.com/FasterXML/jackson-core/issues/478
 	private final ByteArrayFeeder inputFeeder;
 
 
-	private Jackson2Tokenizer(
-			JsonParser parser, DeserializationContext deserializationContext, boolean tokenizeArrayElements) {
+	private Jackson2Tokenizer(JsonParser parser, DeserializationContext deserializationContext,
+			boolean tokenizeArrayElements, int maxInMemorySize) {
 
 		this.parser = parser;
 		this.deserializationContext = deserializationContext;
 		this.tokenizeArrayElements = tokenizeArrayElements;
+		this.maxInMemorySize = maxInMemorySize;
 		this.tokenBuffer = new TokenBuffer(parser, deserializationContext);
 		this.inputFeeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
 	}
 
 
 	private List<TokenBuffer> tokenize(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-
 		try {
-			this.inputFeeder.feedInput(bytes, 0, bytes.length);
-			return parseTokenBufferFlux();
+			feedInput(dataBuffer);
+			List<TokenBuffer> result = parseTokenBufferFlux();
+			assertInMemorySize();
+			return result;
 		}
 		catch (JsonProcessingException ex) {
 			throw new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex);
@@ -92,6 +101,39 @@ final class Jackson2Tokenizer {
 		catch (IOException ex) {
 			throw Exceptions.propagate(ex);
 		}
+		finally {
+			// The parser has consumed all input once it reports NOT_AVAILABLE
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	/**
+	 * Feed the readable bytes of the given buffer to the parser, directly from
+	 * its backing array if it has one, or from a copy otherwise. The buffer is
+	 * released only once the parser has consumed all of it.
+	 * <p>Jackson 2.9 adds the start offset of the input within the array to
+	 * the byte offsets of {@link JsonParser#getCurrentLocation()}, on which the
+	 * {@link #assertInMemorySize() in-memory size check} relies, so the
+	 * difference is measured right after feeding the input, and subtracted.
+	 */
+	private void feedInput(DataBuffer dataBuffer) throws IOException {
+		int length = dataBuffer.readableByteCount();
+		ByteBuffer byteBuffer = dataBuffer.asByteBuffer();
+		if (byteBuffer.hasArray()) {
+			int start = byteBuffer.arrayOffset() + byteBuffer.position();
+			this.inputFeeder.feedInput(byteBuffer.array(), start, start + length);
+		}
+		else {
+			byte[] bytes = new byte[length];
+			byteBuffer.get(bytes);
+			this.inputFeeder.feedInput(bytes, 0, length);
+		}
+		this.byteOffsetCorrection = this.parser.getCurrentLocation().getByteOffset() - this.inputByteCount;
+		this.inputByteCount += length;
+	}
+
+	private long getCurrentByteOffset() {
+		return this.parser.getCurrentLocation().getByteOffset() - this.byteOffsetCorrection;
 	}
 
 	private Flux<TokenBuffer> endOfInput() {
@@ -153,6 +195,7 @@ final class Jackson2Tokenizer {
 		if ((token.isStructEnd() || token.isScalarValue()) && this.objectDepth == 0 && this.arrayDepth == 0) {
 			result.add(this.tokenBuffer);
 			this.tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
+			this.tokenBufferStartOffset = getCurrentByteOffset();
 		}
 
 	}
@@ -166,6 +209,7 @@ final class Jackson2Tokenizer {
 				(token == JsonToken.END_OBJECT || token.isScalarValue())) {
 			result.add(this.tokenBuffer);
 			this.tokenBuffer = new TokenBuffer(this.parser, this.deserializationContext);
+			this.tokenBufferStartOffset = getCurrentByteOffset();
 		}
 	}
 
@@ -174,6 +218,18 @@ final class Jackson2Tokenizer {
 				(token == JsonToken.END_ARRAY && this.arrayDepth == 0));
 	}
 
+	/**
+	 * Check the number of bytes received since the last complete token buffer,
+	 * i.e. the input held in the parser and the token buffer being aggregated.
+	 */
+	private void assertInMemorySize() {
+		if (this.maxInMemorySize >= 0 &&
+				this.inputByteCount - this.tokenBufferStartOffset > this.maxInMemorySize) {
+			throw new DataBufferLimitException(
+					"Exceeded limit on max bytes per JSON value: " + this.maxInMemorySize);
+		}
+	}
+
 
 	/**
 	 * Tokenize the given {@code Flux<DataBuffer>} into {@code Flux<TokenBuffer>}.
@@ -187,6 +243,24 @@ final class Jackson2Tokenizer {
 	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
 			ObjectMapper objectMapper, boolean tokenizeArrayElements) {
 
+		return tokenize(dataBuffers, jsonFactory, objectMapper, tokenizeArrayElements, -1);
+	}
+
+	/**
+	 * Tokenize the given {@code Flux<DataBuffer>} into {@code Flux<TokenBuffer>}.
+	 * @param dataBuffers the source data buffers
+	 * @param jsonFactory the factory to use
+	 * @param objectMapper the current mapper instance
+	 * @param tokenizeArrayElements if {@code true} and the "top level" JSON object is
+	 * an array, each element is returned individually immediately after it is received
+	 * @param maxInMemorySize the maximum number of bytes to aggregate for a single
+	 * token buffer, or -1 for no limit
+	 * @return the resulting token buffers
+	 * @since 5.2
+	 */
+	public static Flux<TokenBuffer> tokenize(Flux<DataBuffer> dataBuffers, JsonFactory jsonFactory,
+			ObjectMapper objectMapper, boolean tokenizeArrayElements, int maxInMemorySize) {
+
 		try {
 			JsonParser parser = jsonFactory.createNonBlockingByteArrayParser();
 			DeserializationContext context = objectMapper.getDeserializationContext();
@@ -194,7 +268,8 @@ final class Jackson2Tokenizer {
 				context = ((DefaultDeserializationContext) context).createInstance(
 						objectMapper.getDeserializationConfig(), parser, objectMapper.getInjectableValues());
 			}
-			Jackson2Tokenizer tokenizer = new Jackson2Tokenizer(parser, context, tokenizeArrayElements);
+			Jackson2Tokenizer tokenizer =
+					new Jackson2Tokenizer(parser, context, tokenizeArrayElements, maxInMemorySize);
 			return dataBuffers.concatMapIterable(tokenizer::tokenize).concatWith(tokenizer.endOfInput());
 		}
 		catch (IOException ex) {
@@ -17,27 +17,35 @@
 package org.springframework.http.codec.multipart;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.Channel;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMessage;
@@ -53,6 +61,17 @@ import org.springframework.util.StringUtils;
  * {@code HttpMessageReader} for parsing {@code "multipart/form-data"} requests
  * to a stream of {@link Part}'s.
  *
+ * <p>The request body is parsed as it arrives. The content of each part is
+ * kept in memory up to {@link #setMaxInMemorySize(int) maxInMemorySize} bytes,
+ * and stored in a temporary file beyond that, so that large uploads do not
+ * need a corresponding amount of heap.
+ *
+ * <p>The content of a part stored on disk can be read any number of times,
+ * until the temporary file is removed with {@link Part#delete()}. For multipart
+ * data obtained through {@code ServerWebExchange#getMultipartData()}, this is
+ * done once the request has been processed. Parts read otherwise need to be
+ * deleted by the caller.
+ *
  * <p>This reader can be provided to {@link MultipartHttpMessageReader} in order
  * to aggregate all parts into a Map.
  *
@@ -64,21 +83,120 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 	private static final Log logger = LogFactory.getLog(DefaultMultipartMessageReader.class);
 
-	private static final byte CR = '\r';
+	private static final int FILE_BUFFER_SIZE = 8192;
+
+	private static final DataBufferFactory DEFAULT_BUFFER_FACTORY = new DefaultDataBufferFactory();
+
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private int maxHeadersSize = 8 * 1024;
+
+	private int maxParts = -1;
+
+	private long maxDiskUsage = -1;
+
+	@Nullable
+	private Path fileStorageDirectory;
+
+	private Scheduler blockingOperationScheduler = Schedulers.elastic();
 
-	private static final byte LF = '\n';
 
-	private static final byte HYPHEN = '-';
+	/**
+	 * Configure the maximum number of bytes of a part that are kept in memory.
+	 * Content beyond that is stored in a temporary file, except for form fields,
+	 * which are rejected with a {@link DecodingException} instead.
+	 * <p>By default this is set to 256K. Set to -1 to keep all content in memory.
+	 */
+	public void setMaxInMemorySize(int maxInMemorySize) {
+		this.maxInMemorySize = maxInMemorySize;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} in-memory limit per part.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+	/**
+	 * Configure the maximum size of the headers of a single part.
+	 * <p>By default this is set to 8K.
+	 */
+	public void setMaxHeadersSize(int maxHeadersSize) {
+		this.maxHeadersSize = maxHeadersSize;
+	}
 
-	private static final byte[] FIRST_BOUNDARY_PREFIX = {HYPHEN, HYPHEN};
+	/**
+	 * Return the {@link #setMaxHeadersSize configured} header size limit.
+	 */
+	public int getMaxHeadersSize() {
+		return this.maxHeadersSize;
+	}
 
-	private static final byte[] BOUNDARY_PREFIX = {CR, LF, HYPHEN, HYPHEN};
+	/**
+	 * Configure the maximum number of parts of a single request.
+	 * <p>By default this is set to -1, meaning that there is no limit.
+	 */
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
 
-	private static final byte[] HEADER_BODY_SEPARATOR = {CR, LF, CR, LF};
+	/**
+	 * Return the {@link #setMaxParts configured} limit on the number of parts.
+	 */
+	public int getMaxParts() {
+		return this.maxParts;
+	}
 
-	private static final String HEADER_SEPARATOR = "\\r\\n";
+	/**
+	 * Configure the maximum number of bytes stored on disk for all parts of a
+	 * single request together.
+	 * <p>By default this is set to -1, meaning that there is no limit.
+	 */
+	public void setMaxDiskUsage(long maxDiskUsage) {
+		this.maxDiskUsage = maxDiskUsage;
+	}
 
-	private static final DataBufferUtils.Matcher HEADER_MATCHER = DataBufferUtils.matcher(HEADER_BODY_SEPARATOR);
+	/**
+	 * Return the {@link #setMaxDiskUsage configured} disk usage limit.
+	 */
+	public long getMaxDiskUsage() {
+		return this.maxDiskUsage;
+	}
+
+	/**
+	 * Configure the directory for the temporary files that hold part content
+	 * beyond the {@link #setMaxInMemorySize in-memory limit}.
+	 * <p>By default the default temporary-file directory is used.
+	 */
+	public void setFileStorageDirectory(@Nullable Path fileStorageDirectory) {
+		this.fileStorageDirectory = fileStorageDirectory;
+	}
+
+	/**
+	 * Return the {@link #setFileStorageDirectory configured} storage directory.
+	 */
+	@Nullable
+	public Path getFileStorageDirectory() {
+		return this.fileStorageDirectory;
+	}
+
+	/**
+	 * Configure the {@link Scheduler} to perform the blocking file operations on.
+	 * <p>By default this is {@link Schedulers#elastic()}.
+	 */
+	public void setBlockingOperationScheduler(Scheduler blockingOperationScheduler) {
+		Assert.notNull(blockingOperationScheduler, "'blockingOperationScheduler' is required");
+		this.blockingOperationScheduler = blockingOperationScheduler;
+	}
+
+	/**
+	 * Return the {@link #setBlockingOperationScheduler configured} scheduler.
+	 */
+	public Scheduler getBlockingOperationScheduler() {
+		return this.blockingOperationScheduler;
+	}
 
 
 	@Override
@@ -100,17 +218,20 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 					message.getHeaders().getContentType() + "\""));
 		}
 		if (logger.isTraceEnabled()) {
-			logger.trace("Boundary: " + toString(boundary));
+			logger.trace("Boundary: " + new String(boundary, StandardCharsets.ISO_8859_1));
 		}
 
-		byte[] boundaryNeedle = concat(BOUNDARY_PREFIX, boundary);
-		Flux<DataBuffer> body = skipUntilFirstBoundary(message.getBody(), boundary);
+		Flux<MultipartParser.Token> tokens =
+				MultipartParser.parse(message.getBody(), boundary, this.maxHeadersSize, this.maxParts);
 
-		return DataBufferUtils.split(body, boundaryNeedle)
-				.takeWhile(DefaultMultipartMessageReader::notLastBoundary)
-				.map(DefaultMultipartMessageReader::toPart)
-				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
-				.doOnDiscard(DefaultPart.class, part -> DataBufferUtils.release(part.body));
+		return Flux.defer(() -> {
+			PartCollector collector = new PartCollector();
+			return tokens.concatMap(collector::next)
+					.concatWith(Mono.defer(collector::complete))
+					.doOnDiscard(MultipartParser.BodyToken.class, token -> DataBufferUtils.release(token.buffer()))
+					.doOnDiscard(DefaultPart.class, DefaultPart::dispose)
+					.doFinally(signalType -> collector.dispose());
+		});
 	}
 
 	@Nullable
@@ -125,178 +246,210 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 		return null;
 	}
 
-	/**
-	 * Finds the fist occurrence of the boundary in the given stream of data buffers, and skips
-	 * all data until then. Note that the first boundary of a multipart message does not contain
-	 * the initial \r\n, hence the need for a special boundary matcher.
-	 */
-	private static Flux<DataBuffer> skipUntilFirstBoundary(Flux<DataBuffer> dataBuffers, byte[] boundary) {
-		byte[] needle = concat(FIRST_BOUNDARY_PREFIX, boundary);
-		DataBufferUtils.Matcher matcher = DataBufferUtils.matcher(needle);
-		AtomicBoolean found = new AtomicBoolean();
-
-		return dataBuffers.concatMap(dataBuffer -> {
-			if (found.get()) {
-				return Mono.just(dataBuffer);
-			}
-			else {
-				int endIdx = matcher.match(dataBuffer);
-				if (endIdx != -1) {
-					found.set(true);
-					int length = dataBuffer.writePosition() - 1 - endIdx;
-					DataBuffer slice = dataBuffer.retainedSlice(endIdx + 1, length);
-					DataBufferUtils.release(dataBuffer);
-					if (logger.isTraceEnabled()) {
-						logger.trace("Found first boundary at " + endIdx + " in " + toString(dataBuffer));
-					}
-					return Mono.just(slice);
-				}
-				else {
-					DataBufferUtils.release(dataBuffer);
-					return Mono.empty();
-				}
-			}
-		});
+	@Override
+	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
+			Map<String, Object> hints) {
+		return Mono.error(new UnsupportedOperationException(
+				"Cannot read multipart request body into single Part"));
 	}
 
-	/**
-	 * Indicates whether the given data buffer is not the last boundary, i.e. it does not start
-	 * with two hyphens.
-	 */
-	private static boolean notLastBoundary(DataBuffer dataBuffer) {
-		if (dataBuffer.readableByteCount() >= 2) {
-			int readPosition = dataBuffer.readPosition();
-			if (dataBuffer.getByte(readPosition) == HYPHEN && dataBuffer.getByte(readPosition + 1) == HYPHEN) {
-				DataBufferUtils.release(dataBuffer);
-				return false;
+	private static boolean isFormField(HttpHeaders headers) {
+		ContentDisposition cd = headers.getContentDisposition();
+		MediaType contentType = headers.getContentType();
+		return (!StringUtils.hasLength(cd.getFilename()) && StringUtils.hasLength(cd.getName()) &&
+				(contentType == null || MediaType.TEXT_PLAIN.isCompatibleWith(contentType)));
+	}
+
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not delete temporary file " + file, ex);
 			}
 		}
-		return true;
 	}
 
+	private static void closeQuietly(Channel channel) {
+		try {
+			channel.close();
+		}
+		catch (IOException ignore) {
+		}
+	}
+
+
 	/**
-	 * Convert the given data buffer into a Part. All data up until the header separator (\r\n\r\n)
-	 * is passed to {@link #toHeaders(DataBuffer)}, the remaining data is considered to be the
-	 * body.
+	 * Turns the tokens of a single request into parts, keeping track of the
+	 * disk usage of the request.
 	 */
-	private static Part toPart(DataBuffer dataBuffer) {
-		int readPosition = dataBuffer.readPosition();
-		if (dataBuffer.readableByteCount() >= 2) {
-			if (dataBuffer.getByte(readPosition) == CR && dataBuffer.getByte(readPosition + 1) == LF) {
-				dataBuffer.readPosition(readPosition + 2);
+	private class PartCollector {
+
+		@Nullable
+		private PartBuilder current;
+
+		private long diskUsage;
+
+		public Mono<Part> next(MultipartParser.Token token) {
+			HttpHeaders headers = token.headers();
+			if (headers != null) {
+				Mono<Part> previous = complete();
+				this.current = new PartBuilder(this, headers);
+				return previous;
+			}
+			DataBuffer buffer = token.buffer();
+			Assert.state(buffer != null, "No body content");
+			if (this.current == null) {
+				DataBufferUtils.release(buffer);
+				return Mono.empty();
 			}
+			return this.current.add(buffer).then(Mono.empty());
 		}
 
-		if (logger.isTraceEnabled()) {
-			logger.trace("Part data: " + toString(dataBuffer));
+		public Mono<Part> complete() {
+			PartBuilder builder = this.current;
+			this.current = null;
+			return (builder != null ? builder.build() : Mono.empty());
 		}
-		int endIdx = HEADER_MATCHER.match(dataBuffer);
 
-		HttpHeaders headers;
-		DataBuffer body;
-		if (endIdx > 0) {
-			readPosition = dataBuffer.readPosition();
-			int headersLength = endIdx + 1 - (readPosition + HEADER_BODY_SEPARATOR.length);
-			DataBuffer headersBuffer = dataBuffer.retainedSlice(readPosition, headersLength);
-			int bodyLength = dataBuffer.writePosition() - (1 + endIdx);
-			body = dataBuffer.retainedSlice(endIdx + 1, bodyLength);
-			headers = toHeaders(headersBuffer);
-		}
-		else {
-			headers = new HttpHeaders();
-			body = DataBufferUtils.retain(dataBuffer);
+		public void addDiskUsage(int byteCount) {
+			this.diskUsage += byteCount;
+			if (maxDiskUsage != -1 && this.diskUsage > maxDiskUsage) {
+				throw new DecodingException("Multipart request exceeded the disk usage limit of " +
+						maxDiskUsage + " bytes");
+			}
 		}
-		DataBufferUtils.release(dataBuffer);
 
-		ContentDisposition cd = headers.getContentDisposition();
-		MediaType contentType = headers.getContentType();
-		if (StringUtils.hasLength(cd.getFilename())) {
-			return new DefaultFilePart(headers, body);
-		}
-		else if (StringUtils.hasLength(cd.getName()) &&
-				(contentType == null || MediaType.TEXT_PLAIN.isCompatibleWith(contentType))) {
-			return new DefaultFormPart(headers, body);
-		}
-		else {
-			return new DefaultPart(headers, body);
+		public void dispose() {
+			PartBuilder builder = this.current;
+			this.current = null;
+			if (builder != null) {
+				builder.dispose();
+			}
 		}
 	}
 
+
 	/**
-	 * Convert the given data buffer into a {@link HttpHeaders} instance. The given string is read
-	 * as US-ASCII, then split along \r\n line boundaries, each line containing a header name and
-	 * value(s).
+	 * Collects the content of a single part, in memory first, and in a
+	 * temporary file once the in-memory limit is exceeded.
 	 */
-	private static HttpHeaders toHeaders(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		dataBuffer.read(bytes);
-		DataBufferUtils.release(dataBuffer);
-		String string = new String(bytes, StandardCharsets.US_ASCII);
-		String[] lines = string.split(HEADER_SEPARATOR);
-		HttpHeaders result = new HttpHeaders();
-		for (String line : lines) {
-			int idx = line.indexOf(':');
-			if (idx != -1) {
-				String name = line.substring(0, idx);
-				String value = line.substring(idx + 1);
-				while (value.startsWith(" ")) {
-					value = value.substring(1);
+	private class PartBuilder {
+
+		private final PartCollector collector;
+
+		private final HttpHeaders headers;
+
+		private final List<DataBuffer> buffers = new ArrayList<>();
+
+		private int memorySize;
+
+		private DataBufferFactory bufferFactory = DEFAULT_BUFFER_FACTORY;
+
+		@Nullable
+		private Path file;
+
+		@Nullable
+		private FileChannel channel;
+
+		public PartBuilder(PartCollector collector, HttpHeaders headers) {
+			this.collector = collector;
+			this.headers = headers;
+		}
+
+		public Mono<Void> add(DataBuffer buffer) {
+			this.bufferFactory = buffer.factory();
+			if (this.channel == null) {
+				int size = this.memorySize + buffer.readableByteCount();
+				if (maxInMemorySize == -1 || size <= maxInMemorySize) {
+					this.buffers.add(buffer);
+					this.memorySize = size;
+					return Mono.empty();
 				}
-				String[] tokens = StringUtils.tokenizeToStringArray(value, ",");
-				for (String token : tokens) {
-					result.add(name, token);
+				if (isFormField(this.headers)) {
+					DataBufferUtils.release(buffer);
+					return Mono.error(new DecodingException("Form field value exceeded the in-memory limit of " +
+							maxInMemorySize + " bytes"));
 				}
 			}
+			return Mono.<Void>fromCallable(() -> {
+				writeToFile(buffer);
+				return null;
+			}).subscribeOn(blockingOperationScheduler);
 		}
-		return result;
-	}
 
+		private void writeToFile(DataBuffer buffer) throws IOException {
+			try {
+				FileChannel channel = this.channel;
+				if (channel == null) {
+					this.file = (fileStorageDirectory != null ?
+							Files.createTempFile(fileStorageDirectory, "multipart-", ".tmp") :
+							Files.createTempFile("multipart-", ".tmp"));
+					channel = FileChannel.open(this.file, StandardOpenOption.WRITE);
+					this.channel = channel;
+					for (DataBuffer memoryBuffer : this.buffers) {
+						write(channel, memoryBuffer);
+					}
+					releaseBuffers();
+				}
+				write(channel, buffer);
+			}
+			finally {
+				DataBufferUtils.release(buffer);
+			}
+		}
 
-	private static String toString(DataBuffer dataBuffer) {
-		byte[] bytes = new byte[dataBuffer.readableByteCount()];
-		int j = 0;
-		for (int i = dataBuffer.readPosition(); i < dataBuffer.writePosition(); i++) {
-			bytes[j++] = dataBuffer.getByte(i);
+		private void write(FileChannel channel, DataBuffer buffer) throws IOException {
+			this.collector.addDiskUsage(buffer.readableByteCount());
+			ByteBuffer byteBuffer = buffer.asByteBuffer();
+			while (byteBuffer.hasRemaining()) {
+				channel.write(byteBuffer);
+			}
+		}
+
+		public Mono<Part> build() {
+			FileChannel channel = this.channel;
+			Path file = this.file;
+			if (channel == null || file == null) {
+				List<DataBuffer> content = new ArrayList<>(this.buffers);
+				this.buffers.clear();
+				return Mono.just(createPart(content, null));
+			}
+			return Mono.fromCallable(() -> {
+				channel.close();
+				return createPart(Collections.emptyList(), file);
+			}).subscribeOn(blockingOperationScheduler);
 		}
-		return toString(bytes);
-	}
 
-	private static String toString(byte[] bytes) {
-		StringBuilder builder = new StringBuilder();
-		for (byte b : bytes) {
-			if (b == CR) {
-				builder.append("␍");
+		private Part createPart(List<DataBuffer> content, @Nullable Path file) {
+			ContentDisposition cd = this.headers.getContentDisposition();
+			if (StringUtils.hasLength(cd.getFilename())) {
+				return new DefaultFilePart(this.headers, content, file, this.bufferFactory, blockingOperationScheduler);
 			}
-			else if (b == LF) {
-				builder.append("␤");
+			else if (isFormField(this.headers)) {
+				return new DefaultFormPart(this.headers, content, this.bufferFactory);
 			}
-			else if (b >= 20 && b <= 126) {
-				builder.append((char) b);
+			else {
+				return new DefaultPart(this.headers, content, file, this.bufferFactory, blockingOperationScheduler);
 			}
 		}
-		return builder.toString();
-	}
 
-
-	@Override
-	public Mono<Part> readMono(ResolvableType elementType, ReactiveHttpInputMessage message,
-			Map<String, Object> hints) {
-		return Mono.error(new UnsupportedOperationException(
-				"Cannot read multipart request body into single Part"));
-	}
-
-	private static byte[] concat(byte[]... byteArrays) {
-		int length = 0;
-		for (byte[] byteArray : byteArrays) {
-			length += byteArray.length;
+		private void releaseBuffers() {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.buffers.clear();
+			this.memorySize = 0;
 		}
-		byte[] result = new byte[length];
-		length = 0;
-		for (byte[] byteArray : byteArrays) {
-			System.arraycopy(byteArray, 0, result, length, byteArray.length);
-			length += byteArray.length;
+
+		public void dispose() {
+			releaseBuffers();
+			if (this.channel != null) {
+				closeQuietly(this.channel);
+			}
+			if (this.file != null) {
+				deleteQuietly(this.file);
+			}
 		}
-		return result;
 	}
 
 
@@ -304,11 +457,23 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		private final HttpHeaders headers;
 
-		protected final DataBuffer body;
+		private final List<DataBuffer> content;
+
+		@Nullable
+		protected final Path file;
+
+		private final DataBufferFactory bufferFactory;
+
+		private final Scheduler scheduler;
+
+		public DefaultPart(HttpHeaders headers, List<DataBuffer> content, @Nullable Path file,
+				DataBufferFactory bufferFactory, Scheduler scheduler) {
 
-		public DefaultPart(HttpHeaders headers, DataBuffer body) {
 			this.headers = headers;
-			this.body = body;
+			this.content = content;
+			this.file = file;
+			this.bufferFactory = bufferFactory;
+			this.scheduler = scheduler;
 		}
 
 		@Override
@@ -325,25 +490,70 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		@Override
 		public Flux<DataBuffer> content() {
-			return Flux.just(this.body);
+			Path file = this.file;
+			if (file == null) {
+				return Flux.fromIterable(this.content);
+			}
+			return DataBufferUtils.readByteChannel(() -> FileChannel.open(file, StandardOpenOption.READ),
+					this.bufferFactory, FILE_BUFFER_SIZE)
+					.subscribeOn(this.scheduler);
+		}
+
+		@Override
+		public Mono<Void> delete() {
+			Path file = this.file;
+			if (file == null) {
+				return Mono.empty();
+			}
+			return Mono.<Void>fromCallable(() -> {
+				Files.deleteIfExists(file);
+				return null;
+			}).subscribeOn(this.scheduler);
+		}
+
+		protected DataBufferFactory bufferFactory() {
+			return this.bufferFactory;
+		}
+
+		protected Scheduler scheduler() {
+			return this.scheduler;
+		}
+
+		public void dispose() {
+			this.content.forEach(DataBufferUtils::release);
+			if (this.file != null) {
+				deleteQuietly(this.file);
+			}
 		}
 	}
 
 
 	private static class DefaultFormPart extends DefaultPart implements FormFieldPart {
 
-		private String value;
+		private final byte[] bytes;
+
+		private final String value;
 
-		public DefaultFormPart(HttpHeaders headers, DataBuffer body) {
-			super(headers, body);
-			this.value = toString(body, contentTypeCharset(headers));
+		public DefaultFormPart(HttpHeaders headers, List<DataBuffer> content, DataBufferFactory bufferFactory) {
+			super(headers, Collections.emptyList(), null, bufferFactory, Schedulers.immediate());
+			this.bytes = toByteArray(content);
+			this.value = new String(this.bytes, contentTypeCharset(headers)).trim();
 		}
 
-		private static String toString(DataBuffer dataBuffer, Charset charset) {
-			byte[] bytes = new byte[dataBuffer.readableByteCount()];
-			dataBuffer.read(bytes);
-			DataBufferUtils.release(dataBuffer);
-			return new String(bytes, charset).trim();
+		private static byte[] toByteArray(List<DataBuffer> content) {
+			int length = 0;
+			for (DataBuffer buffer : content) {
+				length += buffer.readableByteCount();
+			}
+			byte[] bytes = new byte[length];
+			int offset = 0;
+			for (DataBuffer buffer : content) {
+				int count = buffer.readableByteCount();
+				buffer.read(bytes, offset, count);
+				offset += count;
+				DataBufferUtils.release(buffer);
+			}
+			return bytes;
 		}
 
 		private static Charset contentTypeCharset(HttpHeaders headers) {
@@ -357,18 +567,24 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 			return StandardCharsets.ISO_8859_1;
 		}
 
+		@Override
+		public Flux<DataBuffer> content() {
+			return Flux.defer(() -> Flux.just(bufferFactory().wrap(this.bytes)));
+		}
+
 		@Override
 		public String value() {
 			return this.value;
 		}
-
 	}
 
 
 	private static class DefaultFilePart extends DefaultPart implements FilePart {
 
-		public DefaultFilePart(HttpHeaders headers, DataBuffer body) {
-			super(headers, body);
+		public DefaultFilePart(HttpHeaders headers, List<DataBuffer> content, @Nullable Path file,
+				DataBufferFactory bufferFactory, Scheduler scheduler) {
+
+			super(headers, content, file, bufferFactory, scheduler);
 		}
 
 		@Override
@@ -380,8 +596,15 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 
 		@Override
 		public Mono<Void> transferTo(Path dest) {
+			Path file = this.file;
+			if (file != null) {
+				return Mono.<Void>fromCallable(() -> {
+					Files.copy(file, dest, StandardCopyOption.REPLACE_EXISTING);
+					return null;
+				}).subscribeOn(scheduler());
+			}
 			return Mono.using(() -> AsynchronousFileChannel.open(dest, StandardOpenOption.WRITE),
-					this::writeBody, this::close);
+					this::writeBody, DefaultMultipartMessageReader::closeQuietly);
 		}
 
 		private Mono<Void> writeBody(AsynchronousFileChannel channel) {
@@ -389,14 +612,6 @@ public class DefaultMultipartMessageReader extends LoggingCodecSupport implement
 					.map(DataBufferUtils::release)
 					.then();
 		}
-
-		private void close(Channel channel) {
-			try {
-				channel.close();
-			}
-			catch (IOException ignore) {
-			}
-		}
 	}
 
 }
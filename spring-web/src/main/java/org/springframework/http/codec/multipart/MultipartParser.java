@@ -0,0 +1,432 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.codec.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Streaming parser that turns the data buffers of a multipart message into a
+ * stream of {@link Token tokens}: one headers token at the start of each part,
+ * followed by body tokens with the content of the part as it arrives.
+ *
+ * <p>Body content is only held back for as long as it might be the start of
+ * the next boundary, so memory use is bounded by the size of the incoming
+ * buffers rather than the size of the parts.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+final class MultipartParser {
+
+	private static final byte CR = '\r';
+
+	private static final byte LF = '\n';
+
+	private static final byte HYPHEN = '-';
+
+	private static final byte[] FIRST_BOUNDARY_PREFIX = {HYPHEN, HYPHEN};
+
+	private static final byte[] BOUNDARY_PREFIX = {CR, LF, HYPHEN, HYPHEN};
+
+	private static final String HEADER_SEPARATOR = "\\r\\n";
+
+
+	private final DataBufferUtils.Matcher firstBoundaryMatcher;
+
+	private final DataBufferUtils.Matcher boundaryMatcher;
+
+	private final int boundaryLength;
+
+	private final int maxHeadersSize;
+
+	private final int maxParts;
+
+	private State state = State.PREAMBLE;
+
+	private int previousByte = -1;
+
+	private final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+
+	private int headerEndMatches;
+
+	private final Deque<DataBuffer> heldBuffers = new ArrayDeque<>();
+
+	private int heldByteCount;
+
+	private int partCount;
+
+	@Nullable
+	private DataBufferFactory bufferFactory;
+
+
+	private MultipartParser(byte[] boundary, int maxHeadersSize, int maxParts) {
+		this.firstBoundaryMatcher = DataBufferUtils.matcher(concat(FIRST_BOUNDARY_PREFIX, boundary));
+		this.boundaryMatcher = DataBufferUtils.matcher(concat(BOUNDARY_PREFIX, boundary));
+		this.boundaryLength = BOUNDARY_PREFIX.length + boundary.length;
+		this.maxHeadersSize = maxHeadersSize;
+		this.maxParts = maxParts;
+	}
+
+
+	/**
+	 * Parse the given stream of data buffers into a stream of tokens.
+	 * @param buffers the multipart message body
+	 * @param boundary the multipart boundary
+	 * @param maxHeadersSize the maximum size of the headers of a single part
+	 * @param maxParts the maximum number of parts, or -1 for no limit
+	 * @return the stream of tokens
+	 */
+	public static Flux<Token> parse(Flux<DataBuffer> buffers, byte[] boundary, int maxHeadersSize, int maxParts) {
+		return Flux.defer(() -> {
+			MultipartParser parser = new MultipartParser(boundary, maxHeadersSize, maxParts);
+			return buffers.concatMapIterable(parser::parse)
+					.concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())))
+					.doOnDiscard(BodyToken.class, token -> DataBufferUtils.release(token.buffer()))
+					.doFinally(signalType -> parser.dispose());
+		});
+	}
+
+
+	private List<Token> parse(DataBuffer buffer) {
+		this.bufferFactory = buffer.factory();
+		List<Token> tokens = new ArrayList<>();
+		boolean release = true;
+		try {
+			while (buffer.readableByteCount() > 0 && release) {
+				switch (this.state) {
+					case PREAMBLE:
+						parsePreamble(buffer);
+						break;
+					case BOUNDARY:
+						parseBoundary(buffer);
+						break;
+					case HEADERS:
+						parseHeaders(buffer, tokens);
+						break;
+					case BODY:
+						release = parseBody(buffer, tokens);
+						break;
+					default:
+						buffer.readPosition(buffer.writePosition());
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			tokens.forEach(token -> DataBufferUtils.release(token.buffer()));
+			throw ex;
+		}
+		finally {
+			if (release) {
+				DataBufferUtils.release(buffer);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Skip all data until the first boundary. Note that the first boundary of a
+	 * multipart message does not contain the initial \r\n.
+	 */
+	private void parsePreamble(DataBuffer buffer) {
+		int endIdx = this.firstBoundaryMatcher.match(buffer);
+		if (endIdx != -1) {
+			buffer.readPosition(endIdx + 1);
+			this.state = State.BOUNDARY;
+		}
+		else {
+			buffer.readPosition(buffer.writePosition());
+		}
+	}
+
+	/**
+	 * Inspect the two bytes after a boundary: two hyphens indicate the end of
+	 * the message, while any other bytes than \r\n are leniently considered to
+	 * be part of the headers.
+	 */
+	private void parseBoundary(DataBuffer buffer) {
+		int readPosition = buffer.readPosition();
+		byte b = buffer.getByte(readPosition);
+		buffer.readPosition(readPosition + 1);
+		if (this.previousByte == -1) {
+			this.previousByte = b;
+			return;
+		}
+		byte previous = (byte) this.previousByte;
+		this.previousByte = -1;
+		if (previous == HYPHEN && b == HYPHEN) {
+			this.state = State.EPILOGUE;
+		}
+		else {
+			this.state = State.HEADERS;
+			this.headerBytes.reset();
+			if (previous == CR && b == LF) {
+				this.headerEndMatches = 2;
+			}
+			else {
+				this.headerEndMatches = 0;
+				this.headerBytes.write(previous);
+				this.headerBytes.write(b);
+			}
+		}
+	}
+
+	/**
+	 * Collect header data until \r\n\r\n, and emit the parsed headers.
+	 */
+	private void parseHeaders(DataBuffer buffer, List<Token> tokens) {
+		int readPosition = buffer.readPosition();
+		int writePosition = buffer.writePosition();
+		for (int i = readPosition; i < writePosition; i++) {
+			byte b = buffer.getByte(i);
+			if (b == (this.headerEndMatches % 2 == 0 ? CR : LF)) {
+				this.headerEndMatches++;
+			}
+			else {
+				this.headerEndMatches = (b == CR ? 1 : 0);
+			}
+			this.headerBytes.write(b);
+			if (this.headerBytes.size() > this.maxHeadersSize) {
+				throw new DecodingException("Part headers exceeded the limit of " + this.maxHeadersSize + " bytes");
+			}
+			if (this.headerEndMatches == 4) {
+				buffer.readPosition(i + 1);
+				HttpHeaders headers = toHeaders(this.headerBytes.toByteArray());
+				this.headerBytes.reset();
+				startPart(headers, tokens);
+				return;
+			}
+		}
+		buffer.readPosition(writePosition);
+	}
+
+	private void startPart(HttpHeaders headers, List<Token> tokens) {
+		this.partCount++;
+		if (this.maxParts != -1 && this.partCount > this.maxParts) {
+			throw new DecodingException("Multipart message exceeded the limit of " + this.maxParts + " parts");
+		}
+		tokens.add(new HeadersToken(headers));
+		this.state = State.BODY;
+	}
+
+	/**
+	 * Emit body data up until the next boundary, holding back as many trailing
+	 * bytes as might turn out to be the start of a boundary.
+	 * @return {@code true} if the buffer is still owned by the caller, or
+	 * {@code false} if it is held back
+	 */
+	private boolean parseBody(DataBuffer buffer, List<Token> tokens) {
+		int endIdx = this.boundaryMatcher.match(buffer);
+		if (endIdx == -1) {
+			this.heldBuffers.add(buffer);
+			this.heldByteCount += buffer.readableByteCount();
+			while (this.heldByteCount - this.heldBuffers.getFirst().readableByteCount() >= this.boundaryLength) {
+				DataBuffer first = this.heldBuffers.removeFirst();
+				this.heldByteCount -= first.readableByteCount();
+				tokens.add(new BodyToken(first));
+			}
+			return false;
+		}
+		int bodyLength = endIdx + 1 - this.boundaryLength - buffer.readPosition();
+		if (bodyLength < 0) {
+			trimHeldBuffers(-bodyLength);
+		}
+		flushHeldBuffers(tokens);
+		if (bodyLength > 0) {
+			tokens.add(new BodyToken(buffer.retainedSlice(buffer.readPosition(), bodyLength)));
+		}
+		buffer.readPosition(endIdx + 1);
+		this.state = State.BOUNDARY;
+		return true;
+	}
+
+	/**
+	 * Remove the given number of bytes, the start of a boundary, from the end
+	 * of the held back buffers.
+	 */
+	private void trimHeldBuffers(int byteCount) {
+		while (byteCount > 0 && !this.heldBuffers.isEmpty()) {
+			DataBuffer last = this.heldBuffers.removeLast();
+			int length = last.readableByteCount();
+			this.heldByteCount -= length;
+			if (length > byteCount) {
+				DataBuffer slice = last.retainedSlice(last.readPosition(), length - byteCount);
+				this.heldBuffers.add(slice);
+				this.heldByteCount += slice.readableByteCount();
+			}
+			DataBufferUtils.release(last);
+			byteCount -= length;
+		}
+	}
+
+	private void flushHeldBuffers(List<Token> tokens) {
+		while (!this.heldBuffers.isEmpty()) {
+			tokens.add(new BodyToken(this.heldBuffers.removeFirst()));
+		}
+		this.heldByteCount = 0;
+	}
+
+	/**
+	 * Leniently complete a part without closing boundary. Header data without
+	 * \r\n\r\n is treated as the body of a part without headers.
+	 */
+	private List<Token> endOfInput() {
+		List<Token> tokens = new ArrayList<>();
+		if (this.state == State.HEADERS && this.headerBytes.size() > 0 && this.bufferFactory != null) {
+			startPart(new HttpHeaders(), tokens);
+			tokens.add(new BodyToken(this.bufferFactory.wrap(this.headerBytes.toByteArray())));
+			this.headerBytes.reset();
+		}
+		else if (this.state == State.BODY) {
+			flushHeldBuffers(tokens);
+		}
+		this.state = State.EPILOGUE;
+		return tokens;
+	}
+
+	private void dispose() {
+		this.heldBuffers.forEach(DataBufferUtils::release);
+		this.heldBuffers.clear();
+		this.heldByteCount = 0;
+		this.state = State.EPILOGUE;
+	}
+
+
+	/**
+	 * Convert the given bytes into a {@link HttpHeaders} instance. The bytes are
+	 * read as US-ASCII, then split along \r\n line boundaries, each line
+	 * containing a header name and value(s).
+	 */
+	private static HttpHeaders toHeaders(byte[] bytes) {
+		String string = new String(bytes, StandardCharsets.US_ASCII);
+		String[] lines = string.split(HEADER_SEPARATOR);
+		HttpHeaders result = new HttpHeaders();
+		for (String line : lines) {
+			int idx = line.indexOf(':');
+			if (idx != -1) {
+				String name = line.substring(0, idx);
+				String value = line.substring(idx + 1);
+				while (value.startsWith(" ")) {
+					value = value.substring(1);
+				}
+				String[] tokens = StringUtils.tokenizeToStringArray(value, ",");
+				for (String token : tokens) {
+					result.add(name, token);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static byte[] concat(byte[]... byteArrays) {
+		int length = 0;
+		for (byte[] byteArray : byteArrays) {
+			length += byteArray.length;
+		}
+		byte[] result = new byte[length];
+		length = 0;
+		for (byte[] byteArray : byteArrays) {
+			System.arraycopy(byteArray, 0, result, length, byteArray.length);
+			length += byteArray.length;
+		}
+		return result;
+	}
+
+
+	private enum State {
+
+		PREAMBLE, BOUNDARY, HEADERS, BODY, EPILOGUE
+	}
+
+
+	/**
+	 * Represents a token produced by {@link #parse}.
+	 */
+	abstract static class Token {
+
+		/**
+		 * Return the headers of the part that starts with this token, or
+		 * {@code null} for a body token.
+		 */
+		@Nullable
+		public abstract HttpHeaders headers();
+
+		/**
+		 * Return the body content of this token, or {@code null} for a
+		 * headers token.
+		 */
+		@Nullable
+		public abstract DataBuffer buffer();
+	}
+
+
+	static final class HeadersToken extends Token {
+
+		private final HttpHeaders headers;
+
+		HeadersToken(HttpHeaders headers) {
+			this.headers = headers;
+		}
+
+		@Override
+		public HttpHeaders headers() {
+			return this.headers;
+		}
+
+		@Override
+		@Nullable
+		public DataBuffer buffer() {
+			return null;
+		}
+	}
+
+
+	static final class BodyToken extends Token {
+
+		private final DataBuffer buffer;
+
+		BodyToken(DataBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		@Nullable
+		public HttpHeaders headers() {
+			return null;
+		}
+
+		@Override
+		public DataBuffer buffer() {
+			return this.buffer;
+		}
+	}
+
+}
@@ -18,7 +18,6 @@ package org.springframework.http.codec.protobuf;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -37,8 +36,11 @@ import org.springframework.core.codec.Decoder;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.MimeType;
 
@@ -77,6 +79,9 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 
 	private static final ConcurrentMap<Class<?>, Method> methodCache = new ConcurrentReferenceHashMap<>();
 
+	private static final boolean nettyPresent =
+			ClassUtils.isPresent("io.netty.buffer.ByteBuf", ProtobufDecoder.class.getClassLoader());
+
 
 	private final ExtensionRegistry extensionRegistry;
 
@@ -127,7 +132,7 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 	public Mono<Message> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
 			@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
 
-		return DataBufferUtils.join(inputStream)
+		return DataBufferUtils.compose(inputStream, this.maxMessageSize)
 				.map(dataBuffer -> decode(dataBuffer, elementType, mimeType, hints));
 	}
 
@@ -137,8 +142,11 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 
 		try {
 			Message.Builder builder = getMessageBuilder(targetType.toClass());
-			ByteBuffer buffer = dataBuffer.asByteBuffer();
-			builder.mergeFrom(CodedInputStream.newInstance(buffer), this.extensionRegistry);
+			// Read anything but a single ByteBuffer sequentially, rather than copying it into one
+			CodedInputStream input = (isContiguous(dataBuffer) ?
+					CodedInputStream.newInstance(dataBuffer.asByteBuffer()) :
+					CodedInputStream.newInstance(dataBuffer.asInputStream()));
+			builder.mergeFrom(input, this.extensionRegistry);
 			return builder.build();
 		}
 		catch (IOException ex) {
@@ -153,6 +161,15 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 	}
 
 
+	/**
+	 * Whether the readable bytes of the given buffer are backed by a single
+	 * {@code ByteBuffer}, so that {@code asByteBuffer()} does not copy them.
+	 */
+	private static boolean isContiguous(DataBuffer dataBuffer) {
+		return (dataBuffer instanceof DefaultDataBuffer ||
+				(nettyPresent && NettyDelegate.isContiguous(dataBuffer)));
+	}
+
 	/**
 	 * Create a new {@code Message.Builder} instance for the given class.
 	 * <p>This method uses a ConcurrentHashMap for caching method lookups.
@@ -306,4 +323,16 @@ public class ProtobufDecoder extends ProtobufCodecSupport implements Decoder<Mes
 		}
 	}
 
+
+	/**
+	 * Inner class to avoid a hard dependency on Netty.
+	 */
+	private static class NettyDelegate {
+
+		public static boolean isContiguous(DataBuffer dataBuffer) {
+			return (dataBuffer instanceof NettyDataBuffer &&
+					((NettyDataBuffer) dataBuffer).getNativeBuffer().nioBufferCount() == 1);
+		}
+	}
+
 }
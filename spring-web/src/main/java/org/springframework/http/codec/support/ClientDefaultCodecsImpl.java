@@ -76,7 +76,12 @@ class ClientDefaultCodecsImpl extends BaseDefaultCodecs implements ClientCodecCo
 
 	@Override
 	protected void extendObjectReaders(List<HttpMessageReader<?>> objectReaders) {
-		objectReaders.add(new ServerSentEventHttpMessageReader(getSseDecoder()));
+		ServerSentEventHttpMessageReader reader = new ServerSentEventHttpMessageReader(getSseDecoder());
+		Integer maxInMemorySize = maxInMemorySize();
+		if (maxInMemorySize != null) {
+			reader.setMaxInMemorySize(maxInMemorySize);
+		}
+		objectReaders.add(reader);
 	}
 
 	@Nullable
@@ -69,7 +69,15 @@ class ServerDefaultCodecsImpl extends BaseDefaultCodecs implements ServerCodecCo
 	}
 
 	private HttpMessageReader<Part> getMultipartReader() {
-		return this.multipartReader != null ? this.multipartReader : new DefaultMultipartMessageReader();
+		if (this.multipartReader != null) {
+			return this.multipartReader;
+		}
+		DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
+		Integer maxInMemorySize = maxInMemorySize();
+		if (maxInMemorySize != null) {
+			reader.setMaxInMemorySize(maxInMemorySize);
+		}
+		return reader;
 	}
 
 	@Override
@@ -21,7 +21,10 @@ import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.BaseStream;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -33,6 +36,7 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
@@ -40,6 +44,7 @@ import com.fasterxml.jackson.databind.ser.FilterProvider;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
@@ -51,12 +56,18 @@ import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.TypeUtils;
 
 /**
  * Abstract base class for Jackson based and content type independent
  * {@link HttpMessageConverter} implementations.
  *
+ * <p>As of 5.2, {@link java.util.stream.Stream} and {@link Iterator} values are
+ * written element by element, as a JSON array or, for {@code application/stream+json},
+ * as newline delimited JSON, without collecting the elements in memory first.
+ *
  * <p>Compatible with Jackson 2.9 and higher, as of Spring 5.0.
  *
  * @author Arjen Poutsma
@@ -85,6 +96,12 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	@Nullable
 	private PrettyPrinter ssePrettyPrinter;
 
+	private int streamFlushInterval = 100;
+
+	private boolean cacheObjectWriters = false;
+
+	private final Map<ObjectWriterKey, ObjectWriter> objectWriterCache = new ConcurrentReferenceHashMap<>(64);
+
 
 	protected AbstractJackson2HttpMessageConverter(ObjectMapper objectMapper) {
 		this.objectMapper = objectMapper;
@@ -119,6 +136,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		Assert.notNull(objectMapper, "ObjectMapper must not be null");
 		this.objectMapper = objectMapper;
 		configurePrettyPrint();
+		this.objectWriterCache.clear();
 	}
 
 	/**
@@ -140,6 +158,7 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 	public void setPrettyPrint(boolean prettyPrint) {
 		this.prettyPrint = prettyPrint;
 		configurePrettyPrint();
+		this.objectWriterCache.clear();
 	}
 
 	private void configurePrettyPrint() {
@@ -148,6 +167,52 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	/**
+	 * Set the number of elements after which the output is flushed when writing
+	 * a {@link java.util.stream.Stream} or {@link Iterator} value element by element.
+	 * <p>By default this is set to 100. A value of 0 or less turns off intermediate
+	 * flushing, leaving it to the underlying output stream to decide when to send
+	 * buffered content.
+	 * @since 5.2
+	 */
+	public void setStreamFlushInterval(int streamFlushInterval) {
+		this.streamFlushInterval = streamFlushInterval;
+	}
+
+	/**
+	 * Return the configured {@link #setStreamFlushInterval flush interval}.
+	 * @since 5.2
+	 */
+	public int getStreamFlushInterval() {
+		return this.streamFlushInterval;
+	}
+
+	/**
+	 * Whether to cache the {@link ObjectWriter} prepared for each combination of
+	 * root type, serialization view and content type, instead of deriving a new
+	 * one from the {@code ObjectMapper} for every write. This avoids the root
+	 * serializer lookup and the writer allocations on each response.
+	 * <p>By default this is set to "false". Only turn it on if the configuration
+	 * of the {@code ObjectMapper} does not change after initialization, or if
+	 * {@link #setObjectMapper} is called on changes. Values with
+	 * {@link MappingJacksonValue#setFilters filters} are never cached.
+	 * <p>Note that Jackson's {@code JsonFactory} recycles the byte and char
+	 * buffers of its generators per thread by default already.
+	 * @since 5.2
+	 */
+	public void setCacheObjectWriters(boolean cacheObjectWriters) {
+		this.cacheObjectWriters = cacheObjectWriters;
+		this.objectWriterCache.clear();
+	}
+
+	/**
+	 * Whether {@link #setCacheObjectWriters ObjectWriter caching} is turned on.
+	 * @since 5.2
+	 */
+	public boolean isCacheObjectWriters() {
+		return this.cacheObjectWriters;
+	}
+
 
 	@Override
 	public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
@@ -173,6 +238,9 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		if (!canWrite(mediaType)) {
 			return false;
 		}
+		if (BaseStream.class.isAssignableFrom(clazz) || Iterator.class.isAssignableFrom(clazz)) {
+			return true;
+		}
 		AtomicReference<Throwable> causeRef = new AtomicReference<>();
 		if (this.objectMapper.canSerialize(clazz, causeRef)) {
 			return true;
@@ -275,20 +343,33 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 				javaType = getJavaType(type, null);
 			}
 
-			ObjectWriter objectWriter = (serializationView != null ?
-					this.objectMapper.writerWithView(serializationView) : this.objectMapper.writer());
-			if (filters != null) {
-				objectWriter = objectWriter.with(filters);
+			boolean writeElements = (value instanceof BaseStream || value instanceof Iterator);
+			if (writeElements) {
+				javaType = (javaType != null ? getElementType(type, value) : null);
+			}
+			else if (javaType != null && !javaType.isContainerType()) {
+				javaType = null;
+			}
+			boolean sse = (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+
+			ObjectWriter objectWriter;
+			if (this.cacheObjectWriters && filters == null) {
+				ObjectWriterKey key = new ObjectWriterKey(javaType, serializationView, sse);
+				objectWriter = this.objectWriterCache.get(key);
+				if (objectWriter == null) {
+					objectWriter = createObjectWriter(javaType, serializationView, null, sse);
+					this.objectWriterCache.put(key, objectWriter);
+				}
+			}
+			else {
+				objectWriter = createObjectWriter(javaType, serializationView, filters, sse);
 			}
-			if (javaType != null && javaType.isContainerType()) {
-				objectWriter = objectWriter.forType(javaType);
+			if (writeElements) {
+				writeElements(objectWriter, generator, value, contentType);
 			}
-			SerializationConfig config = objectWriter.getConfig();
-			if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_EVENT_STREAM) &&
-					config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
-				objectWriter = objectWriter.with(this.ssePrettyPrinter);
+			else {
+				objectWriter.writeValue(generator, value);
 			}
-			objectWriter.writeValue(generator, value);
 
 			writeSuffix(generator, object);
 			generator.flush();
@@ -301,6 +382,83 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		}
 	}
 
+	/**
+	 * Create the {@link ObjectWriter} for the given root type, serialization
+	 * view and filters, applying the SSE pretty printer if necessary.
+	 */
+	private ObjectWriter createObjectWriter(@Nullable JavaType javaType, @Nullable Class<?> serializationView,
+			@Nullable FilterProvider filters, boolean sse) {
+
+		ObjectWriter objectWriter = (serializationView != null ?
+				this.objectMapper.writerWithView(serializationView) : this.objectMapper.writer());
+		if (filters != null) {
+			objectWriter = objectWriter.with(filters);
+		}
+		if (javaType != null) {
+			objectWriter = objectWriter.forType(javaType);
+		}
+		SerializationConfig config = objectWriter.getConfig();
+		if (sse && config.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+			objectWriter = objectWriter.with(this.ssePrettyPrinter);
+		}
+		return objectWriter;
+	}
+
+	/**
+	 * Determine the declared element type of the given {@link BaseStream} or
+	 * {@link Iterator} type, if it requires polymorphic type handling.
+	 * <p>As for the elements of a {@code List}, the declared element type only
+	 * drives the type information, while each element is still serialized for
+	 * its runtime type.
+	 */
+	@Nullable
+	private JavaType getElementType(Type type, Object value) throws JsonMappingException {
+		Class<?> containerClass = (value instanceof BaseStream ? BaseStream.class : Iterator.class);
+		ResolvableType elementType = ResolvableType.forType(type).as(containerClass).getGeneric();
+		if (elementType.resolve() == null) {
+			return null;
+		}
+		JavaType javaType = getJavaType(elementType.getType(), null);
+		SerializationConfig config = this.objectMapper.getSerializationConfig();
+		return (this.objectMapper.getSerializerFactory().createTypeSerializer(config, javaType) != null ?
+				javaType : null);
+	}
+
+	/**
+	 * Write the elements of the given {@link BaseStream} or {@link Iterator} one
+	 * at a time, as a JSON array or as newline delimited JSON values, flushing
+	 * every {@link #setStreamFlushInterval streamFlushInterval} elements.
+	 */
+	private void writeElements(ObjectWriter objectWriter, JsonGenerator generator, Object value,
+			@Nullable MediaType contentType) throws IOException {
+
+		boolean lineDelimited = (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_STREAM_JSON));
+		if (lineDelimited) {
+			generator.setRootValueSeparator(null);
+		}
+		Iterator<?> iterator = (value instanceof BaseStream ? ((BaseStream<?, ?>) value).iterator() : (Iterator<?>) value);
+		try {
+			SequenceWriter sequenceWriter = objectWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+					.writeValues(generator).init(!lineDelimited);
+			int count = 0;
+			while (iterator.hasNext()) {
+				sequenceWriter.write(iterator.next());
+				if (lineDelimited) {
+					generator.writeRaw('\n');
+				}
+				if (this.streamFlushInterval > 0 && ++count % this.streamFlushInterval == 0) {
+					generator.flush();
+				}
+			}
+			sequenceWriter.close();
+		}
+		finally {
+			if (value instanceof BaseStream) {
+				((BaseStream<?, ?>) value).close();
+			}
+		}
+	}
+
 	/**
 	 * Write a prefix before the main content.
 	 * @param generator the generator to use for writing content.
@@ -363,4 +521,44 @@ public abstract class AbstractJackson2HttpMessageConverter extends AbstractGener
 		return super.getContentLength(object, contentType);
 	}
 
+
+	/**
+	 * Cache key for {@link ObjectWriter} instances.
+	 */
+	private static final class ObjectWriterKey {
+
+		@Nullable
+		private final JavaType javaType;
+
+		@Nullable
+		private final Class<?> serializationView;
+
+		private final boolean sse;
+
+		ObjectWriterKey(@Nullable JavaType javaType, @Nullable Class<?> serializationView, boolean sse) {
+			this.javaType = javaType;
+			this.serializationView = serializationView;
+			this.sse = sse;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ObjectWriterKey)) {
+				return false;
+			}
+			ObjectWriterKey otherKey = (ObjectWriterKey) other;
+			return (ObjectUtils.nullSafeEquals(this.javaType, otherKey.javaType) &&
+					this.serializationView == otherKey.serializationView && this.sse == otherKey.sse);
+		}
+
+		@Override
+		public int hashCode() {
+			return (ObjectUtils.nullSafeHashCode(this.javaType) * 31 +
+					ObjectUtils.nullSafeHashCode(this.serializationView)) * 31 + (this.sse ? 1 : 0);
+		}
+	}
+
 }
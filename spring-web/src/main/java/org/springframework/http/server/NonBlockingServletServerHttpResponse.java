@@ -0,0 +1,333 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ServletServerHttpResponse} that collects the body in memory, in
+ * fixed-size chunks, so that it can be handed to the container through
+ * Servlet 3.1 non-blocking I/O with a {@link WriteListener}.
+ *
+ * <p>This class does not put the request in asynchronous mode itself. The
+ * caller is expected to start asynchronous processing, typically through the
+ * {@link org.springframework.web.context.request.async.WebAsyncManager
+ * WebAsyncManager}, and then call {@link #writeContent}, completing the
+ * asynchronous processing from the given callbacks. Alternatively, {@link #close()}
+ * writes the content with blocking I/O.
+ *
+ * <p>Chunks of the default size are taken from, and returned to, a bounded
+ * pool shared by all instances, so that a busy server does not allocate the
+ * full size of every response body anew.
+ *
+ * <p>Since the complete body is known up front, a {@code Content-Length} header
+ * is set unless one is present already.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+public class NonBlockingServletServerHttpResponse extends ServletServerHttpResponse {
+
+	private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+	private static final int MAX_POOLED_CHUNKS = 1024;
+
+	private static final BlockingQueue<byte[]> chunkPool = new ArrayBlockingQueue<>(MAX_POOLED_CHUNKS);
+
+
+	private final int chunkSize;
+
+	@Nullable
+	private ChunkedContent body;
+
+	@Nullable
+	private ServletOutputStream outputStream;
+
+
+	/**
+	 * Create a new instance for the given response.
+	 * @param servletResponse the servlet response
+	 */
+	public NonBlockingServletServerHttpResponse(HttpServletResponse servletResponse) {
+		this(servletResponse, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create a new instance for the given response.
+	 * @param servletResponse the servlet response
+	 * @param chunkSize the size of the chunks to collect the body in, which is
+	 * also the maximum number of bytes passed to the container in a single write
+	 * operation; chunks are pooled only for the default size of 8192 bytes
+	 */
+	public NonBlockingServletServerHttpResponse(HttpServletResponse servletResponse, int chunkSize) {
+		super(servletResponse);
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		this.chunkSize = chunkSize;
+	}
+
+
+	@Override
+	public OutputStream getBody() throws IOException {
+		if (this.body == null) {
+			this.outputStream = (ServletOutputStream) super.getBody();
+			this.body = new ChunkedContent();
+		}
+		return this.body;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (this.body == null) {
+			super.flush();
+		}
+		// else: content is sent on close or writeContent
+	}
+
+	/**
+	 * Whether any content has been written to the {@link #getBody() body}.
+	 */
+	public boolean hasContent() {
+		return (this.body != null && this.body.size > 0);
+	}
+
+	/**
+	 * Write the collected content with a {@link WriteListener}, while the container
+	 * reports the output stream as ready. The request must be in asynchronous mode.
+	 * @param onComplete invoked, once, when all content has been written
+	 * @param onError invoked if the container reports an error writing the content
+	 */
+	public void writeContent(Runnable onComplete, Consumer<Throwable> onError) {
+		ChunkedContent body = prepareContent();
+		if (body == null || this.outputStream == null) {
+			onComplete.run();
+			return;
+		}
+		this.outputStream.setWriteListener(new ContentWriteListener(body, this.outputStream, onComplete, onError));
+	}
+
+	/**
+	 * Return any chunks not written yet to the pool, e.g. when asynchronous
+	 * processing has timed out. Further write callbacks are ignored.
+	 */
+	public void release() {
+		ChunkedContent body = this.body;
+		if (body != null) {
+			body.release();
+		}
+	}
+
+	/**
+	 * Write the collected content, if any, with blocking I/O.
+	 */
+	@Override
+	public void close() {
+		ChunkedContent body = prepareContent();
+		if (body == null || this.outputStream == null) {
+			return;
+		}
+		try {
+			body.writeTo(this.outputStream);
+			this.outputStream.flush();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write response body", ex);
+		}
+		finally {
+			body.release();
+		}
+	}
+
+	@Nullable
+	private ChunkedContent prepareContent() {
+		ChunkedContent body = this.body;
+		if (body != null && body.size > 0) {
+			HttpServletResponse servletResponse = getServletResponse();
+			if (!servletResponse.isCommitted() && servletResponse.getHeader(HttpHeaders.CONTENT_LENGTH) == null) {
+				servletResponse.setContentLengthLong(body.size);
+			}
+		}
+		super.close();
+		return (body != null && body.size > 0 ? body : null);
+	}
+
+
+	/**
+	 * Body content held in chunks of {@code chunkSize} bytes, the last of which
+	 * may be partially filled.
+	 */
+	private class ChunkedContent extends OutputStream {
+
+		private final List<byte[]> chunks = new ArrayList<>();
+
+		private int lastCount;
+
+		private long size;
+
+		private int writeIndex;
+
+		@Nullable
+		private byte[] pendingChunk;
+
+		private boolean released;
+
+		@Override
+		public void write(int b) {
+			if (this.chunks.isEmpty() || this.lastCount == chunkSize) {
+				this.chunks.add(obtainChunk());
+				this.lastCount = 0;
+			}
+			this.chunks.get(this.chunks.size() - 1)[this.lastCount++] = (byte) b;
+			this.size++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			while (len > 0) {
+				if (this.chunks.isEmpty() || this.lastCount == chunkSize) {
+					this.chunks.add(obtainChunk());
+					this.lastCount = 0;
+				}
+				int count = Math.min(len, chunkSize - this.lastCount);
+				System.arraycopy(b, off, this.chunks.get(this.chunks.size() - 1), this.lastCount, count);
+				this.lastCount += count;
+				this.size += count;
+				off += count;
+				len -= count;
+			}
+		}
+
+		void writeTo(OutputStream outputStream) throws IOException {
+			for (int i = 0; i < this.chunks.size(); i++) {
+				outputStream.write(this.chunks.get(i), 0, getLength(i));
+			}
+		}
+
+		/**
+		 * Write the next chunk, if any, and return {@code false} when there is
+		 * nothing left to write. The chunk passed to the container is recycled
+		 * on the next call only, once the container is ready again, since it may
+		 * hold on to it until then.
+		 */
+		synchronized boolean writeNext(ServletOutputStream outputStream) throws IOException {
+			if (this.released) {
+				return false;
+			}
+			recycle(this.pendingChunk);
+			this.pendingChunk = null;
+			if (this.writeIndex == this.chunks.size()) {
+				return false;
+			}
+			int index = this.writeIndex++;
+			byte[] chunk = this.chunks.set(index, null);
+			this.pendingChunk = chunk;
+			outputStream.write(chunk, 0, getLength(index));
+			return true;
+		}
+
+		synchronized boolean isReleased() {
+			return this.released;
+		}
+
+		synchronized void release() {
+			if (this.released) {
+				return;
+			}
+			this.released = true;
+			recycle(this.pendingChunk);
+			this.pendingChunk = null;
+			for (byte[] chunk : this.chunks) {
+				recycle(chunk);
+			}
+			this.chunks.clear();
+		}
+
+		private int getLength(int index) {
+			return (index == this.chunks.size() - 1 ? this.lastCount : chunkSize);
+		}
+
+		private byte[] obtainChunk() {
+			byte[] chunk = (chunkSize == DEFAULT_CHUNK_SIZE ? chunkPool.poll() : null);
+			return (chunk != null ? chunk : new byte[chunkSize]);
+		}
+
+		private void recycle(@Nullable byte[] chunk) {
+			if (chunk != null && chunk.length == DEFAULT_CHUNK_SIZE) {
+				chunkPool.offer(chunk);
+			}
+		}
+	}
+
+
+	/**
+	 * Writes the content chunk by chunk while the container reports the output
+	 * stream as ready, and notifies the given callbacks at the end or on error.
+	 */
+	private static class ContentWriteListener implements WriteListener {
+
+		private final ChunkedContent content;
+
+		private final ServletOutputStream outputStream;
+
+		private final Runnable onComplete;
+
+		private final Consumer<Throwable> onError;
+
+		private boolean completed;
+
+		ContentWriteListener(ChunkedContent content, ServletOutputStream outputStream,
+				Runnable onComplete, Consumer<Throwable> onError) {
+
+			this.content = content;
+			this.outputStream = outputStream;
+			this.onComplete = onComplete;
+			this.onError = onError;
+		}
+
+		@Override
+		public void onWritePossible() throws IOException {
+			while (!this.completed && this.outputStream.isReady()) {
+				if (!this.content.writeNext(this.outputStream)) {
+					this.completed = true;
+					if (!this.content.isReleased()) {
+						this.content.release();
+						this.onComplete.run();
+					}
+				}
+			}
+		}
+
+		@Override
+		public void onError(Throwable ex) {
+			this.content.release();
+			this.onError.accept(ex);
+		}
+	}
+
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.CompactHeadersMap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@code MultiValueMap} implementation that reads headers through from an
+ * {@link HttpServletRequest}, instead of copying them upfront.
+ *
+ * <p>The "Content-Type" and "Content-Length" headers are complemented with the
+ * {@link HttpServletRequest#getContentType() content type},
+ * {@link HttpServletRequest#getCharacterEncoding() character encoding} and
+ * {@link HttpServletRequest#getContentLength() content length} properties of
+ * the request, if not present as headers. On the first modification, all
+ * headers are copied into a {@link CompactHeadersMap} which is used from then on.
+ * This includes modifications through a list of values returned from
+ * {@link #get(Object)}, which then writes through to the copy.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+class ServletRequestHeadersAdapter extends AbstractMap<String, List<String>>
+		implements MultiValueMap<String, String> {
+
+	private final HttpServletRequest servletRequest;
+
+	@Nullable
+	private MultiValueMap<String, String> writableHeaders;
+
+	@Nullable
+	private String contentType;
+
+	private boolean contentTypeResolved;
+
+
+	ServletRequestHeadersAdapter(HttpServletRequest servletRequest) {
+		this.servletRequest = servletRequest;
+	}
+
+
+	@Override
+	@Nullable
+	public String getFirst(String key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.getFirst(key);
+		}
+		if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(key)) {
+			return getContentType();
+		}
+		if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(key)) {
+			return getContentLength();
+		}
+		return this.servletRequest.getHeader(key);
+	}
+
+	@Override
+	@Nullable
+	public List<String> get(Object key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.get(key);
+		}
+		if (!(key instanceof String)) {
+			return null;
+		}
+		List<String> values = readValues((String) key);
+		return (values != null ? new HeaderValues((String) key, values) : null);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.containsKey(key);
+		}
+		return (key instanceof String && getFirst((String) key) != null);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.isEmpty();
+		}
+		return getHeaderNames().isEmpty();
+	}
+
+	@Override
+	public Set<Entry<String, List<String>>> entrySet() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.entrySet();
+		}
+		return new EntrySet(getHeaderNames());
+	}
+
+	@Override
+	@Nullable
+	public List<String> put(String key, List<String> value) {
+		return getWritableHeaders().put(key, value);
+	}
+
+	@Override
+	@Nullable
+	public List<String> remove(Object key) {
+		return getWritableHeaders().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		getWritableHeaders().clear();
+	}
+
+	@Override
+	public void add(String key, @Nullable String value) {
+		getWritableHeaders().add(key, value);
+	}
+
+	@Override
+	public void addAll(String key, List<? extends String> values) {
+		getWritableHeaders().addAll(key, values);
+	}
+
+	@Override
+	public void addAll(MultiValueMap<String, String> values) {
+		getWritableHeaders().addAll(values);
+	}
+
+	@Override
+	public void set(String key, @Nullable String value) {
+		getWritableHeaders().set(key, value);
+	}
+
+	@Override
+	public void setAll(Map<String, String> values) {
+		getWritableHeaders().setAll(values);
+	}
+
+	@Override
+	public Map<String, String> toSingleValueMap() {
+		if (this.writableHeaders != null) {
+			return this.writableHeaders.toSingleValueMap();
+		}
+		List<String> names = getHeaderNames();
+		Map<String, String> singleValueMap = new LinkedHashMap<>(names.size());
+		names.forEach(name -> singleValueMap.put(name, getFirst(name)));
+		return singleValueMap;
+	}
+
+	@Override
+	public String toString() {
+		return HttpHeaders.formatHeaders(this);
+	}
+
+
+	/**
+	 * Return the names of the servlet request headers, plus "Content-Type" and
+	 * "Content-Length" if only available as request properties.
+	 */
+	private List<String> getHeaderNames() {
+		List<String> names = new ArrayList<>();
+		boolean hasContentType = false;
+		boolean hasContentLength = false;
+		Enumeration<String> headerNames = this.servletRequest.getHeaderNames();
+		if (headerNames != null) {
+			while (headerNames.hasMoreElements()) {
+				String name = headerNames.nextElement();
+				if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+					hasContentType = true;
+					if (getContentType() == null) {
+						continue;
+					}
+				}
+				else if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+					hasContentLength = true;
+				}
+				names.add(name);
+			}
+		}
+		if (!hasContentType && getContentType() != null) {
+			names.add(HttpHeaders.CONTENT_TYPE);
+		}
+		if (!hasContentLength && getContentLength() != null) {
+			names.add(HttpHeaders.CONTENT_LENGTH);
+		}
+		return names;
+	}
+
+	@Nullable
+	private String getContentType() {
+		if (!this.contentTypeResolved) {
+			this.contentType = resolveContentType();
+			this.contentTypeResolved = true;
+		}
+		return this.contentType;
+	}
+
+	@Nullable
+	private String resolveContentType() {
+		String value = this.servletRequest.getHeader(HttpHeaders.CONTENT_TYPE);
+		if (!StringUtils.hasLength(value)) {
+			value = this.servletRequest.getContentType();
+			if (!StringUtils.hasLength(value)) {
+				return null;
+			}
+		}
+		try {
+			MediaType contentType = MediaType.parseMediaType(value);
+			if (contentType.getCharset() == null) {
+				String requestEncoding = this.servletRequest.getCharacterEncoding();
+				if (StringUtils.hasLength(requestEncoding)) {
+					Charset charSet = Charset.forName(requestEncoding);
+					Map<String, String> params = new LinkedCaseInsensitiveMap<>();
+					params.putAll(contentType.getParameters());
+					params.put("charset", charSet.toString());
+					return new MediaType(contentType.getType(), contentType.getSubtype(), params).toString();
+				}
+			}
+		}
+		catch (InvalidMediaTypeException ex) {
+			// Ignore: simply expose the content type as it is...
+		}
+		return value;
+	}
+
+	@Nullable
+	private String getContentLength() {
+		String value = this.servletRequest.getHeader(HttpHeaders.CONTENT_LENGTH);
+		if (value == null) {
+			int contentLength = this.servletRequest.getContentLength();
+			if (contentLength != -1) {
+				value = Integer.toString(contentLength);
+			}
+		}
+		return value;
+	}
+
+	@Nullable
+	private List<String> readValues(String name) {
+		if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			String value = getFirst(name);
+			return (value != null ? new ArrayList<>(Collections.singletonList(value)) : null);
+		}
+		Enumeration<String> values = this.servletRequest.getHeaders(name);
+		if (values == null || !values.hasMoreElements()) {
+			return null;
+		}
+		List<String> result = new ArrayList<>(1);
+		while (values.hasMoreElements()) {
+			result.add(values.nextElement());
+		}
+		return result;
+	}
+
+	private MultiValueMap<String, String> getWritableHeaders() {
+		if (this.writableHeaders == null) {
+			List<String> names = getHeaderNames();
+			CompactHeadersMap headers = new CompactHeadersMap(names.size() + 4);
+			for (String name : names) {
+				List<String> values = readValues(name);
+				if (values != null) {
+					headers.put(name, values);
+				}
+			}
+			this.writableHeaders = headers;
+		}
+		return this.writableHeaders;
+	}
+
+
+	/**
+	 * Entries over a snapshot of the header names, writing changes through to
+	 * the {@link #getWritableHeaders() writable copy} of the headers.
+	 */
+	private class EntrySet extends AbstractSet<Entry<String, List<String>>> {
+
+		private final List<String> names;
+
+		EntrySet(List<String> names) {
+			this.names = names;
+		}
+
+		@Override
+		public int size() {
+			return this.names.size();
+		}
+
+		@Override
+		public Iterator<Entry<String, List<String>>> iterator() {
+			Iterator<String> iterator = this.names.iterator();
+			return new Iterator<Entry<String, List<String>>>() {
+
+				@Nullable
+				private String current;
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Entry<String, List<String>> next() {
+					this.current = iterator.next();
+					return new HeaderEntry(this.current);
+				}
+
+				@Override
+				public void remove() {
+					if (this.current == null) {
+						throw new IllegalStateException();
+					}
+					getWritableHeaders().remove(this.current);
+					this.current = null;
+				}
+			};
+		}
+	}
+
+
+	/**
+	 * Values of a single header, switching to the list of the
+	 * {@link #getWritableHeaders() writable copy} of the headers when modified.
+	 */
+	private class HeaderValues extends AbstractList<String> {
+
+		private final String name;
+
+		private List<String> values;
+
+		private boolean writable;
+
+		HeaderValues(String name, List<String> values) {
+			this.name = name;
+			this.values = values;
+		}
+
+		@Override
+		public String get(int index) {
+			return this.values.get(index);
+		}
+
+		@Override
+		public int size() {
+			return this.values.size();
+		}
+
+		@Override
+		public String set(int index, String element) {
+			return getWritableValues().set(index, element);
+		}
+
+		@Override
+		public void add(int index, String element) {
+			getWritableValues().add(index, element);
+		}
+
+		@Override
+		public String remove(int index) {
+			return getWritableValues().remove(index);
+		}
+
+		private List<String> getWritableValues() {
+			if (!this.writable) {
+				MultiValueMap<String, String> headers = getWritableHeaders();
+				List<String> values = headers.get(this.name);
+				if (values == null) {
+					values = new ArrayList<>(this.values);
+					headers.put(this.name, values);
+				}
+				this.values = values;
+				this.writable = true;
+			}
+			return this.values;
+		}
+	}
+
+
+	private class HeaderEntry implements Entry<String, List<String>> {
+
+		private final String key;
+
+		HeaderEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		@Nullable
+		public List<String> getValue() {
+			return get(this.key);
+		}
+
+		@Override
+		@Nullable
+		public List<String> setValue(List<String> value) {
+			return getWritableHeaders().put(this.key, value);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> otherEntry = (Entry<?, ?>) other;
+			return (this.key.equals(otherEntry.getKey()) && ObjectUtils.nullSafeEquals(getValue(), otherEntry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.key.hashCode() ^ ObjectUtils.nullSafeHashCode(getValue());
+		}
+	}
+
+}
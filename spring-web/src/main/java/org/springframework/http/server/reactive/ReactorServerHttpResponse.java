@@ -16,7 +16,9 @@
 
 package org.springframework.http.server.reactive;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -25,11 +27,14 @@ import io.netty.handler.codec.http.cookie.DefaultCookie;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.netty.NettyOutbound;
 import reactor.netty.http.server.HttpServerResponse;
 
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -121,6 +126,32 @@ class ReactorServerHttpResponse extends AbstractServerHttpResponse implements Ze
 		return doCommit(() -> this.response.sendFile(file, position, count).then());
 	}
 
+	@Override
+	public Mono<Void> writeWith(List<?> parts) {
+		return doCommit(() -> {
+			NettyOutbound outbound = this.response;
+			for (Object part : parts) {
+				if (part instanceof DataBuffer) {
+					ByteBuf byteBuf = NettyDataBufferFactory.toByteBuf((DataBuffer) part);
+					outbound = outbound.send(Mono.just(byteBuf));
+				}
+				else {
+					ResourceRegion region = (ResourceRegion) part;
+					try {
+						Path file = region.getResource().getFile().toPath();
+						outbound = outbound.sendFile(file, region.getPosition(), region.getCount());
+					}
+					catch (IOException ex) {
+						parts.stream().filter(DataBuffer.class::isInstance)
+								.forEach(buffer -> DataBufferUtils.release((DataBuffer) buffer));
+						return Mono.error(ex);
+					}
+				}
+			}
+			return outbound.then();
+		});
+	}
+
 	private Publisher<ByteBuf> toByteBufs(Publisher<? extends DataBuffer> dataBuffers) {
 		return dataBuffers instanceof Mono ?
 				Mono.from(dataBuffers).map(NettyDataBufferFactory::toByteBuf) :
@@ -38,6 +38,7 @@ import reactor.core.publisher.Flux;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CompactHeadersMap;
 import org.springframework.http.HttpCookie;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -99,7 +100,7 @@ class ServletServerHttpRequest extends AbstractServerHttpRequest {
 
 
 	private static HttpHeaders createDefaultHttpHeaders(HttpServletRequest request) {
-		HttpHeaders headers = new HttpHeaders();
+		HttpHeaders headers = new HttpHeaders(new CompactHeadersMap());
 		for (Enumeration<?> names = request.getHeaderNames(); names.hasMoreElements(); ) {
 			String name = (String) names.nextElement();
 			for (Enumeration<?> values = request.getHeaders(name); values.hasMoreElements(); ) {
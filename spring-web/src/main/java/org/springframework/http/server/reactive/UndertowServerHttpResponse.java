@@ -21,6 +21,9 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import io.undertow.server.HttpServerExchange;
 import io.undertow.server.handlers.Cookie;
@@ -31,9 +34,11 @@ import org.xnio.channels.StreamSinkChannel;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoSink;
 
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -123,23 +128,20 @@ class UndertowServerHttpResponse extends AbstractListenerServerHttpResponse impl
 
 	@Override
 	public Mono<Void> writeWith(Path file, long position, long count) {
+		return writeWith(Collections.singletonList(new ResourceRegion(new FileSystemResource(file), position, count)));
+	}
+
+	@Override
+	public Mono<Void> writeWith(List<?> parts) {
 		return doCommit(() ->
 				Mono.create(sink -> {
-					try {
-						FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+					TransferBodyListener listener = new TransferBodyListener(parts, sink);
+					sink.onDispose(listener::close);
 
-						TransferBodyListener listener = new TransferBodyListener(source, position,
-								count, sink);
-						sink.onDispose(listener::closeSource);
+					StreamSinkChannel destination = this.exchange.getResponseChannel();
+					destination.getWriteSetter().set(listener::transfer);
 
-						StreamSinkChannel destination = this.exchange.getResponseChannel();
-						destination.getWriteSetter().set(listener::transfer);
-
-						listener.transfer(destination);
-					}
-					catch (IOException ex) {
-						sink.error(ex);
-					}
+					listener.transfer(destination);
 				}));
 	}
 
@@ -303,54 +305,121 @@ class UndertowServerHttpResponse extends AbstractListenerServerHttpResponse impl
 	}
 
 
+	/**
+	 * Writes data buffers and transfers file regions to the response channel,
+	 * in order, resuming from the write listener when the channel is not ready.
+	 */
 	private static class TransferBodyListener {
 
-		private final FileChannel source;
+		private final Iterator<?> parts;
 
 		private final MonoSink<Void> sink;
 
+		@Nullable
+		private DataBuffer dataBuffer;
+
+		@Nullable
+		private ByteBuffer byteBuffer;
+
+		@Nullable
+		private FileChannel source;
+
 		private long position;
 
 		private long count;
 
 
-		public TransferBodyListener(FileChannel source, long position, long count, MonoSink<Void> sink) {
-			this.source = source;
+		public TransferBodyListener(List<?> parts, MonoSink<Void> sink) {
+			this.parts = parts.iterator();
 			this.sink = sink;
-			this.position = position;
-			this.count = count;
 		}
 
 		public void transfer(StreamSinkChannel destination) {
 			try {
-				while (this.count > 0) {
-					long len = destination.transferFrom(this.source, this.position, this.count);
-					if (len != 0) {
-						this.position += len;
-						this.count -= len;
+				while (true) {
+					if (this.byteBuffer == null && this.source == null) {
+						if (!this.parts.hasNext()) {
+							this.sink.success();
+							return;
+						}
+						nextPart(this.parts.next());
+					}
+					if (this.byteBuffer != null && !writeBuffer(this.byteBuffer, destination)) {
+						destination.resumeWrites();
+						return;
 					}
-					else {
+					if (this.source != null && !transferRegion(this.source, destination)) {
 						destination.resumeWrites();
 						return;
 					}
 				}
-				this.sink.success();
 			}
 			catch (IOException ex) {
 				this.sink.error(ex);
 			}
+		}
 
+		private void nextPart(Object part) throws IOException {
+			if (part instanceof DataBuffer) {
+				this.dataBuffer = (DataBuffer) part;
+				this.byteBuffer = this.dataBuffer.asByteBuffer();
+			}
+			else {
+				ResourceRegion region = (ResourceRegion) part;
+				this.source = FileChannel.open(region.getResource().getFile().toPath(), StandardOpenOption.READ);
+				this.position = region.getPosition();
+				this.count = region.getCount();
+			}
 		}
 
-		public void closeSource() {
-			try {
-				this.source.close();
+		private boolean writeBuffer(ByteBuffer buffer, StreamSinkChannel destination) throws IOException {
+			while (buffer.hasRemaining()) {
+				if (destination.write(buffer) == 0) {
+					return false;
+				}
 			}
-			catch (IOException ignore) {
+			DataBufferUtils.release(this.dataBuffer);
+			this.dataBuffer = null;
+			this.byteBuffer = null;
+			return true;
+		}
+
+		private boolean transferRegion(FileChannel source, StreamSinkChannel destination) throws IOException {
+			while (this.count > 0) {
+				long len = destination.transferFrom(source, this.position, this.count);
+				if (len == 0) {
+					return false;
+				}
+				this.position += len;
+				this.count -= len;
 			}
+			closeSource();
+			return true;
 		}
 
+		public void close() {
+			closeSource();
+			DataBufferUtils.release(this.dataBuffer);
+			this.dataBuffer = null;
+			this.byteBuffer = null;
+			while (this.parts.hasNext()) {
+				Object part = this.parts.next();
+				if (part instanceof DataBuffer) {
+					DataBufferUtils.release((DataBuffer) part);
+				}
+			}
+		}
 
+		private void closeSource() {
+			if (this.source != null) {
+				try {
+					this.source.close();
+				}
+				catch (IOException ignore) {
+				}
+				this.source = null;
+			}
+		}
 	}
 
 }
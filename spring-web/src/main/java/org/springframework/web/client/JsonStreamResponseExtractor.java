@@ -0,0 +1,182 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.client;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+/**
+ * Response extractor that parses a JSON array, or a stream of newline
+ * delimited JSON values, incrementally into a {@link Stream} of elements.
+ *
+ * <p>Only a single element is held in memory at any time. The returned
+ * {@code Stream} owns the response, which is closed either when the stream
+ * is {@linkplain Stream#close() closed} or once its last element is consumed.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @param <T> the element type
+ * @see RestTemplate#getForStream(java.net.URI, Class)
+ */
+class JsonStreamResponseExtractor<T> implements ResponseExtractor<Stream<T>> {
+
+	/**
+	 * The media types requested for a streamed response.
+	 */
+	static final List<MediaType> MEDIA_TYPES = Arrays.asList(MediaType.APPLICATION_JSON,
+			new MediaType("application", "x-ndjson"), MediaType.APPLICATION_STREAM_JSON);
+
+
+	private final Class<T> elementType;
+
+	private final ObjectMapper objectMapper;
+
+
+	/**
+	 * Create a new instance, using the {@code ObjectMapper} of the first
+	 * {@link MappingJackson2HttpMessageConverter} among the given converters,
+	 * or a default one if there is none.
+	 * @param elementType the type of the stream elements
+	 * @param messageConverters the configured message converters
+	 */
+	JsonStreamResponseExtractor(Class<T> elementType, List<HttpMessageConverter<?>> messageConverters) {
+		this.elementType = elementType;
+		this.objectMapper = findObjectMapper(messageConverters);
+	}
+
+	private static ObjectMapper findObjectMapper(List<HttpMessageConverter<?>> messageConverters) {
+		for (HttpMessageConverter<?> converter : messageConverters) {
+			if (converter instanceof MappingJackson2HttpMessageConverter) {
+				return ((MappingJackson2HttpMessageConverter) converter).getObjectMapper();
+			}
+		}
+		return Jackson2ObjectMapperBuilder.json().build();
+	}
+
+
+	@Override
+	public Stream<T> extractData(ClientHttpResponse response) throws IOException {
+		MessageBodyClientHttpResponseWrapper responseWrapper = new MessageBodyClientHttpResponseWrapper(response);
+		if (!responseWrapper.hasMessageBody() || responseWrapper.hasEmptyMessageBody()) {
+			return Stream.<T>empty().onClose(response::close);
+		}
+
+		JsonParser parser = this.objectMapper.getFactory().createParser(responseWrapper.getBody());
+		JsonToken token = parser.nextToken();
+		boolean array = (token == JsonToken.START_ARRAY);
+		if (array) {
+			token = parser.nextToken();
+		}
+
+		ElementIterator iterator = new ElementIterator(parser, response, token, array);
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+		return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+	}
+
+
+	/**
+	 * Iterator that reads one element ahead of the parser's current token.
+	 */
+	private class ElementIterator implements Iterator<T> {
+
+		private final JsonParser parser;
+
+		private final ClientHttpResponse response;
+
+		private final ObjectReader reader;
+
+		private final boolean array;
+
+		@Nullable
+		private JsonToken token;
+
+		private boolean closed;
+
+		ElementIterator(JsonParser parser, ClientHttpResponse response, @Nullable JsonToken token, boolean array) {
+			this.parser = parser;
+			this.response = response;
+			this.reader = JsonStreamResponseExtractor.this.objectMapper.readerFor(
+					JsonStreamResponseExtractor.this.elementType);
+			this.token = token;
+			this.array = array;
+			if (!hasNext()) {
+				close();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return (!this.closed && this.token != null && !(this.array && this.token == JsonToken.END_ARRAY));
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				T element = this.reader.readValue(this.parser);
+				this.token = this.parser.nextToken();
+				if (!hasNext()) {
+					close();
+				}
+				return element;
+			}
+			catch (IOException ex) {
+				close();
+				throw new RestClientException("Error while extracting response stream element for type [" +
+						JsonStreamResponseExtractor.this.elementType.getName() + "]", ex);
+			}
+		}
+
+		void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				this.parser.close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+			finally {
+				this.response.close();
+			}
+		}
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.web.client;
 import java.net.URI;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
@@ -112,6 +113,57 @@ public interface RestOperations {
 	 */
 	<T> ResponseEntity<T> getForEntity(URI url, Class<T> responseType) throws RestClientException;
 
+	/**
+	 * Retrieve a JSON array, or a stream of newline delimited JSON values,
+	 * by doing a GET on the specified URL, and parse its elements lazily as
+	 * the returned {@link Stream} is consumed.
+	 * <p>URI Template variables are expanded using the given URI variables, if any.
+	 * <p>The stream holds on to the underlying response until its last element
+	 * is consumed, and must be {@linkplain Stream#close() closed} if it may be
+	 * abandoned before that, e.g. with a try-with-resources block. Use
+	 * {@link Stream#iterator()} for {@code Iterator} style access.
+	 * <p>Note that a buffering request factory reads the full response into
+	 * memory before the first element is returned.
+	 * @param url the URL
+	 * @param elementType the type of the stream elements
+	 * @param uriVariables the variables to expand the template
+	 * @return the stream of converted elements
+	 * @since 5.2
+	 */
+	<T> Stream<T> getForStream(String url, Class<T> elementType, Object... uriVariables)
+			throws RestClientException;
+
+	/**
+	 * Retrieve a JSON array, or a stream of newline delimited JSON values,
+	 * by doing a GET on the URI template, and parse its elements lazily as
+	 * the returned {@link Stream} is consumed.
+	 * <p>URI Template variables are expanded using the given map.
+	 * <p>The returned stream must be closed if it may be abandoned before
+	 * its last element is consumed.
+	 * @param url the URL
+	 * @param elementType the type of the stream elements
+	 * @param uriVariables the map containing variables for the URI template
+	 * @return the stream of converted elements
+	 * @since 5.2
+	 * @see #getForStream(String, Class, Object...)
+	 */
+	<T> Stream<T> getForStream(String url, Class<T> elementType, Map<String, ?> uriVariables)
+			throws RestClientException;
+
+	/**
+	 * Retrieve a JSON array, or a stream of newline delimited JSON values,
+	 * by doing a GET on the URL, and parse its elements lazily as the
+	 * returned {@link Stream} is consumed.
+	 * <p>The returned stream must be closed if it may be abandoned before
+	 * its last element is consumed.
+	 * @param url the URL
+	 * @param elementType the type of the stream elements
+	 * @return the stream of converted elements
+	 * @since 5.2
+	 * @see #getForStream(String, Class, Object...)
+	 */
+	<T> Stream<T> getForStream(URI url, Class<T> elementType) throws RestClientException;
+
 
 	// HEAD
 
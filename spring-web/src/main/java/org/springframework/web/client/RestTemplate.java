@@ -354,6 +354,32 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 		return nonNull(execute(url, HttpMethod.GET, requestCallback, responseExtractor));
 	}
 
+	@Override
+	public <T> Stream<T> getForStream(String url, Class<T> elementType, Object... uriVariables)
+			throws RestClientException {
+
+		URI expanded = getUriTemplateHandler().expand(url, uriVariables);
+		return getForStream(expanded, elementType);
+	}
+
+	@Override
+	public <T> Stream<T> getForStream(String url, Class<T> elementType, Map<String, ?> uriVariables)
+			throws RestClientException {
+
+		URI expanded = getUriTemplateHandler().expand(url, uriVariables);
+		return getForStream(expanded, elementType);
+	}
+
+	@Override
+	public <T> Stream<T> getForStream(URI url, Class<T> elementType) throws RestClientException {
+		Assert.state(jackson2Present, "Streaming JSON extraction requires Jackson 2");
+		RequestCallback requestCallback = request ->
+				request.getHeaders().setAccept(JsonStreamResponseExtractor.MEDIA_TYPES);
+		JsonStreamResponseExtractor<T> responseExtractor =
+				new JsonStreamResponseExtractor<>(elementType, getMessageConverters());
+		return doExecuteForStream(url, HttpMethod.GET, requestCallback, responseExtractor);
+	}
+
 
 	// HEAD
 
@@ -737,11 +763,7 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 			return (responseExtractor != null ? responseExtractor.extractData(response) : null);
 		}
 		catch (IOException ex) {
-			String resource = url.toString();
-			String query = url.getRawQuery();
-			resource = (query != null ? resource.substring(0, resource.indexOf('?')) : resource);
-			throw new ResourceAccessException("I/O error on " + method.name() +
-					" request for \"" + resource + "\": " + ex.getMessage(), ex);
+			throw createResourceAccessException(url, method, ex);
 		}
 		finally {
 			if (response != null) {
@@ -750,6 +772,41 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 		}
 	}
 
+	/**
+	 * Variant of {@link #doExecute} that leaves the response open on success,
+	 * handing it over to the returned {@code Stream} to close.
+	 */
+	private <T> Stream<T> doExecuteForStream(URI url, HttpMethod method, RequestCallback requestCallback,
+			ResponseExtractor<Stream<T>> responseExtractor) throws RestClientException {
+
+		ClientHttpResponse response = null;
+		try {
+			ClientHttpRequest request = createRequest(url, method);
+			requestCallback.doWithRequest(request);
+			response = request.execute();
+			handleResponse(url, method, response);
+			Stream<T> result = responseExtractor.extractData(response);
+			response = null;
+			return result;
+		}
+		catch (IOException ex) {
+			throw createResourceAccessException(url, method, ex);
+		}
+		finally {
+			if (response != null) {
+				response.close();
+			}
+		}
+	}
+
+	private static ResourceAccessException createResourceAccessException(URI url, HttpMethod method, IOException ex) {
+		String resource = url.toString();
+		String query = url.getRawQuery();
+		resource = (query != null ? resource.substring(0, resource.indexOf('?')) : resource);
+		return new ResourceAccessException("I/O error on " + method.name() +
+				" request for \"" + resource + "\": " + ex.getMessage(), ex);
+	}
+
 	/**
 	 * Handle the given response, performing appropriate logging and
 	 * invoking the {@link ResponseErrorHandler} if necessary.
@@ -94,6 +94,8 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 	@Nullable
 	private final ApplicationContext applicationContext;
 
+	private volatile boolean multipartRead = false;
+
 	private volatile boolean notModified;
 
 	private Function<String, String> urlTransformer = url -> url;
@@ -156,7 +158,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 	}
 
 	@SuppressWarnings("unchecked")
-	private static Mono<MultiValueMap<String, Part>> initMultipartData(ServerHttpRequest request,
+	private Mono<MultiValueMap<String, Part>> initMultipartData(ServerHttpRequest request,
 			ServerCodecConfigurer configurer, String logPrefix) {
 
 		try {
@@ -167,6 +169,7 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 						.findFirst()
 						.orElseThrow(() -> new IllegalStateException("No multipart HttpMessageReader.")))
 						.readMono(MULTIPART_DATA_TYPE, request, Hints.from(Hints.LOG_PREFIX_HINT, logPrefix))
+						.doOnSubscribe(subscription -> this.multipartRead = true)
 						.switchIfEmpty(EMPTY_MULTIPART_DATA)
 						.cache();
 			}
@@ -221,6 +224,22 @@ public class DefaultServerWebExchange implements ServerWebExchange {
 		return this.multipartDataMono;
 	}
 
+	/**
+	 * Delete the temporary storage of the parts of the multipart data, if it
+	 * has been read, via {@link Part#delete()}. Errors are ignored.
+	 */
+	Mono<Void> cleanupMultipart() {
+		if (!this.multipartRead) {
+			return Mono.empty();
+		}
+		return getMultipartData()
+				.onErrorResume(ex -> Mono.empty())  // already reported to the reader of the data
+				.flatMapIterable(Map::values)
+				.flatMapIterable(Function.identity())
+				.flatMap(part -> part.delete().onErrorResume(ex -> Mono.empty()))
+				.then();
+	}
+
 	@Override
 	public LocaleContext getLocaleContext() {
 		return this.localeContextResolver.resolveLocaleContext(this);
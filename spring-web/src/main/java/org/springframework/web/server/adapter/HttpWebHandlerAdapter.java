@@ -16,24 +16,36 @@
 
 package org.springframework.web.server.adapter;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.LeakTrackingDataBufferFactory;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.http.codec.LoggingCodecSupport;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.http.server.reactive.HttpHandler;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -42,6 +54,8 @@ import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.handler.WebHandlerDecorator;
 import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
 import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.observation.ExchangeObservation;
+import org.springframework.web.server.observation.ExchangeObserver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
 import org.springframework.web.server.session.WebSessionManager;
 
@@ -51,6 +65,22 @@ import org.springframework.web.server.session.WebSessionManager;
  * <p>By default creates and configures a {@link DefaultServerWebExchange} and
  * then invokes the target {@code WebHandler}.
  *
+ * <p>If the server adapter is configured with a {@link LeakTrackingDataBufferFactory},
+ * the request body buffers, and the buffers allocated through the response
+ * while handling a request, are tracked in a
+ * {@linkplain LeakTrackingDataBufferFactory#createScope() scope} of their
+ * own, and the buffers not released by the time the request completes are
+ * logged at WARN level, along with their allocation site if sampled.
+ *
+ * <p>Parts of the {@link ServerWebExchange#getMultipartData() multipart data}
+ * of a request are {@link org.springframework.http.codec.multipart.Part#delete()
+ * deleted} once the request completes, if the multipart data has been read.
+ *
+ * <p>If an {@link ExchangeObserver} is configured, an {@link ExchangeObservation}
+ * is recorded for each request, with the bytes read and written, and the
+ * phase timings recorded by the {@code WebHandler}, and passed to the observer
+ * once the request completes. Otherwise, no such work is done.
+ *
  * @author Rossen Stoyanchev
  * @author Sebastien Deleuze
  * @since 5.0
@@ -88,6 +118,9 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 	@Nullable
 	private ForwardedHeaderTransformer forwardedHeaderTransformer;
 
+	@Nullable
+	private ExchangeObserver exchangeObserver;
+
 	@Nullable
 	private ApplicationContext applicationContext;
 
@@ -186,6 +219,26 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		return this.forwardedHeaderTransformer;
 	}
 
+	/**
+	 * Configure an {@link ExchangeObserver} to be notified of the
+	 * {@link ExchangeObservation} of each request.
+	 * <p>By default this is not set, and requests are not observed.
+	 * @param observer the observer to use, or {@code null} for none
+	 * @since 5.2
+	 */
+	public void setExchangeObserver(@Nullable ExchangeObserver observer) {
+		this.exchangeObserver = observer;
+	}
+
+	/**
+	 * Return the configured {@link ExchangeObserver}, if any.
+	 * @since 5.2
+	 */
+	@Nullable
+	public ExchangeObserver getExchangeObserver() {
+		return this.exchangeObserver;
+	}
+
 	/**
 	 * Configure the {@code ApplicationContext} associated with the web application,
 	 * if it was initialized with one via
@@ -226,16 +279,54 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		if (this.forwardedHeaderTransformer != null) {
 			request = this.forwardedHeaderTransformer.apply(request);
 		}
+		LeakTrackingDataBufferFactory bufferScope = null;
+		if (response.bufferFactory() instanceof LeakTrackingDataBufferFactory) {
+			bufferScope = ((LeakTrackingDataBufferFactory) response.bufferFactory()).createScope();
+			request = new BufferScopeRequest(request, bufferScope);
+			response = (response instanceof ZeroCopyHttpOutputMessage ?
+					new ZeroCopyBufferScopeResponse(response, bufferScope) :
+					new BufferScopeResponse(response, bufferScope));
+		}
+		ExchangeObserver observer = this.exchangeObserver;
+		ExchangeObservation observation = null;
+		if (observer != null) {
+			observation = new ExchangeObservation();
+			request = new ObservedRequest(request, observation);
+			response = (response instanceof ZeroCopyHttpOutputMessage ?
+					new ZeroCopyObservedResponse(response, observation) :
+					new ObservedResponse(response, observation));
+		}
 		ServerWebExchange exchange = createExchange(request, response);
 
 		LogFormatUtils.traceDebug(logger, traceOn ->
 				exchange.getLogPrefix() + formatRequest(exchange.getRequest()) +
 						(traceOn ? ", headers=" + formatHeaders(exchange.getRequest().getHeaders()) : ""));
 
-		return getDelegate().handle(exchange)
+		if (observation != null) {
+			exchange.getAttributes().put(ExchangeObservation.ATTRIBUTE, observation);
+		}
+		Mono<Void> result = getDelegate().handle(exchange);
+		if (observation != null) {
+			result = result.doOnError(observation::failed);
+		}
+		result = result
 				.doOnSuccess(aVoid -> logResponse(exchange))
 				.onErrorResume(ex -> handleUnresolvedError(exchange, ex))
 				.then(Mono.defer(response::setComplete));
+
+		if (bufferScope != null) {
+			LeakTrackingDataBufferFactory scope = bufferScope;
+			result = result.doFinally(signalType -> logUnreleasedBuffers(exchange, scope, signalType));
+		}
+		if (observer != null && observation != null) {
+			ExchangeObservation completed = observation;
+			result = result.doFinally(signalType -> notifyObserver(exchange, observer, completed));
+		}
+		if (exchange instanceof DefaultServerWebExchange) {
+			DefaultServerWebExchange defaultExchange = (DefaultServerWebExchange) exchange;
+			result = result.doFinally(signalType -> defaultExchange.cleanupMultipart().subscribe());
+		}
+		return result;
 	}
 
 	protected ServerWebExchange createExchange(ServerHttpRequest request, ServerHttpResponse response) {
@@ -262,6 +353,34 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 				responseHeaders.toString() : responseHeaders.isEmpty() ? "{}" : "{masked}";
 	}
 
+	private void logUnreleasedBuffers(
+			ServerWebExchange exchange, LeakTrackingDataBufferFactory scope, SignalType signalType) {
+
+		// On cancellation, buffers may still be released asynchronously
+		if (signalType == SignalType.CANCEL || scope.getLiveBufferCount() == 0 || !logger.isWarnEnabled()) {
+			return;
+		}
+		String logPrefix = exchange.getLogPrefix();
+		logger.warn(logPrefix + scope.getLiveBufferCount() + " DataBuffer(s) holding " +
+				scope.getLiveByteCount() + " bytes not released after completing " +
+				formatRequest(exchange.getRequest()));
+		for (Throwable allocationSite : scope.getUnreleasedAllocationSites()) {
+			logger.warn(logPrefix + allocationSite.getMessage(), allocationSite);
+		}
+	}
+
+	private void notifyObserver(
+			ServerWebExchange exchange, ExchangeObserver observer, ExchangeObservation observation) {
+
+		observation.complete(exchange);
+		try {
+			observer.onComplete(observation);
+		}
+		catch (Throwable ex) {
+			logger.error(exchange.getLogPrefix() + "ExchangeObserver failed", ex);
+		}
+	}
+
 	private Mono<Void> handleUnresolvedError(ServerWebExchange exchange, Throwable ex) {
 		ServerHttpRequest request = exchange.getRequest();
 		ServerHttpResponse response = exchange.getResponse();
@@ -300,4 +419,163 @@ public class HttpWebHandlerAdapter extends WebHandlerDecorator implements HttpHa
 		return DISCONNECTED_CLIENT_EXCEPTIONS.contains(ex.getClass().getSimpleName());
 	}
 
+
+	/**
+	 * Request decorator that moves the body buffers into a request-specific
+	 * {@link LeakTrackingDataBufferFactory} scope.
+	 */
+	private static class BufferScopeRequest extends ServerHttpRequestDecorator {
+
+		private final LeakTrackingDataBufferFactory bufferScope;
+
+		BufferScopeRequest(ServerHttpRequest delegate, LeakTrackingDataBufferFactory bufferScope) {
+			super(delegate);
+			this.bufferScope = bufferScope;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return super.getBody().map(this.bufferScope::adopt);
+		}
+	}
+
+
+	/**
+	 * Response decorator that allocates buffers through a request-specific
+	 * {@link LeakTrackingDataBufferFactory} scope.
+	 */
+	private static class BufferScopeResponse extends ServerHttpResponseDecorator {
+
+		private final DataBufferFactory bufferFactory;
+
+		BufferScopeResponse(ServerHttpResponse delegate, DataBufferFactory bufferFactory) {
+			super(delegate);
+			this.bufferFactory = bufferFactory;
+		}
+
+		@Override
+		public DataBufferFactory bufferFactory() {
+			return this.bufferFactory;
+		}
+	}
+
+
+	/**
+	 * Variant of {@link BufferScopeResponse} for responses that support
+	 * zero-copy file transfers.
+	 */
+	private static class ZeroCopyBufferScopeResponse extends BufferScopeResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		ZeroCopyBufferScopeResponse(ServerHttpResponse delegate, DataBufferFactory bufferFactory) {
+			super(delegate, bufferFactory);
+		}
+
+		@Override
+		public Mono<Void> writeWith(Path file, long position, long count) {
+			return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count);
+		}
+
+		@Override
+		public Mono<Void> writeWith(List<?> parts) {
+			return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(parts);
+		}
+	}
+
+
+	/**
+	 * Request decorator that records the number of body bytes read.
+	 */
+	private static class ObservedRequest extends ServerHttpRequestDecorator {
+
+		private final ExchangeObservation observation;
+
+		ObservedRequest(ServerHttpRequest delegate, ExchangeObservation observation) {
+			super(delegate);
+			this.observation = observation;
+		}
+
+		@Override
+		public Flux<DataBuffer> getBody() {
+			return super.getBody().doOnNext(buffer -> this.observation.bytesRead(buffer.readableByteCount()));
+		}
+	}
+
+
+	/**
+	 * Response decorator that records the number of body bytes written,
+	 * along with the times of the first and last byte.
+	 */
+	private static class ObservedResponse extends ServerHttpResponseDecorator {
+
+		private final ExchangeObservation observation;
+
+		ObservedResponse(ServerHttpResponse delegate, ExchangeObservation observation) {
+			super(delegate);
+			this.observation = observation;
+		}
+
+		protected ExchangeObservation getObservation() {
+			return this.observation;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			return super.writeWith(Flux.<DataBuffer>from(body).doOnNext(this::recordWrite))
+					.doOnSuccess(aVoid -> this.observation.lastByteWritten());
+		}
+
+		@Override
+		public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+			return super.writeAndFlushWith(Flux.from(body)
+					.map(publisher -> Flux.<DataBuffer>from(publisher).doOnNext(this::recordWrite)))
+					.doOnSuccess(aVoid -> this.observation.lastByteWritten());
+		}
+
+		@Override
+		public Mono<Void> setComplete() {
+			return super.setComplete().doOnSuccess(aVoid -> this.observation.lastByteWritten());
+		}
+
+		private void recordWrite(DataBuffer buffer) {
+			this.observation.bytesWritten(buffer.readableByteCount());
+		}
+	}
+
+
+	/**
+	 * Variant of {@link ObservedResponse} for responses that support
+	 * zero-copy file transfers.
+	 */
+	private static class ZeroCopyObservedResponse extends ObservedResponse implements ZeroCopyHttpOutputMessage {
+
+		ZeroCopyObservedResponse(ServerHttpResponse delegate, ExchangeObservation observation) {
+			super(delegate, observation);
+		}
+
+		@Override
+		public Mono<Void> writeWith(Path file, long position, long count) {
+			return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count)
+					.doOnSubscribe(subscription -> getObservation().bytesWritten(count))
+					.doOnSuccess(aVoid -> getObservation().lastByteWritten());
+		}
+
+		@Override
+		public Mono<Void> writeWith(List<?> parts) {
+			long count = 0;
+			for (Object part : parts) {
+				if (part instanceof DataBuffer) {
+					count += ((DataBuffer) part).readableByteCount();
+				}
+				else if (part instanceof ResourceRegion) {
+					count += ((ResourceRegion) part).getCount();
+				}
+			}
+			long bytesWritten = count;
+			return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(parts)
+					.doOnSubscribe(subscription -> getObservation().bytesWritten(bytesWritten))
+					.doOnSuccess(aVoid -> getObservation().lastByteWritten());
+		}
+	}
+
 }
@@ -37,6 +37,7 @@ import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.handler.ExceptionHandlingWebHandler;
 import org.springframework.web.server.handler.FilteringWebHandler;
 import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.observation.ExchangeObserver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
 import org.springframework.web.server.session.WebSessionManager;
 
@@ -76,6 +77,9 @@ public final class WebHttpHandlerBuilder {
 	/** Well-known name for the ForwardedHeaderTransformer in the bean factory. */
 	public static final String FORWARDED_HEADER_TRANSFORMER_BEAN_NAME = "forwardedHeaderTransformer";
 
+	/** Well-known name for the ExchangeObserver in the bean factory. */
+	public static final String EXCHANGE_OBSERVER_BEAN_NAME = "exchangeObserver";
+
 
 	private final WebHandler webHandler;
 
@@ -98,6 +102,9 @@ public final class WebHttpHandlerBuilder {
 	@Nullable
 	private ForwardedHeaderTransformer forwardedHeaderTransformer;
 
+	@Nullable
+	private ExchangeObserver exchangeObserver;
+
 
 	/**
 	 * Private constructor to use when initialized from an ApplicationContext.
@@ -120,6 +127,7 @@ public final class WebHttpHandlerBuilder {
 		this.codecConfigurer = other.codecConfigurer;
 		this.localeContextResolver = other.localeContextResolver;
 		this.forwardedHeaderTransformer = other.forwardedHeaderTransformer;
+		this.exchangeObserver = other.exchangeObserver;
 	}
 
 
@@ -207,6 +215,13 @@ public final class WebHttpHandlerBuilder {
 			// Fall back on default
 		}
 
+		try {
+			builder.exchangeObserver(context.getBean(EXCHANGE_OBSERVER_BEAN_NAME, ExchangeObserver.class));
+		}
+		catch (NoSuchBeanDefinitionException ex) {
+			// Fall back on default
+		}
+
 		return builder;
 	}
 
@@ -352,6 +367,17 @@ public final class WebHttpHandlerBuilder {
 		return (this.forwardedHeaderTransformer != null);
 	}
 
+	/**
+	 * Configure an {@link ExchangeObserver} to be notified of the timings
+	 * of each request.
+	 * @param observer the observer
+	 * @since 5.2
+	 */
+	public WebHttpHandlerBuilder exchangeObserver(ExchangeObserver observer) {
+		this.exchangeObserver = observer;
+		return this;
+	}
+
 
 	/**
 	 * Build the {@link HttpHandler}.
@@ -374,6 +400,9 @@ public final class WebHttpHandlerBuilder {
 		if (this.forwardedHeaderTransformer != null) {
 			adapted.setForwardedHeaderTransformer(this.forwardedHeaderTransformer);
 		}
+		if (this.exchangeObserver != null) {
+			adapted.setExchangeObserver(this.exchangeObserver);
+		}
 		if (this.applicationContext != null) {
 			adapted.setApplicationContext(this.applicationContext);
 		}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.observation;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Timings and byte counts recorded while handling a single request, and
+ * passed to an {@link ExchangeObserver} once the request is complete.
+ *
+ * <p>An instance is created up front for each request, with room for all
+ * {@linkplain Phase phases}, and is exposed through the {@link #ATTRIBUTE}
+ * exchange attribute to components that record phases. It is only present
+ * if an {@code ExchangeObserver} is configured. Times are in nanoseconds,
+ * as per {@link System#nanoTime()}.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ * @see org.springframework.web.server.adapter.HttpWebHandlerAdapter#setExchangeObserver
+ */
+public final class ExchangeObservation {
+
+	/**
+	 * Name of the exchange attribute that holds the observation for a request.
+	 */
+	public static final String ATTRIBUTE = ExchangeObservation.class.getName();
+
+	private static final long NONE = -1;
+
+	private static final AtomicLongFieldUpdater<ExchangeObservation> BYTES_READ_UPDATER =
+			AtomicLongFieldUpdater.newUpdater(ExchangeObservation.class, "bytesRead");
+
+	private static final AtomicLongFieldUpdater<ExchangeObservation> BYTES_WRITTEN_UPDATER =
+			AtomicLongFieldUpdater.newUpdater(ExchangeObservation.class, "bytesWritten");
+
+
+	/**
+	 * Phases of request handling that may be observed. Phases nest, e.g.
+	 * {@link #ARGUMENT_RESOLUTION} is part of {@link #HANDLER_INVOCATION}.
+	 */
+	public enum Phase {
+
+		/** Finding the handler for the request. */
+		HANDLER_MAPPING,
+
+		/** Invoking the handler, up to the point where it returns a result. */
+		HANDLER_INVOCATION,
+
+		/** Resolving the arguments of a handler method. */
+		ARGUMENT_RESOLUTION,
+
+		/** Handling the result of the handler, e.g. encoding it to the response. */
+		RESULT_HANDLING
+	}
+
+
+	private final long startTime;
+
+	private final long[] phaseStartTimes = new long[Phase.values().length];
+
+	private final long[] phaseDurations = new long[Phase.values().length];
+
+	private volatile long firstByteTime = NONE;
+
+	private volatile long lastByteTime = NONE;
+
+	private volatile long bytesRead;
+
+	private volatile long bytesWritten;
+
+	private volatile long endTime = NONE;
+
+	@Nullable
+	private volatile Throwable error;
+
+	@Nullable
+	private volatile ServerWebExchange exchange;
+
+
+	/**
+	 * Create an observation for a request, starting now.
+	 */
+	public ExchangeObservation() {
+		this.startTime = System.nanoTime();
+		for (int i = 0; i < this.phaseDurations.length; i++) {
+			this.phaseStartTimes[i] = NONE;
+			this.phaseDurations[i] = NONE;
+		}
+	}
+
+
+	/**
+	 * Return the observation for the given exchange, or {@code null} if
+	 * requests are not being observed.
+	 */
+	@Nullable
+	public static ExchangeObservation get(ServerWebExchange exchange) {
+		return exchange.getAttribute(ATTRIBUTE);
+	}
+
+	/**
+	 * Record the given phase around the given {@code Mono}, if the exchange
+	 * is observed, from subscription until it completes or fails.
+	 * @param exchange the current exchange
+	 * @param phase the phase to record
+	 * @param mono the {@code Mono} that performs the phase
+	 * @return the given {@code Mono}, or one decorated to record the phase
+	 */
+	public static <T> Mono<T> observe(ServerWebExchange exchange, Phase phase, Mono<T> mono) {
+		ExchangeObservation observation = get(exchange);
+		if (observation == null) {
+			return mono;
+		}
+		return mono
+				.doOnSubscribe(subscription -> observation.phaseStarted(phase))
+				.doOnSuccess(value -> observation.phaseEnded(phase))
+				.doOnError(ex -> observation.phaseEnded(phase));
+	}
+
+
+	/**
+	 * Record the start of the given phase.
+	 */
+	public void phaseStarted(Phase phase) {
+		this.phaseStartTimes[phase.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * Record the end of the given phase. If a phase is recorded more than
+	 * once, e.g. for an exception handler, the durations are added up.
+	 */
+	public void phaseEnded(Phase phase) {
+		long startTime = this.phaseStartTimes[phase.ordinal()];
+		if (startTime != NONE) {
+			long duration = System.nanoTime() - startTime;
+			long current = this.phaseDurations[phase.ordinal()];
+			this.phaseDurations[phase.ordinal()] = (current != NONE ? current + duration : duration);
+			this.phaseStartTimes[phase.ordinal()] = NONE;
+		}
+	}
+
+	/**
+	 * Record the given number of request body bytes read.
+	 */
+	public void bytesRead(long count) {
+		BYTES_READ_UPDATER.addAndGet(this, count);
+	}
+
+	/**
+	 * Record the given number of response body bytes written, which also
+	 * marks the time of the first byte written.
+	 */
+	public void bytesWritten(long count) {
+		if (this.firstByteTime == NONE) {
+			this.firstByteTime = System.nanoTime();
+		}
+		BYTES_WRITTEN_UPDATER.addAndGet(this, count);
+	}
+
+	/**
+	 * Mark the time of the last response byte written, unless already marked.
+	 */
+	public void lastByteWritten() {
+		if (this.lastByteTime == NONE) {
+			this.lastByteTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Record an error raised while handling the request.
+	 */
+	public void failed(Throwable error) {
+		this.error = error;
+	}
+
+	/**
+	 * Mark the completion of the request.
+	 * @param exchange the completed exchange
+	 */
+	public void complete(ServerWebExchange exchange) {
+		this.exchange = exchange;
+		this.endTime = System.nanoTime();
+	}
+
+
+	/**
+	 * Return the observed exchange, once the request is complete.
+	 */
+	public ServerWebExchange getExchange() {
+		ServerWebExchange exchange = this.exchange;
+		Assert.state(exchange != null, "Request not complete");
+		return exchange;
+	}
+
+	/**
+	 * Return the duration of the given phase in nanoseconds, or -1 if the
+	 * phase was not recorded, or did not complete.
+	 */
+	public long getPhaseDuration(Phase phase) {
+		return this.phaseDurations[phase.ordinal()];
+	}
+
+	/**
+	 * Return the time from the start of the request until the first response
+	 * byte was written, in nanoseconds, or -1 if no bytes were written.
+	 */
+	public long getTimeToFirstByte() {
+		long time = this.firstByteTime;
+		return (time != NONE ? time - this.startTime : NONE);
+	}
+
+	/**
+	 * Return the time from the start of the request until the last response
+	 * byte was written, in nanoseconds, or -1 if the response was not written.
+	 */
+	public long getTimeToLastByte() {
+		long time = this.lastByteTime;
+		return (time != NONE ? time - this.startTime : NONE);
+	}
+
+	/**
+	 * Return the total duration of the request in nanoseconds, or -1 if the
+	 * request has not completed yet.
+	 */
+	public long getDuration() {
+		long time = this.endTime;
+		return (time != NONE ? time - this.startTime : NONE);
+	}
+
+	/**
+	 * Return the number of request body bytes read.
+	 */
+	public long getBytesRead() {
+		return this.bytesRead;
+	}
+
+	/**
+	 * Return the number of response body bytes written.
+	 */
+	public long getBytesWritten() {
+		return this.bytesWritten;
+	}
+
+	/**
+	 * Return the error the request completed with, if any.
+	 */
+	@Nullable
+	public Throwable getError() {
+		return this.error;
+	}
+
+}
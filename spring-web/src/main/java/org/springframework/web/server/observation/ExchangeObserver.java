@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.observation;
+
+/**
+ * Callback for the {@link ExchangeObservation} of each completed request,
+ * e.g. to record timings in a {@link HistogramExchangeObserver histogram}
+ * or to export them to a monitoring system.
+ *
+ * <p>Invoked on the thread that completes the request, and therefore must
+ * not block.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ * @see org.springframework.web.server.adapter.HttpWebHandlerAdapter#setExchangeObserver
+ */
+@FunctionalInterface
+public interface ExchangeObserver {
+
+	/**
+	 * Invoked once the request is complete.
+	 * @param observation the timings and byte counts for the request
+	 */
+	void onComplete(ExchangeObservation observation);
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.observation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+import org.springframework.web.server.observation.ExchangeObservation.Phase;
+
+/**
+ * {@link ExchangeObserver} that records request and phase durations in
+ * lock-free {@link Histogram histograms}, along with the total number of
+ * bytes read and written, for the lifetime of the application.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+public class HistogramExchangeObserver implements ExchangeObserver {
+
+	private final Histogram durations = new Histogram();
+
+	private final Histogram timesToFirstByte = new Histogram();
+
+	private final Map<Phase, Histogram> phaseDurations = new EnumMap<>(Phase.class);
+
+	private final LongAdder bytesRead = new LongAdder();
+
+	private final LongAdder bytesWritten = new LongAdder();
+
+
+	public HistogramExchangeObserver() {
+		for (Phase phase : Phase.values()) {
+			this.phaseDurations.put(phase, new Histogram());
+		}
+	}
+
+
+	@Override
+	public void onComplete(ExchangeObservation observation) {
+		this.durations.record(observation.getDuration());
+		this.timesToFirstByte.record(observation.getTimeToFirstByte());
+		for (Phase phase : Phase.values()) {
+			this.phaseDurations.get(phase).record(observation.getPhaseDuration(phase));
+		}
+		this.bytesRead.add(observation.getBytesRead());
+		this.bytesWritten.add(observation.getBytesWritten());
+	}
+
+	/**
+	 * Return the histogram of total request durations.
+	 */
+	public Histogram getDurations() {
+		return this.durations;
+	}
+
+	/**
+	 * Return the histogram of times until the first response byte was written.
+	 */
+	public Histogram getTimesToFirstByte() {
+		return this.timesToFirstByte;
+	}
+
+	/**
+	 * Return the histogram of durations of the given phase.
+	 */
+	public Histogram getPhaseDurations(Phase phase) {
+		return this.phaseDurations.get(phase);
+	}
+
+	/**
+	 * Return the total number of request body bytes read.
+	 */
+	public long getBytesRead() {
+		return this.bytesRead.sum();
+	}
+
+	/**
+	 * Return the total number of response body bytes written.
+	 */
+	public long getBytesWritten() {
+		return this.bytesWritten.sum();
+	}
+
+
+	/**
+	 * Histogram of nanosecond durations, with log-linear buckets: 16 buckets
+	 * for each power of two, i.e. values are resolved within about 6%.
+	 * Recording a value updates its bucket, the count, and the sum, each
+	 * atomically but not together, so a concurrent read may see a value in
+	 * some of them only. No locks are taken.
+	 */
+	public static final class Histogram {
+
+		private static final int SUB_BUCKET_BITS = 4;
+
+		private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+
+		private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder sum = new LongAdder();
+
+
+		/**
+		 * Record the given duration, ignoring negative values, which indicate
+		 * that a phase was not observed.
+		 */
+		public void record(long nanos) {
+			if (nanos < 0) {
+				return;
+			}
+			this.counts.incrementAndGet(getIndex(nanos));
+			this.count.increment();
+			this.sum.add(nanos);
+		}
+
+		/**
+		 * Return the number of recorded values.
+		 */
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		/**
+		 * Return the mean of the recorded values, or 0 if none.
+		 */
+		public long getMean() {
+			long count = this.count.sum();
+			return (count != 0 ? this.sum.sum() / count : 0);
+		}
+
+		/**
+		 * Return an upper bound of the given percentile of the recorded
+		 * values, e.g. 99.0 for the 99th percentile, or 0 if none.
+		 */
+		public long getPercentile(double percentile) {
+			Assert.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+			long total = 0;
+			long[] counts = new long[this.counts.length()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = this.counts.get(i);
+				total += counts[i];
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return (i + 1 < counts.length ? getLowerBound(i + 1) - 1 : Long.MAX_VALUE);
+				}
+			}
+			return Long.MAX_VALUE;
+		}
+
+		private static int getIndex(long value) {
+			if (value < SUB_BUCKETS) {
+				return (int) value;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+			return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+		}
+
+		private static long getLowerBound(int index) {
+			if (index < SUB_BUCKETS) {
+				return index;
+			}
+			int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+			long subBucket = index % SUB_BUCKETS;
+			return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+		}
+	}
+
+}
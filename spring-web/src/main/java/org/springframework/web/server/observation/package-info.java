@@ -0,0 +1,10 @@
+/**
+ * Observation of the phases of server request handling, with timings
+ * and byte counts, for monitoring purposes.
+ */
+@NonNullApi
+@NonNullFields
+package org.springframework.web.server.observation;
+
+import org.springframework.lang.NonNullApi;
+import org.springframework.lang.NonNullFields;
@@ -20,16 +20,22 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
 import reactor.core.publisher.Mono;
 
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
 import org.springframework.util.IdGenerator;
 import org.springframework.util.JdkIdGenerator;
@@ -38,6 +44,12 @@ import org.springframework.web.server.WebSession;
 /**
  * Simple Map-based storage for {@link WebSession} instances.
  *
+ * <p>Sessions are indexed by expiration time in buckets of one second, so
+ * that expired sessions can be found without iterating over all sessions.
+ * Expired sessions are removed incrementally from request threads, a bounded
+ * number at a time, and optionally in the background through a
+ * {@link #setTaskScheduler TaskScheduler}.
+ *
  * @author Rossen Stoyanchev
  * @author Rob Winch
  * @since 5.0
@@ -55,6 +67,11 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 	private final ExpiredSessionChecker expiredSessionChecker = new ExpiredSessionChecker();
 
+	private final AtomicLong expiredSessionCount = new AtomicLong();
+
+	@Nullable
+	private ScheduledFuture<?> expirationTask;
+
 
 	/**
 	 * Set the maximum number of sessions that can be stored. Once the limit is
@@ -108,6 +125,44 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 		return Collections.unmodifiableMap(this.sessions);
 	}
 
+	/**
+	 * Return the number of sessions currently stored.
+	 * @since 5.2
+	 */
+	public int getSessionCount() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Return the total number of sessions removed from this store because
+	 * they expired, for monitoring purposes.
+	 * @since 5.2
+	 */
+	public long getExpiredSessionCount() {
+		return this.expiredSessionCount.get();
+	}
+
+	/**
+	 * Configure a {@link TaskScheduler} to remove expired sessions in the
+	 * background once a minute, in addition to the incremental checks done
+	 * on calls to {@link #createWebSession() create} or
+	 * {@link #retrieveSession retrieve}.
+	 * <p>By default this is not set. Setting it to {@code null} cancels a
+	 * previously scheduled task.
+	 * @param taskScheduler the scheduler to use, or {@code null}
+	 * @since 5.2
+	 */
+	public synchronized void setTaskScheduler(@Nullable TaskScheduler taskScheduler) {
+		if (this.expirationTask != null) {
+			this.expirationTask.cancel(false);
+			this.expirationTask = null;
+		}
+		if (taskScheduler != null) {
+			this.expirationTask = taskScheduler.scheduleWithFixedDelay(
+					this::removeExpiredSessions, ExpiredSessionChecker.CHECK_PERIOD);
+		}
+	}
+
 
 	@Override
 	public Mono<WebSession> createWebSession() {
@@ -125,7 +180,10 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 			return Mono.empty();
 		}
 		else if (session.isExpired(now)) {
-			this.sessions.remove(id);
+			if (this.sessions.remove(id, session)) {
+				this.expiredSessionCount.incrementAndGet();
+			}
+			session.invalidate();
 			return Mono.empty();
 		}
 		else {
@@ -136,7 +194,10 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 	@Override
 	public Mono<Void> removeSession(String id) {
-		this.sessions.remove(id);
+		InMemoryWebSession session = this.sessions.remove(id);
+		if (session != null) {
+			session.invalidate();
+		}
 		return Mono.empty();
 	}
 
@@ -151,12 +212,26 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	/**
 	 * Check for expired sessions and remove them. Typically such checks are
 	 * kicked off lazily during calls to {@link #createWebSession() create} or
-	 * {@link #retrieveSession retrieve}, no less than 60 seconds apart.
-	 * This method can be called to force a check at a specific time.
+	 * {@link #retrieveSession retrieve}, each removing a bounded number of
+	 * expired sessions. This method can be called to force a complete check
+	 * at a specific time.
 	 * @since 5.0.8
 	 */
 	public void removeExpiredSessions() {
-		this.expiredSessionChecker.removeExpiredSessions(this.clock.instant());
+		this.expiredSessionChecker.removeExpiredSessions(this.clock.instant(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create the map to hold the attributes of a new session.
+	 */
+	Map<String, Object> createAttributes() {
+		return new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Invoked when a started session is saved, with its attributes.
+	 */
+	void saveAttributes(Map<String, Object> attributes) {
 	}
 
 
@@ -164,7 +239,7 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		private final AtomicReference<String> id = new AtomicReference<>(String.valueOf(idGenerator.generateId()));
 
-		private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+		private final Map<String, Object> attributes = createAttributes();
 
 		private final Instant creationTime;
 
@@ -174,6 +249,9 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		private final AtomicReference<State> state = new AtomicReference<>(State.NEW);
 
+		/** The expiration bucket this session is indexed under, if any. */
+		private volatile long expirationBucket = ExpiredSessionChecker.UNSCHEDULED;
+
 
 		public InMemoryWebSession(Instant creationTime) {
 			this.creationTime = creationTime;
@@ -203,6 +281,9 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 		@Override
 		public void setMaxIdleTime(Duration maxIdleTime) {
 			this.maxIdleTime = maxIdleTime;
+			if (this.expirationBucket != ExpiredSessionChecker.UNSCHEDULED) {
+				expiredSessionChecker.schedule(this);
+			}
 		}
 
 		@Override
@@ -251,12 +332,17 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 			if (isStarted()) {
 				// Save
 				InMemoryWebSessionStore.this.sessions.put(this.getId(), this);
+				if (this.expirationBucket == ExpiredSessionChecker.UNSCHEDULED) {
+					expiredSessionChecker.schedule(this);
+				}
 
 				// Unless it was invalidated
 				if (this.state.get().equals(State.EXPIRED)) {
 					InMemoryWebSessionStore.this.sessions.remove(this.getId());
 					return Mono.error(new IllegalStateException("Session was invalidated"));
 				}
+
+				saveAttributes(this.attributes);
 			}
 
 			return Mono.empty();
@@ -264,7 +350,7 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 
 		private void checkMaxSessionsLimit() {
 			if (sessions.size() >= maxSessions) {
-				expiredSessionChecker.removeExpiredSessions(clock.instant());
+				expiredSessionChecker.removeExpiredSessions(clock.instant(), Integer.MAX_VALUE);
 				if (sessions.size() >= maxSessions) {
 					throw new IllegalStateException("Max sessions limit reached: " + sessions.size());
 				}
@@ -298,43 +384,150 @@ public class InMemoryWebSessionStore implements WebSessionStore {
 	}
 
 
+	/**
+	 * Index of sessions by expiration time, in buckets of {@link #BUCKET_PERIOD}.
+	 * <p>Sessions are indexed when first saved, and only moved to a later bucket
+	 * once their bucket is due and they turn out to have been accessed since,
+	 * so that accessing a session does not update the index.
+	 */
 	private class ExpiredSessionChecker {
 
-		/** Max time between expiration checks. */
-		private static final int CHECK_PERIOD = 60 * 1000;
+		/** Max time between expiration checks on a scheduler. */
+		static final long CHECK_PERIOD = 60 * 1000;
+
+		/** Width of an expiration bucket. */
+		static final long BUCKET_PERIOD = 1000;
+
+		/** Max number of indexed sessions to check during a request. */
+		static final int CHECK_BATCH_SIZE = 1000;
+
+		static final long UNSCHEDULED = Long.MIN_VALUE;
+
 
+		private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
 
 		private final ReentrantLock lock = new ReentrantLock();
 
-		private Instant checkTime = clock.instant().plus(CHECK_PERIOD, ChronoUnit.MILLIS);
 
+		public void schedule(InMemoryWebSession session) {
+			Duration maxIdleTime = session.getMaxIdleTime();
+			if (maxIdleTime.isNegative()) {
+				session.expirationBucket = UNSCHEDULED;
+				return;
+			}
+			long key = getBucket(session.getLastAccessTime().plus(maxIdleTime));
+			if (key == session.expirationBucket) {
+				return;
+			}
+			session.expirationBucket = key;
+			while (true) {
+				Bucket bucket = this.buckets.computeIfAbsent(key, k -> new Bucket());
+				if (bucket.add(session)) {
+					return;
+				}
+				// Closed by a concurrent check: replace it
+				this.buckets.remove(key, bucket);
+			}
+		}
 
 		public void checkIfNecessary(Instant now) {
-			if (this.checkTime.isBefore(now)) {
-				removeExpiredSessions(now);
+			Map.Entry<Long, Bucket> first = this.buckets.firstEntry();
+			if (first != null && first.getKey() < getBucket(now)) {
+				removeExpiredSessions(now, CHECK_BATCH_SIZE);
 			}
 		}
 
-		public void removeExpiredSessions(Instant now) {
-			if (sessions.isEmpty()) {
+		/**
+		 * Check indexed sessions in all buckets that are due, up to the given limit.
+		 */
+		public void removeExpiredSessions(Instant now, int limit) {
+			if (!this.lock.tryLock()) {
 				return;
 			}
-			if (this.lock.tryLock()) {
-				try {
-					Iterator<InMemoryWebSession> iterator = sessions.values().iterator();
-					while (iterator.hasNext()) {
-						InMemoryWebSession session = iterator.next();
-						if (session.isExpired(now)) {
-							iterator.remove();
-							session.invalidate();
-						}
+			try {
+				long nowBucket = getBucket(now);
+				int count = 0;
+				while (count < limit) {
+					Map.Entry<Long, Bucket> entry = this.buckets.firstEntry();
+					if (entry == null || entry.getKey() >= nowBucket) {
+						return;
+					}
+					Bucket bucket = entry.getValue();
+					InMemoryWebSession session;
+					while (count < limit && (session = bucket.poll()) != null) {
+						count++;
+						removeIfExpired(session, entry.getKey(), now);
+					}
+					if (bucket.closeIfEmpty()) {
+						this.buckets.remove(entry.getKey(), bucket);
 					}
 				}
-				finally {
-					this.checkTime = now.plus(CHECK_PERIOD, ChronoUnit.MILLIS);
-					this.lock.unlock();
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void removeIfExpired(InMemoryWebSession session, long key, Instant now) {
+			if (session.expirationBucket != key) {
+				// Stale entry, indexed again since
+				return;
+			}
+			if (sessions.get(session.getId()) != session) {
+				session.expirationBucket = UNSCHEDULED;
+				return;
+			}
+			if (session.isExpired(now)) {
+				if (sessions.remove(session.getId(), session)) {
+					expiredSessionCount.incrementAndGet();
 				}
+				session.invalidate();
+				return;
+			}
+			// Accessed since it was indexed
+			long newKey = getBucket(session.getLastAccessTime().plus(session.getMaxIdleTime()));
+			if (session.getMaxIdleTime().isNegative() || newKey <= key) {
+				// Not expirable, e.g. not started: index again on save
+				session.expirationBucket = UNSCHEDULED;
+			}
+			else {
+				schedule(session);
+			}
+		}
+
+		private long getBucket(Instant instant) {
+			return instant.toEpochMilli() / BUCKET_PERIOD;
+		}
+	}
+
+
+	/**
+	 * Sessions whose expiration time falls within the same bucket period.
+	 */
+	private static class Bucket {
+
+		private final Queue<InMemoryWebSession> sessions = new ArrayDeque<>();
+
+		private boolean closed;
+
+		public synchronized boolean add(InMemoryWebSession session) {
+			if (this.closed) {
+				return false;
+			}
+			this.sessions.add(session);
+			return true;
+		}
+
+		@Nullable
+		public synchronized InMemoryWebSession poll() {
+			return this.sessions.poll();
+		}
+
+		public synchronized boolean closeIfEmpty() {
+			if (this.sessions.isEmpty()) {
+				this.closed = true;
 			}
+			return this.closed;
 		}
 	}
 
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link InMemoryWebSessionStore} that keeps the attributes of
+ * saved sessions serialized in direct (off-heap) memory, rather than as
+ * objects on the heap.
+ *
+ * <p>Attributes are deserialized individually, on first access within a
+ * request, and are released from the heap again when the session is saved.
+ * On save, only attributes that were set or accessed are serialized again,
+ * since an accessed attribute may have been modified in place; the bytes of
+ * all other attributes are copied as they are.
+ *
+ * <p>This is useful for a large number of mostly idle sessions, where it
+ * reduces heap usage and garbage collection pauses. Direct memory is limited
+ * by the {@code -XX:MaxDirectMemorySize} JVM option, and is never given back
+ * by the store once allocated: the limit must accommodate the peak, rather
+ * than the current, number and size of sessions.
+ *
+ * <p>Direct memory is allocated in slabs of 1MB, divided into chunks with
+ * sizes in powers of two from 256 bytes to 64KB. A session takes a chunk
+ * each time it is saved, and gives back its previous one, as well as its
+ * current one when it is invalidated, expires, or is removed. Chunks are
+ * reused by other sessions of a similar size, while slabs are kept for the
+ * lifetime of the store, even when none of their chunks are in use. Sessions
+ * larger than 64KB are held in a buffer of their own, left to the garbage
+ * collector.
+ *
+ * <p>The attribute map returns {@code null} from {@code put} and
+ * {@code remove} when the previous value was not deserialized yet, rather
+ * than deserializing it only to be discarded.
+ *
+ * <p>By default attributes are serialized with Java serialization, and must
+ * implement {@link java.io.Serializable}. A different codec can be plugged in
+ * through {@link #setSerializer} and {@link #setDeserializer}.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+public class OffHeapWebSessionStore extends InMemoryWebSessionStore {
+
+	private Serializer<Object> serializer = new DefaultSerializer();
+
+	private Deserializer<Object> deserializer = new DefaultDeserializer();
+
+	private final DirectBufferPool bufferPool = new DirectBufferPool();
+
+
+	/**
+	 * Set the {@link Serializer} to convert attribute values to bytes.
+	 * <p>By default this is a {@link DefaultSerializer}.
+	 */
+	public void setSerializer(Serializer<Object> serializer) {
+		Assert.notNull(serializer, "Serializer is required");
+		this.serializer = serializer;
+	}
+
+	/**
+	 * Return the configured {@link Serializer}.
+	 */
+	public Serializer<Object> getSerializer() {
+		return this.serializer;
+	}
+
+	/**
+	 * Set the {@link Deserializer} to convert bytes back to attribute values.
+	 * <p>By default this is a {@link DefaultDeserializer}.
+	 */
+	public void setDeserializer(Deserializer<Object> deserializer) {
+		Assert.notNull(deserializer, "Deserializer is required");
+		this.deserializer = deserializer;
+	}
+
+	/**
+	 * Return the configured {@link Deserializer}.
+	 */
+	public Deserializer<Object> getDeserializer() {
+		return this.deserializer;
+	}
+
+
+	/**
+	 * Return the number of slabs of direct memory allocated so far.
+	 */
+	int getSlabCount() {
+		return this.bufferPool.getSlabCount();
+	}
+
+	/**
+	 * Return the number of chunks of direct memory not in use by a session.
+	 */
+	int getFreeChunkCount() {
+		return this.bufferPool.getFreeChunkCount();
+	}
+
+
+	@Override
+	Map<String, Object> createAttributes() {
+		return new SerializedAttributes();
+	}
+
+	@Override
+	void saveAttributes(Map<String, Object> attributes) {
+		((SerializedAttributes) attributes).flush();
+	}
+
+
+	/**
+	 * Attribute map backed by a direct buffer with a sequence of entries, each
+	 * an int length followed by the UTF-8 bytes of the name, and an int length
+	 * followed by the serialized bytes of the value. The buffer is positioned
+	 * at 0, with its limit at the end of the last entry.
+	 */
+	private class SerializedAttributes extends AbstractMap<String, Object> {
+
+		/** The serialized attributes, as of the last save. */
+		@Nullable
+		private ByteBuffer buffer;
+
+		/** The number of attributes in the buffer. */
+		private int bufferCount;
+
+		/** Attributes read from the buffer, or {@code null} if not loaded. */
+		@Nullable
+		private Map<String, Object> entries;
+
+		/** Names of attributes to serialize again on save. */
+		private final Set<String> dirty = new HashSet<>();
+
+		/** Whether attributes were removed or added since the last save. */
+		private boolean modified;
+
+
+		@Override
+		public synchronized int size() {
+			return (this.entries != null ? this.entries.size() : this.bufferCount);
+		}
+
+		@Override
+		public synchronized boolean isEmpty() {
+			return (size() == 0);
+		}
+
+		@Override
+		public synchronized boolean containsKey(Object key) {
+			return load().containsKey(key);
+		}
+
+		@Override
+		@Nullable
+		public synchronized Object get(Object key) {
+			Map<String, Object> entries = load();
+			Object value = entries.get(key);
+			if (value instanceof Slice) {
+				value = deserialize((Slice) value);
+				entries.put((String) key, value);
+			}
+			if (value != null) {
+				this.dirty.add((String) key);
+			}
+			return value;
+		}
+
+		@Override
+		@Nullable
+		public synchronized Object put(String key, Object value) {
+			Assert.notNull(value, "Attribute value must not be null");
+			Map<String, Object> entries = load();
+			Object oldValue = entries.put(key, value);
+			this.dirty.add(key);
+			this.modified = true;
+			return (oldValue instanceof Slice ? null : oldValue);
+		}
+
+		@Override
+		@Nullable
+		public synchronized Object remove(Object key) {
+			Map<String, Object> entries = load();
+			Object oldValue = entries.remove(key);
+			this.dirty.remove(key);
+			this.modified = true;
+			return (oldValue instanceof Slice ? null : oldValue);
+		}
+
+		@Override
+		public synchronized void clear() {
+			if (this.buffer != null) {
+				bufferPool.release(this.buffer);
+			}
+			this.buffer = null;
+			this.bufferCount = 0;
+			this.entries = new LinkedHashMap<>();
+			this.dirty.clear();
+			this.modified = true;
+		}
+
+		@Override
+		public synchronized Set<Entry<String, Object>> entrySet() {
+			// Full access: deserialize and consider all attributes dirty
+			Map<String, Object> entries = load();
+			for (Entry<String, Object> entry : entries.entrySet()) {
+				if (entry.getValue() instanceof Slice) {
+					entry.setValue(deserialize((Slice) entry.getValue()));
+				}
+				this.dirty.add(entry.getKey());
+			}
+			this.modified = true;
+			return entries.entrySet();
+		}
+
+		private Map<String, Object> load() {
+			if (this.entries == null) {
+				Map<String, Object> entries = new LinkedHashMap<>();
+				if (this.buffer != null) {
+					ByteBuffer buffer = this.buffer.duplicate();
+					while (buffer.hasRemaining()) {
+						byte[] name = new byte[buffer.getInt()];
+						buffer.get(name);
+						int length = buffer.getInt();
+						entries.put(new String(name, StandardCharsets.UTF_8), new Slice(buffer.position(), length));
+						((Buffer) buffer).position(buffer.position() + length);
+					}
+				}
+				this.entries = entries;
+			}
+			return this.entries;
+		}
+
+		private Object deserialize(Slice slice) {
+			Assert.state(this.buffer != null, "No buffer");
+			ByteBuffer buffer = this.buffer.duplicate();
+			((Buffer) buffer).position(slice.offset);
+			byte[] bytes = new byte[slice.length];
+			buffer.get(bytes);
+			try {
+				return getDeserializer().deserialize(new ByteArrayInputStream(bytes));
+			}
+			catch (Throwable ex) {
+				throw new SerializationFailedException("Failed to deserialize session attribute", ex);
+			}
+		}
+
+		/**
+		 * Write back dirty attributes, if any, and release deserialized values.
+		 */
+		synchronized void flush() {
+			if (this.entries == null) {
+				return;
+			}
+			if (this.modified || !this.dirty.isEmpty()) {
+				List<byte[]> names = new ArrayList<>(this.entries.size());
+				List<Object> values = new ArrayList<>(this.entries.size());
+				int capacity = 0;
+				for (Entry<String, Object> entry : this.entries.entrySet()) {
+					byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+					Object value = entry.getValue();
+					if (!(value instanceof Slice) || this.dirty.contains(entry.getKey())) {
+						value = serialize(value instanceof Slice ? deserialize((Slice) value) : value);
+					}
+					names.add(name);
+					values.add(value);
+					capacity += 8 + name.length + (value instanceof Slice ? ((Slice) value).length : ((byte[]) value).length);
+				}
+				ByteBuffer buffer = (capacity > 0 ? bufferPool.allocate(capacity) : null);
+				for (int i = 0; i < names.size(); i++) {
+					Assert.state(buffer != null, "No buffer");
+					buffer.putInt(names.get(i).length);
+					buffer.put(names.get(i));
+					Object value = values.get(i);
+					if (value instanceof Slice) {
+						Slice slice = (Slice) value;
+						Assert.state(this.buffer != null, "No buffer");
+						ByteBuffer source = this.buffer.duplicate();
+						((Buffer) source).limit(slice.offset + slice.length);
+						((Buffer) source).position(slice.offset);
+						buffer.putInt(slice.length);
+						buffer.put(source);
+					}
+					else {
+						buffer.putInt(((byte[]) value).length);
+						buffer.put((byte[]) value);
+					}
+				}
+				if (buffer != null) {
+					((Buffer) buffer).flip();
+				}
+				if (this.buffer != null) {
+					bufferPool.release(this.buffer);
+				}
+				this.buffer = buffer;
+				this.bufferCount = names.size();
+			}
+			this.entries = null;
+			this.dirty.clear();
+			this.modified = false;
+		}
+
+		private byte[] serialize(Object value) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+			try {
+				getSerializer().serialize(value, outputStream);
+			}
+			catch (Throwable ex) {
+				throw new SerializationFailedException("Failed to serialize session attribute of type [" +
+						value.getClass().getName() + "]", ex);
+			}
+			return outputStream.toByteArray();
+		}
+	}
+
+
+	/**
+	 * Slab allocator for the direct buffers of sessions.
+	 */
+	private static class DirectBufferPool {
+
+		private static final int SLAB_SIZE = 1024 * 1024;
+
+		private static final int MIN_CHUNK_SIZE = 256;
+
+		private static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+
+		/** Free chunks per size class, from {@code MIN_CHUNK_SIZE} up to {@code MAX_CHUNK_SIZE}. */
+		private final List<Deque<ByteBuffer>> freeChunks = new ArrayList<>();
+
+		private int slabCount;
+
+		DirectBufferPool() {
+			for (int size = MIN_CHUNK_SIZE; size <= MAX_CHUNK_SIZE; size <<= 1) {
+				this.freeChunks.add(new ArrayDeque<>());
+			}
+		}
+
+		/**
+		 * Return a buffer with at least the given capacity, positioned at 0,
+		 * with its limit at the given capacity.
+		 */
+		ByteBuffer allocate(int capacity) {
+			if (capacity > MAX_CHUNK_SIZE) {
+				return ByteBuffer.allocateDirect(capacity);
+			}
+			ByteBuffer chunk;
+			synchronized (this) {
+				Deque<ByteBuffer> chunks = this.freeChunks.get(getSizeClass(capacity));
+				if (chunks.isEmpty()) {
+					int chunkSize = MIN_CHUNK_SIZE << getSizeClass(capacity);
+					ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+					for (int offset = 0; offset < SLAB_SIZE; offset += chunkSize) {
+						((Buffer) slab).limit(offset + chunkSize);
+						((Buffer) slab).position(offset);
+						chunks.push(slab.slice());
+					}
+					this.slabCount++;
+				}
+				chunk = chunks.pop();
+			}
+			((Buffer) chunk).clear();
+			((Buffer) chunk).limit(capacity);
+			return chunk;
+		}
+
+		/**
+		 * Give back a buffer obtained from {@link #allocate}.
+		 */
+		void release(ByteBuffer buffer) {
+			if (buffer.capacity() <= MAX_CHUNK_SIZE) {
+				synchronized (this) {
+					this.freeChunks.get(getSizeClass(buffer.capacity())).push(buffer);
+				}
+			}
+		}
+
+		synchronized int getSlabCount() {
+			return this.slabCount;
+		}
+
+		synchronized int getFreeChunkCount() {
+			int count = 0;
+			for (Deque<ByteBuffer> chunks : this.freeChunks) {
+				count += chunks.size();
+			}
+			return count;
+		}
+
+		private static int getSizeClass(int capacity) {
+			int sizeClass = 0;
+			while ((MIN_CHUNK_SIZE << sizeClass) < capacity) {
+				sizeClass++;
+			}
+			return sizeClass;
+		}
+	}
+
+
+	/**
+	 * The location of a serialized value within the buffer.
+	 */
+	private static class Slice {
+
+		private final int offset;
+
+		private final int length;
+
+		Slice(int offset, int length) {
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpRequest} implementation based on the JDK {@link HttpClient}.
+ * Supports both buffered and streaming request bodies.
+ *
+ * <p>Created via the {@link JdkClientHttpRequestFactory}.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class JdkClientHttpRequest extends AbstractClientHttpRequest implements StreamingHttpOutputMessage {
+
+	private static final int PIPE_SIZE = 8192;
+
+
+	private final HttpClient httpClient;
+
+	private final URI uri;
+
+	private final HttpMethod method;
+
+	private final Executor executor;
+
+	@Nullable
+	private final Duration timeout;
+
+	@Nullable
+	private ByteArrayOutputStream bufferedOutput;
+
+	@Nullable
+	private Body body;
+
+
+	public JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, Executor executor,
+			@Nullable Duration timeout) {
+
+		this.httpClient = httpClient;
+		this.uri = uri;
+		this.method = method;
+		this.executor = executor;
+		this.timeout = timeout;
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public String getMethodValue() {
+		return this.method.name();
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public void setBody(Body body) {
+		assertNotExecuted();
+		this.body = body;
+	}
+
+	@Override
+	protected OutputStream getBodyInternal(HttpHeaders headers) {
+		if (this.bufferedOutput == null) {
+			this.bufferedOutput = new ByteArrayOutputStream(1024);
+		}
+		return this.bufferedOutput;
+	}
+
+	@Override
+	protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(this.uri);
+		if (this.timeout != null) {
+			builder.timeout(this.timeout);
+		}
+		JdkClientHttpRequestFactory.addHeaders(builder, headers);
+		builder.method(this.method.name(), bodyPublisher(headers));
+		try {
+			HttpResponse<InputStream> response =
+					this.httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+			return new JdkClientHttpResponse(response);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for response to " + this.method + " " + this.uri, ex);
+		}
+	}
+
+	private HttpRequest.BodyPublisher bodyPublisher(HttpHeaders headers) {
+		if (this.body != null) {
+			Body body = this.body;
+			HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> write(body));
+			long contentLength = headers.getContentLength();
+			return (contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : publisher);
+		}
+		if (this.bufferedOutput != null && this.bufferedOutput.size() > 0) {
+			return HttpRequest.BodyPublishers.ofByteArray(this.bufferedOutput.toByteArray());
+		}
+		return HttpRequest.BodyPublishers.noBody();
+	}
+
+	/**
+	 * Write the given body on a separate thread, returning a stream from
+	 * which the {@code HttpClient} can read the written bytes as they come.
+	 */
+	private InputStream write(Body body) {
+		PipedInputStream inputStream = new PipedInputStream(PIPE_SIZE);
+		PipedOutputStream outputStream;
+		try {
+			outputStream = new PipedOutputStream(inputStream);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		this.executor.execute(() -> {
+			try {
+				body.writeTo(outputStream);
+				outputStream.close();
+			}
+			catch (Throwable ex) {
+				// Fail the read side, rather than end the body prematurely
+				try {
+					inputStream.close();
+				}
+				catch (IOException ignored) {
+				}
+			}
+		});
+		return inputStream;
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestFactory} implementation that uses the
+ * {@link HttpClient java.net.http.HttpClient} of JDK 11 and higher to create
+ * requests.
+ *
+ * <p>The {@code HttpClient} maintains its own connection pool, and negotiates
+ * HTTP/2 where the server supports it, multiplexing concurrent requests over a
+ * single connection. A single {@code HttpClient} should therefore be shared
+ * across factories (and {@link org.springframework.http.client.reactive.JdkClientHttpConnector
+ * JdkClientHttpConnector} instances) wherever possible.
+ *
+ * <p>Request bodies written through {@link org.springframework.http.StreamingHttpOutputMessage}
+ * are streamed, using a thread of the configured {@link Executor} to write the body
+ * while the {@code HttpClient} sends it. Bodies written to
+ * {@link ClientHttpRequest#getBody()} are buffered.
+ *
+ * <p>This class requires JDK 11 or higher, and is compiled separately from the
+ * rest of the module; check for the presence of {@code java.net.http.HttpClient}
+ * before using it.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+	/**
+	 * Headers that the {@code HttpClient} sets itself, and rejects if set explicitly.
+	 */
+	private static final Set<String> DISALLOWED_HEADERS = new HashSet<>(Arrays.asList(
+			"connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning"));
+
+
+	private final HttpClient httpClient;
+
+	private final Executor executor;
+
+	@Nullable
+	private Duration readTimeout;
+
+
+	/**
+	 * Create a factory with a default {@link HttpClient} instance.
+	 */
+	public JdkClientHttpRequestFactory() {
+		this(HttpClient.newHttpClient());
+	}
+
+	/**
+	 * Create a factory with the given {@link HttpClient} instance, using a
+	 * dedicated {@link SimpleAsyncTaskExecutor} to write streaming request bodies.
+	 * @param httpClient the client to use
+	 */
+	public JdkClientHttpRequestFactory(HttpClient httpClient) {
+		this(httpClient, new SimpleAsyncTaskExecutor("jdk-http-client-body-"));
+	}
+
+	/**
+	 * Create a factory with the given {@link HttpClient} instance and executor
+	 * for writing streaming request bodies.
+	 * <p>Each streaming body occupies a thread of the executor until it is
+	 * fully written, so this should not be the executor of the {@code HttpClient}
+	 * itself: if all of its threads are writing bodies, none is left to send them.
+	 * @param httpClient the client to use
+	 * @param executor the executor to use
+	 */
+	public JdkClientHttpRequestFactory(HttpClient httpClient, Executor executor) {
+		Assert.notNull(httpClient, "HttpClient must not be null");
+		Assert.notNull(executor, "Executor must not be null");
+		this.httpClient = httpClient;
+		this.executor = executor;
+	}
+
+
+	/**
+	 * Set the timeout in milliseconds for receiving the response status and
+	 * headers of each request. A value of 0 specifies an infinite timeout.
+	 * <p>The connect timeout is a property of the {@link HttpClient} itself.
+	 * @see HttpRequest.Builder#timeout(Duration)
+	 * @see HttpClient.Builder#connectTimeout(Duration)
+	 */
+	public void setReadTimeout(int readTimeout) {
+		Assert.isTrue(readTimeout >= 0, "Timeout must be a non-negative value");
+		this.readTimeout = (readTimeout > 0 ? Duration.ofMillis(readTimeout) : null);
+	}
+
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+		return new JdkClientHttpRequest(this.httpClient, uri, httpMethod, this.executor, this.readTimeout);
+	}
+
+
+	static void addHeaders(HttpRequest.Builder builder, HttpHeaders headers) {
+		headers.forEach((headerName, headerValues) -> {
+			if (!DISALLOWED_HEADERS.contains(headerName.toLowerCase(Locale.ENGLISH))) {
+				for (String headerValue : headerValues) {
+					builder.header(headerName, headerValue);
+				}
+			}
+		});
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+
+import org.springframework.http.CompactHeadersMap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpResponse} implementation based on the JDK
+ * {@link java.net.http.HttpClient}.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class JdkClientHttpResponse extends AbstractClientHttpResponse {
+
+	private final HttpResponse<InputStream> response;
+
+	@Nullable
+	private volatile HttpHeaders headers;
+
+
+	public JdkClientHttpResponse(HttpResponse<InputStream> response) {
+		Assert.notNull(response, "HttpResponse must not be null");
+		this.response = response;
+	}
+
+
+	@Override
+	public int getRawStatusCode() {
+		return this.response.statusCode();
+	}
+
+	@Override
+	public String getStatusText() {
+		// HTTP/2 has no reason phrase, and the HttpClient does not expose it for HTTP/1.1
+		HttpStatus status = HttpStatus.resolve(getRawStatusCode());
+		return (status != null ? status.getReasonPhrase() : "");
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		HttpHeaders headers = this.headers;
+		if (headers == null) {
+			headers = new HttpHeaders(new CompactHeadersMap());
+			this.response.headers().map().forEach(headers::addAll);
+			this.headers = headers;
+		}
+		return headers;
+	}
+
+	@Override
+	public InputStream getBody() {
+		return this.response.body();
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.response.body().close();
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpConnector} for the {@link HttpClient java.net.http.HttpClient}
+ * of JDK 11 and higher.
+ *
+ * <p>The {@code HttpClient} maintains its own connection pool and executor, and
+ * negotiates HTTP/2 where the server supports it, multiplexing concurrent
+ * requests over a single connection. It may be shared with a
+ * {@link org.springframework.http.client.JdkClientHttpRequestFactory}.
+ *
+ * <p>This class requires JDK 11 or higher, and is compiled separately from the
+ * rest of the module; check for the presence of {@code java.net.http.HttpClient}
+ * before using it.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @see <a href="https://docs.oracle.com/en/java/javase/11/docs/api/java.net.http/java/net/http/HttpClient.html">HttpClient</a>
+ */
+public class JdkClientHttpConnector implements ClientHttpConnector {
+
+	private final HttpClient httpClient;
+
+	private DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	@Nullable
+	private Duration readTimeout;
+
+
+	/**
+	 * Default constructor that creates a new instance of {@link HttpClient}.
+	 */
+	public JdkClientHttpConnector() {
+		this(HttpClient.newHttpClient());
+	}
+
+	/**
+	 * Constructor with an initialized {@link HttpClient}.
+	 */
+	public JdkClientHttpConnector(HttpClient httpClient) {
+		Assert.notNull(httpClient, "HttpClient is required");
+		this.httpClient = httpClient;
+	}
+
+
+	public void setBufferFactory(DataBufferFactory bufferFactory) {
+		this.bufferFactory = bufferFactory;
+	}
+
+	/**
+	 * Set the timeout for receiving the response status and headers of each
+	 * request. By default, there is no timeout.
+	 * <p>The connect timeout is a property of the {@link HttpClient} itself.
+	 * @see java.net.http.HttpRequest.Builder#timeout(Duration)
+	 */
+	public void setReadTimeout(@Nullable Duration readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+
+	@Override
+	public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+			Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+
+		if (!uri.isAbsolute()) {
+			return Mono.error(new IllegalArgumentException("URI is not absolute: " + uri));
+		}
+
+		JdkClientHttpRequest request = new JdkClientHttpRequest(method, uri, this.bufferFactory, this.readTimeout);
+
+		return requestCallback.apply(request)
+				.then(Mono.defer(() -> Mono.fromFuture(
+						this.httpClient.sendAsync(request.getNativeRequest(), HttpResponse.BodyHandlers.ofPublisher()))))
+				.map(response -> new JdkClientHttpResponse(response, this.bufferFactory));
+	}
+
+}
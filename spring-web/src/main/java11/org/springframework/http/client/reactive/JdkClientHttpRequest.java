@@ -0,0 +1,164 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.reactivestreams.Publisher;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link ClientHttpRequest} implementation for the JDK {@link java.net.http.HttpClient}.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+	/**
+	 * Headers that the {@code HttpClient} sets itself, and rejects if set explicitly.
+	 */
+	private static final Set<String> DISALLOWED_HEADERS = new HashSet<>(Arrays.asList(
+			"connection", "content-length", "date", "expect", "from", "host", "upgrade", "via", "warning"));
+
+
+	private final HttpMethod method;
+
+	private final URI uri;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final HttpRequest.Builder builder;
+
+
+	public JdkClientHttpRequest(HttpMethod method, URI uri, DataBufferFactory bufferFactory,
+			@Nullable Duration timeout) {
+
+		this.method = method;
+		this.uri = uri;
+		this.bufferFactory = bufferFactory;
+		this.builder = HttpRequest.newBuilder(uri);
+		this.builder.method(method.name(), HttpRequest.BodyPublishers.noBody());
+		if (timeout != null) {
+			this.builder.timeout(timeout);
+		}
+	}
+
+
+	@Override
+	public HttpMethod getMethod() {
+		return this.method;
+	}
+
+	@Override
+	public URI getURI() {
+		return this.uri;
+	}
+
+	@Override
+	public DataBufferFactory bufferFactory() {
+		return this.bufferFactory;
+	}
+
+	@Override
+	public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+		return doCommit(() -> {
+			this.builder.method(this.method.name(), toBodyPublisher(body));
+			return Mono.empty();
+		});
+	}
+
+	@Override
+	public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+		return writeWith(Flux.from(body)
+				.flatMap(Function.identity())
+				.doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release));
+	}
+
+	@Override
+	public Mono<Void> setComplete() {
+		return doCommit();
+	}
+
+	private HttpRequest.BodyPublisher toBodyPublisher(Publisher<? extends DataBuffer> body) {
+		Flow.Publisher<ByteBuffer> byteBuffers =
+				JdkFlowAdapter.publisherToFlowPublisher(Flux.from(body).map(this::toByteBuffer));
+		long contentLength = getHeaders().getContentLength();
+		return (contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(byteBuffers, contentLength) :
+				HttpRequest.BodyPublishers.fromPublisher(byteBuffers));
+	}
+
+	private ByteBuffer toByteBuffer(DataBuffer dataBuffer) {
+		// Copy, since the HttpClient may hold on to the buffer after it has been passed on
+		ByteBuffer byteBuffer = ByteBuffer.allocate(dataBuffer.readableByteCount());
+		byteBuffer.put(dataBuffer.asByteBuffer());
+		byteBuffer.flip();
+		DataBufferUtils.release(dataBuffer);
+		return byteBuffer;
+	}
+
+
+	@Override
+	protected void applyHeaders() {
+		HttpHeaders headers = getHeaders();
+		headers.forEach((headerName, headerValues) -> {
+			if (!DISALLOWED_HEADERS.contains(headerName.toLowerCase(Locale.ENGLISH))) {
+				headerValues.forEach(headerValue -> this.builder.header(headerName, headerValue));
+			}
+		});
+		if (!headers.containsKey(HttpHeaders.ACCEPT)) {
+			this.builder.header(HttpHeaders.ACCEPT, "*/*");
+		}
+	}
+
+	@Override
+	protected void applyCookies() {
+		String cookies = getCookies().values().stream()
+				.flatMap(Collection::stream)
+				.map(cookie -> cookie.getName() + "=" + cookie.getValue())
+				.collect(Collectors.joining("; "));
+		if (!cookies.isEmpty()) {
+			this.builder.header(HttpHeaders.COOKIE, cookies);
+		}
+	}
+
+	HttpRequest getNativeRequest() {
+		return this.builder.build();
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.reactive;
+
+import java.net.HttpCookie;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CompactHeadersMap;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link ClientHttpResponse} implementation for the JDK {@link java.net.http.HttpClient}.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class JdkClientHttpResponse implements ClientHttpResponse {
+
+	private final HttpResponse<Flow.Publisher<List<ByteBuffer>>> response;
+
+	private final DataBufferFactory bufferFactory;
+
+	private final HttpHeaders headers;
+
+
+	public JdkClientHttpResponse(HttpResponse<Flow.Publisher<List<ByteBuffer>>> response,
+			DataBufferFactory bufferFactory) {
+
+		this.response = response;
+		this.bufferFactory = bufferFactory;
+		this.headers = new HttpHeaders(new CompactHeadersMap());
+		response.headers().map().forEach(this.headers::addAll);
+	}
+
+
+	@Override
+	public HttpStatus getStatusCode() {
+		return HttpStatus.valueOf(getRawStatusCode());
+	}
+
+	@Override
+	public int getRawStatusCode() {
+		return this.response.statusCode();
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return this.headers;
+	}
+
+	@Override
+	public MultiValueMap<String, ResponseCookie> getCookies() {
+		MultiValueMap<String, ResponseCookie> result = new LinkedMultiValueMap<>();
+		List<String> cookieHeader = getHeaders().get(HttpHeaders.SET_COOKIE);
+		if (cookieHeader != null) {
+			cookieHeader.forEach(header ->
+				HttpCookie.parse(header)
+						.forEach(cookie -> result.add(cookie.getName(),
+								ResponseCookie.from(cookie.getName(), cookie.getValue())
+						.domain(cookie.getDomain())
+						.path(cookie.getPath())
+						.maxAge(cookie.getMaxAge())
+						.secure(cookie.getSecure())
+						.httpOnly(cookie.isHttpOnly())
+						.build()))
+			);
+		}
+		return CollectionUtils.unmodifiableMultiValueMap(result);
+	}
+
+	@Override
+	public Flux<DataBuffer> getBody() {
+		return JdkFlowAdapter.flowPublisherToFlux(this.response.body())
+				.flatMapIterable(Function.identity())
+				.map(this::toDataBuffer);
+	}
+
+	private DataBuffer toDataBuffer(ByteBuffer byteBuffer) {
+		DataBuffer buffer = this.bufferFactory.allocateBuffer(byteBuffer.remaining());
+		buffer.write(byteBuffer);
+		return buffer;
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CompactHeadersMap}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class CompactHeadersMapTests {
+
+	private final CompactHeadersMap map = new CompactHeadersMap(2);
+
+
+	@Test
+	public void caseInsensitiveLookup() {
+		this.map.add("Content-Type", "text/plain");
+		this.map.add("X-Custom", "foo");
+
+		assertEquals("text/plain", this.map.getFirst("content-type"));
+		assertEquals("text/plain", this.map.getFirst("CONTENT-TYPE"));
+		assertEquals(Collections.singletonList("foo"), this.map.get("x-CUSTOM"));
+		assertTrue(this.map.containsKey("x-custom"));
+		assertFalse(this.map.containsKey("X-Other"));
+		assertNull(this.map.get("X-Other"));
+		assertEquals(2, this.map.size());
+	}
+
+	@Test
+	public void addToExistingHeader() {
+		this.map.add("Accept", "text/plain");
+		this.map.add("accept", "text/html");
+		this.map.addAll("ACCEPT", Arrays.asList("application/json", "application/xml"));
+
+		assertEquals(1, this.map.size());
+		assertEquals(Arrays.asList("text/plain", "text/html", "application/json", "application/xml"),
+				this.map.get("Accept"));
+	}
+
+	@Test
+	public void commonHeaderNamesAreShared() {
+		this.map.add(new String("Content-Length"), "42");
+		this.map.add(new String("accept"), "*/*");
+		this.map.add(new String("X-Custom"), "foo");
+
+		Iterator<String> names = this.map.keySet().iterator();
+		assertSame(HttpHeaders.CONTENT_LENGTH, names.next());
+		assertEquals("accept", names.next());
+		assertEquals("X-Custom", names.next());
+	}
+
+	@Test
+	public void putWithDifferentCasing() {
+		this.map.set("content-type", "text/plain");
+		this.map.set("X-Custom", "foo");
+		List<String> previous = this.map.put("Content-Type", Collections.singletonList("text/html"));
+
+		assertEquals(Collections.singletonList("text/plain"), previous);
+		assertEquals(2, this.map.size());
+		assertEquals(Arrays.asList("X-Custom", "Content-Type"), new ArrayList<>(this.map.keySet()));
+	}
+
+	@Test
+	public void insertionOrderAcrossRemovalsAndGrowth() {
+		for (int i = 0; i < 20; i++) {
+			this.map.add("Header-" + i, String.valueOf(i));
+		}
+		for (int i = 0; i < 20; i += 2) {
+			assertEquals(Collections.singletonList(String.valueOf(i)), this.map.remove("HEADER-" + i));
+		}
+		for (int i = 20; i < 30; i++) {
+			this.map.add("Header-" + i, String.valueOf(i));
+		}
+
+		assertEquals(20, this.map.size());
+		List<String> expected = new ArrayList<>();
+		for (int i = 1; i < 20; i += 2) {
+			expected.add("Header-" + i);
+		}
+		for (int i = 20; i < 30; i++) {
+			expected.add("Header-" + i);
+		}
+		assertEquals(expected, new ArrayList<>(this.map.keySet()));
+		for (int i = 0; i < 30; i++) {
+			assertEquals(i < 20 && i % 2 == 0, !this.map.containsKey("header-" + i));
+		}
+	}
+
+	@Test
+	public void removeThroughIterator() {
+		this.map.add("Accept", "text/plain");
+		this.map.add("Vary", "Origin");
+		this.map.add("Host", "example.org");
+
+		Iterator<Map.Entry<String, List<String>>> iterator = this.map.entrySet().iterator();
+		iterator.next();
+		iterator.next();
+		iterator.remove();
+
+		assertEquals(2, this.map.size());
+		assertFalse(this.map.containsKey("vary"));
+		assertEquals(Arrays.asList("Accept", "Host"), new ArrayList<>(this.map.keySet()));
+	}
+
+	@Test
+	public void equalsAndSingleValueMap() {
+		MultiValueMap<String, String> other = new LinkedMultiValueMap<>();
+		other.add("Accept", "text/plain");
+		other.add("Accept", "text/html");
+		other.add("Host", "example.org");
+		this.map.addAll(other);
+
+		assertEquals(other, this.map);
+		assertEquals(other.hashCode(), this.map.hashCode());
+		assertEquals(other.toSingleValueMap(), this.map.toSingleValueMap());
+
+		this.map.clear();
+		assertTrue(this.map.isEmpty());
+		assertNull(this.map.getFirst("Accept"));
+	}
+
+	@Test
+	public void withHttpHeaders() {
+		HttpHeaders headers = new HttpHeaders(this.map);
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setContentLength(42);
+
+		assertEquals(MediaType.APPLICATION_JSON, headers.getContentType());
+		assertEquals(42, headers.getContentLength());
+		assertEquals("application/json", this.map.getFirst("content-type"));
+	}
+
+}
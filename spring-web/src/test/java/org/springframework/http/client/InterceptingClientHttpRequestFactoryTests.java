@@ -32,6 +32,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.support.HttpRequestWrapper;
 
 import static org.junit.Assert.assertEquals;
@@ -216,6 +217,63 @@ public class InterceptingClientHttpRequestFactoryTests {
 	}
 
 
+	@Test
+	public void streamingBody() throws Exception {
+		final byte[] streamedBody = "Foo".getBytes();
+		final List<byte[]> interceptedBodies = new ArrayList<>();
+
+		ClientHttpRequestInterceptor interceptor = new ClientHttpRequestInterceptor() {
+			@Override
+			public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+					throws IOException {
+				interceptedBodies.add(body);
+				return execution.execute(request, body);
+			}
+			@Override
+			public boolean requiresRequestBody() {
+				return false;
+			}
+		};
+
+		requestFactory =
+				new InterceptingClientHttpRequestFactory(requestFactoryMock, Collections.singletonList(interceptor));
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("https://example.com"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write(streamedBody));
+		request.execute();
+
+		assertEquals(0, interceptedBodies.get(0).length);
+		assertTrue(Arrays.equals(streamedBody, requestMock.body.toByteArray()));
+		assertEquals(-1, requestMock.getHeaders().getContentLength());
+	}
+
+	@Test
+	public void streamingBodyBufferedForInterceptor() throws Exception {
+		final byte[] streamedBody = "Foo".getBytes();
+		final List<byte[]> interceptedBodies = new ArrayList<>();
+
+		ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+			interceptedBodies.add(body);
+			return execution.execute(request, body);
+		};
+
+		List<ClientHttpRequestInterceptor> interceptors = Arrays.asList(interceptor, new NoOpInterceptor() {
+			@Override
+			public boolean requiresRequestBody() {
+				return false;
+			}
+		});
+		requestFactory = new InterceptingClientHttpRequestFactory(requestFactoryMock, interceptors);
+
+		ClientHttpRequest request = requestFactory.createRequest(new URI("https://example.com"), HttpMethod.POST);
+		((StreamingHttpOutputMessage) request).setBody(outputStream -> outputStream.write(streamedBody));
+		request.execute();
+
+		assertTrue(Arrays.equals(streamedBody, interceptedBodies.get(0)));
+		assertTrue(Arrays.equals(streamedBody, requestMock.body.toByteArray()));
+		assertEquals(streamedBody.length, requestMock.getHeaders().getContentLength());
+	}
+
 	private static class NoOpInterceptor implements ClientHttpRequestInterceptor {
 
 		private boolean invoked = false;
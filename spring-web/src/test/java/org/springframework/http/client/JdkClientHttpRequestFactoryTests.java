@@ -0,0 +1,58 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * @author Arjen Poutsma
+ */
+public class JdkClientHttpRequestFactoryTests extends AbstractHttpRequestFactoryTestCase {
+
+	// Only compiled and usable on JDK 11 and higher
+	private static final String FACTORY_CLASS_NAME = "org.springframework.http.client.JdkClientHttpRequestFactory";
+
+
+	@BeforeClass
+	public static void assumeJdkHttpClient() {
+		ClassLoader classLoader = JdkClientHttpRequestFactoryTests.class.getClassLoader();
+		assumeTrue(ClassUtils.isPresent("java.net.http.HttpClient", classLoader) &&
+				ClassUtils.isPresent(FACTORY_CLASS_NAME, classLoader));
+	}
+
+
+	@Override
+	protected ClientHttpRequestFactory createRequestFactory() {
+		return BeanUtils.instantiateClass(ClassUtils.resolveClassName(FACTORY_CLASS_NAME,
+				getClass().getClassLoader()), ClientHttpRequestFactory.class);
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+}
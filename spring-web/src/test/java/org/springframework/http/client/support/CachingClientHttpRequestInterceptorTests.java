@@ -0,0 +1,248 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link CachingClientHttpRequestInterceptor}.
+ *
+ * @author Arjen Poutsma
+ */
+public class CachingClientHttpRequestInterceptorTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+	private final HttpResponseCache cache = new HttpResponseCache(1024);
+
+	private final CachingClientHttpRequestInterceptor interceptor = new CachingClientHttpRequestInterceptor(this.cache);
+
+	private final List<HttpHeaders> executedRequests = new ArrayList<>();
+
+	private final List<ClientHttpResponse> responses = new ArrayList<>();
+
+	private final ClientHttpRequestExecution execution = (request, body) -> {
+		this.executedRequests.add(request.getHeaders());
+		return this.responses.remove(0);
+	};
+
+
+	@Test
+	public void freshResponseFromCache() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		this.responses.add(response(200, headers, "foo"));
+
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution)));
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution)));
+		assertEquals(1, this.executedRequests.size());
+	}
+
+	@Test
+	public void staleResponseRevalidated() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setETag("\"v1\"");
+		this.responses.add(response(200, headers, "foo"));
+		this.responses.add(response(304, new HttpHeaders(), ""));
+
+		this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution);
+		this.cache.setClock(Clock.offset(this.cache.getClock(), Duration.ofSeconds(61)));
+
+		ClientHttpResponse response = this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution);
+		assertEquals(200, response.getRawStatusCode());
+		assertEquals("foo", bodyOf(response));
+		assertEquals(2, this.executedRequests.size());
+		assertNull(this.executedRequests.get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+		assertEquals("\"v1\"", this.executedRequests.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+	}
+
+	@Test
+	public void requestWithNoCache() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		this.responses.add(response(200, headers, "foo"));
+		this.responses.add(response(200, headers, "bar"));
+
+		this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution);
+		HttpRequest request = request(HttpMethod.GET);
+		request.getHeaders().setCacheControl("no-cache");
+
+		assertEquals("bar", bodyOf(this.interceptor.intercept(request, new byte[0], this.execution)));
+		assertEquals(2, this.executedRequests.size());
+	}
+
+	@Test
+	public void responseWithoutFreshnessOrValidatorNotStored() throws Exception {
+		this.responses.add(response(200, new HttpHeaders(), "foo"));
+		this.responses.add(response(200, new HttpHeaders(), "bar"));
+
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution)));
+		assertEquals("bar", bodyOf(this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution)));
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void unsafeMethodInvalidates() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		this.responses.add(response(200, headers, "foo"));
+		this.responses.add(response(204, new HttpHeaders(), ""));
+
+		this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution);
+		assertEquals(1, this.cache.getEntryCount());
+
+		this.interceptor.intercept(request(HttpMethod.POST), new byte[0], this.execution);
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void vary() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+		this.responses.add(response(200, headers, "foo"));
+		this.responses.add(response(200, headers, "bar"));
+
+		HttpRequest request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		this.interceptor.intercept(request, new byte[0], this.execution);
+
+		request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request, new byte[0], this.execution)));
+
+		request = request(HttpMethod.GET);
+		request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, "nl");
+		assertEquals("bar", bodyOf(this.interceptor.intercept(request, new byte[0], this.execution)));
+		assertEquals(2, this.executedRequests.size());
+	}
+
+	@Test
+	public void responseWithLargerContentLengthNotRead() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.setContentLength(2048);
+		ClientHttpResponse response = response(200, headers, "foo");
+		this.responses.add(response);
+
+		assertSame(response, this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution));
+		verify(response, never()).getBody();
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void responseLargerThanMaxSizeStreamed() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 1500; i++) {
+			body.append((char) ('a' + i % 26));
+		}
+		ClientHttpResponse response = response(200, headers, body.toString());
+		this.responses.add(response);
+
+		ClientHttpResponse result = this.interceptor.intercept(request(HttpMethod.GET), new byte[0], this.execution);
+		assertEquals(body.toString(), bodyOf(result));
+		assertEquals(0, this.cache.getEntryCount());
+		verify(response, never()).close();
+		result.close();
+		verify(response).close();
+	}
+
+	@Test
+	public void responseNotSharedBetweenCredentials() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		this.responses.add(response(200, headers, "foo"));
+		this.responses.add(response(200, headers, "bar"));
+
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request("foo"), new byte[0], this.execution)));
+		assertEquals("bar", bodyOf(this.interceptor.intercept(request("bar"), new byte[0], this.execution)));
+		assertEquals("foo", bodyOf(this.interceptor.intercept(request("foo"), new byte[0], this.execution)));
+		assertEquals(2, this.executedRequests.size());
+		assertEquals(2, this.cache.getEntryCount());
+
+		this.responses.add(response(204, new HttpHeaders(), ""));
+		this.interceptor.intercept(request(HttpMethod.POST), new byte[0], this.execution);
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void leastRecentlyUsedEviction() throws Exception {
+		HttpResponseCache cache = new HttpResponseCache(10);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		for (String path : new String[] {"/a", "/b", "/c"}) {
+			cache.put(URI.create("https://example.com" + path), new HttpHeaders(), 200, headers,
+					new byte[4], cache.getClock().millis());
+		}
+		assertEquals(2, cache.getEntryCount());
+		assertEquals(8, cache.getSize());
+		assertNull(cache.get(URI.create("https://example.com/a"), new HttpHeaders()));
+	}
+
+
+	private static HttpRequest request(HttpMethod method) throws IOException {
+		return new SimpleClientHttpRequestFactory().createRequest(URL, method);
+	}
+
+	private static HttpRequest request(String bearerToken) throws IOException {
+		HttpRequest request = request(HttpMethod.GET);
+		request.getHeaders().setBearerAuth(bearerToken);
+		return request;
+	}
+
+	private static ClientHttpResponse response(int statusCode, HttpHeaders headers, String body) throws IOException {
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		given(response.getRawStatusCode()).willReturn(statusCode);
+		given(response.getHeaders()).willReturn(headers);
+		given(response.getBody()).willReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		return response;
+	}
+
+	private static String bodyOf(ClientHttpResponse response) throws IOException {
+		return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+	}
+
+}
@@ -16,19 +16,29 @@
 
 package org.springframework.http.codec;
 
+import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
 import org.springframework.util.MimeTypeUtils;
@@ -36,9 +46,11 @@ import org.springframework.util.StringUtils;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.springframework.http.MediaType.TEXT_PLAIN;
 import static org.springframework.mock.http.server.reactive.test.MockServerHttpRequest.get;
 
@@ -53,6 +65,9 @@ public class ResourceHttpMessageWriterTests {
 	private static final Map<String, Object> HINTS = Collections.emptyMap();
 
 
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private final ResourceHttpMessageWriter writer = new ResourceHttpMessageWriter();
 
 	private final MockServerHttpResponse response = new MockServerHttpResponse();
@@ -131,6 +146,42 @@ public class ResourceHttpMessageWriterTests {
 				.verify();
 	}
 
+	@Test
+	public void writeMultipleRegionsWithZeroCopy() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		Files.write(file.toPath(), "Spring Framework test resource content.".getBytes(StandardCharsets.UTF_8));
+		ZeroCopyMockServerHttpResponse response = new ZeroCopyMockServerHttpResponse();
+
+		MockServerHttpRequest request = get("/").range(of(0, 5), of(17, 20)).build();
+		Mono<Void> mono = this.writer.write(Mono.just(new FileSystemResource(file)), null, null, TEXT_PLAIN,
+				request, response, HINTS);
+		StepVerifier.create(mono).expectComplete().verify();
+
+		String boundary = response.getHeaders().getContentType().toString().substring(30);
+		assertEquals(5, response.parts.size());
+		assertThat(response.parts.get(1), instanceOf(ResourceRegion.class));
+		assertThat(response.parts.get(3), instanceOf(ResourceRegion.class));
+
+		StepVerifier.create(response.getBodyAsString())
+				.consumeNextWith(content -> {
+					String[] actualRanges = StringUtils.tokenizeToStringArray(content, "\r\n", false, true);
+					String[] expected = new String[] {
+							"--" + boundary,
+							"Content-Type: text/plain",
+							"Content-Range: bytes 0-5/39",
+							"Spring",
+							"--" + boundary,
+							"Content-Type: text/plain",
+							"Content-Range: bytes 17-20/39",
+							"test",
+							"--" + boundary + "--"
+					};
+					assertArrayEquals(expected, actualRanges);
+				})
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	public void invalidRange() throws Exception {
 
@@ -150,4 +201,22 @@ public class ResourceHttpMessageWriterTests {
 		return HttpRange.createByteRange(first, last);
 	}
 
+
+	private static class ZeroCopyMockServerHttpResponse extends MockServerHttpResponse
+			implements ZeroCopyHttpOutputMessage {
+
+		private final List<Object> parts = new ArrayList<>();
+
+		@Override
+		public Mono<Void> writeWith(Path file, long position, long count) {
+			return writeWith(Collections.singletonList(new ResourceRegion(new FileSystemResource(file), position, count)));
+		}
+
+		@Override
+		public Mono<Void> writeWith(List<?> parts) {
+			this.parts.addAll(parts);
+			return ZeroCopyHttpOutputMessage.super.writeWith(parts);
+		}
+	}
+
 }
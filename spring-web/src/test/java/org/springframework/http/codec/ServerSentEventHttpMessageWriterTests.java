@@ -19,8 +19,12 @@ package org.springframework.http.codec;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
@@ -32,12 +36,16 @@ import reactor.test.StepVerifier;
 
 import org.springframework.core.ResolvableType;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.support.DataBufferTestUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.util.MimeType;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -187,6 +195,62 @@ public class ServerSentEventHttpMessageWriterTests extends AbstractDataBufferAll
 				.verify();
 	}
 
+	@Test
+	public void writeWithBatchedFlush() {
+		this.messageWriter.setMaxEventsPerFlush(2);
+		List<Integer> flushes = new ArrayList<>();
+		MockServerHttpResponse response = new MockServerHttpResponse(this.bufferFactory) {
+			@Override
+			protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+				return super.writeAndFlushWithInternal(Flux.from(body).map(buffers -> Flux.<DataBuffer>from(buffers)
+						.collectList()
+						.doOnNext(list -> flushes.add(list.size()))
+						.flatMapIterable(list -> list)));
+			}
+		};
+
+		testWrite(Flux.just("foo", "bar", "baz"), response, String.class);
+
+		StepVerifier.create(response.getBody())
+				.consumeNextWith(stringConsumer("data:foo\n\n"))
+				.consumeNextWith(stringConsumer("data:bar\n\n"))
+				.consumeNextWith(stringConsumer("data:baz\n\n"))
+				.expectComplete()
+				.verify();
+		assertEquals(Arrays.asList(2, 1), flushes);
+	}
+
+	@Test
+	public void writeSharedServerSentEvent() {
+		AtomicInteger encodeCount = new AtomicInteger();
+		this.messageWriter = new ServerSentEventHttpMessageWriter(new Jackson2JsonEncoder() {
+			@Override
+			public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+					@Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+
+				encodeCount.incrementAndGet();
+				return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+			}
+		});
+		this.messageWriter.setShareEncodedEvents(true);
+
+		ServerSentEvent<Pojo> event = ServerSentEvent.builder(new Pojo("foo", "bar")).id("1").build();
+		MockServerHttpResponse otherMessage = new MockServerHttpResponse(this.bufferFactory);
+		testWrite(Mono.<Object>just(event), this.outputMessage, Object.class);
+		testWrite(Mono.<Object>just(event), otherMessage, Object.class);
+
+		String expected = "id:1\ndata:{\"foo\":\"foo\",\"bar\":\"bar\"}\n\n";
+		StepVerifier.create(this.outputMessage.getBody())
+				.consumeNextWith(stringConsumer(expected))
+				.expectComplete()
+				.verify();
+		StepVerifier.create(otherMessage.getBody())
+				.consumeNextWith(stringConsumer(expected))
+				.expectComplete()
+				.verify();
+		assertEquals(1, encodeCount.get());
+	}
+
 
 	private <T> void testWrite(Publisher<T> source, MockServerHttpResponse response, Class<T> clazz) {
 		testWrite(source, MediaType.TEXT_EVENT_STREAM, response, clazz);
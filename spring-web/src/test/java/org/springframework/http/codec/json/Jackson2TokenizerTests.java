@@ -36,6 +36,8 @@ import reactor.test.StepVerifier;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.AbstractLeakCheckingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -181,6 +183,56 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTestCase {
 		testTokenize(asList("[1", ",2,", "3]"), asList("1", "2", "3"), true);
 	}
 
+	@Test
+	public void tokenizeSlicedAndDirectBuffers() {
+		byte[] bytes = "xx[{\"foo\": \"foofoo\"},{\"bar\": \"barbar\"}]xx".getBytes(StandardCharsets.UTF_8);
+		DataBuffer heapBuffer = new DefaultDataBufferFactory().wrap(bytes);
+		DataBuffer directBuffer = new DefaultDataBufferFactory(true).allocateBuffer(bytes.length).write(bytes);
+
+		for (DataBuffer buffer : asList(heapBuffer, directBuffer)) {
+			Flux<DataBuffer> source = Flux.just(buffer.slice(2, 15), buffer.slice(17, bytes.length - 19));
+			Flux<String> result = Jackson2Tokenizer.tokenize(source, this.jsonFactory, this.objectMapper, true)
+					.map(this::writeAsString);
+
+			StepVerifier.create(result)
+					.assertNext(new JSONAssertConsumer("{\"foo\": \"foofoo\"}"))
+					.assertNext(new JSONAssertConsumer("{\"bar\": \"barbar\"}"))
+					.verifyComplete();
+		}
+	}
+
+	@Test
+	public void tokenizeArrayElementsWithLimit() {
+		Flux<DataBuffer> source = Flux.just(
+				stringBuffer("[{\"foo\": \"foofoo\"}, "),
+				stringBuffer("{\"bar\": \"barbarbar"),
+				stringBuffer("barbarbar"),
+				stringBuffer("\"}]"));
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				source, this.jsonFactory, this.objectMapper, true, 20);
+
+		StepVerifier.create(tokens.map(this::writeAsString))
+				.assertNext(new JSONAssertConsumer("{\"foo\": \"foofoo\"}"))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
+	@Test
+	public void tokenizeSlicedBufferWithLimit() {
+		byte[] bytes = "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxx[{\"foo\": \"foofoo\"}, {\"bar\": \"".getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = new DefaultDataBufferFactory().wrap(bytes);
+		Flux<DataBuffer> source = Flux.just(
+				buffer.slice(30, bytes.length - 30),
+				stringBuffer("barbarbarbarbarbar"));
+		Flux<TokenBuffer> tokens = Jackson2Tokenizer.tokenize(
+				source, this.jsonFactory, this.objectMapper, true, 20);
+
+		StepVerifier.create(tokens.map(this::writeAsString))
+				.assertNext(new JSONAssertConsumer("{\"foo\": \"foofoo\"}"))
+				.expectError(DataBufferLimitException.class)
+				.verify();
+	}
+
 	@Test
 	public void errorInStream() {
 		DataBuffer buffer = stringBuffer("{\"id\":1,\"name\":");
@@ -208,22 +260,23 @@ public class Jackson2TokenizerTests extends AbstractLeakCheckingTestCase {
 				Flux.fromIterable(source).map(this::stringBuffer),
 				this.jsonFactory, this.objectMapper, tokenizeArrayElements);
 
-		Flux<String> result = tokens
-				.map(tokenBuffer -> {
-					try {
-						TreeNode root = this.objectMapper.readTree(tokenBuffer.asParser());
-						return this.objectMapper.writeValueAsString(root);
-					}
-					catch (IOException ex) {
-						throw new UncheckedIOException(ex);
-					}
-				});
+		Flux<String> result = tokens.map(this::writeAsString);
 
 		StepVerifier.FirstStep<String> builder = StepVerifier.create(result);
 		expected.forEach(s -> builder.assertNext(new JSONAssertConsumer(s)));
 		builder.verifyComplete();
 	}
 
+	private String writeAsString(TokenBuffer tokenBuffer) {
+		try {
+			TreeNode root = this.objectMapper.readTree(tokenBuffer.asParser());
+			return this.objectMapper.writeValueAsString(root);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
 	private DataBuffer stringBuffer(String value) {
 		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
 		DataBuffer buffer = this.bufferFactory.allocateBuffer(bytes.length);
@@ -17,8 +17,11 @@
 package org.springframework.http.codec.multipart;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
@@ -26,6 +29,7 @@ import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.AbstractDataBufferAllocatingTestCase;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -36,6 +40,7 @@ import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.springframework.core.ResolvableType.forClass;
@@ -51,6 +56,8 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 
 	private static final int BUFFER_SIZE = 16;
 
+	private static final String FIREFOX_BOUNDARY = "---------------------------18399284482060392383840973206";
+
 	private final DefaultMultipartMessageReader reader = new DefaultMultipartMessageReader();
 
 	@Test
@@ -89,8 +96,7 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 
 	@Test
 	public void firefox() {
-		testBrowser(new ClassPathResource("firefox.multipart", getClass()),
-				"---------------------------18399284482060392383840973206");
+		testBrowser(new ClassPathResource("firefox.multipart", getClass()), FIREFOX_BOUNDARY);
 	}
 
 	@Test
@@ -105,6 +111,73 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 				"----WebKitFormBoundaryG8fJ50opQOML0oGD");
 	}
 
+	@Test
+	public void fileContentStoredOnDisk() throws IOException {
+		Path directory = Files.createTempDirectory("DefaultMultipartMessageReaderTests");
+		this.reader.setMaxInMemorySize(20);
+		this.reader.setFileStorageDirectory(directory);
+		MockServerHttpRequest request = createRequest(
+				new ClassPathResource("firefox.multipart", getClass()), FIREFOX_BOUNDARY);
+
+		List<Part> parts = this.reader.read(forClass(Part.class), request, emptyMap())
+				.collectList()
+				.block(Duration.ofSeconds(5));
+
+		assertNotNull(parts);
+		assertEquals(5, parts.size());
+		assertEquals(LOREM_IPSUM, readContent(parts.get(2)));
+		assertEquals(LOREM_IPSUM, readContent(parts.get(2)));
+		String[] stored = directory.toFile().list();
+		assertNotNull(stored);
+		assertEquals(3, stored.length);
+
+		Flux.fromIterable(parts).flatMap(Part::delete).blockLast(Duration.ofSeconds(5));
+		String[] remaining = directory.toFile().list();
+		assertNotNull(remaining);
+		assertEquals(0, remaining.length);
+		Files.delete(directory);
+	}
+
+	@Test
+	public void formFieldExceedsMaxInMemorySize() {
+		this.reader.setMaxInMemorySize(0);
+		MockServerHttpRequest request = createRequest(
+				new ClassPathResource("firefox.multipart", getClass()), FIREFOX_BOUNDARY);
+
+		Flux<Part> result = this.reader.read(forClass(Part.class), request, emptyMap());
+
+		StepVerifier.create(result)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void exceedsMaxHeadersSize() {
+		this.reader.setMaxHeadersSize(20);
+		MockServerHttpRequest request = createRequest(
+				new ClassPathResource("firefox.multipart", getClass()), FIREFOX_BOUNDARY);
+
+		Flux<Part> result = this.reader.read(forClass(Part.class), request, emptyMap());
+
+		StepVerifier.create(result)
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
+	@Test
+	public void exceedsMaxParts() {
+		this.reader.setMaxParts(2);
+		MockServerHttpRequest request = createRequest(
+				new ClassPathResource("firefox.multipart", getClass()), FIREFOX_BOUNDARY);
+
+		Flux<Part> result = this.reader.read(forClass(Part.class), request, emptyMap());
+
+		StepVerifier.create(result)
+				.consumeNextWith(part -> testBrowserFormField(part, "text1", "a"))
+				.expectError(DecodingException.class)
+				.verify();
+	}
+
 	private void testBrowser(Resource resource, String boundary) {
 		MockServerHttpRequest request = createRequest(resource, boundary);
 
@@ -129,6 +202,18 @@ public class DefaultMultipartMessageReaderTests extends AbstractDataBufferAlloca
 				.body(body);
 	}
 
+	private static String readContent(Part part) {
+		String content = DataBufferUtils.join(part.content())
+				.map(buffer -> {
+					byte[] bytes = new byte[buffer.readableByteCount()];
+					buffer.read(bytes);
+					DataBufferUtils.release(buffer);
+					return new String(bytes, StandardCharsets.UTF_8);
+				})
+				.block(Duration.ofSeconds(5));
+		return (content != null ? content.trim() : null);
+	}
+
 	private static void testBrowserFormField(Part part, String name, String value) {
 		assertTrue(part instanceof FormFieldPart);
 		assertEquals(name, part.name());
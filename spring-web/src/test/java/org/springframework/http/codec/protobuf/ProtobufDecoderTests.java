@@ -29,6 +29,7 @@ import org.springframework.core.ResolvableType;
 import org.springframework.core.codec.AbstractDecoderTestCase;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
 import org.springframework.protobuf.Msg;
@@ -223,6 +224,15 @@ public class ProtobufDecoderTests extends AbstractDecoderTestCase<ProtobufDecode
 				.verifyError(DecodingException.class));
 	}
 
+	@Test
+	public void exceedMaxSizeToMono() {
+		this.decoder.setMaxMessageSize(1);
+		Mono<DataBuffer> input = dataBuffer(this.testMsg1);
+
+		testDecodeToMono(input, Msg.class, step -> step
+				.verifyError(DataBufferLimitException.class));
+	}
+
 	private Mono<DataBuffer> dataBuffer(Msg msg) {
 		return Mono.fromCallable(() -> {
 			byte[] bytes = msg.toByteArray();
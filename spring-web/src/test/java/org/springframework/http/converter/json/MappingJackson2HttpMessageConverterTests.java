@@ -20,9 +20,12 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonView;
@@ -381,6 +384,31 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertThat(result, containsString("\"withoutView\":\"without\""));
 	}
 
+	@Test
+	public void jsonViewWithCachedObjectWriters() throws Exception {
+		JacksonViewBean bean = new JacksonViewBean();
+		bean.setWithView1("with");
+		bean.setWithView2("with");
+		bean.setWithoutView("without");
+		this.converter.setCacheObjectWriters(true);
+
+		for (int i = 0; i < 2; i++) {
+			MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+			MappingJacksonValue jacksonValue = new MappingJacksonValue(bean);
+			jacksonValue.setSerializationView(MyJacksonView1.class);
+			this.converter.writeInternal(jacksonValue, null, outputMessage);
+
+			String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+			assertThat(result, containsString("\"withView1\":\"with\""));
+			assertThat(result, not(containsString("\"withView2\":\"with\"")));
+			assertThat(result, not(containsString("\"withoutView\":\"without\"")));
+		}
+
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.converter.writeInternal(bean, null, outputMessage);
+		assertThat(outputMessage.getBodyAsString(StandardCharsets.UTF_8), containsString("\"withoutView\":\"without\""));
+	}
+
 	@Test
 	public void filters() throws Exception {
 		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
@@ -437,6 +465,67 @@ public class MappingJackson2HttpMessageConverterTests {
 		assertTrue(result.contains("\"number\":123"));
 	}
 
+	@Test
+	public void writeStream() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		AtomicBoolean closed = new AtomicBoolean();
+		Stream<String> body = Stream.of("foo", "bar", "baz").onClose(() -> closed.set(true));
+		ParameterizedTypeReference<Stream<String>> typeReference = new ParameterizedTypeReference<Stream<String>>() {};
+
+		assertTrue(this.converter.canWrite(typeReference.getType(), body.getClass(), MediaType.APPLICATION_JSON));
+		this.converter.setStreamFlushInterval(2);
+		this.converter.write(body, typeReference.getType(), MediaType.APPLICATION_JSON, outputMessage);
+
+		assertEquals("[\"foo\",\"bar\",\"baz\"]", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void writeIterator() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		MyBean foo = new MyBean();
+		foo.setString("Foo");
+		MyBean bar = new MyBean();
+		bar.setString("Bar");
+
+		this.converter.write(Arrays.asList(foo, bar).iterator(), null, MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertTrue(result.startsWith("[{"));
+		assertTrue(result.endsWith("}]"));
+		assertTrue(result.contains("\"string\":\"Foo\""));
+		assertTrue(result.contains("\"string\":\"Bar\""));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void writeStreamWithPolymorphicElementType() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.OBJECT_AND_NON_CONCRETE);
+		MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper);
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		MyBean foo = new MyBean();
+		foo.setString("Foo");
+		foo.setNumber(42);
+		ParameterizedTypeReference<Stream<MyInterface>> typeReference =
+				new ParameterizedTypeReference<Stream<MyInterface>>() {};
+
+		converter.write(Stream.of(foo), typeReference.getType(), MediaType.APPLICATION_JSON, outputMessage);
+
+		String result = outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+		assertTrue(result.contains(MyBean.class.getName()));
+		assertTrue(result.contains("\"string\":\"Foo\""));
+		assertTrue(result.contains("\"number\":42"));
+	}
+
+	@Test
+	public void writeStreamAsLineDelimitedJson() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		this.converter.write(Stream.of("foo", "bar"), null, MediaType.APPLICATION_STREAM_JSON, outputMessage);
+
+		assertEquals("\"foo\"\n\"bar\"\n", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+	}
+
 	@Test
 	public void readWithNoDefaultConstructor() throws Exception {
 		String body = "{\"property1\":\"foo\",\"property2\":\"bar\"}";
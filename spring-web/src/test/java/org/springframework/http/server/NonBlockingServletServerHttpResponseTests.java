@@ -0,0 +1,166 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.test.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link NonBlockingServletServerHttpResponse}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class NonBlockingServletServerHttpResponseTests {
+
+	@Test
+	public void writeWithBlockingIo() throws Exception {
+		MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+		NonBlockingServletServerHttpResponse response = new NonBlockingServletServerHttpResponse(mockResponse, 4);
+
+		response.getHeaders().add("MyHeader", "value");
+		response.getBody().write("Hello World".getBytes(StandardCharsets.UTF_8));
+		response.flush();
+		assertEquals(0, mockResponse.getContentAsByteArray().length);
+
+		response.close();
+		assertEquals("value", mockResponse.getHeader("MyHeader"));
+		assertEquals(11, mockResponse.getContentLength());
+		assertEquals("Hello World", mockResponse.getContentAsString());
+	}
+
+	@Test
+	public void writeWithWriteListener() throws Exception {
+		ListenerServletOutputStream outputStream = new ListenerServletOutputStream();
+		NonBlockingServletServerHttpResponse response =
+				new NonBlockingServletServerHttpResponse(new ListenerServletResponse(outputStream), 4);
+		AtomicBoolean completed = new AtomicBoolean();
+
+		response.getBody().write("Hello World".getBytes(StandardCharsets.UTF_8));
+		assertTrue(response.hasContent());
+		response.writeContent(() -> completed.set(true), ex -> fail());
+		assertEquals(0, outputStream.content.size());
+
+		outputStream.ready = false;
+		outputStream.writeListener.onWritePossible();
+		assertEquals(0, outputStream.content.size());
+
+		outputStream.ready = true;
+		outputStream.writeListener.onWritePossible();
+		assertEquals("Hello World", new String(outputStream.content.toByteArray(), StandardCharsets.UTF_8));
+		assertTrue(completed.get());
+	}
+
+	@Test
+	public void writeWithWriteListenerAfterRelease() throws Exception {
+		ListenerServletOutputStream outputStream = new ListenerServletOutputStream();
+		NonBlockingServletServerHttpResponse response =
+				new NonBlockingServletServerHttpResponse(new ListenerServletResponse(outputStream));
+		AtomicBoolean completed = new AtomicBoolean();
+
+		response.getBody().write("Hello World".getBytes(StandardCharsets.UTF_8));
+		response.writeContent(() -> completed.set(true), ex -> fail());
+		response.release();
+
+		outputStream.writeListener.onWritePossible();
+		assertEquals(0, outputStream.content.size());
+		assertFalse(completed.get());
+	}
+
+	@Test
+	public void writeWithWriteListenerError() throws Exception {
+		ListenerServletOutputStream outputStream = new ListenerServletOutputStream();
+		NonBlockingServletServerHttpResponse response =
+				new NonBlockingServletServerHttpResponse(new ListenerServletResponse(outputStream));
+		AtomicReference<Throwable> error = new AtomicReference<>();
+
+		response.getBody().write("Hello World".getBytes(StandardCharsets.UTF_8));
+		response.writeContent(() -> fail(), error::set);
+
+		IOException ex = new IOException("Broken pipe");
+		outputStream.writeListener.onError(ex);
+		assertSame(ex, error.get());
+	}
+
+	@Test
+	public void writeContentWithoutBody() {
+		MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+		NonBlockingServletServerHttpResponse response = new NonBlockingServletServerHttpResponse(mockResponse);
+		AtomicBoolean completed = new AtomicBoolean();
+
+		response.getHeaders().add("MyHeader", "value");
+		assertFalse(response.hasContent());
+		response.writeContent(() -> completed.set(true), ex -> fail());
+		assertEquals("value", mockResponse.getHeader("MyHeader"));
+		assertTrue(completed.get());
+	}
+
+
+	private static class ListenerServletResponse extends MockHttpServletResponse {
+
+		private final ServletOutputStream outputStream;
+
+		ListenerServletResponse(ServletOutputStream outputStream) {
+			this.outputStream = outputStream;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			return this.outputStream;
+		}
+	}
+
+
+	private static class ListenerServletOutputStream extends ServletOutputStream {
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		private WriteListener writeListener;
+
+		private boolean ready = true;
+
+		@Override
+		public boolean isReady() {
+			return this.ready;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.writeListener = writeListener;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.content.write(b);
+		}
+	}
+
+}
@@ -20,6 +20,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Before;
@@ -152,6 +155,46 @@ public class ServletServerHttpRequestTests {
 		assertNull(headers.getContentType());
 	}
 
+	@Test
+	public void getHeadersWithContentLengthProperty() {
+		mockRequest.addHeader("MyHeader", "value");
+		mockRequest.setContent("Hello World".getBytes(StandardCharsets.UTF_8));
+
+		HttpHeaders headers = request.getHeaders();
+		assertEquals(11, headers.getContentLength());
+		assertTrue(headers.containsKey("myheader"));
+		assertEquals(Arrays.asList("MyHeader", "Content-Length"), new ArrayList<>(headers.keySet()));
+	}
+
+	@Test
+	public void getHeadersCopiedOnWrite() {
+		mockRequest.addHeader("MyHeader", "value1");
+		mockRequest.setContentType("text/plain");
+
+		HttpHeaders headers = request.getHeaders();
+		headers.add("MyHeader", "value2");
+		headers.set("OtherHeader", "value");
+
+		assertEquals(Arrays.asList("value1", "value2"), headers.get("myheader"));
+		assertEquals("value", headers.getFirst("OtherHeader"));
+		assertEquals(MediaType.TEXT_PLAIN, headers.getContentType());
+		assertEquals(Collections.singletonList("value1"), Collections.list(mockRequest.getHeaders("MyHeader")));
+		assertNull(mockRequest.getHeader("OtherHeader"));
+	}
+
+	@Test
+	public void getHeadersCopiedOnWriteToValues() {
+		mockRequest.addHeader("MyHeader", "value1");
+
+		HttpHeaders headers = request.getHeaders();
+		List<String> values = headers.get("MyHeader");
+		values.add("value2");
+
+		assertEquals(Arrays.asList("value1", "value2"), values);
+		assertEquals(Arrays.asList("value1", "value2"), headers.get("myheader"));
+		assertEquals(Collections.singletonList("value1"), Collections.list(mockRequest.getHeaders("MyHeader")));
+	}
+
 	@Test
 	public void getBody() throws IOException {
 		byte[] content = "Hello World".getBytes("UTF-8");
@@ -26,6 +26,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -53,12 +55,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.http.HttpMethod.DELETE;
 import static org.springframework.http.HttpMethod.GET;
@@ -196,6 +200,48 @@ public class RestTemplateTests {
 		verify(response).close();
 	}
 
+	@Test
+	public void getForStreamWithJsonArray() throws Exception {
+		HttpHeaders requestHeaders = new HttpHeaders();
+		mockSentRequest(GET, "https://example.com", requestHeaders);
+		mockResponseStatus(HttpStatus.OK);
+		mockJsonResponseBody("[\"foo\",\"bar\",\"baz\"]");
+
+		try (Stream<String> result = template.getForStream("https://example.com", String.class)) {
+			verify(response, never()).close();
+			assertEquals(Arrays.asList("foo", "bar", "baz"), result.collect(Collectors.toList()));
+		}
+		assertTrue(requestHeaders.getAccept().contains(MediaType.APPLICATION_JSON));
+
+		verify(response).close();
+	}
+
+	@Test
+	public void getForStreamWithNewlineDelimitedJson() throws Exception {
+		mockSentRequest(GET, "https://example.com/hotels/42");
+		mockResponseStatus(HttpStatus.OK);
+		mockJsonResponseBody("\"foo\"\n\"bar\"\n");
+
+		Stream<String> result = template.getForStream("https://example.com/hotels/{hotel}", String.class, "42");
+		assertEquals(Arrays.asList("foo", "bar"), result.collect(Collectors.toList()));
+
+		// Closed once the last element is consumed
+		verify(response).close();
+	}
+
+	@Test
+	public void getForStreamClosedEarly() throws Exception {
+		mockSentRequest(GET, "https://example.com");
+		mockResponseStatus(HttpStatus.OK);
+		mockJsonResponseBody("[\"foo\",\"bar\",\"baz\"]");
+
+		try (Stream<String> result = template.getForStream(new URI("https://example.com"), String.class)) {
+			assertEquals("foo", result.iterator().next());
+		}
+
+		verify(response).close();
+	}
+
 	@Test
 	public void getUnsupportedMediaType() throws Exception {
 		mockSentRequest(GET, "https://example.com/resource");
@@ -718,6 +764,13 @@ public class RestTemplateTests {
 		mockResponseBody(expectedBody, MediaType.TEXT_PLAIN);
 	}
 
+	private void mockJsonResponseBody(String body) throws Exception {
+		HttpHeaders responseHeaders = new HttpHeaders();
+		responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+		given(response.getHeaders()).willReturn(responseHeaders);
+		given(response.getBody()).willReturn(new ByteArrayInputStream(body.getBytes()));
+	}
+
 	private void mockResponseBody(String expectedBody, MediaType mediaType) throws Exception {
 		HttpHeaders responseHeaders = new HttpHeaders();
 		responseHeaders.setContentType(mediaType);
@@ -16,8 +16,14 @@
 
 package org.springframework.web.server.adapter;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
 import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
@@ -26,6 +32,7 @@ import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
 import org.springframework.web.server.session.DefaultWebSessionManager;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Unit tests for {@link DefaultServerWebExchange}.
@@ -56,6 +63,18 @@ public class DefaultServerWebExchangeTests {
 		assertEquals("/foo;p=abc?q=123", exchange.transformUrl("/foo"));
 	}
 
+	@Test
+	public void cleanupMultipartWithoutReading() {
+		AtomicBoolean subscribed = new AtomicBoolean();
+		MockServerHttpRequest request = MockServerHttpRequest.post("https://example.com")
+				.contentType(MediaType.MULTIPART_FORM_DATA)
+				.body(Flux.<DataBuffer>empty().doOnSubscribe(subscription -> subscribed.set(true)));
+		DefaultServerWebExchange exchange = createExchange(request);
+
+		StepVerifier.create(exchange.cleanupMultipart()).verifyComplete();
+		assertFalse(subscribed.get());
+	}
+
 
 	private DefaultServerWebExchange createExchange() {
 		MockServerHttpRequest request = MockServerHttpRequest.get("https://example.com").build();
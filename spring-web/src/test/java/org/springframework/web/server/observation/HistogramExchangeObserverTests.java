@@ -0,0 +1,129 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.observation;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.test.MockServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.observation.ExchangeObservation.Phase;
+import org.springframework.web.server.observation.HistogramExchangeObserver.Histogram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link HistogramExchangeObserver}, and for the recording of
+ * an {@link ExchangeObservation} by the
+ * {@link org.springframework.web.server.adapter.HttpWebHandlerAdapter}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class HistogramExchangeObserverTests {
+
+	private final HistogramExchangeObserver observer = new HistogramExchangeObserver();
+
+
+	@Test
+	public void observeRequest() {
+		WebHandler webHandler = exchange -> ExchangeObservation.observe(exchange, Phase.HANDLER_INVOCATION,
+				DataBufferUtils.join(exchange.getRequest().getBody())
+						.doOnNext(DataBufferUtils::release)
+						.then(write(exchange, "Hello world")));
+
+		HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(webHandler).exchangeObserver(this.observer).build();
+		MockServerHttpRequest request = MockServerHttpRequest.post("/").body("request body");
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		httpHandler.handle(request, response).block(Duration.ofSeconds(5));
+
+		assertEquals(1, this.observer.getDurations().getCount());
+		assertEquals(1, this.observer.getTimesToFirstByte().getCount());
+		assertEquals(1, this.observer.getPhaseDurations(Phase.HANDLER_INVOCATION).getCount());
+		assertEquals(0, this.observer.getPhaseDurations(Phase.HANDLER_MAPPING).getCount());
+		assertEquals(12, this.observer.getBytesRead());
+		assertEquals(11, this.observer.getBytesWritten());
+	}
+
+	@Test
+	public void observationAvailableWhenHandlerInvoked() {
+		WebHandler webHandler = exchange -> {
+			assertNotNull(ExchangeObservation.get(exchange));
+			return write(exchange, "Hello world");
+		};
+
+		HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(webHandler).exchangeObserver(this.observer).build();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		httpHandler.handle(MockServerHttpRequest.get("/").build(), response).block(Duration.ofSeconds(5));
+
+		assertEquals(1, this.observer.getDurations().getCount());
+	}
+
+	@Test
+	public void notObservedWithoutObserver() {
+		WebHandler webHandler = exchange -> {
+			assertNull(ExchangeObservation.get(exchange));
+			return write(exchange, "Hello world");
+		};
+
+		HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(webHandler).build();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		httpHandler.handle(MockServerHttpRequest.get("/").build(), response).block(Duration.ofSeconds(5));
+
+		assertEquals("Hello world", response.getBodyAsString().block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	public void histogramPercentiles() {
+		Histogram histogram = new Histogram();
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000);
+		}
+		histogram.record(-1);
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500, histogram.getMean());
+		assertWithin(500000, histogram.getPercentile(50));
+		assertWithin(990000, histogram.getPercentile(99));
+		assertWithin(1000000, histogram.getPercentile(100));
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue("Expected about " + expected + " but was " + actual,
+				actual >= expected && actual <= expected * 1.07);
+	}
+
+	private static Mono<Void> write(ServerWebExchange exchange, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		DataBuffer buffer = new DefaultDataBufferFactory().wrap(bytes);
+		return exchange.getResponse().writeWith(Flux.just(buffer));
+	}
+
+}
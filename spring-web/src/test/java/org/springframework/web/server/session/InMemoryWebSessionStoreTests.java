@@ -20,11 +20,13 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.IntStream;
 
 import org.junit.Test;
 
 import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.server.WebSession;
 
 import static org.junit.Assert.assertEquals;
@@ -33,6 +35,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 /**
  * Unit tests for {@link InMemoryWebSessionStore}.
@@ -145,6 +152,63 @@ public class InMemoryWebSessionStoreTests {
 		assertEquals(1, sessions.size());
 	}
 
+	@Test
+	public void expirationCheckIsBounded() {
+
+		DirectFieldAccessor accessor = new DirectFieldAccessor(this.store);
+		Map<?,?> sessions = (Map<?, ?>) accessor.getPropertyValue("sessions");
+		assertNotNull(sessions);
+
+		this.store.setMaxSessions(3000);
+		IntStream.range(0, 2500).forEach(i -> insertSession());
+
+		accessor.setPropertyValue("clock", Clock.offset(this.store.getClock(), Duration.ofMinutes(31)));
+
+		// Each time-based check removes a limited number of sessions
+		insertSession();
+		assertEquals(1501, sessions.size());
+
+		// Explicit check removes all
+		this.store.removeExpiredSessions();
+		assertEquals(1, sessions.size());
+		assertEquals(2500, this.store.getExpiredSessionCount());
+	}
+
+	@Test
+	public void accessedSessionIsNotExpired() {
+		WebSession session = insertSession();
+		WebSession idleSession = insertSession();
+
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertNotNull(this.store.retrieveSession(session.getId()).block());
+
+		// 40 minutes after creation, but 20 after last access
+		this.store.setClock(Clock.offset(this.store.getClock(), Duration.ofMinutes(20)));
+		assertEquals(1, this.store.getSessionCount());
+		assertNull(this.store.getSessions().get(idleSession.getId()));
+		assertSame(session, this.store.retrieveSession(session.getId()).block());
+		assertEquals(1, this.store.getExpiredSessionCount());
+	}
+
+	@Test
+	public void taskScheduler() {
+		TaskScheduler taskScheduler = mock(TaskScheduler.class);
+		ScheduledFuture<?> future = mock(ScheduledFuture.class);
+		given(taskScheduler.scheduleWithFixedDelay(any(Runnable.class), eq(60 * 1000L))).willAnswer(invocation -> {
+			// Run once right away
+			Runnable task = invocation.getArgument(0);
+			task.run();
+			return future;
+		});
+
+		insertSession();
+		this.store.setTaskScheduler(taskScheduler);
+		this.store.setTaskScheduler(null);
+
+		verify(future).cancel(false);
+		assertEquals(1, this.store.getSessionCount());
+	}
+
 	@Test
 	public void maxSessions() {
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.server.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.web.server.WebSession;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link OffHeapWebSessionStore}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class OffHeapWebSessionStoreTests {
+
+	private OffHeapWebSessionStore store = new OffHeapWebSessionStore();
+
+
+	@Test
+	public void attributesSerializedOnSave() {
+		List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("name", "value");
+		session.getAttributes().put("list", list);
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertNotNull(retrieved);
+		assertTrue(retrieved.isStarted());
+		assertEquals(2, retrieved.getAttributes().size());
+		assertEquals("value", retrieved.getAttributes().get("name"));
+		assertEquals(list, retrieved.getAttributes().get("list"));
+		assertNotSame(list, retrieved.getAttributes().get("list"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void modifiedAttributeWrittenBack() {
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("list", new ArrayList<>(Arrays.asList("a", "b")));
+		session.getAttributes().put("name", "value");
+		session.save().block();
+
+		((List<String>) session.getAttributes().get("list")).add("c");
+		session.getAttributes().remove("name");
+		session.save().block();
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertNotNull(retrieved);
+		assertEquals(Arrays.asList("a", "b", "c"), retrieved.getAttributes().get("list"));
+		assertNull(retrieved.getAttributes().get("name"));
+		assertEquals(1, retrieved.getAttributes().size());
+	}
+
+	@Test
+	public void onlyAccessedAttributesDeserialized() {
+		AtomicInteger count = new AtomicInteger();
+		DefaultDeserializer deserializer = new DefaultDeserializer();
+		this.store.setDeserializer(inputStream -> {
+			count.incrementAndGet();
+			return deserializer.deserialize(inputStream);
+		});
+
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("foo", "bar");
+		session.getAttributes().put("baz", "qux");
+		session.save().block();
+
+		session.getAttributes().get("foo");
+		session.getAttributes().put("other", "value");
+		session.save().block();
+		assertEquals(1, count.get());
+
+		WebSession retrieved = this.store.retrieveSession(session.getId()).block();
+		assertNotNull(retrieved);
+		assertEquals("qux", retrieved.getAttributes().get("baz"));
+		assertEquals(2, count.get());
+	}
+
+	@Test
+	public void replacedAttributesNotDeserialized() {
+		AtomicInteger count = new AtomicInteger();
+		DefaultDeserializer deserializer = new DefaultDeserializer();
+		this.store.setDeserializer(inputStream -> {
+			count.incrementAndGet();
+			return deserializer.deserialize(inputStream);
+		});
+
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("foo", "bar");
+		session.getAttributes().put("baz", "qux");
+		session.save().block();
+
+		assertNull(session.getAttributes().put("foo", "other"));
+		assertNull(session.getAttributes().remove("baz"));
+		assertEquals("other", session.getAttributes().put("foo", "value"));
+		assertEquals(0, count.get());
+	}
+
+	@Test
+	public void bufferReusedOnSave() {
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		for (int i = 0; i < 10000; i++) {
+			session.getAttributes().put("count", i);
+			session.save().block();
+		}
+		assertEquals(1, this.store.getSlabCount());
+	}
+
+	@Test
+	public void bufferReleasedOnInvalidate() {
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+		int freeChunkCount = this.store.getFreeChunkCount();
+
+		session.invalidate().block();
+		assertEquals(freeChunkCount + 1, this.store.getFreeChunkCount());
+	}
+
+	@Test
+	public void bufferReleasedOnRemove() {
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("foo", "bar");
+		session.save().block();
+		int freeChunkCount = this.store.getFreeChunkCount();
+
+		this.store.removeSession(session.getId()).block();
+		assertEquals(freeChunkCount + 1, this.store.getFreeChunkCount());
+	}
+
+	@Test(expected = SerializationFailedException.class)
+	public void attributeNotSerializable() {
+		WebSession session = this.store.createWebSession().block();
+		assertNotNull(session);
+		session.getAttributes().put("foo", new Object());
+		session.save().block();
+	}
+
+}
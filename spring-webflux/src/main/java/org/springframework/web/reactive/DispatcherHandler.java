@@ -34,6 +34,8 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebHandler;
 import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.observation.ExchangeObservation;
+import org.springframework.web.server.observation.ExchangeObservation.Phase;
 
 /**
  * Central dispatcher for HTTP request handlers/controllers. Dispatches to
@@ -142,9 +144,12 @@ public class DispatcherHandler implements WebHandler, ApplicationContextAware {
 		return Flux.fromIterable(this.handlerMappings)
 				.concatMap(mapping -> mapping.getHandler(exchange))
 				.next()
+				.transform(mono -> ExchangeObservation.observe(exchange, Phase.HANDLER_MAPPING, mono))
 				.switchIfEmpty(createNotFoundError())
-				.flatMap(handler -> invokeHandler(exchange, handler))
-				.flatMap(result -> handleResult(exchange, result));
+				.flatMap(handler -> ExchangeObservation.observe(
+						exchange, Phase.HANDLER_INVOCATION, invokeHandler(exchange, handler)))
+				.flatMap(result -> ExchangeObservation.observe(
+						exchange, Phase.RESULT_HANDLING, handleResult(exchange, result)));
 	}
 
 	private <R> Mono<R> createNotFoundError() {
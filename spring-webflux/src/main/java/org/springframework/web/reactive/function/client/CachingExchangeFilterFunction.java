@@ -0,0 +1,205 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.HttpResponseCache;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that answers {@code GET} requests from an
+ * {@link HttpResponseCache} where possible, revalidating stale entries with
+ * conditional requests, and that stores cacheable responses.
+ *
+ * <p>Concurrent cache misses for the same URI and credentials are collapsed:
+ * only one exchange is performed, while the others wait for its response and
+ * are answered from the cache, provided the response could be stored.
+ *
+ * <p>Responses that are stored are aggregated in memory in full, up to the
+ * {@link HttpResponseCache#getMaxSize() maximum size} of the cache. Responses
+ * that declare a larger {@code Content-Length} are passed through without
+ * being stored. Responses that turn out to be larger while aggregating are
+ * not stored either, and are passed through with the buffers aggregated so
+ * far ahead of the rest of the body; all other responses are passed through
+ * as they are.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @see org.springframework.http.client.support.CachingClientHttpRequestInterceptor
+ */
+public class CachingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private final HttpResponseCache cache;
+
+	private final ExchangeStrategies strategies;
+
+	private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private final Map<String, MonoProcessor<HttpResponseCache.Entry>> inFlight = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new filter for the given cache, using
+	 * {@link ExchangeStrategies#withDefaults() default strategies} for
+	 * responses served from the cache.
+	 * @param cache the cache to use
+	 */
+	public CachingExchangeFilterFunction(HttpResponseCache cache) {
+		this(cache, ExchangeStrategies.withDefaults());
+	}
+
+	/**
+	 * Create a new filter for the given cache.
+	 * @param cache the cache to use
+	 * @param strategies the strategies for responses served from the cache,
+	 * typically the same as those of the {@code WebClient}
+	 */
+	public CachingExchangeFilterFunction(HttpResponseCache cache, ExchangeStrategies strategies) {
+		Assert.notNull(cache, "HttpResponseCache must not be null");
+		Assert.notNull(strategies, "ExchangeStrategies must not be null");
+		this.cache = cache;
+		this.strategies = strategies;
+	}
+
+
+	/**
+	 * Return the configured cache.
+	 */
+	public HttpResponseCache getCache() {
+		return this.cache;
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		URI url = request.url();
+		if (!this.cache.isCacheable(request.method(), request.headers())) {
+			return next.exchange(request).doOnNext(response -> {
+				if (this.cache.isInvalidating(request.method(), response.rawStatusCode())) {
+					this.cache.evict(url);
+				}
+			});
+		}
+		HttpHeaders headers = getRequestHeaders(request);
+		return Mono.defer(() -> {
+			HttpResponseCache.Entry entry = this.cache.get(url, headers);
+			if (entry != null && this.cache.isFresh(entry, headers)) {
+				return Mono.just(createResponse(entry));
+			}
+			String key = this.cache.getKey(url, headers);
+			MonoProcessor<HttpResponseCache.Entry> flight = MonoProcessor.create();
+			MonoProcessor<HttpResponseCache.Entry> existing = this.inFlight.putIfAbsent(key, flight);
+			if (existing != null) {
+				return existing
+						.filter(shared -> shared.matches(headers))
+						.map(this::createResponse)
+						.switchIfEmpty(Mono.defer(() -> next.exchange(request)));
+			}
+			return fetch(request, headers, next, entry, flight)
+					.doFinally(signalType -> {
+						this.inFlight.remove(key, flight);
+						flight.onComplete();
+					});
+		});
+	}
+
+	/**
+	 * Return the request headers, along with the cookies of the request,
+	 * which are kept apart until the request is sent.
+	 */
+	private HttpHeaders getRequestHeaders(ClientRequest request) {
+		if (request.cookies().isEmpty()) {
+			return request.headers();
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(request.headers());
+		List<String> cookies = new ArrayList<>();
+		request.cookies().forEach((name, values) -> values.forEach(value -> cookies.add(name + "=" + value)));
+		headers.add(HttpHeaders.COOKIE, String.join("; ", cookies));
+		return headers;
+	}
+
+	private Mono<ClientResponse> fetch(ClientRequest request, HttpHeaders requestHeaders, ExchangeFunction next,
+			@Nullable HttpResponseCache.Entry entry, MonoProcessor<HttpResponseCache.Entry> flight) {
+
+		URI url = request.url();
+		ClientRequest requestToUse = (entry != null ?
+				ClientRequest.from(request).headers(headers -> this.cache.addConditionalHeaders(entry, headers)).build() :
+				request);
+		long requestTime = this.cache.getClock().millis();
+
+		return next.exchange(requestToUse).flatMap(response -> {
+			int statusCode = response.rawStatusCode();
+			HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+			if (entry != null && statusCode == HttpStatus.NOT_MODIFIED.value()) {
+				return response.bodyToMono(Void.class).then(Mono.fromSupplier(() -> {
+					HttpResponseCache.Entry updated =
+							this.cache.revalidated(url, requestHeaders, entry, responseHeaders, requestTime);
+					flight.onNext(updated);
+					return createResponse(updated);
+				}));
+			}
+			if (!this.cache.isStorable(statusCode, responseHeaders) ||
+					responseHeaders.getContentLength() > this.cache.getMaxSize()) {
+				this.cache.evict(url);
+				return Mono.just(response);
+			}
+			long maxSize = Math.min(this.cache.getMaxSize(), Integer.MAX_VALUE);
+			return LimitedBodyReader.read(response.body(BodyExtractors.toDataBuffers()), maxSize).map(reader -> {
+				if (reader.isExceeded()) {
+					this.cache.evict(url);
+					return ClientResponse.from(response).body(reader.getBody()).build();
+				}
+				byte[] body = reader.getContent();
+				HttpResponseCache.Entry stored =
+						this.cache.put(url, requestHeaders, statusCode, responseHeaders, body, requestTime);
+				if (stored != null) {
+					flight.onNext(stored);
+				}
+				return ClientResponse.from(response).body(toBody(body)).build();
+			});
+		});
+	}
+
+	private ClientResponse createResponse(HttpResponseCache.Entry entry) {
+		return ClientResponse.create(HttpStatus.valueOf(entry.getStatusCode()), this.strategies)
+				.headers(headers -> headers.putAll(entry.getHeaders()))
+				.body(toBody(entry.getBody()))
+				.build();
+	}
+
+	private Flux<DataBuffer> toBody(byte[] body) {
+		return Flux.defer(() -> Flux.just(this.bufferFactory.wrap(body)));
+	}
+
+}
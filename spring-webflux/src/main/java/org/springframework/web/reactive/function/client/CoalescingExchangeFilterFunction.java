@@ -0,0 +1,242 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+
+/**
+ * {@link ExchangeFilterFunction} that performs concurrent, identical
+ * {@code GET} and {@code HEAD} requests only once, sharing the response
+ * among all requests that are issued while the first is in flight.
+ * Requests are considered identical if they have the same method, URL,
+ * credentials (the {@code Authorization} header and cookies), and values
+ * for the headers specified at construction time.
+ *
+ * <p>A response is shared only if identical requests were issued while it
+ * was in flight; otherwise it is passed through as it is. A shared response
+ * body is aggregated in memory, and every request receives its own copy,
+ * which it is responsible for consuming or releasing as usual. If the body
+ * is larger than {@link #setMaxInMemorySize maxInMemorySize}, it is passed
+ * through to the first request instead, and the others are performed on
+ * their own. Errors are shared as well. Requests with other methods are
+ * passed through as they are.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ * @see CachingExchangeFilterFunction
+ */
+public class CoalescingExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private final List<String> headerNames;
+
+	private int maxInMemorySize = 256 * 1024;
+
+	private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+	private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+
+	/**
+	 * Create a new filter that considers requests identical if they have the
+	 * same method, URL, {@code Authorization} header, cookies, and values for
+	 * the given headers.
+	 * @param headerNames the names of further headers to compare, for instance
+	 * {@code Accept} or {@code Accept-Language}
+	 */
+	public CoalescingExchangeFilterFunction(String... headerNames) {
+		Assert.notNull(headerNames, "Header names must not be null");
+		this.headerNames = new ArrayList<>(headerNames.length + 2);
+		this.headerNames.add(HttpHeaders.AUTHORIZATION);
+		this.headerNames.add(HttpHeaders.COOKIE);
+		this.headerNames.addAll(Arrays.asList(headerNames));
+	}
+
+
+	/**
+	 * Configure a limit on the number of bytes of a shared response body that
+	 * can be aggregated in memory. If the limit is exceeded, the response is
+	 * not shared after all: it is passed through to the first request, with
+	 * the bytes aggregated so far ahead of the rest of the body, and the other
+	 * requests are performed on their own.
+	 * <p>By default this is set to 256K.
+	 * @param byteCount the max number of bytes to buffer, or -1 for unlimited
+	 */
+	public void setMaxInMemorySize(int byteCount) {
+		this.maxInMemorySize = byteCount;
+	}
+
+	/**
+	 * Return the {@link #setMaxInMemorySize configured} byte count limit.
+	 */
+	public int getMaxInMemorySize() {
+		return this.maxInMemorySize;
+	}
+
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		HttpMethod method = request.method();
+		if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+			return next.exchange(request);
+		}
+		return Mono.defer(() -> {
+			String key = getKey(request);
+			Flight flight = new Flight(key);
+			Flight existing = this.inFlight.putIfAbsent(key, flight);
+			if (existing != null) {
+				Mono<ClientResponse> shared = existing.join();
+				return (shared != null ?
+						shared.switchIfEmpty(Mono.defer(() -> next.exchange(request))) :
+						next.exchange(request));
+			}
+			return next.exchange(request)
+					.flatMap(flight::share)
+					.doOnError(flight::fail)
+					.doFinally(signalType -> flight.complete());
+		});
+	}
+
+	private String getKey(ClientRequest request) {
+		StringBuilder builder = new StringBuilder(request.method().name()).append(' ').append(request.url());
+		for (String headerName : this.headerNames) {
+			builder.append('\n').append(headerName).append(':').append(request.headers().get(headerName));
+		}
+		if (!request.cookies().isEmpty()) {
+			builder.append('\n').append(request.cookies());
+		}
+		return builder.toString();
+	}
+
+
+	/**
+	 * A request in flight, along with the identical requests issued meanwhile.
+	 */
+	private class Flight {
+
+		private final String key;
+
+		private final MonoProcessor<SharedResponse> result = MonoProcessor.create();
+
+		private int followers;
+
+		private boolean closed;
+
+		Flight(String key) {
+			this.key = key;
+		}
+
+		/**
+		 * Wait for the response of this flight, if it still accepts identical
+		 * requests. The returned {@code Mono} completes empty if the response
+		 * was not shared after all.
+		 */
+		@Nullable
+		public synchronized Mono<ClientResponse> join() {
+			if (this.closed) {
+				return null;
+			}
+			this.followers++;
+			return this.result.map(SharedResponse::createResponse);
+		}
+
+		/**
+		 * Share the given response with the identical requests issued while it
+		 * was in flight, if any, or else return it as it is.
+		 */
+		public Mono<ClientResponse> share(ClientResponse response) {
+			if (!close()) {
+				return Mono.just(response);
+			}
+			int maxSize = getMaxInMemorySize();
+			return LimitedBodyReader.read(response.body(BodyExtractors.toDataBuffers()),
+					(maxSize >= 0 ? maxSize : Long.MAX_VALUE)).map(reader -> {
+				if (reader.isExceeded()) {
+					this.result.onComplete();
+					return ClientResponse.from(response).body(reader.getBody()).build();
+				}
+				SharedResponse shared = new SharedResponse(response, reader.getContent());
+				this.result.onNext(shared);
+				return shared.createResponse();
+			});
+		}
+
+		public void fail(Throwable ex) {
+			close();
+			this.result.onError(ex);
+		}
+
+		public void complete() {
+			close();
+			this.result.onComplete();
+		}
+
+		/**
+		 * Stop accepting identical requests, and return whether there are any.
+		 */
+		private boolean close() {
+			boolean hasFollowers;
+			synchronized (this) {
+				this.closed = true;
+				hasFollowers = (this.followers > 0);
+			}
+			inFlight.remove(this.key, this);
+			return hasFollowers;
+		}
+	}
+
+
+	/**
+	 * The response shared by identical requests, with its aggregated body.
+	 */
+	private class SharedResponse {
+
+		private final ClientResponse response;
+
+		private final byte[] body;
+
+		SharedResponse(ClientResponse response, byte[] body) {
+			this.response = response;
+			this.body = body;
+		}
+
+		public ClientResponse createResponse() {
+			Flux<DataBuffer> body = Flux.defer(() -> {
+				DataBufferFactory bufferFactory = CoalescingExchangeFilterFunction.this.bufferFactory;
+				return Flux.just(bufferFactory.allocateBuffer(this.body.length).write(this.body));
+			});
+			return ClientResponse.from(this.response).body(body).build();
+		}
+	}
+
+}
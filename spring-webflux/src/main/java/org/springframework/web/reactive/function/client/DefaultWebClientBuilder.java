@@ -71,6 +71,13 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 
 	private ExchangeStrategies exchangeStrategies;
 
+	@Nullable
+	private ExchangeListener exchangeListener;
+
+	private int maxInFlightRequestsPerHost = -1;
+
+	private int maxQueuedRequestsPerHost = -1;
+
 
 	public DefaultWebClientBuilder() {
 		this.exchangeStrategies = ExchangeStrategies.withDefaults();
@@ -97,6 +104,9 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		this.connector = other.connector;
 		this.exchangeFunction = other.exchangeFunction;
 		this.exchangeStrategies = other.exchangeStrategies;
+		this.exchangeListener = other.exchangeListener;
+		this.maxInFlightRequestsPerHost = other.maxInFlightRequestsPerHost;
+		this.maxQueuedRequestsPerHost = other.maxQueuedRequestsPerHost;
 	}
 
 
@@ -202,6 +212,28 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		return this;
 	}
 
+	@Override
+	public WebClient.Builder exchangeListener(ExchangeListener listener) {
+		Assert.notNull(listener, "ExchangeListener must not be null");
+		this.exchangeListener = listener;
+		return this;
+	}
+
+	@Override
+	public WebClient.Builder maxInFlightRequestsPerHost(int maxInFlightRequests) {
+		Assert.isTrue(maxInFlightRequests == -1 || maxInFlightRequests > 0,
+				"'maxInFlightRequests' must be positive or -1");
+		this.maxInFlightRequestsPerHost = maxInFlightRequests;
+		return this;
+	}
+
+	@Override
+	public WebClient.Builder maxQueuedRequestsPerHost(int maxQueuedRequests) {
+		Assert.isTrue(maxQueuedRequests >= -1, "'maxQueuedRequests' must be positive, 0, or -1");
+		this.maxQueuedRequestsPerHost = maxQueuedRequests;
+		return this;
+	}
+
 	@Override
 	public WebClient build() {
 		ExchangeFunction exchange = initExchangeFunction();
@@ -219,12 +251,9 @@ final class DefaultWebClientBuilder implements WebClient.Builder {
 		if (this.exchangeFunction != null) {
 			return this.exchangeFunction;
 		}
-		else if (this.connector != null) {
-			return ExchangeFunctions.create(this.connector, this.exchangeStrategies);
-		}
-		else {
-			return ExchangeFunctions.create(new ReactorClientHttpConnector(), this.exchangeStrategies);
-		}
+		ClientHttpConnector connector = (this.connector != null ? this.connector : new ReactorClientHttpConnector());
+		return ExchangeFunctions.create(connector, this.exchangeStrategies, this.exchangeListener,
+				this.maxInFlightRequestsPerHost, this.maxQueuedRequestsPerHost);
 	}
 
 	private UriBuilderFactory initUriBuilderFactory() {
@@ -17,18 +17,31 @@
 package org.springframework.web.reactive.function.client;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.log.LogFormatUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.http.client.reactive.ClientHttpResponseDecorator;
 import org.springframework.http.codec.LoggingCodecSupport;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -63,7 +76,38 @@ public abstract class ExchangeFunctions {
 	 * @return the created {@code ExchangeFunction}
 	 */
 	public static ExchangeFunction create(ClientHttpConnector connector, ExchangeStrategies strategies) {
-		return new DefaultExchangeFunction(connector, strategies);
+		return new DefaultExchangeFunction(connector, strategies, null, -1, -1);
+	}
+
+	/**
+	 * Create an {@code ExchangeFunction} with the given {@code ClientHttpConnector}
+	 * and {@code ExchangeStrategies} that notifies the given listener of each
+	 * exchange, and that limits the number of concurrent exchanges per host.
+	 * <p>An exchange occupies an in-flight slot for its host (scheme, host, and
+	 * port) until its response body has been consumed, or until it fails or is
+	 * cancelled. Requests beyond the in-flight limit wait in a queue per host,
+	 * in the order in which they were subscribed to. Requests beyond the queue
+	 * limit fail with a {@link RequestQueueFullException}.
+	 * <p><strong>Note:</strong> as for the connection, the body of each
+	 * {@link ClientResponse} must be consumed or released, e.g. through
+	 * {@code bodyToMono(Void.class)}. A response whose body is never subscribed
+	 * to keeps its in-flight slot, unless the exchange is cancelled, and once the
+	 * limit is reached in this way, further requests to the same host remain queued.
+	 * @param connector the connector to use for connecting to servers
+	 * @param strategies the {@code ExchangeStrategies} to use
+	 * @param listener the listener to notify, if any
+	 * @param maxInFlightRequestsPerHost the maximum number of concurrent exchanges
+	 * per host, or -1 for no limit
+	 * @param maxQueuedRequestsPerHost the maximum number of requests waiting for
+	 * an in-flight slot per host, or -1 for no limit
+	 * @return the created {@code ExchangeFunction}
+	 * @since 5.2
+	 */
+	public static ExchangeFunction create(ClientHttpConnector connector, ExchangeStrategies strategies,
+			@Nullable ExchangeListener listener, int maxInFlightRequestsPerHost, int maxQueuedRequestsPerHost) {
+
+		return new DefaultExchangeFunction(
+				connector, strategies, listener, maxInFlightRequestsPerHost, maxQueuedRequestsPerHost);
 	}
 
 
@@ -73,14 +117,28 @@ public abstract class ExchangeFunctions {
 
 		private final ExchangeStrategies strategies;
 
+		@Nullable
+		private final ExchangeListener listener;
+
+		@Nullable
+		private final HostLimits hostLimits;
+
 		private boolean enableLoggingRequestDetails;
 
 
-		public DefaultExchangeFunction(ClientHttpConnector connector, ExchangeStrategies strategies) {
+		public DefaultExchangeFunction(ClientHttpConnector connector, ExchangeStrategies strategies,
+				@Nullable ExchangeListener listener, int maxInFlightRequestsPerHost, int maxQueuedRequestsPerHost) {
+
 			Assert.notNull(connector, "ClientHttpConnector must not be null");
 			Assert.notNull(strategies, "ExchangeStrategies must not be null");
+			Assert.isTrue(maxInFlightRequestsPerHost == -1 || maxInFlightRequestsPerHost > 0,
+					"'maxInFlightRequestsPerHost' must be positive or -1");
+			Assert.isTrue(maxQueuedRequestsPerHost >= -1, "'maxQueuedRequestsPerHost' must be positive, 0, or -1");
 			this.connector = connector;
 			this.strategies = strategies;
+			this.listener = listener;
+			this.hostLimits = (maxInFlightRequestsPerHost != -1 ?
+					new HostLimits(maxInFlightRequestsPerHost, maxQueuedRequestsPerHost) : null);
 
 			strategies.messageWriters().stream()
 					.filter(LoggingCodecSupport.class::isInstance)
@@ -95,18 +153,32 @@ public abstract class ExchangeFunctions {
 		@Override
 		public Mono<ClientResponse> exchange(ClientRequest clientRequest) {
 			Assert.notNull(clientRequest, "ClientRequest must not be null");
+			if (this.listener == null && this.hostLimits == null) {
+				return connect(clientRequest, null);
+			}
+			return Mono.defer(() -> new Exchange(clientRequest).execute());
+		}
+
+		private Mono<ClientResponse> connect(ClientRequest clientRequest, @Nullable Exchange exchange) {
 			HttpMethod httpMethod = clientRequest.method();
 			URI url = clientRequest.url();
 			String logPrefix = clientRequest.logPrefix();
 
 			return this.connector
-					.connect(httpMethod, url, httpRequest -> clientRequest.writeTo(httpRequest, this.strategies))
+					.connect(httpMethod, url, httpRequest -> {
+						if (exchange != null) {
+							exchange.connectionAcquired();
+						}
+						return clientRequest.writeTo(httpRequest, this.strategies);
+					})
 					.doOnRequest(n -> logRequest(clientRequest))
 					.doOnCancel(() -> logger.debug(logPrefix + "Cancel signal (to close connection)"))
 					.map(httpResponse -> {
 						logResponse(httpResponse, logPrefix);
+						ClientHttpResponse response =
+								(exchange != null ? exchange.responseReceived(httpResponse) : httpResponse);
 						return new DefaultClientResponse(
-								httpResponse, this.strategies, logPrefix, httpMethod.name() + " " + url);
+								response, this.strategies, logPrefix, httpMethod.name() + " " + url);
 					});
 		}
 
@@ -129,6 +201,318 @@ public abstract class ExchangeFunctions {
 		private String formatHeaders(HttpHeaders headers) {
 			return this.enableLoggingRequestDetails ? headers.toString() : headers.isEmpty() ? "{}" : "{masked}";
 		}
+
+
+		/**
+		 * The state of a single exchange with instrumentation and/or host limits.
+		 */
+		private class Exchange {
+
+			private final ClientRequest request;
+
+			private final String host;
+
+			private final long queuedAt = System.nanoTime();
+
+			private volatile long startedAt;
+
+			private volatile long connectionAcquiredAt;
+
+			private volatile long responseReceivedAt;
+
+			private volatile boolean bodySubscribed;
+
+			@Nullable
+			private final Waiter waiter;
+
+			private final AtomicBoolean finished = new AtomicBoolean();
+
+			public Exchange(ClientRequest request) {
+				this.request = request;
+				this.host = hostKey(request.url());
+				this.waiter = (DefaultExchangeFunction.this.hostLimits != null ? new Waiter() : null);
+			}
+
+			public Mono<ClientResponse> execute() {
+				HostLimits hostLimits = DefaultExchangeFunction.this.hostLimits;
+				Mono<Void> slot = (hostLimits != null && this.waiter != null ?
+						hostLimits.acquire(this.host, this.waiter, this::requestQueued) : Mono.empty());
+				return slot
+						.then(Mono.defer(() -> {
+							this.startedAt = System.nanoTime();
+							return connect(this.request, this);
+						}))
+						.doOnSuccess(response -> {
+							if (response == null) {
+								finish(SignalType.ON_COMPLETE, null);
+							}
+						})
+						.doOnError(ex -> finish(SignalType.ON_ERROR, ex))
+						.doOnCancel(() -> {
+							// The response may have been received but dropped before its body was
+							// subscribed to, e.g. on a timeout: don't hold on to the in-flight slot
+							if (!this.bodySubscribed) {
+								finish(SignalType.CANCEL, null);
+							}
+						});
+			}
+
+			private void requestQueued() {
+				ExchangeListener listener = DefaultExchangeFunction.this.listener;
+				if (listener != null) {
+					listener.requestQueued(this.request);
+				}
+			}
+
+			public void connectionAcquired() {
+				this.connectionAcquiredAt = System.nanoTime();
+			}
+
+			public ClientHttpResponse responseReceived(ClientHttpResponse response) {
+				this.responseReceivedAt = System.nanoTime();
+				ExchangeListener listener = DefaultExchangeFunction.this.listener;
+				if (listener != null) {
+					listener.responseReceived(this.request, timings(this.responseReceivedAt));
+				}
+				return new ClientHttpResponseDecorator(response) {
+					@Override
+					public Flux<DataBuffer> getBody() {
+						return super.getBody()
+								.doOnSubscribe(subscription -> Exchange.this.bodySubscribed = true)
+								.doOnComplete(() -> finish(SignalType.ON_COMPLETE, null))
+								.doOnError(ex -> finish(SignalType.ON_ERROR, ex))
+								.doOnCancel(() -> finish(SignalType.CANCEL, null));
+					}
+				};
+			}
+
+			private void finish(SignalType signalType, @Nullable Throwable ex) {
+				if (!this.finished.compareAndSet(false, true)) {
+					return;
+				}
+				if (this.waiter != null) {
+					this.waiter.release();
+				}
+				ExchangeListener listener = DefaultExchangeFunction.this.listener;
+				if (listener != null) {
+					ExchangeTimings timings = timings(System.nanoTime());
+					if (ex != null) {
+						listener.exchangeFailed(this.request, timings, ex);
+					}
+					else if (signalType == SignalType.CANCEL) {
+						listener.exchangeCancelled(this.request, timings);
+					}
+					else {
+						listener.exchangeCompleted(this.request, timings);
+					}
+				}
+			}
+
+			private ExchangeTimings timings(long now) {
+				long startedAt = this.startedAt;
+				if (startedAt == 0) {
+					return new ExchangeTimings(Duration.ofNanos(now - this.queuedAt), null, null, null);
+				}
+				return new ExchangeTimings(Duration.ofNanos(startedAt - this.queuedAt),
+						since(startedAt, this.connectionAcquiredAt),
+						since(startedAt, this.responseReceivedAt),
+						Duration.ofNanos(now - startedAt));
+			}
+
+			@Nullable
+			private Duration since(long startedAt, long time) {
+				return (time != 0 ? Duration.ofNanos(time - startedAt) : null);
+			}
+		}
+	}
+
+
+	private static String hostKey(URI url) {
+		int port = url.getPort();
+		if (port == -1) {
+			port = ("https".equalsIgnoreCase(url.getScheme()) ? 443 : 80);
+		}
+		return url.getScheme() + "://" + url.getHost() + ":" + port;
+	}
+
+
+	/**
+	 * In-flight slots and queued requests for each host.
+	 */
+	private static class HostLimits {
+
+		private final int maxInFlight;
+
+		private final int maxQueued;
+
+		private final Map<String, HostSlots> hosts = new ConcurrentHashMap<>();
+
+		public HostLimits(int maxInFlight, int maxQueued) {
+			this.maxInFlight = maxInFlight;
+			this.maxQueued = maxQueued;
+		}
+
+		/**
+		 * Return a {@code Mono} that completes when the given waiter has obtained
+		 * an in-flight slot for the given host.
+		 */
+		public Mono<Void> acquire(String host, Waiter waiter, Runnable queuedCallback) {
+			return Mono.create(sink -> {
+				Acquisition acquisition;
+				do {
+					HostSlots slots = this.hosts.computeIfAbsent(host, key -> new HostSlots(key, this.hosts));
+					waiter.init(sink, slots);
+					acquisition = slots.acquire(waiter, this.maxInFlight, this.maxQueued);
+				}
+				while (acquisition == Acquisition.RETIRED);
+				switch (acquisition) {
+					case ACQUIRED:
+						sink.success();
+						break;
+					case QUEUED:
+						queuedCallback.run();
+						break;
+					case REJECTED:
+						sink.error(new RequestQueueFullException("Maximum number of queued requests (" +
+								this.maxQueued + ") reached for " + host));
+						break;
+					default:
+						// Cancelled
+				}
+			});
+		}
+	}
+
+
+	private enum Acquisition {ACQUIRED, QUEUED, REJECTED, CANCELLED, RETIRED}
+
+
+	/**
+	 * In-flight slots and queued requests for a single host. Once idle, the
+	 * instance is retired and removed from the map of hosts, and a new one is
+	 * created for the next request to the host.
+	 */
+	private static class HostSlots {
+
+		private final String host;
+
+		private final Map<String, HostSlots> hosts;
+
+		private int inFlight;
+
+		private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+		private boolean retired;
+
+		public HostSlots(String host, Map<String, HostSlots> hosts) {
+			this.host = host;
+			this.hosts = hosts;
+		}
+
+		public synchronized Acquisition acquire(Waiter waiter, int maxInFlight, int maxQueued) {
+			if (this.retired) {
+				return Acquisition.RETIRED;
+			}
+			if (this.inFlight < maxInFlight) {
+				if (!waiter.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) {
+					return Acquisition.CANCELLED;
+				}
+				this.inFlight++;
+				return Acquisition.ACQUIRED;
+			}
+			else if (maxQueued == -1 || this.waiters.size() < maxQueued) {
+				this.waiters.add(waiter);
+				return Acquisition.QUEUED;
+			}
+			else {
+				return Acquisition.REJECTED;
+			}
+		}
+
+		/**
+		 * Release an in-flight slot, handing it over to the next queued request, if any.
+		 */
+		public void release() {
+			Waiter next;
+			boolean retired = false;
+			synchronized (this) {
+				next = this.waiters.poll();
+				if (next == null) {
+					this.inFlight--;
+					retired = (this.inFlight == 0);
+					this.retired = retired;
+				}
+			}
+			if (next != null) {
+				next.grant();
+			}
+			else if (retired) {
+				this.hosts.remove(this.host, this);
+			}
+		}
+
+		public synchronized void remove(Waiter waiter) {
+			this.waiters.remove(waiter);
+		}
+	}
+
+
+	/**
+	 * The claim of a single exchange on an in-flight slot.
+	 */
+	private static class Waiter {
+
+		static final int WAITING = 0;
+
+		static final int GRANTED = 1;
+
+		static final int CANCELLED = 2;
+
+		final AtomicInteger state = new AtomicInteger(WAITING);
+
+		@Nullable
+		private volatile MonoSink<Void> sink;
+
+		@Nullable
+		private volatile HostSlots slots;
+
+		public void init(MonoSink<Void> sink, HostSlots slots) {
+			this.sink = sink;
+			this.slots = slots;
+		}
+
+		/**
+		 * Invoked when a queued waiter is handed an in-flight slot.
+		 */
+		public void grant() {
+			MonoSink<Void> sink = this.sink;
+			HostSlots slots = this.slots;
+			Assert.state(sink != null && slots != null, "Not initialized");
+			if (this.state.compareAndSet(WAITING, GRANTED)) {
+				sink.success();
+			}
+			else {
+				// Released while queued: pass the slot on
+				slots.release();
+			}
+		}
+
+		/**
+		 * Invoked when the exchange has finished, giving up the slot, or the
+		 * place in the queue.
+		 */
+		public void release() {
+			HostSlots slots = this.slots;
+			if (this.state.compareAndSet(WAITING, CANCELLED)) {
+				// If no longer queued, grant() is about to pass the slot on
+				if (slots != null) {
+					slots.remove(this);
+				}
+			}
+			else if (this.state.get() == GRANTED && slots != null) {
+				slots.release();
+			}
+		}
 	}
 
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+/**
+ * Callback interface for instrumenting the exchanges performed by an
+ * {@link ExchangeFunction} created through {@link ExchangeFunctions}, for
+ * instance to record metrics on queueing, connection acquisition and latency.
+ *
+ * <p>For every exchange, exactly one of {@link #exchangeCompleted},
+ * {@link #exchangeFailed}, or {@link #exchangeCancelled} is invoked. Callbacks
+ * are invoked on the thread that signals the corresponding event, typically
+ * an I/O thread, so implementations should not block.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ * @see WebClient.Builder#exchangeListener(ExchangeListener)
+ * @see ExchangeTimings
+ */
+public interface ExchangeListener {
+
+	/**
+	 * Invoked when the given request is queued, since the maximum number of
+	 * in-flight requests for its host has been reached.
+	 * @param request the queued request
+	 */
+	default void requestQueued(ClientRequest request) {
+	}
+
+	/**
+	 * Invoked when the status and headers of the response have been received.
+	 * @param request the request
+	 * @param timings the timings of the exchange so far
+	 */
+	default void responseReceived(ClientRequest request, ExchangeTimings timings) {
+	}
+
+	/**
+	 * Invoked when the response body has been fully consumed.
+	 * @param request the request
+	 * @param timings the timings of the exchange
+	 */
+	default void exchangeCompleted(ClientRequest request, ExchangeTimings timings) {
+	}
+
+	/**
+	 * Invoked when the exchange failed, either before a response was received
+	 * or while reading the response body.
+	 * @param request the request
+	 * @param timings the timings of the exchange up to the failure
+	 * @param ex the failure
+	 */
+	default void exchangeFailed(ClientRequest request, ExchangeTimings timings, Throwable ex) {
+	}
+
+	/**
+	 * Invoked when the exchange was cancelled, either before a response was
+	 * received or while reading the response body.
+	 * @param request the request
+	 * @param timings the timings of the exchange up to the cancellation
+	 */
+	default void exchangeCancelled(ClientRequest request, ExchangeTimings timings) {
+	}
+
+}
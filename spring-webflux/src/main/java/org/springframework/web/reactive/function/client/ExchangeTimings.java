@@ -0,0 +1,102 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.time.Duration;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Timings of a single exchange, as passed to an {@link ExchangeListener}.
+ * Durations of phases that have not been reached are {@code null}.
+ *
+ * <p>Apart from {@link #getQueueTime()}, all durations are measured from the
+ * moment the request is handed to the
+ * {@link org.springframework.http.client.reactive.ClientHttpConnector
+ * ClientHttpConnector}.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ */
+public final class ExchangeTimings {
+
+	private final Duration queueTime;
+
+	@Nullable
+	private final Duration connectionAcquireTime;
+
+	@Nullable
+	private final Duration timeToFirstByte;
+
+	@Nullable
+	private final Duration totalTime;
+
+
+	ExchangeTimings(Duration queueTime, @Nullable Duration connectionAcquireTime,
+			@Nullable Duration timeToFirstByte, @Nullable Duration totalTime) {
+
+		this.queueTime = queueTime;
+		this.connectionAcquireTime = connectionAcquireTime;
+		this.timeToFirstByte = timeToFirstByte;
+		this.totalTime = totalTime;
+	}
+
+
+	/**
+	 * Return the time spent waiting for an in-flight slot for the host,
+	 * or {@link Duration#ZERO} if the request was not queued.
+	 */
+	public Duration getQueueTime() {
+		return this.queueTime;
+	}
+
+	/**
+	 * Return the time it took to obtain a connection and start writing the
+	 * request. This includes waiting for, and acquiring, a pooled connection
+	 * as well as establishing a new connection, since a
+	 * {@code ClientHttpConnector} does not tell those apart.
+	 */
+	@Nullable
+	public Duration getConnectionAcquireTime() {
+		return this.connectionAcquireTime;
+	}
+
+	/**
+	 * Return the time until the status and headers of the response were received.
+	 */
+	@Nullable
+	public Duration getTimeToFirstByte() {
+		return this.timeToFirstByte;
+	}
+
+	/**
+	 * Return the time until the response body was consumed, or the exchange
+	 * failed or was cancelled.
+	 */
+	@Nullable
+	public Duration getTotalTime() {
+		return this.totalTime;
+	}
+
+
+	@Override
+	public String toString() {
+		return "ExchangeTimings[queue=" + this.queueTime + ", connectionAcquire=" + this.connectionAcquireTime +
+				", firstByte=" + this.timeToFirstByte + ", total=" + this.totalTime + "]";
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Reads a response body up to a maximum size, one buffer at a time. If the
+ * body fits, its content is available as a byte array. If not, reading stops,
+ * and the body is available as a {@code Flux} of the buffers read so far,
+ * followed by the rest of the body, which is read only as that {@code Flux}
+ * is consumed. The body is thus never read twice, nor held in memory beyond
+ * the maximum size.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class LimitedBodyReader extends BaseSubscriber<DataBuffer> {
+
+	private final long maxSize;
+
+	private final List<DataBuffer> buffers = new ArrayList<>();
+
+	private long size;
+
+	private final MonoProcessor<LimitedBodyReader> result = MonoProcessor.create();
+
+	private boolean exceeded;
+
+	@Nullable
+	private volatile FluxSink<DataBuffer> sink;
+
+	@Nullable
+	private Throwable error;
+
+	private boolean completed;
+
+
+	private LimitedBodyReader(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+
+	/**
+	 * Read the given body, up to the given maximum size.
+	 * @param body the body to read
+	 * @param maxSize the maximum number of bytes to hold in memory
+	 * @return the reader, once the body has been read in full, or once it
+	 * has turned out to be larger than the maximum size
+	 */
+	public static Mono<LimitedBodyReader> read(Publisher<DataBuffer> body, long maxSize) {
+		return Mono.defer(() -> {
+			LimitedBodyReader reader = new LimitedBodyReader(maxSize);
+			body.subscribe(reader);
+			return reader.result.doOnCancel(reader::cancelIfPending);
+		});
+	}
+
+
+	/**
+	 * Whether the body turned out to be larger than the maximum size.
+	 */
+	public boolean isExceeded() {
+		return this.exceeded;
+	}
+
+	/**
+	 * Return the content of a body that fits within the maximum size.
+	 */
+	public byte[] getContent() {
+		Assert.state(!this.exceeded, "Body exceeds the maximum size");
+		byte[] bytes = new byte[(int) this.size];
+		int offset = 0;
+		for (DataBuffer buffer : this.buffers) {
+			int count = buffer.readableByteCount();
+			buffer.read(bytes, offset, count);
+			offset += count;
+			DataBufferUtils.release(buffer);
+		}
+		this.buffers.clear();
+		return bytes;
+	}
+
+	/**
+	 * Return a body that exceeds the maximum size, to be consumed once: the
+	 * buffers read so far, followed by the rest of the body.
+	 */
+	public Flux<DataBuffer> getBody() {
+		Assert.state(this.exceeded, "Body does not exceed the maximum size");
+		return Flux.fromIterable(this.buffers).concatWith(Flux.create(this::connect));
+	}
+
+
+	@Override
+	protected void hookOnSubscribe(Subscription subscription) {
+		request(1);
+	}
+
+	@Override
+	protected void hookOnNext(DataBuffer buffer) {
+		if (this.exceeded) {
+			FluxSink<DataBuffer> sink = this.sink;
+			Assert.state(sink != null, "No sink");
+			sink.next(buffer);
+			return;
+		}
+		this.buffers.add(buffer);
+		this.size += buffer.readableByteCount();
+		if (this.size > this.maxSize) {
+			this.exceeded = true;
+			this.result.onNext(this);
+		}
+		else {
+			request(1);
+		}
+	}
+
+	@Override
+	protected void hookOnComplete() {
+		if (!this.exceeded) {
+			this.result.onNext(this);
+			return;
+		}
+		synchronized (this) {
+			this.completed = true;
+			FluxSink<DataBuffer> sink = this.sink;
+			if (sink != null) {
+				sink.complete();
+			}
+		}
+	}
+
+	@Override
+	protected void hookOnError(Throwable ex) {
+		if (!this.exceeded) {
+			this.buffers.forEach(DataBufferUtils::release);
+			this.result.onError(ex);
+			return;
+		}
+		synchronized (this) {
+			this.error = ex;
+			FluxSink<DataBuffer> sink = this.sink;
+			if (sink != null) {
+				sink.error(ex);
+			}
+		}
+	}
+
+	@Override
+	protected void hookOnCancel() {
+		if (!this.exceeded) {
+			this.buffers.forEach(DataBufferUtils::release);
+		}
+	}
+
+	private void cancelIfPending() {
+		if (!this.result.isTerminated()) {
+			cancel();
+		}
+	}
+
+	private void connect(FluxSink<DataBuffer> sink) {
+		synchronized (this) {
+			this.sink = sink;
+			if (this.error != null) {
+				sink.error(this.error);
+				return;
+			}
+			else if (this.completed) {
+				sink.complete();
+				return;
+			}
+		}
+		sink.onCancel(this::cancel);
+		sink.onRequest(this::request);
+	}
+
+}
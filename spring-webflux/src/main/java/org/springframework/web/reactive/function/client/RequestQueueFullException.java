@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+/**
+ * Exception published when a request cannot be queued, since both the maximum
+ * number of in-flight requests and the maximum number of queued requests for
+ * its host have been reached.
+ *
+ * @author Rossen Stoyanchev
+ * @since 5.2
+ * @see WebClient.Builder#maxQueuedRequestsPerHost(int)
+ */
+public class RequestQueueFullException extends WebClientException {
+
+	private static final long serialVersionUID = -3163640374498575432L;
+
+
+	/**
+	 * Construct a new instance of {@code RequestQueueFullException} with the given message.
+	 * @param msg the message
+	 */
+	public RequestQueueFullException(String msg) {
+		super(msg);
+	}
+
+}
@@ -302,6 +302,46 @@ public interface WebClient {
 		 */
 		Builder exchangeFunction(ExchangeFunction exchangeFunction);
 
+		/**
+		 * Configure an {@link ExchangeListener} to notify of the queueing, timings,
+		 * and outcome of each exchange.
+		 * <p>This does not apply if an {@link #exchangeFunction ExchangeFunction}
+		 * is provided.
+		 * @param listener the listener to use
+		 * @since 5.2
+		 * @see ExchangeFunctions#create(ClientHttpConnector, ExchangeStrategies, ExchangeListener, int, int)
+		 */
+		Builder exchangeListener(ExchangeListener listener);
+
+		/**
+		 * Configure the maximum number of concurrent exchanges per host. An
+		 * exchange counts towards this limit until its response body has been
+		 * consumed, or until it fails or is cancelled. Further requests are
+		 * queued until an in-flight exchange with the same host finishes.
+		 * <p><strong>Note:</strong> a response whose body is never consumed or
+		 * released keeps its in-flight slot, see {@link ClientResponse}.
+		 * <p>By default this is set to -1, i.e. unlimited, leaving concurrency
+		 * up to the connection pool of the underlying HTTP client library.
+		 * This does not apply if an {@link #exchangeFunction ExchangeFunction}
+		 * is provided.
+		 * @param maxInFlightRequests the maximum number of in-flight requests per
+		 * host, or -1 for no limit
+		 * @since 5.2
+		 * @see #maxQueuedRequestsPerHost(int)
+		 */
+		Builder maxInFlightRequestsPerHost(int maxInFlightRequests);
+
+		/**
+		 * Configure the maximum number of requests per host that may wait for
+		 * an in-flight slot, when {@link #maxInFlightRequestsPerHost(int)} is
+		 * set. Requests beyond that fail with a {@link RequestQueueFullException}.
+		 * <p>By default this is set to -1, i.e. unlimited.
+		 * @param maxQueuedRequests the maximum number of queued requests per
+		 * host, or -1 for no limit
+		 * @since 5.2
+		 */
+		Builder maxQueuedRequestsPerHost(int maxQueuedRequests);
+
 		/**
 		 * Clone this {@code WebClient.Builder}.
 		 */
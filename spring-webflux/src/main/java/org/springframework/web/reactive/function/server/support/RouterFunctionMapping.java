@@ -68,7 +68,7 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 * @param routerFunction the router function to use for mapping
 	 */
 	public RouterFunctionMapping(RouterFunction<?> routerFunction) {
-		this.routerFunction = routerFunction;
+		this.routerFunction = RouterFunctions.compile(routerFunction);
 	}
 
 
@@ -76,7 +76,8 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 * Return the configured {@link RouterFunction}.
 	 * <p><strong>Note:</strong> When router functions are detected from the
 	 * ApplicationContext, this method may return {@code null} if invoked
-	 * prior to {@link #afterPropertiesSet()}.
+	 * prior to {@link #afterPropertiesSet()}. The returned router function is
+	 * {@linkplain RouterFunctions#compile(RouterFunction) compiled}.
 	 * @return the router function or {@code null}
 	 */
 	@Nullable
@@ -109,7 +110,10 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 */
 	protected void initRouterFunctions() {
 		List<RouterFunction<?>> routerFunctions = routerFunctions();
-		this.routerFunction = routerFunctions.stream().reduce(RouterFunction::andOther).orElse(null);
+		this.routerFunction = routerFunctions.stream()
+				.reduce(RouterFunction::andOther)
+				.map(RouterFunctions::compile)
+				.orElse(null);
 		logRouterFunctions(routerFunctions);
 	}
 
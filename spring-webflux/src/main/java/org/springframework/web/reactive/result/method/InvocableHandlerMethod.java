@@ -42,6 +42,8 @@ import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.reactive.BindingContext;
 import org.springframework.web.reactive.HandlerResult;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.observation.ExchangeObservation;
+import org.springframework.web.server.observation.ExchangeObservation.Phase;
 
 /**
  * Extension of {@link HandlerMethod} that invokes the underlying method with
@@ -134,7 +136,10 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	public Mono<HandlerResult> invoke(
 			ServerWebExchange exchange, BindingContext bindingContext, Object... providedArgs) {
 
-		return getMethodArgumentValues(exchange, bindingContext, providedArgs).flatMap(args -> {
+		Mono<Object[]> argumentValues = ExchangeObservation.observe(exchange, Phase.ARGUMENT_RESOLUTION,
+				getMethodArgumentValues(exchange, bindingContext, providedArgs));
+
+		return argumentValues.flatMap(args -> {
 			Object value;
 			try {
 				ReflectionUtils.makeAccessible(getBridgedMethod());
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.support.HttpResponseCache;
+import org.springframework.lang.Nullable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link CachingExchangeFilterFunction}.
+ *
+ * @author Arjen Poutsma
+ */
+public class CachingExchangeFilterFunctionTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+	private final HttpResponseCache cache = new HttpResponseCache(1024);
+
+	private final CachingExchangeFilterFunction filter = new CachingExchangeFilterFunction(this.cache);
+
+	private final List<ClientRequest> exchangedRequests = new ArrayList<>();
+
+	private final List<ClientResponse> responses = new ArrayList<>();
+
+	private final ExchangeFunction exchange = request -> {
+		this.exchangedRequests.add(request);
+		return Mono.just(this.responses.remove(0));
+	};
+
+
+	@Test
+	public void freshResponseFromCache() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("foo").build());
+
+		assertBody("foo");
+		assertBody("foo");
+		assertEquals(1, this.exchangedRequests.size());
+	}
+
+	@Test
+	public void staleResponseRevalidated() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.header(HttpHeaders.ETAG, "\"v1\"")
+				.body("foo").build());
+		this.responses.add(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+		assertBody("foo");
+		this.cache.setClock(Clock.offset(this.cache.getClock(), Duration.ofSeconds(61)));
+		assertBody("foo");
+
+		assertEquals(2, this.exchangedRequests.size());
+		assertNull(this.exchangedRequests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+		assertEquals("\"v1\"", this.exchangedRequests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+	}
+
+	@Test
+	public void responseWithoutFreshnessOrValidatorNotStored() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK).body("foo").build());
+		this.responses.add(ClientResponse.create(HttpStatus.OK).body("bar").build());
+
+		assertBody("foo");
+		assertBody("bar");
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void unsafeMethodInvalidates() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("foo").build());
+		this.responses.add(ClientResponse.create(HttpStatus.NO_CONTENT).build());
+
+		assertBody("foo");
+		assertEquals(1, this.cache.getEntryCount());
+
+		ClientRequest request = ClientRequest.create(HttpMethod.DELETE, URL).build();
+		StepVerifier.create(this.filter.filter(request, this.exchange))
+				.expectNextCount(1)
+				.verifyComplete();
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void responseWithLargerContentLengthNotStored() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.header(HttpHeaders.CONTENT_LENGTH, "2048")
+				.body("foo").build());
+
+		assertBody("foo");
+		assertEquals(1, this.exchangedRequests.size());
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void responseLargerThanMaxSizePassedThrough() {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 1500; i++) {
+			body.append((char) ('a' + i % 26));
+		}
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+				.body(body.toString()).build());
+
+		assertBody(body.toString());
+		assertEquals(1, this.exchangedRequests.size());
+		assertEquals(0, this.cache.getEntryCount());
+	}
+
+	@Test
+	public void responseNotSharedBetweenCredentials() {
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("foo").build());
+		this.responses.add(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CACHE_CONTROL, "max-age=60").body("bar").build());
+
+		assertBody("Bearer foo", "foo");
+		assertBody("Bearer bar", "bar");
+		assertBody("Bearer foo", "foo");
+		assertEquals(2, this.exchangedRequests.size());
+	}
+
+
+	private void assertBody(String expected) {
+		assertBody(null, expected);
+	}
+
+	private void assertBody(@Nullable String authorization, String expected) {
+		ClientRequest request = ClientRequest.create(HttpMethod.GET, URL)
+				.headers(headers -> {
+					if (authorization != null) {
+						headers.set(HttpHeaders.AUTHORIZATION, authorization);
+					}
+				})
+				.build();
+		StepVerifier.create(this.filter.filter(request, this.exchange)
+				.flatMap(response -> response.bodyToMono(String.class)))
+				.expectNext(expected)
+				.verifyComplete();
+	}
+
+}
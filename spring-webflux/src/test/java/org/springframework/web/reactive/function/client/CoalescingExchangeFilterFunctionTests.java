@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.publisher.MonoProcessor;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link CoalescingExchangeFilterFunction}.
+ *
+ * @author Arjen Poutsma
+ */
+public class CoalescingExchangeFilterFunctionTests {
+
+	private static final URI URL = URI.create("https://example.com/resource");
+
+	private final CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction(HttpHeaders.ACCEPT);
+
+	private final List<MonoProcessor<ClientResponse>> exchanges = new ArrayList<>();
+
+	private final ExchangeFunction exchange = request -> {
+		MonoProcessor<ClientResponse> processor = MonoProcessor.create();
+		this.exchanges.add(processor);
+		return processor;
+	};
+
+
+	@Test
+	public void concurrentRequestsShareResponse() {
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange)
+					.flatMap(response -> response.bodyToMono(String.class))
+					.subscribe(bodies::add);
+		}
+		assertEquals(1, this.exchanges.size());
+		assertTrue(bodies.isEmpty());
+
+		this.exchanges.get(0).onNext(ClientResponse.create(HttpStatus.OK).body("foo").build());
+		assertEquals(3, bodies.size());
+		assertTrue(bodies.stream().allMatch("foo"::equals));
+
+		// No longer in flight
+		this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange).subscribe();
+		assertEquals(2, this.exchanges.size());
+	}
+
+	@Test
+	public void differentHeaderValues() {
+		this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange).subscribe();
+		this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_XML), this.exchange).subscribe();
+		assertEquals(2, this.exchanges.size());
+	}
+
+	@Test
+	public void differentCredentials() {
+		CoalescingExchangeFilterFunction filter = new CoalescingExchangeFilterFunction();
+		filter.filter(ClientRequest.create(HttpMethod.GET, URL)
+				.header(HttpHeaders.AUTHORIZATION, "Bearer foo").build(), this.exchange).subscribe();
+		filter.filter(ClientRequest.create(HttpMethod.GET, URL)
+				.header(HttpHeaders.AUTHORIZATION, "Bearer bar").build(), this.exchange).subscribe();
+		filter.filter(ClientRequest.create(HttpMethod.GET, URL)
+				.cookie("SESSION", "foo").build(), this.exchange).subscribe();
+		assertEquals(3, this.exchanges.size());
+	}
+
+	@Test
+	public void uncontendedResponsePassedThrough() {
+		List<ClientResponse> responses = new ArrayList<>();
+		this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange)
+				.subscribe(responses::add);
+		ClientResponse response = ClientResponse.create(HttpStatus.OK).body("foo").build();
+		this.exchanges.get(0).onNext(response);
+
+		assertEquals(1, responses.size());
+		assertSame(response, responses.get(0));
+	}
+
+	@Test
+	public void bodyLargerThanMaxInMemorySizeNotShared() {
+		this.filter.setMaxInMemorySize(2);
+		List<String> bodies = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange)
+					.flatMap(response -> response.bodyToMono(String.class))
+					.subscribe(bodies::add);
+		}
+		this.exchanges.get(0).onNext(ClientResponse.create(HttpStatus.OK).body("foo").build());
+		assertEquals(Collections.singletonList("foo"), bodies);
+
+		assertEquals(2, this.exchanges.size());
+		this.exchanges.get(1).onNext(ClientResponse.create(HttpStatus.OK).body("bar").build());
+		assertEquals(Arrays.asList("foo", "bar"), bodies);
+	}
+
+	@Test
+	public void errorShared() {
+		List<Throwable> errors = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			this.filter.filter(request(HttpMethod.GET, MediaType.APPLICATION_JSON), this.exchange)
+					.subscribe(response -> {}, errors::add);
+		}
+		this.exchanges.get(0).onError(new IllegalStateException("Connection refused"));
+		assertEquals(2, errors.size());
+		assertEquals(1, this.exchanges.size());
+	}
+
+	@Test
+	public void unsafeMethodNotCoalesced() {
+		this.filter.filter(request(HttpMethod.POST, MediaType.APPLICATION_JSON), this.exchange).subscribe();
+		this.filter.filter(request(HttpMethod.POST, MediaType.APPLICATION_JSON), this.exchange).subscribe();
+		assertEquals(2, this.exchanges.size());
+	}
+
+
+	private static ClientRequest request(HttpMethod method, MediaType accept) {
+		return ClientRequest.create(method, URL).header(HttpHeaders.ACCEPT, accept.toString()).build();
+	}
+
+}
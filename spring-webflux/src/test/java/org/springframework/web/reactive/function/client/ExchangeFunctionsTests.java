@@ -0,0 +1,237 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.reactive.function.client;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpRequest;
+import org.springframework.mock.http.client.reactive.test.MockClientHttpResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link ExchangeFunctions}.
+ *
+ * @author Rossen Stoyanchev
+ */
+public class ExchangeFunctionsTests {
+
+	private static final URI URL = URI.create("https://example.com/foo");
+
+	private final ClientHttpConnector connector = (method, uri, requestCallback) ->
+			requestCallback.apply(new MockClientHttpRequest(method, uri))
+					.then(Mono.fromSupplier(() -> {
+						MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+						response.setBody("body");
+						return response;
+					}));
+
+	private final RecordingListener listener = new RecordingListener();
+
+
+	@Test
+	public void listener() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), this.listener, -1, -1);
+
+		ClientResponse response = function.exchange(request(URL)).block();
+		assertNotNull(response);
+		assertEquals(1, this.listener.events.size());
+		assertEquals("responseReceived", this.listener.events.get(0));
+
+		assertEquals("body", response.bodyToMono(String.class).block());
+		assertEquals(2, this.listener.events.size());
+		assertEquals("exchangeCompleted", this.listener.events.get(1));
+
+		ExchangeTimings timings = this.listener.timings;
+		assertNotNull(timings);
+		assertNotNull(timings.getConnectionAcquireTime());
+		assertNotNull(timings.getTimeToFirstByte());
+		assertNotNull(timings.getTotalTime());
+		assertTrue(timings.getTotalTime().compareTo(timings.getTimeToFirstByte()) >= 0);
+	}
+
+	@Test
+	public void listenerWithFailure() {
+		ClientHttpConnector connector = (method, uri, requestCallback) ->
+				Mono.error(new IllegalStateException("Connection refused"));
+		ExchangeFunction function = ExchangeFunctions.create(
+				connector, ExchangeStrategies.withDefaults(), this.listener, -1, -1);
+
+		StepVerifier.create(function.exchange(request(URL)))
+				.expectError(IllegalStateException.class)
+				.verify();
+
+		assertEquals(1, this.listener.events.size());
+		assertEquals("exchangeFailed", this.listener.events.get(0));
+		assertNotNull(this.listener.timings);
+		assertNull(this.listener.timings.getTimeToFirstByte());
+	}
+
+	@Test
+	public void maxInFlightRequestsPerHost() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), this.listener, 1, -1);
+
+		ClientResponse first = function.exchange(request(URL)).block();
+		assertNotNull(first);
+
+		List<ClientResponse> responses = new ArrayList<>();
+		function.exchange(request(URL)).subscribe(responses::add);
+		assertTrue(responses.isEmpty());
+		assertTrue(this.listener.events.contains("requestQueued"));
+
+		// Other hosts are not affected
+		ClientResponse other = function.exchange(request(URI.create("https://example.org/foo"))).block();
+		assertNotNull(other);
+
+		// Consuming the body releases the slot for the queued request
+		first.bodyToMono(Void.class).block();
+		assertEquals(1, responses.size());
+		assertEquals("body", responses.get(0).bodyToMono(String.class).block());
+	}
+
+	@Test
+	public void maxInFlightRequestsPerHostWithUnconsumedBody() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), null, 1, -1);
+
+		// The body of the response is never subscribed to
+		HttpStatus status = function.exchange(request(URL)).map(ClientResponse::statusCode).block();
+		assertEquals(HttpStatus.OK, status);
+
+		List<ClientResponse> responses = new ArrayList<>();
+		function.exchange(request(URL)).subscribe(responses::add);
+		assertTrue(responses.isEmpty());
+	}
+
+	@Test
+	public void cancelAfterResponseReceived() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), this.listener, 1, -1);
+
+		// Cancelled, e.g. on a timeout, after the response arrived but before its body was subscribed to
+		function.exchange(request(URL)).subscribe(new BaseSubscriber<ClientResponse>() {
+			@Override
+			protected void hookOnNext(ClientResponse response) {
+				cancel();
+			}
+		});
+		assertTrue(this.listener.events.contains("exchangeCancelled"));
+
+		StepVerifier.create(function.exchange(request(URL)))
+				.expectNextCount(1)
+				.verifyComplete();
+	}
+
+	@Test
+	public void maxQueuedRequestsPerHost() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), null, 1, 0);
+
+		ClientResponse first = function.exchange(request(URL)).block();
+		assertNotNull(first);
+
+		StepVerifier.create(function.exchange(request(URL)))
+				.expectError(RequestQueueFullException.class)
+				.verify();
+
+		first.bodyToMono(Void.class).block();
+
+		StepVerifier.create(function.exchange(request(URL)))
+				.expectNextCount(1)
+				.verifyComplete();
+	}
+
+	@Test
+	public void cancelWhileQueued() {
+		ExchangeFunction function = ExchangeFunctions.create(
+				this.connector, ExchangeStrategies.withDefaults(), this.listener, 1, 1);
+
+		ClientResponse first = function.exchange(request(URL)).block();
+		assertNotNull(first);
+
+		Disposable queued = function.exchange(request(URL)).subscribe();
+		queued.dispose();
+		assertTrue(this.listener.events.contains("exchangeCancelled"));
+
+		// The place in the queue has been given up
+		List<ClientResponse> responses = new ArrayList<>();
+		function.exchange(request(URL)).subscribe(responses::add);
+		assertTrue(responses.isEmpty());
+
+		first.bodyToMono(Void.class).block();
+		assertEquals(1, responses.size());
+	}
+
+
+	private static ClientRequest request(URI url) {
+		return ClientRequest.create(HttpMethod.GET, url).build();
+	}
+
+
+	private static class RecordingListener implements ExchangeListener {
+
+		private final List<String> events = new ArrayList<>();
+
+		private ExchangeTimings timings;
+
+		@Override
+		public void requestQueued(ClientRequest request) {
+			this.events.add("requestQueued");
+		}
+
+		@Override
+		public void responseReceived(ClientRequest request, ExchangeTimings timings) {
+			this.events.add("responseReceived");
+			this.timings = timings;
+		}
+
+		@Override
+		public void exchangeCompleted(ClientRequest request, ExchangeTimings timings) {
+			this.events.add("exchangeCompleted");
+			this.timings = timings;
+		}
+
+		@Override
+		public void exchangeFailed(ClientRequest request, ExchangeTimings timings, Throwable ex) {
+			this.events.add("exchangeFailed");
+			this.timings = timings;
+		}
+
+		@Override
+		public void exchangeCancelled(ClientRequest request, ExchangeTimings timings) {
+			this.events.add("exchangeCancelled");
+			this.timings = timings;
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
@@ -39,6 +40,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
@@ -55,6 +57,7 @@ import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.JettyClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.codec.Pojo;
+import org.springframework.util.ClassUtils;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -82,10 +85,18 @@ public class WebClientIntegrationTests {
 
 	@Parameterized.Parameters(name = "webClient [{0}]")
 	public static Object[][] arguments() {
-		return new Object[][] {
-				{new JettyClientHttpConnector()},
-				{new ReactorClientHttpConnector()}
-		};
+		List<Object[]> arguments = new ArrayList<>();
+		arguments.add(new Object[] {new JettyClientHttpConnector()});
+		arguments.add(new Object[] {new ReactorClientHttpConnector()});
+		// Only compiled and usable on JDK 11 and higher
+		String jdkConnector = "org.springframework.http.client.reactive.JdkClientHttpConnector";
+		ClassLoader classLoader = WebClientIntegrationTests.class.getClassLoader();
+		if (ClassUtils.isPresent("java.net.http.HttpClient", classLoader) &&
+				ClassUtils.isPresent(jdkConnector, classLoader)) {
+			arguments.add(new Object[] {BeanUtils.instantiateClass(
+					ClassUtils.resolveClassName(jdkConnector, classLoader), ClientHttpConnector.class)});
+		}
+		return arguments.toArray(new Object[0][]);
 	}
 
 
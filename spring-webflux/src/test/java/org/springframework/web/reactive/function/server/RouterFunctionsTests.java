@@ -16,14 +16,17 @@
 
 package org.springframework.web.reactive.function.server;
 
+import java.net.URI;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.server.reactive.HttpHandler;
@@ -123,6 +126,67 @@ public class RouterFunctionsTests {
 				.verify();
 	}
 
+	@Test
+	public void compile() {
+		HandlerFunction<ServerResponse> listUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> createUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+		AtomicInteger tested = new AtomicInteger();
+		RequestPredicate counting = request -> tested.incrementAndGet() < 0;
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.route(counting.and(RequestPredicates.GET("/orders")), listUsers)
+				.path("/users", builder -> builder
+						.GET("/{id}", getUser)
+						.route(RequestPredicates.method(HttpMethod.GET), listUsers)
+						.route(RequestPredicates.method(HttpMethod.POST), createUser))
+				.route(request -> true, fallback)
+				.build();
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(routerFunction);
+		assertEquals(routerFunction.toString(), compiled.toString());
+
+		assertRoute(compiled, MockServerRequest.builder().uri(URI.create("/users/1")), getUser);
+		assertRoute(compiled, MockServerRequest.builder().uri(URI.create("/Users")), fallback);
+		assertRoute(compiled, MockServerRequest.builder().uri(URI.create("/users")), listUsers);
+		assertRoute(compiled, MockServerRequest.builder().method(HttpMethod.POST).uri(URI.create("/users")),
+				createUser);
+		assertRoute(compiled, MockServerRequest.builder().method(HttpMethod.DELETE).uri(URI.create("/users")),
+				fallback);
+		assertEquals(0, tested.get());
+
+		assertRoute(compiled, MockServerRequest.builder().uri(URI.create("/orders")), fallback);
+		assertEquals(1, tested.get());
+	}
+
+	@Test
+	public void compileFiltered() {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> filteredHandlerFunction = request -> ServerResponse.accepted().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", handlerFunction)
+				.GET("/bar", handlerFunction)
+				.filter((request, next) -> filteredHandlerFunction.handle(request))
+				.build();
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(routerFunction);
+
+		MockServerRequest request = MockServerRequest.builder().uri(URI.create("/bar")).build();
+		StepVerifier.create(compiled.route(request).flatMap(result -> result.handle(request)))
+				.consumeNextWith(response -> assertEquals(HttpStatus.ACCEPTED, response.statusCode()))
+				.expectComplete()
+				.verify();
+	}
+
+	private static void assertRoute(RouterFunction<ServerResponse> routerFunction,
+			MockServerRequest.Builder requestBuilder, HandlerFunction<ServerResponse> expected) {
+
+		StepVerifier.create(routerFunction.route(requestBuilder.build()))
+				.expectNext(expected)
+				.expectComplete()
+				.verify();
+	}
+
 	@Test
 	public void toHttpHandlerNormal() {
 		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.accepted().build();
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2002-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.function;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index over the routes of a composed {@link RouterFunction}, keyed by HTTP
+ * method and first path segment.
+ *
+ * <p>Each route is analysed once, through {@link RouterFunctions.Visitor} and
+ * {@link RequestPredicates.Visitor}, to determine the HTTP methods and the
+ * literal first path segment it can possibly match. Routes for which this cannot
+ * be determined, for instance because they use custom predicates, are always
+ * considered. {@link #candidates(ServerRequest)} returns routes in their original
+ * order, so evaluating the candidates in turn yields the same result as
+ * evaluating the entire composition.
+ *
+ * @author Arjen Poutsma
+ * @since 5.2
+ */
+class RouteTable {
+
+	private static final RouterFunction<?>[] EMPTY_ROUTES = new RouterFunction<?>[0];
+
+	private final RouterFunction<?>[] routes;
+
+	private final Map<HttpMethod, MethodIndex> methodIndexes = new EnumMap<>(HttpMethod.class);
+
+
+	public RouteTable(List<RouterFunction<?>> routes) {
+		this.routes = routes.toArray(EMPTY_ROUTES);
+		Guard[] guards = new Guard[this.routes.length];
+		for (int i = 0; i < this.routes.length; i++) {
+			GuardVisitor visitor = new GuardVisitor();
+			this.routes[i].accept(visitor);
+			guards[i] = visitor.getGuard();
+		}
+		for (HttpMethod method : HttpMethod.values()) {
+			this.methodIndexes.put(method, new MethodIndex(method, this.routes, guards));
+		}
+	}
+
+
+	/**
+	 * Return all routes in this table, in their original order.
+	 */
+	public RouterFunction<?>[] routes() {
+		return this.routes;
+	}
+
+	/**
+	 * Return the routes that might match the given request, in their original order.
+	 */
+	public RouterFunction<?>[] candidates(ServerRequest request) {
+		HttpMethod method = request.method();
+		MethodIndex index = (method != null ? this.methodIndexes.get(method) : null);
+		if (index == null) {
+			return this.routes;
+		}
+		return index.candidates(firstPathSegment(request.path()));
+	}
+
+	/**
+	 * Return the first segment of the given raw request path, as it would be
+	 * matched by a pattern: without path parameters, decoded and lower-cased.
+	 * The path is scanned directly, since {@link ServerRequest#pathContainer()}
+	 * parses all of it on every call.
+	 */
+	@Nullable
+	private static String firstPathSegment(String path) {
+		if (!path.startsWith("/")) {
+			return null;
+		}
+		int end = path.indexOf('/', 1);
+		if (end == 1) {
+			return null;
+		}
+		end = (end != -1 ? end : path.length());
+		int paramsStart = path.indexOf(';', 1);
+		if (paramsStart != -1 && paramsStart < end) {
+			end = paramsStart;
+		}
+		String segment = path.substring(1, end);
+		if (segment.indexOf('%') != -1) {
+			segment = StringUtils.uriDecode(segment, StandardCharsets.UTF_8);
+		}
+		return toLowerCase(segment);
+	}
+
+	/**
+	 * Return the first path segment of the given pattern, if it is a literal.
+	 */
+	@Nullable
+	private static String firstSegment(String pattern) {
+		if (!pattern.startsWith("/")) {
+			return null;
+		}
+		int end = pattern.indexOf('/', 1);
+		String segment = (end != -1 ? pattern.substring(1, end) : pattern.substring(1));
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			if (c == '{' || c == '}' || c == '*' || c == '?') {
+				return null;
+			}
+		}
+		return (!segment.isEmpty() ? toLowerCase(segment) : null);
+	}
+
+	/**
+	 * Lower-case the given value character by character, like a case-insensitive
+	 * {@link org.springframework.web.util.pattern.PathPattern} does, so that
+	 * segments are grouped regardless of the case sensitivity of the pattern.
+	 * The value itself is returned if it is lower case already.
+	 */
+	private static String toLowerCase(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (Character.toLowerCase(value.charAt(i)) != value.charAt(i)) {
+				char[] chars = value.toCharArray();
+				for (int j = i; j < chars.length; j++) {
+					chars[j] = Character.toLowerCase(chars[j]);
+				}
+				return new String(chars);
+			}
+		}
+		return value;
+	}
+
+
+	/**
+	 * The candidate routes for a specific HTTP method.
+	 */
+	private static class MethodIndex {
+
+		private final RouterFunction<?>[] all;
+
+		private final RouterFunction<?>[] unconstrained;
+
+		private final Map<String, RouterFunction<?>[]> bySegment = new HashMap<>();
+
+		public MethodIndex(HttpMethod method, RouterFunction<?>[] routes, Guard[] guards) {
+			List<RouterFunction<?>> all = new ArrayList<>();
+			List<RouterFunction<?>> unconstrained = new ArrayList<>();
+			Map<String, List<RouterFunction<?>>> bySegment = new HashMap<>();
+			for (int i = 0; i < routes.length; i++) {
+				Guard guard = guards[i];
+				if (!guard.matches(method)) {
+					continue;
+				}
+				RouterFunction<?> route = routes[i];
+				all.add(route);
+				if (guard.segment == null) {
+					unconstrained.add(route);
+					bySegment.values().forEach(segmentRoutes -> segmentRoutes.add(route));
+				}
+				else {
+					bySegment.computeIfAbsent(guard.segment, segment -> new ArrayList<>(unconstrained)).add(route);
+				}
+			}
+			this.all = all.toArray(EMPTY_ROUTES);
+			this.unconstrained = unconstrained.toArray(EMPTY_ROUTES);
+			bySegment.forEach((segment, segmentRoutes) ->
+					this.bySegment.put(segment, segmentRoutes.toArray(EMPTY_ROUTES)));
+		}
+
+		public RouterFunction<?>[] candidates(@Nullable String segment) {
+			if (segment == null) {
+				return this.all;
+			}
+			RouterFunction<?>[] routes = this.bySegment.get(segment);
+			return (routes != null ? routes : this.unconstrained);
+		}
+	}
+
+
+	/**
+	 * Necessary conditions for a route to match: the HTTP methods and the literal
+	 * first path segment, where {@code null} means unconstrained.
+	 */
+	private static class Guard {
+
+		static final Guard ANY = new Guard(null, null, false);
+
+		static final Guard UNKNOWN = new Guard(null, null, true);
+
+		@Nullable
+		final Set<HttpMethod> methods;
+
+		@Nullable
+		final String segment;
+
+		/**
+		 * Whether the predicate tests (or, when nested, consumes) the path.
+		 */
+		final boolean pathAware;
+
+		Guard(@Nullable Set<HttpMethod> methods, @Nullable String segment, boolean pathAware) {
+			this.methods = methods;
+			this.segment = segment;
+			this.pathAware = pathAware;
+		}
+
+		boolean matches(HttpMethod method) {
+			return (this.methods == null || this.methods.contains(method));
+		}
+
+		/**
+		 * Combine this guard with the given one, both of which need to match. When
+		 * nested, the right-hand side is applied to the path remaining after the left.
+		 */
+		Guard and(Guard other, boolean nested) {
+			String segment = (this.segment != null || (nested && this.pathAware) ? this.segment : other.segment);
+			return new Guard(intersect(this.methods, other.methods), segment, this.pathAware || other.pathAware);
+		}
+
+		Guard or(Guard other) {
+			Set<HttpMethod> methods = null;
+			if (this.methods != null && other.methods != null) {
+				methods = copy(this.methods);
+				methods.addAll(other.methods);
+			}
+			String segment = (this.segment != null && this.segment.equals(other.segment) ? this.segment : null);
+			return new Guard(methods, segment, this.pathAware || other.pathAware);
+		}
+
+		Guard negate() {
+			return (this.pathAware ? UNKNOWN : ANY);
+		}
+
+		/**
+		 * Combine this guard, as context of enclosing nested routes, with the
+		 * guard of a predicate applied to the nested request. Path constraints
+		 * are relative to the nested path once an enclosing predicate has been
+		 * path aware, so the latter are only taken into account before that.
+		 */
+		Guard nest(Guard other) {
+			Set<HttpMethod> methods = intersect(this.methods, other.methods);
+			if (this.pathAware) {
+				return new Guard(methods, this.segment, true);
+			}
+			else {
+				return new Guard(methods, other.segment, other.pathAware);
+			}
+		}
+
+		@Nullable
+		private static Set<HttpMethod> intersect(@Nullable Set<HttpMethod> first, @Nullable Set<HttpMethod> second) {
+			if (first == null || second == null) {
+				return (first != null ? first : second);
+			}
+			Set<HttpMethod> result = copy(first);
+			result.retainAll(second);
+			return result;
+		}
+
+		static Set<HttpMethod> copy(Set<HttpMethod> methods) {
+			Set<HttpMethod> result = EnumSet.noneOf(HttpMethod.class);
+			result.addAll(methods);
+			return result;
+		}
+	}
+
+
+	/**
+	 * Visitor that determines the {@link Guard} of a single route.
+	 */
+	private static class GuardVisitor implements RouterFunctions.Visitor, RequestPredicates.Visitor {
+
+		private final Deque<Guard> nested = new ArrayDeque<>();
+
+		private final Deque<Guard> predicates = new ArrayDeque<>();
+
+		private boolean evaluatingNested;
+
+		@Nullable
+		private Guard result;
+
+		public GuardVisitor() {
+			this.nested.push(Guard.ANY);
+		}
+
+		public Guard getGuard() {
+			return (this.result != null ? this.result : Guard.UNKNOWN);
+		}
+
+		private Guard evaluate(RequestPredicate predicate, boolean nested) {
+			this.evaluatingNested = nested;
+			this.predicates.clear();
+			predicate.accept(this);
+			Guard guard = (this.predicates.size() == 1 ? this.predicates.pop() : Guard.UNKNOWN);
+			this.predicates.clear();
+			return guard;
+		}
+
+		private void addRoute(Guard guard) {
+			Guard route = this.nested.element().nest(guard);
+			this.result = (this.result != null ? this.result.or(route) : route);
+		}
+
+		private Guard pop() {
+			return (!this.predicates.isEmpty() ? this.predicates.pop() : Guard.UNKNOWN);
+		}
+
+		// RouterFunctions.Visitor
+
+		@Override
+		public void startNested(RequestPredicate predicate) {
+			this.nested.push(this.nested.element().nest(evaluate(predicate, true)));
+		}
+
+		@Override
+		public void endNested(RequestPredicate predicate) {
+			this.nested.pop();
+		}
+
+		@Override
+		public void route(RequestPredicate predicate, HandlerFunction<?> handlerFunction) {
+			addRoute(evaluate(predicate, false));
+		}
+
+		@Override
+		public void resources(Function<ServerRequest, Optional<Resource>> lookupFunction) {
+			addRoute(Guard.UNKNOWN);
+		}
+
+		@Override
+		public void unknown(RouterFunction<?> routerFunction) {
+			addRoute(Guard.UNKNOWN);
+		}
+
+		// RequestPredicates.Visitor
+
+		@Override
+		public void method(Set<HttpMethod> methods) {
+			this.predicates.push(new Guard(Guard.copy(methods), null, false));
+		}
+
+		@Override
+		public void path(String pattern) {
+			this.predicates.push(new Guard(null, firstSegment(pattern), true));
+		}
+
+		@Override
+		public void pathExtension(String extension) {
+			this.predicates.push(Guard.ANY);
+		}
+
+		@Override
+		public void header(String name, String value) {
+			this.predicates.push(Guard.ANY);
+		}
+
+		@Override
+		public void param(String name, String value) {
+			this.predicates.push(Guard.ANY);
+		}
+
+		@Override
+		public void startAnd() {
+		}
+
+		@Override
+		public void and() {
+		}
+
+		@Override
+		public void endAnd() {
+			Guard right = pop();
+			this.predicates.push(pop().and(right, this.evaluatingNested));
+		}
+
+		@Override
+		public void startOr() {
+		}
+
+		@Override
+		public void or() {
+		}
+
+		@Override
+		public void endOr() {
+			Guard right = pop();
+			this.predicates.push(pop().or(right));
+		}
+
+		@Override
+		public void startNegate() {
+		}
+
+		@Override
+		public void endNegate() {
+			this.predicates.push(pop().negate());
+		}
+
+		@Override
+		public void unknown(RequestPredicate predicate) {
+			this.predicates.push(Guard.UNKNOWN);
+		}
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.web.servlet.function;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -168,6 +171,74 @@ public abstract class RouterFunctions {
 		return new ResourcesRouterFunction(lookupFunction);
 	}
 
+	/**
+	 * Compile the given router function into an equivalent one that dispatches
+	 * on an index of its routes.
+	 * <p>A router function composed through {@link RouterFunction#and(RouterFunction)},
+	 * {@link #nest(RequestPredicate, RouterFunction)}, or the {@linkplain #route() builder}
+	 * is otherwise evaluated as a chain, testing the predicates of every route until one
+	 * matches. The compiled router function analyses the composition once, through a
+	 * {@link Visitor}, and indexes its routes by HTTP method and first path segment, so
+	 * that a request is only tested against the routes that can possibly match it. The
+	 * predicates of those candidates are still evaluated in the original order, and the
+	 * same applies within nested router functions.
+	 * <p>Router functions used by
+	 * {@link org.springframework.web.servlet.function.support.RouterFunctionMapping}
+	 * are compiled automatically.
+	 * @param routerFunction the router function to compile
+	 * @param <T> the type of response returned by the handler function
+	 * @return a router function that routes the same as {@code routerFunction}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends ServerResponse> RouterFunction<T> compile(RouterFunction<T> routerFunction) {
+		Assert.notNull(routerFunction, "RouterFunction must not be null");
+		if (routerFunction instanceof CompiledRouterFunction) {
+			return routerFunction;
+		}
+		List<RouterFunction<?>> routes = new ArrayList<>();
+		flatten(routerFunction, routes);
+		if (routes.size() == 1) {
+			return (RouterFunction<T>) routes.get(0);
+		}
+		return new CompiledRouterFunction<>(new RouteTable(routes));
+	}
+
+	/**
+	 * Add the routes of the given router function to the given list, pushing filters
+	 * down to the individual routes and compiling nested router functions.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static void flatten(RouterFunction<?> routerFunction, List<RouterFunction<?>> routes) {
+		if (routerFunction instanceof SameComposedRouterFunction) {
+			SameComposedRouterFunction<?> composed = (SameComposedRouterFunction<?>) routerFunction;
+			flatten(composed.first, routes);
+			flatten(composed.second, routes);
+		}
+		else if (routerFunction instanceof DifferentComposedRouterFunction) {
+			DifferentComposedRouterFunction composed = (DifferentComposedRouterFunction) routerFunction;
+			flatten(composed.first, routes);
+			flatten(composed.second, routes);
+		}
+		else if (routerFunction instanceof FilteredRouterFunction) {
+			FilteredRouterFunction filtered = (FilteredRouterFunction) routerFunction;
+			List<RouterFunction<?>> filteredRoutes = new ArrayList<>();
+			flatten(filtered.routerFunction, filteredRoutes);
+			for (RouterFunction<?> route : filteredRoutes) {
+				routes.add(new FilteredRouterFunction(route, filtered.filterFunction));
+			}
+		}
+		else if (routerFunction instanceof DefaultNestedRouterFunction) {
+			DefaultNestedRouterFunction<?> nested = (DefaultNestedRouterFunction<?>) routerFunction;
+			routes.add(new DefaultNestedRouterFunction<>(nested.predicate, compile(nested.routerFunction)));
+		}
+		else if (routerFunction instanceof CompiledRouterFunction) {
+			routes.addAll(Arrays.asList(((CompiledRouterFunction<?>) routerFunction).routeTable.routes()));
+		}
+		else {
+			routes.add(routerFunction);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	static <T extends ServerResponse> HandlerFunction<T> cast(HandlerFunction<?> handlerFunction) {
 		return (HandlerFunction<T>) handlerFunction;
@@ -863,6 +934,39 @@ public abstract class RouterFunctions {
 
 	}
 
+	/**
+	 * A router function that only evaluates the routes of a {@link RouteTable}
+	 * that can possibly match a given request, in their original order.
+	 * @param <T> the server response type
+	 */
+	static final class CompiledRouterFunction<T extends ServerResponse> extends AbstractRouterFunction<T> {
+
+		private final RouteTable routeTable;
+
+		public CompiledRouterFunction(RouteTable routeTable) {
+			this.routeTable = routeTable;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Optional<HandlerFunction<T>> route(ServerRequest request) {
+			for (RouterFunction<?> route : this.routeTable.candidates(request)) {
+				Optional<? extends HandlerFunction<?>> result = route.route(request);
+				if (result.isPresent()) {
+					return (Optional<HandlerFunction<T>>) result;
+				}
+			}
+			return Optional.empty();
+		}
+
+		@Override
+		public void accept(Visitor visitor) {
+			for (RouterFunction<?> route : this.routeTable.routes()) {
+				route.accept(visitor);
+			}
+		}
+	}
+
 	private static class ResourcesRouterFunction extends  AbstractRouterFunction<ServerResponse> {
 
 		private final Function<ServerRequest, Optional<Resource>> lookupFunction;
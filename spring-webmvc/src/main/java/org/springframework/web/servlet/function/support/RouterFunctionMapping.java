@@ -74,7 +74,7 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 * @param routerFunction the router function to use for mapping
 	 */
 	public RouterFunctionMapping(RouterFunction<?> routerFunction) {
-		this.routerFunction = routerFunction;
+		this.routerFunction = RouterFunctions.compile(routerFunction);
 	}
 
 	/**
@@ -82,14 +82,15 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 	 * <p>If this property is used, no application context detection will occur.
 	 */
 	public void setRouterFunction(@Nullable RouterFunction<?> routerFunction) {
-		this.routerFunction = routerFunction;
+		this.routerFunction = (routerFunction != null ? RouterFunctions.compile(routerFunction) : null);
 	}
 
 	/**
 	 * Return the configured {@link RouterFunction}.
 	 * <p><strong>Note:</strong> When router functions are detected from the
 	 * ApplicationContext, this method may return {@code null} if invoked
-	 * prior to {@link #afterPropertiesSet()}.
+	 * prior to {@link #afterPropertiesSet()}. The returned router function is
+	 * {@linkplain RouterFunctions#compile(RouterFunction) compiled}.
 	 * @return the router function or {@code null}
 	 */
 	@Nullable
@@ -141,6 +142,7 @@ public class RouterFunctionMapping extends AbstractHandlerMapping implements Ini
 		}
 		this.routerFunction = routerFunctions.stream()
 				.reduce(RouterFunction::andOther)
+				.map(RouterFunctions::compile)
 				.orElse(null);
 	}
 
@@ -45,6 +45,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.server.NonBlockingServletServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.lang.Nullable;
@@ -56,7 +57,11 @@ import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.accept.PathExtensionContentNegotiationStrategy;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.UrlPathHelper;
 
@@ -105,6 +110,11 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 
 	private final Set<String> safeExtensions = new HashSet<>();
 
+	private boolean nonBlockingResponseWrite = false;
+
+	@Nullable
+	private Long nonBlockingResponseWriteTimeout;
+
 
 	/**
 	 * Constructor with list of converters only.
@@ -144,6 +154,43 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 	}
 
 
+	/**
+	 * Whether to collect the response body in memory and write it to the client
+	 * with Servlet 3.1 non-blocking I/O, releasing the request thread while the
+	 * content drains, for requests that support asynchronous processing.
+	 * <p>The write is carried out as asynchronous request processing through the
+	 * {@link WebAsyncManager}, with a {@link DeferredResult} that is completed
+	 * once all content has been written. The request is then dispatched back to
+	 * the container, so that interceptors and filters complete as they would for
+	 * any other asynchronously handled request.
+	 * <p>By default this is set to "false".
+	 * @since 5.2
+	 * @see NonBlockingServletServerHttpResponse
+	 */
+	public void setNonBlockingResponseWrite(boolean nonBlockingResponseWrite) {
+		this.nonBlockingResponseWrite = nonBlockingResponseWrite;
+	}
+
+	/**
+	 * Whether {@link #setNonBlockingResponseWrite non-blocking response writes} are enabled.
+	 * @since 5.2
+	 */
+	public boolean isNonBlockingResponseWrite() {
+		return this.nonBlockingResponseWrite;
+	}
+
+	/**
+	 * Specify the amount of time, in milliseconds, for a
+	 * {@link #setNonBlockingResponseWrite non-blocking response write} to complete.
+	 * <p>If this value is not set, the default asynchronous timeout of the
+	 * underlying implementation is used.
+	 * @since 5.2
+	 */
+	public void setNonBlockingResponseWriteTimeout(long timeout) {
+		this.nonBlockingResponseWriteTimeout = timeout;
+	}
+
+
 	/**
 	 * Creates a new {@link HttpOutputMessage} from the given {@link NativeWebRequest}.
 	 * @param webRequest the web request to create an output message from
@@ -152,9 +199,55 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 	protected ServletServerHttpResponse createOutputMessage(NativeWebRequest webRequest) {
 		HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
 		Assert.state(response != null, "No HttpServletResponse");
+		if (this.nonBlockingResponseWrite) {
+			HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+			if (request != null && request.isAsyncSupported() && !request.isAsyncStarted()) {
+				return new NonBlockingServletServerHttpResponse(response);
+			}
+		}
 		return new ServletServerHttpResponse(response);
 	}
 
+	/**
+	 * Complete the given output message once the return value has been written.
+	 * Content collected for a {@link #setNonBlockingResponseWrite non-blocking write}
+	 * is written through asynchronous request processing, started via the
+	 * {@link WebAsyncManager}, or with blocking I/O if no
+	 * {@code ModelAndViewContainer} is available to resume processing with.
+	 * @param outputMessage the output message to complete
+	 * @param webRequest the current request
+	 * @param mavContainer the container for the current request, if any
+	 * @since 5.2
+	 */
+	protected void completeOutputMessage(ServletServerHttpResponse outputMessage,
+			NativeWebRequest webRequest, @Nullable ModelAndViewContainer mavContainer) throws IOException {
+
+		if (!(outputMessage instanceof NonBlockingServletServerHttpResponse)) {
+			return;
+		}
+		NonBlockingServletServerHttpResponse response = (NonBlockingServletServerHttpResponse) outputMessage;
+		if (mavContainer == null || !response.hasContent()) {
+			response.close();
+			return;
+		}
+
+		DeferredResult<Object> deferredResult = new DeferredResult<>(this.nonBlockingResponseWriteTimeout);
+		deferredResult.onTimeout(response::release);
+		deferredResult.onError(ex -> response.release());
+		try {
+			WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
+		}
+		catch (IOException | RuntimeException ex) {
+			response.release();
+			throw ex;
+		}
+		catch (Exception ex) {
+			response.release();
+			throw new IllegalStateException("Failed to start non-blocking response write", ex);
+		}
+		response.writeContent(() -> deferredResult.setResult(null), deferredResult::setErrorResult);
+	}
+
 	/**
 	 * Writes the given return value to the given web request. Delegates to
 	 * {@link #writeWithMessageConverters(Object, MethodParameter, ServletServerHttpRequest, ServletServerHttpResponse)}
@@ -165,6 +258,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		ServletServerHttpRequest inputMessage = createInputMessage(webRequest);
 		ServletServerHttpResponse outputMessage = createOutputMessage(webRequest);
 		writeWithMessageConverters(value, returnType, inputMessage, outputMessage);
+		completeOutputMessage(outputMessage, webRequest, null);
 	}
 
 	/**
@@ -226,6 +226,7 @@ public class HttpEntityMethodProcessor extends AbstractMessageConverterMethodPro
 
 		// Ensure headers are flushed even if no body was written.
 		outputMessage.flush();
+		completeOutputMessage(outputMessage, webRequest, mavContainer);
 	}
 
 	private List<String> getVaryRequestHeadersToAdd(HttpHeaders responseHeaders, HttpHeaders entityHeaders) {
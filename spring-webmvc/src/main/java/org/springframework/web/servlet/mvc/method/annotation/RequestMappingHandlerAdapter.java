@@ -169,6 +169,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private boolean ignoreDefaultModelOnRedirect = false;
 
+	private boolean nonBlockingResponseWrite = false;
+
 	private int cacheSecondsForSessionAttributeHandlers = 0;
 
 	private boolean synchronizeOnSession = false;
@@ -472,6 +474,21 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		this.ignoreDefaultModelOnRedirect = ignoreDefaultModelOnRedirect;
 	}
 
+	/**
+	 * Whether {@code @ResponseBody} and {@code HttpEntity} return values should be
+	 * serialized into memory and then written with Servlet 3.1 non-blocking I/O,
+	 * releasing the request thread while the content drains to the client.
+	 * <p>By default this is set to "false". This applies to the built-in return
+	 * value handlers only, i.e. not if {@link #setReturnValueHandlers} is used.
+	 * <p>The write is bounded by the {@link #setAsyncRequestTimeout async request
+	 * timeout}, if set, or otherwise by the default timeout of the container.
+	 * @since 5.2
+	 * @see AbstractMessageConverterMethodProcessor#setNonBlockingResponseWrite
+	 */
+	public void setNonBlockingResponseWrite(boolean nonBlockingResponseWrite) {
+		this.nonBlockingResponseWrite = nonBlockingResponseWrite;
+	}
+
 	/**
 	 * Specify the strategy to store session attributes with. The default is
 	 * {@link org.springframework.web.bind.support.DefaultSessionAttributeStore},
@@ -722,8 +739,13 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		handlers.add(new ResponseBodyEmitterReturnValueHandler(getMessageConverters(),
 				this.reactiveAdapterRegistry, this.taskExecutor, this.contentNegotiationManager));
 		handlers.add(new StreamingResponseBodyReturnValueHandler());
-		handlers.add(new HttpEntityMethodProcessor(getMessageConverters(),
-				this.contentNegotiationManager, this.requestResponseBodyAdvice));
+		HttpEntityMethodProcessor httpEntityProcessor = new HttpEntityMethodProcessor(getMessageConverters(),
+				this.contentNegotiationManager, this.requestResponseBodyAdvice);
+		httpEntityProcessor.setNonBlockingResponseWrite(this.nonBlockingResponseWrite);
+		if (this.asyncRequestTimeout != null) {
+			httpEntityProcessor.setNonBlockingResponseWriteTimeout(this.asyncRequestTimeout);
+		}
+		handlers.add(httpEntityProcessor);
 		handlers.add(new HttpHeadersReturnValueHandler());
 		handlers.add(new CallableMethodReturnValueHandler());
 		handlers.add(new DeferredResultMethodReturnValueHandler());
@@ -731,8 +753,13 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 		// Annotation-based return value types
 		handlers.add(new ModelAttributeMethodProcessor(false));
-		handlers.add(new RequestResponseBodyMethodProcessor(getMessageConverters(),
-				this.contentNegotiationManager, this.requestResponseBodyAdvice));
+		RequestResponseBodyMethodProcessor responseBodyProcessor = new RequestResponseBodyMethodProcessor(
+				getMessageConverters(), this.contentNegotiationManager, this.requestResponseBodyAdvice);
+		responseBodyProcessor.setNonBlockingResponseWrite(this.nonBlockingResponseWrite);
+		if (this.asyncRequestTimeout != null) {
+			responseBodyProcessor.setNonBlockingResponseWriteTimeout(this.asyncRequestTimeout);
+		}
+		handlers.add(responseBodyProcessor);
 
 		// Multi-purpose return value types
 		handlers.add(new ViewNameMethodReturnValueHandler());
@@ -178,6 +178,7 @@ public class RequestResponseBodyMethodProcessor extends AbstractMessageConverter
 
 		// Try even with null return value. ResponseBodyAdvice could get involved.
 		writeWithMessageConverters(returnValue, returnType, inputMessage, outputMessage);
+		completeOutputMessage(outputMessage, webRequest, mavContainer);
 	}
 
 }
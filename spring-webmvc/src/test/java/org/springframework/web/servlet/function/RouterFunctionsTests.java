@@ -18,9 +18,12 @@ package org.springframework.web.servlet.function;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 
 import static org.junit.Assert.assertEquals;
@@ -105,4 +108,62 @@ public class RouterFunctionsTests {
 		assertFalse(resultHandlerFunction.isPresent());
 	}
 
+	@Test
+	public void compile() {
+		HandlerFunction<ServerResponse> listUsers = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> getUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> createUser = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> fallback = request -> ServerResponse.ok().build();
+		AtomicInteger tested = new AtomicInteger();
+		RequestPredicate counting = request -> tested.incrementAndGet() < 0;
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.route(counting.and(RequestPredicates.GET("/orders")), listUsers)
+				.path("/users", builder -> builder
+						.GET("/{id}", getUser)
+						.route(RequestPredicates.method(HttpMethod.GET), listUsers)
+						.route(RequestPredicates.method(HttpMethod.POST), createUser))
+				.route(request -> true, fallback)
+				.build();
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(routerFunction);
+		assertEquals(routerFunction.toString(), compiled.toString());
+
+		assertEquals(getUser, route(compiled, "GET", "/users/1"));
+		assertEquals(fallback, route(compiled, "GET", "/Users"));
+		assertEquals(listUsers, route(compiled, "GET", "/users"));
+		assertEquals(createUser, route(compiled, "POST", "/users"));
+		assertEquals(fallback, route(compiled, "DELETE", "/users"));
+		assertEquals(0, tested.get());
+
+		assertEquals(fallback, route(compiled, "GET", "/orders"));
+		assertEquals(1, tested.get());
+	}
+
+	@Test
+	public void compileFiltered() throws Exception {
+		HandlerFunction<ServerResponse> handlerFunction = request -> ServerResponse.ok().build();
+		HandlerFunction<ServerResponse> filteredHandlerFunction = request -> ServerResponse.accepted().build();
+
+		RouterFunction<ServerResponse> routerFunction = RouterFunctions.route()
+				.GET("/foo", handlerFunction)
+				.GET("/bar", handlerFunction)
+				.filter((request, next) -> filteredHandlerFunction.handle(request))
+				.build();
+		RouterFunction<ServerResponse> compiled = RouterFunctions.compile(routerFunction);
+
+		ServerRequest request = new DefaultServerRequest(
+				new MockHttpServletRequest("GET", "/bar"), Collections.emptyList());
+		Optional<HandlerFunction<ServerResponse>> result = compiled.route(request);
+		assertTrue(result.isPresent());
+		assertEquals(HttpStatus.ACCEPTED, result.get().handle(request).statusCode());
+	}
+
+	private static HandlerFunction<ServerResponse> route(RouterFunction<ServerResponse> routerFunction,
+			String method, String path) {
+
+		ServerRequest request = new DefaultServerRequest(
+				new MockHttpServletRequest(method, path), Collections.emptyList());
+		return routerFunction.route(request).orElse(null);
+	}
+
 }
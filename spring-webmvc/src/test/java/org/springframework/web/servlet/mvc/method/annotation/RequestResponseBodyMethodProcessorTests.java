@@ -21,10 +21,14 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -64,6 +68,9 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.servlet.ModelAndView;
@@ -74,6 +81,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -310,6 +318,55 @@ public class RequestResponseBodyMethodProcessorTests {
 		assertEquals("Foo", servletResponse.getContentAsString());
 	}
 
+	@Test
+	public void handleReturnValueStringWithNonBlockingWrite() throws Exception {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		AtomicReference<WriteListener> writeListener = new AtomicReference<>();
+		ServletOutputStream outputStream = new ServletOutputStream() {
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener listener) {
+				writeListener.set(listener);
+			}
+
+			@Override
+			public void write(int b) {
+				content.write(b);
+			}
+		};
+		this.servletResponse = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				return outputStream;
+			}
+		};
+		this.servletRequest.setAsyncSupported(true);
+		this.request = new ServletWebRequest(this.servletRequest, this.servletResponse);
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.request);
+		asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(this.servletRequest, this.servletResponse));
+
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(new StringHttpMessageConverter());
+		RequestResponseBodyMethodProcessor processor = new RequestResponseBodyMethodProcessor(converters);
+		processor.setNonBlockingResponseWrite(true);
+		processor.handleReturnValue("Foo", returnTypeString, container, request);
+
+		assertTrue(asyncManager.isConcurrentHandlingStarted());
+		assertFalse(asyncManager.hasConcurrentResult());
+		assertEquals(3, servletResponse.getContentLength());
+		assertEquals(0, content.size());
+
+		writeListener.get().onWritePossible();
+		assertEquals("Foo", new String(content.toByteArray(), StandardCharsets.ISO_8859_1));
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertNull(asyncManager.getConcurrentResult());
+		assertSame(container, asyncManager.getConcurrentResultContext()[0]);
+	}
+
 	@Test  // SPR-13423
 	public void handleReturnValueCharSequence() throws Exception {
 		List<HttpMessageConverter<?>>converters = new ArrayList<>();